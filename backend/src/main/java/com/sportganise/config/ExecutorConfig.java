@@ -0,0 +1,118 @@
+package com.sportganise.config;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the thread pools. Each pool of background work has a fixed number of
+ * daemon threads and a bounded queue, and finishes the tasks already queued when the application
+ * stops.
+ */
+@Configuration
+public class ExecutorConfig {
+
+  /** Name of the pool sending emails. */
+  public static final String EMAIL_SENDER_EXECUTOR = "emailSenderExecutor";
+
+  /** Name of the pool uploading program attachments. */
+  public static final String ATTACHMENT_UPLOAD_EXECUTOR = "attachmentUploadExecutor";
+
+  /** Name of the pool notifying participants promoted from the waitlist. */
+  public static final String WAITLIST_NOTIFICATION_EXECUTOR = "waitlistNotificationExecutor";
+
+  /**
+   * Pool of the asynchronous requests, such as streamed schedule feeds. Spring Boot only defines it
+   * when the context has no executor of its own, so it is declared here next to the other pools,
+   * with the spring.task.execution properties.
+   *
+   * @param builder Builder configured from the spring.task.execution properties.
+   * @return the pool.
+   */
+  @Lazy
+  @Primary
+  @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+    return builder.build();
+  }
+
+  /**
+   * Pool sending emails. When its queue is full, emails are rejected so that the caller is not
+   * blocked.
+   *
+   * @param poolSize Number of threads sending emails.
+   * @param queueCapacity Maximum number of emails waiting to be sent.
+   * @return the pool.
+   */
+  @Bean(EMAIL_SENDER_EXECUTOR)
+  public ThreadPoolTaskExecutor emailSenderExecutor(
+      @Value("${email.async.threads:4}") int poolSize,
+      @Value("${email.async.queue-capacity:1000}") int queueCapacity) {
+    return boundedExecutor(
+        "email-sender-", poolSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy(), 30);
+  }
+
+  /**
+   * Pool uploading program attachments. When its queue is full, the caller uploads the file itself.
+   *
+   * @param poolSize Number of threads uploading files.
+   * @param queueCapacity Maximum number of files waiting to be uploaded.
+   * @return the pool.
+   */
+  @Bean(ATTACHMENT_UPLOAD_EXECUTOR)
+  public ThreadPoolTaskExecutor attachmentUploadExecutor(
+      @Value("${programs.attachments.upload-threads:4}") int poolSize,
+      @Value("${programs.attachments.upload-queue-capacity:100}") int queueCapacity) {
+    return boundedExecutor(
+        "attachment-upload-",
+        poolSize,
+        queueCapacity,
+        new ThreadPoolExecutor.CallerRunsPolicy(),
+        30);
+  }
+
+  /**
+   * Pool notifying participants promoted from the waitlist. When its queue is full, the caller
+   * sends the notification itself, which slows promotions down instead of dropping notifications.
+   *
+   * @param poolSize Number of threads sending notifications.
+   * @param queueCapacity Maximum number of notifications waiting to be sent.
+   * @return the pool.
+   */
+  @Bean(WAITLIST_NOTIFICATION_EXECUTOR)
+  public ThreadPoolTaskExecutor waitlistNotificationExecutor(
+      @Value("${programs.waitlist.notification-threads:2}") int poolSize,
+      @Value("${programs.waitlist.notification-queue-capacity:500}") int queueCapacity) {
+    return boundedExecutor(
+        "waitlist-notification-",
+        poolSize,
+        queueCapacity,
+        new ThreadPoolExecutor.CallerRunsPolicy(),
+        10);
+  }
+
+  private static ThreadPoolTaskExecutor boundedExecutor(
+      String threadNamePrefix,
+      int poolSize,
+      int queueCapacity,
+      RejectedExecutionHandler rejectedExecutionHandler,
+      int awaitTerminationSeconds) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix(threadNamePrefix);
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setDaemon(true);
+    executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+    return executor;
+  }
+}
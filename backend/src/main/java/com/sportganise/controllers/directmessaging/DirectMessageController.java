@@ -38,23 +38,28 @@ public class DirectMessageController {
 
   /**
    * Gets messages dynamically in a message channel in chunks of 30. Starts with 30 most recent
-   * messages. API Endpoint (null lastSentAt): GET
-   * /api/messaging/directmessage/get-messages/{channelId} API Endpoint (with lastSentAt): GET
+   * messages. API Endpoint (first page): GET /api/messaging/directmessage/get-messages/{channelId}
+   * API Endpoint (next pages): GET
    * /api/messaging/directmessage/get-messages/{channelId}?lastSentAt={lastSentAt}
+   * &amp;lastMessageId={lastMessageId}, with the sentAt and ID of the last message received.
    *
    * @param channelId The ID of the channel.
+   * @param lastSentAt The sentAt of the last message of the previous page.
+   * @param lastMessageId The ID of the last message of the previous page.
    * @return ResponseEntity with a list of DirectMessageDto objects.
    */
   @GetMapping("/get-messages/{channelId}")
   public ResponseEntity<ResponseDto<List<DirectMessageDto>>> getChannelMessages(
-      @PathVariable int channelId, @RequestParam(required = false) String lastSentAt) {
+      @PathVariable int channelId,
+      @RequestParam(required = false) String lastSentAt,
+      @RequestParam(required = false) Integer lastMessageId) {
     ZonedDateTime lastSentAtDateTime = null;
     if (lastSentAt != null && !lastSentAt.isEmpty()) {
       lastSentAtDateTime = ZonedDateTime.parse(lastSentAt);
     }
 
     List<DirectMessageDto> messages =
-        directMessageService.getChannelMessages(channelId, lastSentAtDateTime);
+        directMessageService.getChannelMessages(channelId, lastSentAtDateTime, lastMessageId);
 
     ResponseDto<List<DirectMessageDto>> response =
         ResponseDto.<List<DirectMessageDto>>builder()
@@ -0,0 +1,78 @@
+package com.sportganise.controllers.programsessions;
+
+import com.sportganise.dto.ResponseDto;
+import com.sportganise.dto.programsessions.AttendanceStatsDto;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.AttendanceStatsService;
+import java.time.YearMonth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST Controller for the attendance statistics of players and programs. */
+@RestController
+@RequestMapping("/api/programs")
+@Slf4j
+public class AttendanceStatsController {
+  private final AttendanceStatsService attendanceStatsService;
+  private final AccountService accountService;
+
+  @Autowired
+  public AttendanceStatsController(
+      AttendanceStatsService attendanceStatsService, AccountService accountService) {
+    this.attendanceStatsService = attendanceStatsService;
+    this.accountService = accountService;
+  }
+
+  /**
+   * Get mapping for the monthly attendance of a player across all programs.
+   *
+   * @param accountId Id of the player.
+   * @param from First month, as yyyy-MM. Defaults to 11 months before the last month.
+   * @param to Last month, as yyyy-MM. Defaults to the current month.
+   * @return HTTP Response with the attendance of the player.
+   */
+  @GetMapping("/{accountId}/attendance-stats")
+  public ResponseEntity<ResponseDto<AttendanceStatsDto>> getAccountAttendanceStats(
+      @PathVariable Integer accountId,
+      @RequestParam(required = false) YearMonth from,
+      @RequestParam(required = false) YearMonth to) {
+    accountService.getAccount(accountId);
+
+    ResponseDto<AttendanceStatsDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Attendance statistics successfully fetched.");
+    responseDto.setData(attendanceStatsService.getAccountStats(accountId, from, to));
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
+  /**
+   * Get mapping for the monthly attendance of a program across all its recurrences.
+   *
+   * @param accountId Id of user who is making the request.
+   * @param programId Id of the program.
+   * @param from First month, as yyyy-MM. Defaults to 11 months before the last month.
+   * @param to Last month, as yyyy-MM. Defaults to the current month.
+   * @return HTTP Response with the attendance of the program.
+   */
+  @GetMapping("/{accountId}/{programId}/attendance-stats")
+  public ResponseEntity<ResponseDto<AttendanceStatsDto>> getProgramAttendanceStats(
+      @PathVariable Integer accountId,
+      @PathVariable Integer programId,
+      @RequestParam(required = false) YearMonth from,
+      @RequestParam(required = false) YearMonth to) {
+    accountService.getAccount(accountId);
+
+    ResponseDto<AttendanceStatsDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Attendance statistics successfully fetched.");
+    responseDto.setData(attendanceStatsService.getProgramStats(programId, from, to));
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+}
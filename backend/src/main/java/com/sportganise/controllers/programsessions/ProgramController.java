@@ -2,16 +2,23 @@ package com.sportganise.controllers.programsessions;
 
 import com.sportganise.dto.ResponseDto;
 import com.sportganise.dto.programsessions.CancelProgramDto;
+import com.sportganise.dto.programsessions.ProgramCacheStatsDto;
+import com.sportganise.dto.programsessions.ProgramCalendarPageDto;
 import com.sportganise.dto.programsessions.ProgramCreateRequestDto;
 import com.sportganise.dto.programsessions.ProgramDetailsParticipantsDto;
 import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramImportDefinitionDto;
+import com.sportganise.dto.programsessions.ProgramImportResultDto;
 import com.sportganise.dto.programsessions.ProgramModifyRequestDto;
 import com.sportganise.entities.account.Account;
 import com.sportganise.exceptions.ForbiddenException;
 import com.sportganise.exceptions.programexceptions.ProgramCreationException;
 import com.sportganise.exceptions.programexceptions.ProgramModificationException;
+import com.sportganise.exceptions.programexceptions.ScheduleConflictException;
 import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramImportService;
 import com.sportganise.services.programsessions.ProgramService;
+import java.time.ZonedDateTime;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,11 +46,23 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class ProgramController {
   private final ProgramService programService;
+  private final ProgramImportService programImportService;
   private final AccountService accountService;
 
+  /**
+   * Constructor for ProgramController.
+   *
+   * @param programService Service for programs.
+   * @param programImportService Service importing many programs at once.
+   * @param accountService Service for accounts.
+   */
   @Autowired
-  public ProgramController(ProgramService programService, AccountService accountService) {
+  public ProgramController(
+      ProgramService programService,
+      ProgramImportService programImportService,
+      AccountService accountService) {
     this.programService = programService;
+    this.programImportService = programImportService;
     this.accountService = accountService;
   }
 
@@ -85,6 +104,63 @@ public class ProgramController {
     return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
   }
 
+  /**
+   * Get mapping for one page of the program calendar inside a date window.
+   *
+   * @param accountId Id of account
+   * @param from Start of the window, inclusive.
+   * @param to End of the window, exclusive.
+   * @param cursorDate Next cursor date returned by the previous page.
+   * @param cursorId Next cursor id returned by the previous page.
+   * @param limit Maximum number of occurrences to return.
+   * @return HTTP Response
+   */
+  @GetMapping("/{accountId}/calendar")
+  public ResponseEntity<ResponseDto<ProgramCalendarPageDto>> getProgramCalendar(
+      @PathVariable Integer accountId,
+      @RequestParam ZonedDateTime from,
+      @RequestParam ZonedDateTime to,
+      @RequestParam(required = false) ZonedDateTime cursorDate,
+      @RequestParam(required = false) Integer cursorId,
+      @RequestParam(defaultValue = "100") int limit) {
+
+    Account user = this.accountService.getAccount(accountId);
+    log.debug("USER ID (calendar): {}", user.getAccountId());
+
+    ProgramCalendarPageDto calendarPage =
+        programService.getProgramCalendar(
+            from, to, cursorDate, cursorId, limit, hasPermissions(user));
+    log.debug("CALENDAR PAGE COUNT (calendar): {}", calendarPage.getPrograms().size());
+
+    ResponseDto<ProgramCalendarPageDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Programs successfully fetched.");
+    responseDto.setData(calendarPage);
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
+  /**
+   * Get mapping for the hit, miss and eviction counts of the program cache.
+   *
+   * @param accountId Id of user who is making the request.
+   * @return HTTP Response with the statistics of the program cache.
+   */
+  @GetMapping("/{accountId}/cache-stats")
+  public ResponseEntity<ResponseDto<ProgramCacheStatsDto>> getCacheStats(
+      @PathVariable Integer accountId) {
+    Account user = getAccount(accountId);
+    if (!hasPermissions(user)) {
+      throw new ForbiddenException(
+          "User with id: " + accountId + " does not have permission to view cache statistics.");
+    }
+
+    ResponseDto<ProgramCacheStatsDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Cache statistics successfully fetched.");
+    responseDto.setData(programService.getCacheStats());
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
   /**
    * Post mapping for creating new program.
    *
@@ -146,11 +222,42 @@ public class ProgramController {
               .data(newProgramDto)
               .build();
       return ResponseEntity.status(HttpStatus.CREATED.value()).body(responseDto);
+    } catch (ScheduleConflictException e) {
+      throw e;
     } catch (Exception e) {
       throw new ProgramCreationException("Failed to create program: " + e.getMessage());
     }
   }
 
+  /**
+   * Post mapping for creating the programs of a season at once. The programs are validated together
+   * and either all of them are created or none.
+   *
+   * @param accountId Id of user who is making the request.
+   * @param definitions Programs to create, with the accounts to enroll in each of them.
+   * @return HTTP Response with the ids of the created programs.
+   */
+  @PostMapping("/{accountId}/import-programs")
+  public ResponseEntity<ResponseDto<ProgramImportResultDto>> importPrograms(
+      @PathVariable Integer accountId, @RequestBody List<ProgramImportDefinitionDto> definitions) {
+    Account user = getAccount(accountId);
+    if (!hasPermissions(user)) {
+      throw new ForbiddenException(
+          "User with id: " + accountId + " does not have permission to import programs.");
+    }
+
+    ProgramImportResultDto importResult =
+        programImportService.importPrograms(accountId, definitions);
+
+    ResponseDto<ProgramImportResultDto> responseDto =
+        ResponseDto.<ProgramImportResultDto>builder()
+            .statusCode(HttpStatus.CREATED.value())
+            .message("Imported " + importResult.getProgramIds().size() + " programs successfully.")
+            .data(importResult)
+            .build();
+    return ResponseEntity.status(HttpStatus.CREATED.value()).body(responseDto);
+  }
+
   /**
    * POST mapping for modifying/updating an existing program.
    *
@@ -216,11 +323,41 @@ public class ProgramController {
       responseDto.setMessage("Modified the program successfully.");
       responseDto.setData(updatedProgramDto);
       return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+    } catch (ScheduleConflictException e) {
+      throw e;
     } catch (Exception e) {
       throw new ProgramModificationException("Program modification failed: " + e.getMessage());
     }
   }
 
+  /**
+   * POST mapping for giving one occurrence of a recurring program its own recurrence, so that it
+   * can be cancelled or joined through the recurrence endpoints. Restricted to the program's owners
+   * and admins.
+   *
+   * @param accountId Id of user who is making the request.
+   * @param programId Id of the program.
+   * @param occurrenceDate Date and time of the occurrence.
+   * @return HTTP Response with the occurrence and its recurrence id.
+   */
+  @PostMapping("/{accountId}/{programId}/materialize-occurrence")
+  public ResponseEntity<ResponseDto<ProgramDto>> materializeOccurrence(
+      @PathVariable Integer accountId,
+      @PathVariable Integer programId,
+      @RequestParam ZonedDateTime occurrenceDate) {
+    Account user = getAccount(accountId);
+    log.debug("USER ID (materialize-occurrence): {}", user.getAccountId());
+
+    ProgramDto occurrence =
+        programService.materializeOccurrence(accountId, programId, occurrenceDate);
+
+    ResponseDto<ProgramDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Occurrence fetched successfully.");
+    responseDto.setData(occurrence);
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
   /**
    * DELETE mapping for deleting a program.
    *
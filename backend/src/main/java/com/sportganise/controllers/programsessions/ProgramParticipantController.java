@@ -1,11 +1,14 @@
 package com.sportganise.controllers.programsessions;
 
 import com.sportganise.dto.ResponseDto;
+import com.sportganise.dto.programsessions.AttendanceDto;
 import com.sportganise.dto.programsessions.DetailedProgramParticipantDto;
+import com.sportganise.dto.programsessions.InvitationStatusDto;
 import com.sportganise.dto.programsessions.ProgramDto;
 import com.sportganise.dto.programsessions.ProgramParticipantDto;
 import com.sportganise.exceptions.ParticipantNotFoundException;
 import com.sportganise.exceptions.ResourceNotFoundException;
+import com.sportganise.services.programsessions.ProgramInvitationService;
 import com.sportganise.services.programsessions.WaitlistService;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +19,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,15 +30,19 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/program-participant")
 public class ProgramParticipantController {
   private final WaitlistService waitlistService;
+  private final ProgramInvitationService programInvitationService;
 
   /**
    * Constructor for ProgramParticipantController.
    *
    * @param waitlistService Service for managing the waitlist and participant operations.
+   * @param programInvitationService Service inviting accounts to private programs in bulk.
    */
   @Autowired
-  public ProgramParticipantController(WaitlistService waitlistService) {
+  public ProgramParticipantController(
+      WaitlistService waitlistService, ProgramInvitationService programInvitationService) {
     this.waitlistService = waitlistService;
+    this.programInvitationService = programInvitationService;
   }
 
   /**
@@ -262,7 +270,38 @@ public class ProgramParticipantController {
   }
 
   /**
-   * Marks a participant as unabsent for a program by setting isConfirmed to true.
+   * Marks the attendance of a whole roster for a program at once.
+   *
+   * @param reccurenceId The ID of the program.
+   * @param roster Attendance of each participant of the roster.
+   * @return ResponseDto with status 200 OK along with the participants of the roster once marked.
+   */
+  @PatchMapping("/mark-attendance")
+  public ResponseEntity<ResponseDto<List<ProgramParticipantDto>>> markAttendance(
+      @RequestParam Integer reccurenceId, @RequestBody List<AttendanceDto> roster) {
+    log.info(
+        "Marking attendance of {} participants. reccurenceId: {}", roster.size(), reccurenceId);
+
+    try {
+      List<ProgramParticipantDto> participants =
+          waitlistService.markAttendance(reccurenceId, roster);
+      ResponseDto<List<ProgramParticipantDto>> responseDto =
+          ResponseDto.<List<ProgramParticipantDto>>builder()
+              .statusCode(HttpStatus.OK.value())
+              .message("Attendance marked successfully")
+              .data(participants)
+              .build();
+      return ResponseEntity.ok(responseDto);
+    } catch (ParticipantNotFoundException e) {
+      log.error(
+          "Mark attendance failed. reccurenceId: {}. Error: {}", reccurenceId, e.getMessage());
+      throw new ResourceNotFoundException(e.getMessage());
+    }
+  }
+
+  /**
+   * Marks a participant as unabsent for a program, confirming them again while it has a spot left
+   * or putting them in its waitlist.
    *
    * @param reccurenceId The ID of the program.
    * @param accountId The ID of the participant's account.
@@ -339,7 +378,24 @@ public class ProgramParticipantController {
   }
 
   /**
-   * RSVPS a user to a program.
+   * Invites several users to a private program at once. Invitation emails are sent in the
+   * background, so the response does not wait for them.
+   *
+   * @param programId The program to invite the users to
+   * @param accountIds The users to invite
+   * @return The outcome of the invitation of each user.
+   */
+  @PostMapping("/invite-private-bulk")
+  public ResponseEntity<ResponseDto<List<InvitationStatusDto>>> inviteAllToPrivateEvent(
+      @RequestParam Integer programId, @RequestBody List<Integer> accountIds) {
+    log.info("Inviting {} participants to private program: {}", accountIds.size(), programId);
+
+    List<InvitationStatusDto> statuses = programInvitationService.inviteAll(programId, accountIds);
+    return ResponseDto.ok(statuses, "Invitations successfully processed.");
+  }
+
+  /**
+   * RSVPS a user to a program. Once the program is full, the user joins its waitlist instead.
    *
    * @param accountId The user to invite
    * @param programId The program to invite the user to
@@ -352,19 +408,21 @@ public class ProgramParticipantController {
     log.info("Processing RSVP for programId: {}, accountId: {}", programId, accountId);
 
     try {
-      boolean rsvpSuccess = waitlistService.rsvpToEvent(accountId, programId);
-      if (rsvpSuccess) {
+      ProgramParticipantDto participant = waitlistService.rsvpToEvent(accountId, programId);
+      if (participant == null) {
+        log.warn("RSVP failed - program not eligible for direct confirmation");
+        return ResponseDto.badRequest(null, "RSVP failed");
+      }
+      if (participant.isConfirmed()) {
         log.info("RSVP successful for programId: {}, accountId: {}", programId, accountId);
-        ResponseDto<Boolean> responseDto =
-            ResponseDto.<Boolean>builder()
-                .statusCode(HttpStatus.OK.value())
-                .message("RSVP successful")
-                .data(true)
-                .build();
-        return ResponseEntity.ok(responseDto);
+        return ResponseDto.ok(true, "RSVP successful");
       }
-      log.warn("RSVP failed - program not eligible for direct confirmation");
-      return ResponseDto.badRequest(null, "RSVP failed");
+      log.info(
+          "Program full, waitlisted programId: {}, accountId: {}, rank: {}",
+          programId,
+          accountId,
+          participant.getRank());
+      return ResponseDto.ok(false, "Program is full, added to the waitlist");
     } catch (ParticipantNotFoundException e) {
       log.error(
           "Participant not found for RSVP: programId: {}, accountId: {}", programId, accountId);
@@ -0,0 +1,83 @@
+package com.sportganise.controllers.programsessions;
+
+import com.sportganise.dto.ResponseDto;
+import com.sportganise.dto.programsessions.ProgramSearchPageDto;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.ProgramSearchCriteria;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramSearchService;
+import java.time.ZonedDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST Controller searching programs with filters, page by page. */
+@RestController
+@RequestMapping("/api/programs")
+@Slf4j
+public class ProgramSearchController {
+  private final ProgramSearchService programSearchService;
+  private final AccountService accountService;
+
+  @Autowired
+  public ProgramSearchController(
+      ProgramSearchService programSearchService, AccountService accountService) {
+    this.programSearchService = programSearchService;
+    this.accountService = accountService;
+  }
+
+  /**
+   * Get mapping for one page of the programs matching a search. Every filter is optional.
+   *
+   * @param accountId Id of account
+   * @param q Text found in the title or description of the programs.
+   * @param type Type of the programs.
+   * @param location Location of the programs.
+   * @param visibility Visibility of the programs.
+   * @param cancelled Whether the programs are cancelled.
+   * @param from Only programs that still occur at or after this date.
+   * @param to Only programs that start before this date.
+   * @param cursorDate Next cursor date returned by the previous page.
+   * @param cursorId Next cursor id returned by the previous page.
+   * @param limit Maximum number of programs to return.
+   * @return HTTP Response
+   */
+  @GetMapping("/{accountId}/search")
+  public ResponseEntity<ResponseDto<ProgramSearchPageDto>> searchPrograms(
+      @PathVariable Integer accountId,
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) ProgramType type,
+      @RequestParam(required = false) String location,
+      @RequestParam(required = false) String visibility,
+      @RequestParam(required = false) Boolean cancelled,
+      @RequestParam(required = false) ZonedDateTime from,
+      @RequestParam(required = false) ZonedDateTime to,
+      @RequestParam(required = false) ZonedDateTime cursorDate,
+      @RequestParam(required = false) Integer cursorId,
+      @RequestParam(defaultValue = "20") int limit) {
+    accountService.getAccount(accountId);
+
+    ProgramSearchCriteria criteria =
+        new ProgramSearchCriteria(
+            type, blankToNull(location), blankToNull(visibility), cancelled, from, to, q);
+    ProgramSearchPageDto searchPage =
+        programSearchService.searchPrograms(criteria, cursorDate, cursorId, limit);
+    log.debug("PROGRAM SEARCH COUNT (search): {}", searchPage.getResults().size());
+
+    ResponseDto<ProgramSearchPageDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Programs successfully searched.");
+    responseDto.setData(searchPage);
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value;
+  }
+}
@@ -0,0 +1,53 @@
+package com.sportganise.controllers.programsessions;
+
+import com.sportganise.dto.ResponseDto;
+import com.sportganise.dto.programsessions.ProgramChangesDto;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** REST Controller for the delta sync of programs and recurrences. */
+@RestController
+@RequestMapping("/api/programs")
+@Slf4j
+public class ProgramSyncController {
+  private final ProgramSyncService programSyncService;
+  private final AccountService accountService;
+
+  @Autowired
+  public ProgramSyncController(
+      ProgramSyncService programSyncService, AccountService accountService) {
+    this.programSyncService = programSyncService;
+    this.accountService = accountService;
+  }
+
+  /**
+   * Get mapping for the programs, recurrences and deletions after a client watermark.
+   *
+   * @param accountId Id of user who is making the request.
+   * @param watermark Watermark returned by the previous sync, or 0 for a full sync.
+   * @param limit Maximum number of changes to return.
+   * @return HTTP Response with the changes and the watermark to send next.
+   */
+  @GetMapping("/{accountId}/changes-since")
+  public ResponseEntity<ResponseDto<ProgramChangesDto>> getChangesSince(
+      @PathVariable Integer accountId,
+      @RequestParam(defaultValue = "0") long watermark,
+      @RequestParam(defaultValue = "500") int limit) {
+    accountService.getAccount(accountId);
+
+    ResponseDto<ProgramChangesDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Program changes successfully fetched.");
+    responseDto.setData(programSyncService.getChangesSince(watermark, limit));
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+}
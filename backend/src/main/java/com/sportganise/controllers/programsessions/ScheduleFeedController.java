@@ -0,0 +1,125 @@
+package com.sportganise.controllers.programsessions;
+
+import com.sportganise.dto.ResponseDto;
+import com.sportganise.dto.programsessions.SchedulePageDto;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.AccountScheduleService;
+import com.sportganise.services.programsessions.ScheduleFeedService;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST Controller serving the schedule of an account, page by page for the home screen or as an
+ * iCalendar feed.
+ */
+@RestController
+@RequestMapping("/api/programs")
+@Slf4j
+public class ScheduleFeedController {
+  private static final MediaType TEXT_CALENDAR =
+      new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+  private final ScheduleFeedService scheduleFeedService;
+  private final AccountScheduleService accountScheduleService;
+  private final AccountService accountService;
+
+  /**
+   * Constructor for ScheduleFeedController.
+   *
+   * @param scheduleFeedService Service rendering the iCalendar feed.
+   * @param accountScheduleService Service paging the schedule of an account.
+   * @param accountService Service for accounts.
+   */
+  @Autowired
+  public ScheduleFeedController(
+      ScheduleFeedService scheduleFeedService,
+      AccountScheduleService accountScheduleService,
+      AccountService accountService) {
+    this.scheduleFeedService = scheduleFeedService;
+    this.accountScheduleService = accountScheduleService;
+    this.accountService = accountService;
+  }
+
+  /**
+   * Get mapping for one page of the upcoming programs an account takes part in.
+   *
+   * @param accountId Id of account
+   * @param cursorDate Next cursor date returned by the previous page.
+   * @param cursorUid Next cursor uid returned by the previous page.
+   * @param limit Maximum number of occurrences to return.
+   * @return HTTP Response
+   */
+  @GetMapping("/{accountId}/schedule")
+  public ResponseEntity<ResponseDto<SchedulePageDto>> getSchedule(
+      @PathVariable Integer accountId,
+      @RequestParam(required = false) ZonedDateTime cursorDate,
+      @RequestParam(required = false) String cursorUid,
+      @RequestParam(defaultValue = "20") int limit) {
+    accountService.getAccount(accountId);
+
+    SchedulePageDto schedulePage =
+        accountScheduleService.getSchedulePage(accountId, cursorDate, cursorUid, limit);
+    log.debug("SCHEDULE PAGE COUNT (schedule): {}", schedulePage.getEntries().size());
+
+    ResponseDto<SchedulePageDto> responseDto = new ResponseDto<>();
+    responseDto.setStatusCode(HttpStatus.OK.value());
+    responseDto.setMessage("Schedule successfully fetched.");
+    responseDto.setData(schedulePage);
+    return ResponseEntity.status(responseDto.getStatusCode()).body(responseDto);
+  }
+
+  /**
+   * Get mapping for the iCalendar feed of the programs an account takes part in. Answers 304 when
+   * the feed did not change since the ETag sent in If-None-Match.
+   *
+   * @param accountId Id of account
+   * @param ifNoneMatch ETags of the feed already held by the client, if any.
+   * @return HTTP Response streaming the feed.
+   */
+  @GetMapping("/{accountId}/schedule.ics")
+  public ResponseEntity<StreamingResponseBody> getScheduleFeed(
+      @PathVariable Integer accountId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    accountService.getAccount(accountId);
+
+    String etag = scheduleFeedService.getFeedEtag(accountId);
+    if (matches(ifNoneMatch, etag)) {
+      log.debug("SCHEDULE FEED OF ACCOUNT {} NOT MODIFIED", accountId);
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    StreamingResponseBody feed =
+        outputStream -> scheduleFeedService.writeFeed(accountId, outputStream);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache())
+        .contentType(TEXT_CALENDAR)
+        .body(feed);
+  }
+
+  /** Weak comparison of an If-None-Match header with the current ETag. */
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String opaqueTag = etag.replaceFirst("^W/", "");
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .anyMatch(tag -> tag.equals("*") || tag.replaceFirst("^W/", "").equals(opaqueTag));
+  }
+}
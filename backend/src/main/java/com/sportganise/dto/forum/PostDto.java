@@ -22,6 +22,7 @@ public class PostDto {
   private PostType type;
   private ZonedDateTime occurrenceDate;
   @NotNull private ZonedDateTime creationDate;
+  private boolean cancelled;
   @NotNull private Long likeCount;
   @NotNull private boolean liked;
   @NotNull private Long feedbackCount;
@@ -23,6 +23,7 @@ public class ViewPostDto {
   private PostType type;
   private ZonedDateTime occurrenceDate;
   @NotNull private ZonedDateTime creationDate;
+  private boolean cancelled;
   @NotNull private Long likeCount;
   @NotNull private boolean liked;
   @NotNull private Integer feedbackCount;
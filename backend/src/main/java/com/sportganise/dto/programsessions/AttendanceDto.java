@@ -0,0 +1,18 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** API DTO for the attendance of a participant in a roster. */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceDto {
+  private Integer accountId;
+  private boolean present;
+}
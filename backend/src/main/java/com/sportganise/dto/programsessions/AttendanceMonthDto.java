@@ -0,0 +1,22 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.YearMonth;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for the attendance of a month. The attendance rate is the share of confirmed
+ * participations among the confirmed and absent ones, or null if there are none.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceMonthDto {
+  private YearMonth month;
+  private int confirmedCount;
+  private int absentCount;
+  private Double attendanceRate;
+}
@@ -0,0 +1,25 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.YearMonth;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for the attendance of a player or a program between two months, in total and for each
+ * month with attendance.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceStatsDto {
+  private YearMonth from;
+  private YearMonth to;
+  private int confirmedCount;
+  private int absentCount;
+  private Double attendanceRate;
+  private List<AttendanceMonthDto> months;
+}
@@ -0,0 +1,28 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for the outcome of inviting an account to a private program. The email is only queued for
+ * invited accounts of programs other than trainings.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvitationStatusDto {
+  /** Outcome of the invitation of an account. */
+  public enum Status {
+    INVITED,
+    REINVITED,
+    ALREADY_CONFIRMED,
+    ACCOUNT_NOT_FOUND
+  }
+
+  private Integer accountId;
+  private Status status;
+  private boolean emailQueued;
+}
@@ -0,0 +1,19 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** API DTO for the hit, miss and eviction counts of the program cache since startup. */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramCacheStatsDto {
+  private long hits;
+  private long misses;
+  private long evictions;
+  private int cachedPrograms;
+  private int cachedAttachmentLists;
+}
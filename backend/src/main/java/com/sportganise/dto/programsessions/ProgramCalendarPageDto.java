@@ -0,0 +1,22 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for one page of the program calendar. The next cursor is null when there are no more
+ * occurrences in the requested window.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramCalendarPageDto {
+  private List<ProgramDetailsParticipantsDto> programs;
+  private ZonedDateTime nextCursorDate;
+  private Integer nextCursorId;
+}
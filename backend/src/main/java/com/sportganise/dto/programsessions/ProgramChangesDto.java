@@ -0,0 +1,26 @@
+package com.sportganise.dto.programsessions;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for the programs and recurrences changed since a client watermark. The client stores the
+ * returned watermark and sends it with its next request; it asks again right away while there are
+ * more changes. When a resync is required the lists are empty and the client must drop its copy and
+ * sync again from watermark 0.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramChangesDto {
+  private List<ProgramDto> programs;
+  private List<ProgramRecurrenceChangeDto> recurrences;
+  private List<ProgramTombstoneDto> tombstones;
+  private long watermark;
+  private boolean hasMore;
+  private boolean resyncRequired;
+}
@@ -0,0 +1,19 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for the outcome of enrolling accounts in a program. Skipped rows are accounts that
+ * already took part in a recurrence.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramEnrollmentResultDto {
+  private int inserted;
+  private int skipped;
+}
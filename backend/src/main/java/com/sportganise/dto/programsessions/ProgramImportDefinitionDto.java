@@ -0,0 +1,21 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for one program of a season import, with the same fields as the create-program request
+ * and the accounts to enroll in it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramImportDefinitionDto {
+  private ProgramCreateRequestDto programData;
+  private Integer[] participantsId;
+  private Integer[] waitlistsId;
+  private Integer[] coachesId;
+}
@@ -0,0 +1,22 @@
+package com.sportganise.dto.programsessions;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for a program of a season import that cannot be created. The conflicts are empty unless
+ * the program overlaps a scheduled program or another program of the import.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramImportErrorDto {
+  private int index;
+  private String title;
+  private String message;
+  private List<ScheduleConflictDto> conflicts;
+}
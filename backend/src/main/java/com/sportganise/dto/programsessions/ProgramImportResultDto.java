@@ -0,0 +1,19 @@
+package com.sportganise.dto.programsessions;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** API DTO for the outcome of a season import. Program ids follow the order of the request. */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramImportResultDto {
+  private List<Integer> programIds;
+  private int recurrencesCreated;
+  private int postsCreated;
+  private int participantsEnrolled;
+}
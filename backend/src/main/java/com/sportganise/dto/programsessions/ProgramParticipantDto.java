@@ -20,11 +20,19 @@ public class ProgramParticipantDto {
   private boolean isConfirmed;
   private ZonedDateTime confirmedDate;
 
-  /** Constructor for class that converts ProgramParticipant entity. */
+  /**
+   * Constructor for class that converts ProgramParticipant entity. The rank is not stored with the
+   * participant, so it is left empty.
+   */
   public ProgramParticipantDto(ProgramParticipant programParticipant) {
+    this(programParticipant, null);
+  }
+
+  /** Constructor for class that converts ProgramParticipant entity and its waitlist rank. */
+  public ProgramParticipantDto(ProgramParticipant programParticipant, Integer rank) {
     this.accountId = programParticipant.getAccountId();
     this.recurrenceId = programParticipant.getRecurrenceId();
-    this.rank = programParticipant.getRank();
+    this.rank = rank;
     this.participantType = programParticipant.getType();
     this.isConfirmed = programParticipant.isConfirmed();
     this.confirmedDate = programParticipant.getConfirmedDate();
@@ -0,0 +1,20 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** API DTO for a stored recurrence that was created or modified. */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramRecurrenceChangeDto {
+  private Integer recurrenceId;
+  private Integer programId;
+  private ZonedDateTime occurrenceDate;
+  private boolean cancelled;
+  private int confirmedCount;
+}
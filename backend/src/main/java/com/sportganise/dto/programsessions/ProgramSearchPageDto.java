@@ -0,0 +1,22 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for one page of a program search. The next cursor is null when there are no more matching
+ * programs.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramSearchPageDto {
+  private List<ProgramSearchResultDto> results;
+  private ZonedDateTime nextCursorDate;
+  private Integer nextCursorId;
+}
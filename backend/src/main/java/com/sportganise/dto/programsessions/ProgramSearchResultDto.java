@@ -0,0 +1,28 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for a program found by a search. It only holds what a list of results shows; the details,
+ * participants and attachments are fetched when a program is opened.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramSearchResultDto {
+  private Integer programId;
+  private String programType;
+  private String title;
+  private String location;
+  private String visibility;
+  private ZonedDateTime occurrenceDate;
+  private Integer durationMins;
+  private ZonedDateTime expiryDate;
+  private String frequency;
+  private boolean cancelled;
+}
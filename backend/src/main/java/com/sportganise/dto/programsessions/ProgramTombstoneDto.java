@@ -0,0 +1,20 @@
+package com.sportganise.dto.programsessions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for a deleted program or recurrence. The entity type is PROGRAM or RECURRENCE and the
+ * entity id is the id of the deleted program or recurrence.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramTombstoneDto {
+  private String entityType;
+  private Integer entityId;
+  private Integer programId;
+}
@@ -0,0 +1,34 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for an occurrence that overlaps a planned occurrence, either at the same location or with
+ * the same coach. The coach id is null for location conflicts.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleConflictDto {
+
+  /** What the two occurrences share. */
+  public enum ConflictType {
+    LOCATION,
+    COACH
+  }
+
+  private ConflictType conflictType;
+  private ZonedDateTime plannedDate;
+  private Integer programId;
+  private Integer recurrenceId;
+  private String title;
+  private String location;
+  private Integer coachId;
+  private ZonedDateTime occurrenceDate;
+  private Integer durationMins;
+}
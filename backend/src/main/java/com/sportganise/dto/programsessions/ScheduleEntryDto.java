@@ -0,0 +1,26 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** API DTO for an upcoming occurrence of the schedule of an account. */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleEntryDto {
+  private Integer recurrenceId;
+  private Integer programId;
+  private String programType;
+  private String title;
+  private String description;
+  private String location;
+  private ZonedDateTime occurrenceDate;
+  private Integer durationMins;
+  private boolean cancelled;
+  private String participantType;
+  private boolean confirmed;
+}
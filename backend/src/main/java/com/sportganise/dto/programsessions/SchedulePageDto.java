@@ -0,0 +1,22 @@
+package com.sportganise.dto.programsessions;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * API DTO for one page of the schedule of an account. The next cursor is null when there are no
+ * more upcoming occurrences.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulePageDto {
+  private List<ScheduleEntryDto> entries;
+  private ZonedDateTime nextCursorDate;
+  private String nextCursorUid;
+}
@@ -47,6 +47,12 @@ public class Post {
   @Column(name = "occurrence_date")
   private ZonedDateTime occurrenceDate;
 
+  @Column(name = "program_id")
+  private Integer programId;
+
+  @Column(nullable = false)
+  private boolean cancelled;
+
   @Column(name = "creation_date", nullable = false, updatable = false)
   @Builder.Default
   private ZonedDateTime creationDate = ZonedDateTime.now();
@@ -64,13 +70,15 @@ public class Post {
       String description,
       String metadata,
       PostType type,
-      ZonedDateTime occurrenceDate) {
+      ZonedDateTime occurrenceDate,
+      Integer programId) {
     this.accountId = accountId;
     this.title = title;
     this.description = description;
     this.metadata = metadata;
     this.type = type;
     this.occurrenceDate = occurrenceDate;
+    this.programId = programId;
     this.creationDate = ZonedDateTime.now(); // Optional: set creation date when creating new posts
   }
 }
@@ -57,6 +57,34 @@ public class Program {
   @Column(name = "cancelled")
   private boolean cancelled = false;
 
+  /**
+   * When true, occurrences are expanded from the recurrence rule (occurrence date, expiry date and
+   * frequency) and program_recurrence only holds the occurrences that carry an exception.
+   */
+  @Column(name = "virtual_recurrences")
+  private boolean virtualRecurrences;
+
+  /**
+   * Date the program was deleted at. A deleted program is hidden from every read and its rows are
+   * purged in the background.
+   */
+  @Column(name = "deleted_at")
+  private ZonedDateTime deletedAt;
+
+  /**
+   * Change version of the program, given by the database on every insert and update. Used by the
+   * delta sync, never written by the application.
+   */
+  @Column(name = "version", insertable = false, updatable = false)
+  private Long changeVersion;
+
+  /**
+   * Id of the transaction that last changed the program, given by the database along with the
+   * change version. The delta sync only returns changes of finished transactions.
+   */
+  @Column(name = "change_xid", insertable = false, updatable = false)
+  private Long changeXid;
+
   /**
    * Constructor excluding programId since it's generated automatically.
    *
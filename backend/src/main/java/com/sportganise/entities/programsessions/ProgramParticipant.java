@@ -23,8 +23,9 @@ public class ProgramParticipant {
 
   @EmbeddedId private ProgramParticipantId programParticipantId;
 
-  @Column(name = "rank")
-  private Integer rank;
+  /** Position in the order of opt-ins to the waitlist, or null if not opted in. */
+  @Column(name = "opt_in_seq")
+  private Long optInSeq;
 
   @Column(name = "type")
   private String type;
@@ -35,6 +36,10 @@ public class ProgramParticipant {
   @Column(name = "confirm_date")
   private ZonedDateTime confirmedDate;
 
+  /** Whether the participant was marked absent, which rules out being confirmed. */
+  @Column(name = "is_absent")
+  private boolean isAbsent;
+
   public Integer getRecurrenceId() {
     return programParticipantId.getRecurrenceId();
   }
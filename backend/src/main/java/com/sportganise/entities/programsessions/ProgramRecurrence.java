@@ -44,6 +44,27 @@ public class ProgramRecurrence {
   @Column(name = "cancelled")
   private boolean cancelled;
 
+  /**
+   * Number of confirmed participants of the recurrence, kept up to date by the database whenever a
+   * participant is confirmed, unconfirmed, added or removed. Never written by the application.
+   */
+  @Column(name = "confirmed_count", insertable = false, updatable = false)
+  private int confirmedCount;
+
+  /**
+   * Change version of the recurrence, given by the database on every insert and update. Used by the
+   * delta sync, never written by the application.
+   */
+  @Column(name = "version", insertable = false, updatable = false)
+  private Long changeVersion;
+
+  /**
+   * Id of the transaction that last changed the recurrence, given by the database along with the
+   * change version. The delta sync only returns changes of finished transactions.
+   */
+  @Column(name = "change_xid", insertable = false, updatable = false)
+  private Long changeXid;
+
   /**
    * Constructor for creating a new program recurrence.
    *
@@ -0,0 +1,50 @@
+package com.sportganise.entities.programsessions;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity Model for Program Tombstone table. A tombstone is written by the database for every
+ * deleted program or recurrence, so that the delta sync can tell clients about the deletion.
+ */
+@Entity
+@Table(name = "program_tombstone")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramTombstone {
+  /** Type of a tombstone for a deleted program. */
+  public static final String PROGRAM = "PROGRAM";
+
+  /** Type of a tombstone for a deleted recurrence. */
+  public static final String RECURRENCE = "RECURRENCE";
+
+  @Id
+  @Column(name = "version")
+  private Long changeVersion;
+
+  @Column(name = "change_xid", insertable = false, updatable = false)
+  private Long changeXid;
+
+  @Column(name = "entity_type")
+  private String entityType;
+
+  @Column(name = "entity_id")
+  private Integer entityId;
+
+  @Column(name = "program_id")
+  private Integer programId;
+
+  @Column(name = "deleted_at")
+  private ZonedDateTime deletedAt;
+}
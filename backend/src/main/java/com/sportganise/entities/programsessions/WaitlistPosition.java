@@ -0,0 +1,28 @@
+package com.sportganise.entities.programsessions;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Entity Model for the Waitlist Position view. The rank of a waitlisted participant is not stored:
+ * the view numbers the opted-in participants of each recurrence in the order they opted in.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Immutable
+@Entity
+@Table(name = "waitlist_position")
+public class WaitlistPosition {
+
+  @EmbeddedId private ProgramParticipantId programParticipantId;
+
+  @Column(name = "rank")
+  private Integer rank;
+}
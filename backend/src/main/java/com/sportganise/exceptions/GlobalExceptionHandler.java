@@ -21,8 +21,10 @@ import com.sportganise.exceptions.notificationexceptions.StoreFcmTokenException;
 import com.sportganise.exceptions.notificationexceptions.UpdateNotificationPermissionException;
 import com.sportganise.exceptions.programexceptions.InvalidFrequencyException;
 import com.sportganise.exceptions.programexceptions.ProgramCreationException;
+import com.sportganise.exceptions.programexceptions.ProgramImportException;
 import com.sportganise.exceptions.programexceptions.ProgramInvitationiException;
 import com.sportganise.exceptions.programexceptions.ProgramModificationException;
+import com.sportganise.exceptions.programexceptions.ScheduleConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MissingPathVariableException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -383,6 +385,38 @@ public class GlobalExceptionHandler {
         .build();
   }
 
+  /**
+   * Handle schedule conflict exception.
+   *
+   * @param e exception
+   * @return Response DTO with status 409 and the conflicting occurrences.
+   */
+  @ExceptionHandler(ScheduleConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseDto<?> handleScheduleConflictException(ScheduleConflictException e) {
+    return ResponseDto.builder()
+        .statusCode(HttpStatus.CONFLICT.value())
+        .message(e.getMessage())
+        .data(e.getConflicts())
+        .build();
+  }
+
+  /**
+   * Handle program import exception.
+   *
+   * @param e exception
+   * @return Response DTO with status 400 and the programs that cannot be created.
+   */
+  @ExceptionHandler(ProgramImportException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public ResponseDto<?> handleProgramImportException(ProgramImportException e) {
+    return ResponseDto.builder()
+        .statusCode(HttpStatus.BAD_REQUEST.value())
+        .message(e.getMessage())
+        .data(e.getErrors())
+        .build();
+  }
+
   /**
    * Handle exceptions when inviting users to private events.
    *
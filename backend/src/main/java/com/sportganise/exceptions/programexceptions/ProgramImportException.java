@@ -0,0 +1,18 @@
+package com.sportganise.exceptions.programexceptions;
+
+import com.sportganise.dto.programsessions.ProgramImportErrorDto;
+import java.util.List;
+
+/** Exception thrown when a season import holds programs that cannot be created. */
+public class ProgramImportException extends RuntimeException {
+  private final List<ProgramImportErrorDto> errors;
+
+  public ProgramImportException(String message, List<ProgramImportErrorDto> errors) {
+    super(message);
+    this.errors = errors;
+  }
+
+  public List<ProgramImportErrorDto> getErrors() {
+    return errors;
+  }
+}
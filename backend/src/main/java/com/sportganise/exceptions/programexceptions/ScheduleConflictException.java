@@ -0,0 +1,18 @@
+package com.sportganise.exceptions.programexceptions;
+
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import java.util.List;
+
+/** Exception thrown when a program would overlap another one at its location or with a coach. */
+public class ScheduleConflictException extends RuntimeException {
+  private final List<ScheduleConflictDto> conflicts;
+
+  public ScheduleConflictException(String message, List<ScheduleConflictDto> conflicts) {
+    super(message);
+    this.conflicts = conflicts;
+  }
+
+  public List<ScheduleConflictDto> getConflicts() {
+    return conflicts;
+  }
+}
@@ -26,6 +26,15 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
   @Query("SELECT firstName FROM Account WHERE accountId IN :ids")
   List<String> findFirstNamesByAccountId(@Param("ids") List<Integer> ids);
 
+  /**
+   * Gets the ids, among the ids provided, that belong to an existing account.
+   *
+   * @param ids Concerned account ids.
+   * @return List of existing account ids.
+   */
+  @Query("SELECT accountId FROM Account WHERE accountId IN :ids")
+  List<Integer> findExistingAccountIds(@Param("ids") List<Integer> ids);
+
   @Query("SELECT pictureUrl FROM Account WHERE accountId = :accountId")
   String getPictureUrlByAccountId(@Param("accountId") int accountId);
 
@@ -1,8 +1,8 @@
 package com.sportganise.repositories.directmessaging;
 
-import com.sportganise.dto.directmessaging.DmAttachmentDto;
 import com.sportganise.dto.directmessaging.LastMessageDto;
 import com.sportganise.entities.directmessaging.DirectMessage;
+import com.sportganise.entities.directmessaging.DirectMessageBlob;
 import java.time.ZonedDateTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,36 +13,62 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface DirectMessageRepository extends JpaRepository<DirectMessage, Integer> {
   /**
-   * Get messages by channel ID dynamically. Initially pass NULL for lastSentAt and limit 30 to get
-   * the most recent 30 messages. Subsequently, pass the last sentAt of the last message in the
-   * current list to get the next set
+   * Get the most recent messages of a channel, the newest first.
    *
    * @param channelId ID of the channel to get messages for.
-   * @param lastSentAt The last sentAt of the last message in the current list.
    * @param limit The number of messages to fetch.
    * @return List of messages in the channel.
    */
   @Query(
-      """
-          SELECT m
-          FROM DirectMessage m
-          WHERE m.channelId = :channelId
-          AND (CAST(:lastSentAt AS timestamp) IS NULL OR m.sentAt < :lastSentAt)
-          ORDER BY m.sentAt DESC
+      value =
+          """
+          SELECT *
+          FROM message
+          WHERE channel_id = :channelId
+          ORDER BY sent_at DESC, message_id DESC
           LIMIT :limit
-         """)
-  List<DirectMessage> getMessagesByChannelId(int channelId, ZonedDateTime lastSentAt, int limit);
+          """,
+      nativeQuery = true)
+  List<DirectMessage> getLatestMessagesByChannelId(int channelId, int limit);
 
+  /**
+   * Get the messages of a channel sent before the last message of the current list, the newest
+   * first. The (sent_at, message_id) cursor follows idx_dm_message_channel_time, so messages sent
+   * at the same instant are neither skipped nor repeated.
+   *
+   * @param channelId ID of the channel to get messages for.
+   * @param lastSentAt The sentAt of the last message in the current list.
+   * @param lastMessageId The ID of the last message in the current list.
+   * @param limit The number of messages to fetch.
+   * @return List of messages in the channel.
+   */
+  @Query(
+      value =
+          """
+          SELECT *
+          FROM message
+          WHERE channel_id = :channelId
+          AND (sent_at, message_id) < (:lastSentAt, :lastMessageId)
+          ORDER BY sent_at DESC, message_id DESC
+          LIMIT :limit
+          """,
+      nativeQuery = true)
+  List<DirectMessage> getMessagesByChannelIdBefore(
+      int channelId, ZonedDateTime lastSentAt, int lastMessageId, int limit);
+
+  /**
+   * Get the attachments of many messages at once, for a page of messages.
+   *
+   * @param messageIds IDs of the messages.
+   * @return List of the attachments of the messages.
+   */
   @Query(
       """
-              SELECT new com.sportganise.dto.directmessaging.DmAttachmentDto(
-                  dmb.compositeKey.blobUrl,
-                  dmb.fileType
-              )
-              FROM DirectMessageBlob dmb
-              WHERE dmb.compositeKey.messageId = :messageId
+          SELECT dmb
+          FROM DirectMessageBlob dmb
+          WHERE dmb.compositeKey.messageId IN :messageIds
           """)
-  List<DmAttachmentDto> getMessageAttachments(int messageId);
+  List<DirectMessageBlob> getMessagesAttachments(List<Integer> messageIds);
 
   @Query(
       """
@@ -0,0 +1,71 @@
+package com.sportganise.repositories.forum;
+
+import com.sportganise.entities.forum.Post;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes posts with one JDBC batch, for the posts announcing many programs at once. The identity
+ * keys of post prevent Hibernate from batching its inserts.
+ */
+@Slf4j
+@Repository
+public class PostBulkWriter {
+
+  /** Rows per batch. */
+  static final int BATCH_SIZE = 500;
+
+  private static final String INSERT =
+      """
+      INSERT INTO post (
+          account_id, title, description, metadata, type, occurrence_date, program_id)
+      VALUES (?, ?, ?, CAST(? AS JSON), ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for PostBulkWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public PostBulkWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts the posts.
+   *
+   * @param posts Posts without an id.
+   * @return the number of inserted posts.
+   */
+  public int insertPosts(List<Post> posts) {
+    if (posts.isEmpty()) {
+      return 0;
+    }
+
+    // The batch fails as a whole, so every post is inserted once it returns.
+    jdbcTemplate.batchUpdate(
+        INSERT,
+        posts,
+        BATCH_SIZE,
+        (preparedStatement, post) -> {
+          preparedStatement.setInt(1, post.getAccountId());
+          preparedStatement.setString(2, post.getTitle());
+          preparedStatement.setString(3, post.getDescription());
+          preparedStatement.setString(4, post.getMetadata());
+          preparedStatement.setString(5, post.getType().name());
+          preparedStatement.setObject(
+              6,
+              post.getOccurrenceDate() != null
+                  ? post.getOccurrenceDate().toOffsetDateTime()
+                  : null);
+          preparedStatement.setObject(7, post.getProgramId());
+        });
+
+    log.debug("INSERTED {} POSTS", posts.size());
+    return posts.size();
+  }
+}
@@ -2,6 +2,7 @@ package com.sportganise.repositories.forum;
 
 import com.sportganise.entities.forum.Post;
 import com.sportganise.entities.forum.PostType;
+import jakarta.transaction.Transactional;
 import java.time.ZonedDateTime;
 import java.util.List;
 import org.springframework.data.domain.Page;
@@ -109,16 +110,70 @@ public interface PostRepository extends JpaRepository<Post, Integer> {
                   description,
                   metadata,
                   type,
-                  occurrence_date
+                  occurrence_date,
+                  program_id
               ) VALUES (
                   :#{#post.accountId},
                   :#{#post.title},
                   :#{#post.description},
                   CAST(:#{#post.metadata} AS JSON),
                   :#{#post.type.name()},
-                  :#{#post.occurrenceDate}
+                  :#{#post.occurrenceDate},
+                  :#{#post.programId}
               )
               """,
       nativeQuery = true)
   int insertPost(@Param("post") Post post);
+
+  /**
+   * Copies the details of a program to the post announcing it.
+   *
+   * @param programId Id of the program.
+   * @param title Title of the program.
+   * @param description Description of the program.
+   * @param type Type of the post.
+   * @param occurrenceDate Occurrence date of the program.
+   * @return the number of updated posts.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      """
+          UPDATE Post p
+          SET p.title = :title,
+              p.description = :description,
+              p.type = :type,
+              p.occurrenceDate = :occurrenceDate
+          WHERE p.programId = :programId
+          """)
+  int updateProgramPost(
+      @Param("programId") Integer programId,
+      @Param("title") String title,
+      @Param("description") String description,
+      @Param("type") PostType type,
+      @Param("occurrenceDate") ZonedDateTime occurrenceDate);
+
+  /**
+   * Marks the post announcing a program cancelled or not.
+   *
+   * @param programId Id of the program.
+   * @param cancelled Whether the program is cancelled.
+   * @return the number of updated posts.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Post p SET p.cancelled = :cancelled WHERE p.programId = :programId")
+  int updateProgramPostCancelled(
+      @Param("programId") Integer programId, @Param("cancelled") boolean cancelled);
+
+  /**
+   * Deletes the post announcing a program.
+   *
+   * @param programId Id of the program.
+   * @return the number of deleted posts.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM Post p WHERE p.programId = :programId")
+  int deleteProgramPost(@Param("programId") Integer programId);
 }
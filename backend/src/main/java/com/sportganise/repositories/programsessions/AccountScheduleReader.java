@@ -0,0 +1,193 @@
+package com.sportganise.repositories.programsessions;
+
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the occurrences an account takes part in, for the schedule feed and the schedule page of
+ * the home screen. The occurrences of the feed are read through a server-side cursor and handed
+ * over one at a time, so a feed never holds the whole schedule in memory.
+ */
+@Repository
+public class AccountScheduleReader {
+
+  /** Rows fetched per round trip while the cursor is open. */
+  static final int FETCH_SIZE = 200;
+
+  /**
+   * Occurrences of the account from a date. Non-recurring programs have a recurrence at their
+   * occurrence date, so every occurrence is read through the recurrence of its participants.
+   */
+  private static final String OCCURRENCES =
+      """
+      SELECT 'recurrence-' || pr.recurrence_id AS uid, p.program_id, p.title, p.description,
+          p.location, pr.occurrence_date, p.duration,
+          COALESCE(pr.cancelled, FALSE) OR COALESCE(p.cancelled, FALSE) AS cancelled
+      FROM program_participants pp
+      JOIN program_recurrence pr ON pr.recurrence_id = pp.recurrence_id
+      JOIN program p ON p.program_id = pr.program_id
+      WHERE pp.account_id = ? AND pr.occurrence_date >= ? AND p.deleted_at IS NULL
+      """;
+
+  private static final String OCCURRENCES_IN_ORDER = OCCURRENCES + " ORDER BY occurrence_date, uid";
+
+  private static final String FINGERPRINT =
+      "SELECT md5(COALESCE(string_agg(concat_ws('|', uid, title, description, location,"
+          + " EXTRACT(EPOCH FROM occurrence_date), duration, cancelled), ',' ORDER BY uid), ''))"
+          + " FROM ("
+          + OCCURRENCES
+          + ") occurrences";
+
+  /**
+   * One page of the upcoming occurrences of the account, with the state of its participation, after
+   * the (occurrence date, uid) of the last occurrence of the previous page. The page starts from
+   * the participations of the account, so it is read from the account index and the primary keys of
+   * the recurrences and programs in one round trip.
+   */
+  private static final String UPCOMING_PAGE =
+      """
+      SELECT * FROM (
+          SELECT 'recurrence-' || pr.recurrence_id AS uid, pp.recurrence_id, p.program_id,
+              p.type AS program_type, p.title, p.description, p.location, pr.occurrence_date,
+              p.duration,
+              COALESCE(pr.cancelled, FALSE) OR COALESCE(p.cancelled, FALSE) AS cancelled,
+              pp.type AS participant_type, pp.is_confirmed
+          FROM program_participants pp
+          JOIN program_recurrence pr ON pr.recurrence_id = pp.recurrence_id
+          JOIN program p ON p.program_id = pr.program_id
+          WHERE pp.account_id = ? AND pr.occurrence_date >= ? AND p.deleted_at IS NULL) upcoming
+      WHERE (occurrence_date, uid) > (?, ?)
+      ORDER BY occurrence_date, uid
+      LIMIT ?
+      """;
+
+  /** An occurrence of the schedule of an account. */
+  public record ScheduledOccurrence(
+      String uid,
+      Integer programId,
+      String title,
+      String description,
+      String location,
+      ZonedDateTime occurrenceDate,
+      Integer durationMins,
+      boolean cancelled) {}
+
+  /** An upcoming occurrence of the schedule of an account, with the state of its participation. */
+  public record UpcomingOccurrence(
+      String uid,
+      Integer recurrenceId,
+      Integer programId,
+      String programType,
+      String title,
+      String description,
+      String location,
+      ZonedDateTime occurrenceDate,
+      Integer durationMins,
+      boolean cancelled,
+      String participantType,
+      boolean confirmed) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for AccountScheduleReader.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public AccountScheduleReader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Computes a digest of the schedule of an account, which changes whenever an occurrence of the
+   * schedule is added, removed or modified.
+   *
+   * @param accountId Id of the account.
+   * @param from Occurrences before this date are left out.
+   * @return the hexadecimal md5 digest of the schedule.
+   */
+  public String fingerprint(Integer accountId, ZonedDateTime from) {
+    return jdbcTemplate.queryForObject(
+        FINGERPRINT, String.class, accountId, from.toOffsetDateTime());
+  }
+
+  /**
+   * Hands every occurrence of the schedule of an account to a consumer, in chronological order. The
+   * transaction keeps the cursor open while the rows are fetched in batches.
+   *
+   * @param accountId Id of the account.
+   * @param from Occurrences before this date are left out.
+   * @param consumer Receives the occurrences.
+   */
+  @Transactional
+  public void streamOccurrences(
+      Integer accountId, ZonedDateTime from, Consumer<ScheduledOccurrence> consumer) {
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement preparedStatement = connection.prepareStatement(OCCURRENCES_IN_ORDER);
+          preparedStatement.setFetchSize(FETCH_SIZE);
+          preparedStatement.setInt(1, accountId);
+          preparedStatement.setObject(2, from.toOffsetDateTime());
+          return preparedStatement;
+        },
+        resultSet -> {
+          consumer.accept(
+              new ScheduledOccurrence(
+                  resultSet.getString("uid"),
+                  resultSet.getInt("program_id"),
+                  resultSet.getString("title"),
+                  resultSet.getString("description"),
+                  resultSet.getString("location"),
+                  resultSet
+                      .getObject("occurrence_date", OffsetDateTime.class)
+                      .atZoneSameInstant(ZoneOffset.UTC),
+                  (Integer) resultSet.getObject("duration"),
+                  resultSet.getBoolean("cancelled")));
+        });
+  }
+
+  /**
+   * Reads one page of the upcoming occurrences of the schedule of an account, in chronological
+   * order.
+   *
+   * @param accountId Id of the account.
+   * @param from Occurrences before this date are left out.
+   * @param afterDate Occurrence date of the last occurrence of the previous page, or from.
+   * @param afterUid Uid of the last occurrence of the previous page, or an empty string.
+   * @param limit Maximum number of occurrences to read.
+   * @return the occurrences after the cursor.
+   */
+  public List<UpcomingOccurrence> findUpcoming(
+      Integer accountId, ZonedDateTime from, ZonedDateTime afterDate, String afterUid, int limit) {
+    return jdbcTemplate.query(
+        UPCOMING_PAGE,
+        (resultSet, rowNum) ->
+            new UpcomingOccurrence(
+                resultSet.getString("uid"),
+                resultSet.getInt("recurrence_id"),
+                resultSet.getInt("program_id"),
+                resultSet.getString("program_type"),
+                resultSet.getString("title"),
+                resultSet.getString("description"),
+                resultSet.getString("location"),
+                resultSet
+                    .getObject("occurrence_date", OffsetDateTime.class)
+                    .atZoneSameInstant(ZoneOffset.UTC),
+                (Integer) resultSet.getObject("duration"),
+                resultSet.getBoolean("cancelled"),
+                resultSet.getString("participant_type"),
+                resultSet.getBoolean("is_confirmed")),
+        accountId,
+        from.toOffsetDateTime(),
+        afterDate.toOffsetDateTime(),
+        afterUid,
+        limit);
+  }
+}
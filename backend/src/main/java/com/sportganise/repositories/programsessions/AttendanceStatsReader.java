@@ -0,0 +1,89 @@
+package com.sportganise.repositories.programsessions;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the monthly attendance rollups of accounts and programs. The rollups are maintained by the
+ * database as participants are confirmed or marked absent, so a read costs one primary key range
+ * scan over the requested months, however long the history of the account or program.
+ */
+@Repository
+public class AttendanceStatsReader {
+
+  private static final String ACCOUNT_MONTHS =
+      """
+      SELECT month, confirmed_count, absent_count
+      FROM account_attendance_rollup
+      WHERE account_id = ? AND month BETWEEN ? AND ?
+      ORDER BY month
+      """;
+
+  private static final String PROGRAM_MONTHS =
+      """
+      SELECT month, confirmed_count, absent_count
+      FROM program_attendance_rollup
+      WHERE program_id = ? AND month BETWEEN ? AND ?
+      ORDER BY month
+      """;
+
+  /**
+   * Attendance of an account or a program during a month.
+   *
+   * @param month Month of the recurrences.
+   * @param confirmedCount Number of confirmed participations.
+   * @param absentCount Number of participations marked absent.
+   */
+  public record MonthlyAttendance(YearMonth month, int confirmedCount, int absentCount) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for AttendanceStatsReader.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public AttendanceStatsReader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Reads the monthly attendance of an account.
+   *
+   * @param accountId Id of the account.
+   * @param from First month.
+   * @param to Last month, included.
+   * @return the months with attendance, in chronological order.
+   */
+  public List<MonthlyAttendance> findAccountAttendance(
+      Integer accountId, YearMonth from, YearMonth to) {
+    return jdbcTemplate.query(
+        ACCOUNT_MONTHS, this::mapMonth, accountId, from.atDay(1), to.atDay(1));
+  }
+
+  /**
+   * Reads the monthly attendance of a program, over all its recurrences.
+   *
+   * @param programId Id of the program.
+   * @param from First month.
+   * @param to Last month, included.
+   * @return the months with attendance, in chronological order.
+   */
+  public List<MonthlyAttendance> findProgramAttendance(
+      Integer programId, YearMonth from, YearMonth to) {
+    return jdbcTemplate.query(
+        PROGRAM_MONTHS, this::mapMonth, programId, from.atDay(1), to.atDay(1));
+  }
+
+  private MonthlyAttendance mapMonth(ResultSet resultSet, int rowNum) throws SQLException {
+    return new MonthlyAttendance(
+        YearMonth.from(resultSet.getObject("month", LocalDate.class)),
+        resultSet.getInt("confirmed_count"),
+        resultSet.getInt("absent_count"));
+  }
+}
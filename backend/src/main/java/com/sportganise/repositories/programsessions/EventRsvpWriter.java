@@ -0,0 +1,187 @@
+package com.sportganise.repositories.programsessions;
+
+import jakarta.transaction.Transactional;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Confirms RSVPs to events without ever confirming more participants than the capacity of the
+ * program. The spot is taken by a single statement that only inserts or confirms the participant
+ * while the recurrence is below capacity; the recurrence row is locked by that statement, so
+ * concurrent RSVPs are checked one after the other against the confirmed count kept up to date by
+ * the database. An RSVP that finds the event full joins the end of the waitlist instead.
+ *
+ * <p>Participants marked unabsent take a spot back the same way, or rejoin the waitlist when the
+ * spot they freed was given to someone else.
+ *
+ * <p>Participants reference the recurrence of the event, which one-time events and virtual
+ * recurrences do not have until their first RSVP: it is added then, under a lock on the program so
+ * that concurrent first RSVPs do not each add one.
+ */
+@Repository
+public class EventRsvpWriter {
+
+  /** Confirms the participant, adding it if needed, if the recurrence still has a spot. */
+  private static final String CONFIRM_IF_SPOT_LEFT =
+      """
+      WITH spot AS (
+          SELECT pr.recurrence_id
+          FROM program_recurrence pr
+          JOIN program p ON p.program_id = pr.program_id
+          WHERE pr.recurrence_id = ? AND (p.capacity IS NULL OR pr.confirmed_count < p.capacity)
+          FOR UPDATE OF pr)
+      INSERT INTO program_participants AS pp
+          (recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date, is_absent)
+      SELECT spot.recurrence_id, ?, NULL, NULL, TRUE, CURRENT_TIMESTAMP, FALSE
+      FROM spot
+      ON CONFLICT (recurrence_id, account_id) DO UPDATE
+      SET is_confirmed = TRUE, confirm_date = CURRENT_TIMESTAMP, is_absent = FALSE,
+          opt_in_seq = NULL
+      WHERE NOT COALESCE(pp.is_confirmed, FALSE)
+      RETURNING pp.account_id
+      """;
+
+  /** Queues the participant, adding it if needed, unless it is confirmed or already queued. */
+  private static final String JOIN_WAITLIST =
+      """
+      INSERT INTO program_participants AS pp
+          (recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date)
+      VALUES (?, ?, 'Waitlisted', nextval('waitlist_opt_in_seq'), FALSE, NULL)
+      ON CONFLICT (recurrence_id, account_id) DO UPDATE
+      SET opt_in_seq = COALESCE(pp.opt_in_seq, EXCLUDED.opt_in_seq)
+      WHERE NOT COALESCE(pp.is_confirmed, FALSE)
+      RETURNING pp.account_id
+      """;
+
+  /** Confirms an absent participant back if it still holds its spot or the recurrence has one. */
+  private static final String UNABSENT_IF_SPOT_LEFT =
+      """
+      WITH spot AS (
+          SELECT pr.recurrence_id, (p.capacity IS NULL OR pr.confirmed_count < p.capacity) AS free
+          FROM program_recurrence pr
+          JOIN program p ON p.program_id = pr.program_id
+          WHERE pr.recurrence_id = ?
+          FOR UPDATE OF pr)
+      UPDATE program_participants pp
+      SET is_confirmed = TRUE, confirm_date = CURRENT_TIMESTAMP, is_absent = FALSE,
+          opt_in_seq = NULL
+      FROM spot
+      WHERE pp.recurrence_id = spot.recurrence_id AND pp.account_id = ?
+      AND (spot.free OR COALESCE(pp.is_confirmed, FALSE))
+      RETURNING pp.account_id
+      """;
+
+  /** Puts an absent participant back in the waitlist, keeping its place if it has one. */
+  private static final String UNABSENT_TO_WAITLIST =
+      """
+      UPDATE program_participants pp
+      SET is_confirmed = FALSE, confirm_date = NULL, is_absent = FALSE,
+          opt_in_seq = COALESCE(pp.opt_in_seq, nextval('waitlist_opt_in_seq'))
+      WHERE pp.recurrence_id = ? AND pp.account_id = ?
+      RETURNING pp.account_id
+      """;
+
+  /** Locks the program and finds the recurrence at its occurrence date. */
+  private static final String FIND_EVENT_RECURRENCE =
+      """
+      WITH event AS (
+          SELECT program_id, occurence_date
+          FROM program
+          WHERE program_id = ?
+          FOR NO KEY UPDATE)
+      SELECT pr.recurrence_id
+      FROM program_recurrence pr
+      JOIN event ON pr.program_id = event.program_id
+          AND pr.occurrence_date = event.occurence_date
+      ORDER BY pr.recurrence_id
+      LIMIT 1
+      """;
+
+  /** Adds the recurrence of the program at its occurrence date. */
+  private static final String ADD_EVENT_RECURRENCE =
+      """
+      INSERT INTO program_recurrence (program_id, occurrence_date, cancelled)
+      SELECT program_id, occurence_date, cancelled
+      FROM program
+      WHERE program_id = ?
+      RETURNING recurrence_id
+      """;
+
+  /** Outcome of an RSVP. */
+  public enum RsvpOutcome {
+    CONFIRMED,
+    WAITLISTED,
+    ALREADY_CONFIRMED
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for EventRsvpWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public EventRsvpWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Finds the recurrence of an event at its occurrence date, adding it if it has none yet.
+   *
+   * @param programId Id of an existing program.
+   * @return the id of the recurrence.
+   */
+  @Transactional
+  public Integer findOrAddEventRecurrence(Integer programId) {
+    List<Integer> recurrenceIds =
+        jdbcTemplate.queryForList(FIND_EVENT_RECURRENCE, Integer.class, programId);
+    if (!recurrenceIds.isEmpty()) {
+      return recurrenceIds.getFirst();
+    }
+    return jdbcTemplate.queryForObject(ADD_EVENT_RECURRENCE, Integer.class, programId);
+  }
+
+  /**
+   * Confirms an account to a recurrence if it has a spot left, or puts it in the waitlist.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @param accountId Id of an existing account.
+   * @return whether the account was confirmed, waitlisted or already confirmed.
+   */
+  @Transactional
+  public RsvpOutcome rsvp(Integer recurrenceId, Integer accountId) {
+    List<Integer> confirmed =
+        jdbcTemplate.queryForList(CONFIRM_IF_SPOT_LEFT, Integer.class, recurrenceId, accountId);
+    if (!confirmed.isEmpty()) {
+      return RsvpOutcome.CONFIRMED;
+    }
+
+    List<Integer> waitlisted =
+        jdbcTemplate.queryForList(JOIN_WAITLIST, Integer.class, recurrenceId, accountId);
+    return waitlisted.isEmpty() ? RsvpOutcome.ALREADY_CONFIRMED : RsvpOutcome.WAITLISTED;
+  }
+
+  /**
+   * Marks a participant unabsent, confirming it if the recurrence has a spot left, or putting it in
+   * the waitlist. The recurrence stays locked until the waitlist is joined, so a spot freed in
+   * between is not missed.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @param accountId Id of a participant of the recurrence.
+   * @return whether the participant was confirmed or waitlisted, or null if it does not take part
+   *     in the recurrence.
+   */
+  @Transactional
+  public RsvpOutcome markUnabsent(Integer recurrenceId, Integer accountId) {
+    List<Integer> confirmed =
+        jdbcTemplate.queryForList(UNABSENT_IF_SPOT_LEFT, Integer.class, recurrenceId, accountId);
+    if (!confirmed.isEmpty()) {
+      return RsvpOutcome.CONFIRMED;
+    }
+
+    List<Integer> waitlisted =
+        jdbcTemplate.queryForList(UNABSENT_TO_WAITLIST, Integer.class, recurrenceId, accountId);
+    return waitlisted.isEmpty() ? null : RsvpOutcome.WAITLISTED;
+  }
+}
@@ -0,0 +1,61 @@
+package com.sportganise.repositories.programsessions;
+
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes the attachments of a program with one multi-row insert, instead of a save per attachment.
+ */
+@Slf4j
+@Repository
+public class ProgramAttachmentBulkWriter {
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO program_attachments (program_id, attachment_url) VALUES ";
+  private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramAttachmentBulkWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramAttachmentBulkWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts one attachment per URL. URLs already attached to the program are skipped.
+   *
+   * @param programId Id of the program the attachments belong to.
+   * @param attachmentUrls URLs of the attachments.
+   * @return the number of inserted attachments.
+   */
+  public int insertAttachments(Integer programId, List<String> attachmentUrls) {
+    if (attachmentUrls.isEmpty()) {
+      return 0;
+    }
+
+    String sql =
+        INSERT_PREFIX
+            + String.join(", ", Collections.nCopies(attachmentUrls.size(), "(?, ?)"))
+            + INSERT_SUFFIX;
+    int inserted =
+        jdbcTemplate.update(
+            sql,
+            preparedStatement -> {
+              int index = 1;
+              for (String attachmentUrl : attachmentUrls) {
+                preparedStatement.setInt(index++, programId);
+                preparedStatement.setString(index++, attachmentUrl);
+              }
+            });
+
+    log.debug("INSERTED {} ATTACHMENTS FOR PROGRAM {}", inserted, programId);
+    return inserted;
+  }
+}
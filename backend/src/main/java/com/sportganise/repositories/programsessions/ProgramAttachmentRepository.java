@@ -24,6 +24,21 @@ public interface ProgramAttachmentRepository
       nativeQuery = true)
   List<ProgramAttachment> findAttachmentsByProgramId(@Param("programId") Integer programId);
 
+  /**
+   * Finds the attachments of several programs in a single query.
+   *
+   * @param programIds the ids of the programs to find the attachments for.
+   * @return a list of attachments belonging to any of the given programs.
+   */
+  @Query(
+      """
+      SELECT pa
+      FROM ProgramAttachment pa
+      WHERE pa.compositeProgramAttachmentKey.programId IN :programIds
+      """)
+  List<ProgramAttachment> findAttachmentsByProgramIds(
+      @Param("programIds") List<Integer> programIds);
+
   @Modifying
   @Query(
       """
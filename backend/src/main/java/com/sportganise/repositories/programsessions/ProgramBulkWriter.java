@@ -0,0 +1,101 @@
+package com.sportganise.repositories.programsessions;
+
+import com.sportganise.entities.programsessions.Program;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes programs with multi-row inserts. The identity keys of program prevent Hibernate from
+ * batching its inserts, so a season of programs would cost a round trip per program; this writer
+ * sends them in a single statement per chunk.
+ */
+@Slf4j
+@Repository
+public class ProgramBulkWriter {
+
+  /** Rows per statement, which keeps the bind parameters far below the PostgreSQL limit. */
+  static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+  private static final String INSERT_PREFIX =
+      """
+      INSERT INTO program (type, title, author, description, capacity, occurence_date, duration,
+          expiry_date, frequency, location, visibility, cancelled, virtual_recurrences)
+      VALUES\s""";
+  private static final String ROW = "(CAST(? AS program_type), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_SUFFIX = " RETURNING program_id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramBulkWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramBulkWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts the programs and sets their generated ids.
+   *
+   * @param programs Programs without an id.
+   * @return the generated program ids, in the order of the programs.
+   */
+  public List<Integer> insertPrograms(List<Program> programs) {
+    if (programs.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Integer> programIds = new ArrayList<>(programs.size());
+    for (int from = 0; from < programs.size(); from += MAX_ROWS_PER_STATEMENT) {
+      List<Program> chunk =
+          programs.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, programs.size()));
+      List<Integer> chunkIds = insertChunk(chunk);
+      for (int i = 0; i < chunk.size(); i++) {
+        chunk.get(i).setProgramId(chunkIds.get(i));
+      }
+      programIds.addAll(chunkIds);
+    }
+
+    log.debug("INSERTED {} PROGRAMS", programIds.size());
+    return programIds;
+  }
+
+  private List<Integer> insertChunk(List<Program> programs) {
+    String sql =
+        INSERT_PREFIX
+            + String.join(", ", Collections.nCopies(programs.size(), ROW))
+            + INSERT_SUFFIX;
+
+    return jdbcTemplate.query(
+        sql,
+        preparedStatement -> {
+          int index = 1;
+          for (Program program : programs) {
+            preparedStatement.setString(index++, program.getProgramType().name());
+            preparedStatement.setString(index++, program.getTitle());
+            preparedStatement.setString(index++, program.getAuthor());
+            preparedStatement.setString(index++, program.getDescription());
+            preparedStatement.setObject(index++, program.getCapacity());
+            preparedStatement.setObject(index++, toOffset(program.getOccurrenceDate()));
+            preparedStatement.setObject(index++, program.getDurationMins());
+            preparedStatement.setObject(index++, toOffset(program.getExpiryDate()));
+            preparedStatement.setString(index++, program.getFrequency());
+            preparedStatement.setString(index++, program.getLocation());
+            preparedStatement.setString(index++, program.getVisibility());
+            preparedStatement.setBoolean(index++, program.isCancelled());
+            preparedStatement.setBoolean(index++, program.isVirtualRecurrences());
+          }
+        },
+        (resultSet, rowNum) -> resultSet.getInt("program_id"));
+  }
+
+  private static Object toOffset(ZonedDateTime date) {
+    return date != null ? date.toOffsetDateTime() : null;
+  }
+}
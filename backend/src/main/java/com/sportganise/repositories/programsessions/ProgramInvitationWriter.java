@@ -0,0 +1,126 @@
+package com.sportganise.repositories.programsessions;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Adds the invited accounts of a private program as its participants with one statement, and
+ * reports for each account whether it was added or already took part in the program.
+ */
+@Repository
+public class ProgramInvitationWriter {
+
+  /**
+   * Invited accounts are subscribed and confirmed to trainings, and take part as their account type
+   * in other programs. They are added to every recurrence selected by the recurrences query.
+   * Participants that already exist are left as they are, and their state before the statement is
+   * returned.
+   */
+  private static final String INVITE =
+      """
+      WITH invited AS (
+          SELECT a.account_id, a.email,
+              CASE WHEN ? THEN 'Subscribed' ELSE a.type END AS type
+          FROM account a
+          WHERE a.account_id = ANY(CAST(? AS INTEGER[]))),
+      recurrences AS (%s),
+      inserted AS (
+          INSERT INTO program_participants
+              (recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date)
+          SELECT recurrences.recurrence_id, invited.account_id, invited.type, NULL, ?,
+              CASE WHEN ? THEN CURRENT_TIMESTAMP END
+          FROM invited
+          CROSS JOIN recurrences
+          ON CONFLICT DO NOTHING
+          RETURNING account_id)
+      SELECT invited.account_id, invited.email,
+          invited.account_id IN (SELECT account_id FROM inserted) AS new_participant,
+          EXISTS (
+              SELECT 1 FROM program_participants pp
+              JOIN recurrences ON recurrences.recurrence_id = pp.recurrence_id
+              WHERE pp.account_id = invited.account_id AND pp.is_confirmed) AS already_confirmed
+      FROM invited
+      """;
+
+  /** Invites to a single recurrence. */
+  private static final String INVITE_TO_RECURRENCE =
+      INVITE.formatted("SELECT CAST(? AS INTEGER) AS recurrence_id");
+
+  /** Invites to every recurrence of a program. */
+  private static final String INVITE_TO_PROGRAM_RECURRENCES =
+      INVITE.formatted("SELECT recurrence_id FROM program_recurrence WHERE program_id = ?");
+
+  /**
+   * Outcome of the invitation of an account.
+   *
+   * @param accountId Id of the account.
+   * @param email Email of the account.
+   * @param newParticipant Whether the account was added as a participant.
+   * @param alreadyConfirmed Whether the account was already a confirmed participant.
+   */
+  public record InvitedAccount(
+      Integer accountId, String email, boolean newParticipant, boolean alreadyConfirmed) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramInvitationWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramInvitationWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Adds accounts as participants of a single recurrence of a private program, in one statement.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @param accountIds Ids of the invited accounts, without duplicates.
+   * @param isTraining Whether the program is a training, whose participants are confirmed.
+   * @return the outcome of the invitation of each account. Unknown accounts are left out.
+   */
+  public List<InvitedAccount> inviteToRecurrence(
+      Integer recurrenceId, List<Integer> accountIds, boolean isTraining) {
+    return invite(INVITE_TO_RECURRENCE, recurrenceId, accountIds, isTraining);
+  }
+
+  /**
+   * Adds accounts as participants of every recurrence of a private program, in one statement.
+   *
+   * @param programId Id of the program.
+   * @param accountIds Ids of the invited accounts, without duplicates.
+   * @param isTraining Whether the program is a training, whose participants are confirmed.
+   * @return the outcome of the invitation of each account. Unknown accounts are left out.
+   */
+  public List<InvitedAccount> inviteToProgramRecurrences(
+      Integer programId, List<Integer> accountIds, boolean isTraining) {
+    return invite(INVITE_TO_PROGRAM_RECURRENCES, programId, accountIds, isTraining);
+  }
+
+  private List<InvitedAccount> invite(
+      String sql, Integer id, List<Integer> accountIds, boolean isTraining) {
+    Integer[] ids = accountIds.toArray(Integer[]::new);
+
+    return jdbcTemplate.query(
+        connection -> {
+          Array accountIdArray = connection.createArrayOf("integer", ids);
+          PreparedStatement preparedStatement = connection.prepareStatement(sql);
+          preparedStatement.setBoolean(1, isTraining);
+          preparedStatement.setArray(2, accountIdArray);
+          preparedStatement.setInt(3, id);
+          preparedStatement.setBoolean(4, isTraining);
+          preparedStatement.setBoolean(5, isTraining);
+          return preparedStatement;
+        },
+        (resultSet, rowNum) ->
+            new InvitedAccount(
+                resultSet.getInt("account_id"),
+                resultSet.getString("email"),
+                resultSet.getBoolean("new_participant"),
+                resultSet.getBoolean("already_confirmed")));
+  }
+}
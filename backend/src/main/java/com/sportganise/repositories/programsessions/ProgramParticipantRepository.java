@@ -1,8 +1,10 @@
 package com.sportganise.repositories.programsessions;
 
 import com.sportganise.dto.programsessions.DetailedProgramParticipantDto;
+import com.sportganise.dto.programsessions.ProgramParticipantDto;
 import com.sportganise.entities.programsessions.ProgramParticipant;
 import com.sportganise.entities.programsessions.ProgramParticipantId;
+import com.sportganise.entities.programsessions.WaitlistPosition;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -39,37 +41,62 @@ public interface ProgramParticipantRepository
   ProgramParticipant findParticipant(
       @Param("recurrenceId") Integer recurrenceId, @Param("accountId") Integer accountId);
 
-  /** Find the maximum rank of unconfirmed participants in a specific program. */
+  /**
+   * Finds the opted-in participants of a recurrence in the order they opted in, with their rank in
+   * the queue.
+   *
+   * @param recurrenceId the id of the recurrence.
+   * @return the queue of the recurrence, first in line first.
+   */
   @Query(
       """
-      SELECT MAX(pp.rank)
+      SELECT new com.sportganise.dto.programsessions.ProgramParticipantDto(
+        pp.programParticipantId.accountId,
+        pp.programParticipantId.recurrenceId,
+        wp.rank,
+        pp.type,
+        pp.isConfirmed,
+        pp.confirmedDate
+      )
       FROM ProgramParticipant pp
-      WHERE pp.programParticipantId.recurrenceId = :recurrenceId
-      AND pp.isConfirmed = FALSE
+      JOIN WaitlistPosition wp
+        ON wp.programParticipantId.recurrenceId = pp.programParticipantId.recurrenceId
+        AND wp.programParticipantId.accountId = pp.programParticipantId.accountId
+      WHERE wp.programParticipantId.recurrenceId = :recurrenceId
+      ORDER BY wp.rank
       """)
-  Integer findMaxRank(@Param("recurrenceId") Integer recurrenceId);
+  List<ProgramParticipantDto> findOptedParticipants(@Param("recurrenceId") Integer recurrenceId);
 
-  /** Update the ranks of participants after one is confirmed. */
-  @Modifying
-  @Transactional
+  /**
+   * Finds the rank of a participant in the queue of a recurrence.
+   *
+   * @param recurrenceId the id of the recurrence.
+   * @param accountId the id of the account of the participant.
+   * @return the rank of the participant, or null if it is not in the queue.
+   */
   @Query(
       """
-      UPDATE ProgramParticipant pp
-      SET pp.rank = pp.rank - 1
-      WHERE pp.programParticipantId.recurrenceId = :recurrenceId
-      AND pp.rank > :rank
+      SELECT wp.rank
+      FROM WaitlistPosition wp
+      WHERE wp.programParticipantId.recurrenceId = :recurrenceId
+      AND wp.programParticipantId.accountId = :accountId
       """)
-  void updateRanks(@Param("recurrenceId") Integer recurrenceId, @Param("rank") Integer rank);
+  Integer findWaitlistRank(
+      @Param("recurrenceId") Integer recurrenceId, @Param("accountId") Integer accountId);
 
-  /** Find all unconfirmed participants with a rank of at least 1 in a specific program. */
+  /**
+   * Finds the positions in the queue of every opted-in participant of several recurrences.
+   *
+   * @param recurrenceIds the ids of the recurrences.
+   * @return the positions of the opted-in participants of the given recurrences.
+   */
   @Query(
       """
-      SELECT pp FROM ProgramParticipant pp
-      WHERE pp.programParticipantId.recurrenceId = :recurrenceId
-      AND pp.isConfirmed = FALSE
-      AND pp.rank >= 1
+      SELECT wp
+      FROM WaitlistPosition wp
+      WHERE wp.programParticipantId.recurrenceId IN :recurrenceIds
       """)
-  List<ProgramParticipant> findOptedParticipants(@Param("recurrenceId") Integer recurrenceId);
+  List<WaitlistPosition> findWaitlistPositions(@Param("recurrenceIds") List<Integer> recurrenceIds);
 
   @Query(
       """
@@ -80,6 +107,98 @@ public interface ProgramParticipantRepository
       """)
   int countConfirmedParticipants(@Param("recurrenceId") Integer recurrenceId);
 
+  /**
+   * Finds the participants of every recurrence of several programs in a single query.
+   *
+   * @param programIds the ids of the programs to find the participants for.
+   * @return a list of participants of any recurrence of the given programs.
+   */
+  @Query(
+      """
+      SELECT pp
+      FROM ProgramParticipant pp
+      JOIN ProgramRecurrence pr ON pp.programParticipantId.recurrenceId = pr.recurrenceId
+      WHERE pr.programId IN :programIds
+      """)
+  List<ProgramParticipant> findParticipantsByProgramIds(
+      @Param("programIds") List<Integer> programIds);
+
+  /**
+   * Finds the participants of several recurrences in a single query.
+   *
+   * @param recurrenceIds the ids of the recurrences to find the participants for.
+   * @return a list of participants of any of the given recurrences.
+   */
+  @Query(
+      """
+      SELECT pp
+      FROM ProgramParticipant pp
+      WHERE pp.programParticipantId.recurrenceId IN :recurrenceIds
+      """)
+  List<ProgramParticipant> findParticipantsByRecurrenceIds(
+      @Param("recurrenceIds") List<Integer> recurrenceIds);
+
+  /**
+   * Adds the accounts as participants of every recurrence of a program in a single statement.
+   * Accounts that already take part in a recurrence are left as they are.
+   *
+   * @param programId the id of the program.
+   * @param accountIds the ids of the accounts to add.
+   * @param type the type of participant.
+   * @param isConfirmed whether the participants are confirmed.
+   * @return the number of participants that were inserted.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+      INSERT INTO program_participants
+          (recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date)
+      SELECT pr.recurrence_id, a.account_id, :type, NULL, :isConfirmed,
+          CASE WHEN :isConfirmed THEN CURRENT_TIMESTAMP END
+      FROM program_recurrence pr
+      JOIN account a ON a.account_id IN (:accountIds)
+      WHERE pr.program_id = :programId
+      ON CONFLICT DO NOTHING
+      """,
+      nativeQuery = true)
+  int enrollInProgramRecurrences(
+      @Param("programId") Integer programId,
+      @Param("accountIds") List<Integer> accountIds,
+      @Param("type") String type,
+      @Param("isConfirmed") boolean isConfirmed);
+
+  /**
+   * Adds the accounts as participants of a single recurrence in a single statement. Accounts that
+   * already take part in the recurrence are left as they are.
+   *
+   * @param recurrenceId the id of the recurrence.
+   * @param accountIds the ids of the accounts to add.
+   * @param type the type of participant.
+   * @param isConfirmed whether the participants are confirmed.
+   * @return the number of participants that were inserted.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+      INSERT INTO program_participants
+          (recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date)
+      SELECT :recurrenceId, a.account_id, :type, NULL, :isConfirmed,
+          CASE WHEN :isConfirmed THEN CURRENT_TIMESTAMP END
+      FROM account a
+      WHERE a.account_id IN (:accountIds)
+      ON CONFLICT DO NOTHING
+      """,
+      nativeQuery = true)
+  int enrollInRecurrence(
+      @Param("recurrenceId") Integer recurrenceId,
+      @Param("accountIds") List<Integer> accountIds,
+      @Param("type") String type,
+      @Param("isConfirmed") boolean isConfirmed);
+
   /**
    * Finds all ProgramParticipant entities for a given account ID.
    *
@@ -110,7 +229,7 @@ public interface ProgramParticipantRepository
         SELECT new com.sportganise.dto.programsessions.DetailedProgramParticipantDto(
           pp.programParticipantId.accountId,
           pp.programParticipantId.recurrenceId,
-          pp.rank,
+          wp.rank,
           pp.type,
           pp.isConfirmed,
           pp.confirmedDate,
@@ -124,6 +243,9 @@ public interface ProgramParticipantRepository
         )
         FROM ProgramParticipant pp
         JOIN Account a ON pp.programParticipantId.accountId = a.accountId
+        LEFT JOIN WaitlistPosition wp
+          ON wp.programParticipantId.recurrenceId = pp.programParticipantId.recurrenceId
+          AND wp.programParticipantId.accountId = pp.programParticipantId.accountId
         WHERE pp.programParticipantId.recurrenceId = :programId
         """)
   List<DetailedProgramParticipantDto> fetchProgramParticipantsWithAccountDetails(Integer programId);
@@ -0,0 +1,135 @@
+package com.sportganise.repositories.programsessions;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Removes the rows of the programs marked deleted. Every statement removes at most a chunk of rows
+ * and commits on its own, so a purge never holds many locks at once. Participants are removed with
+ * their recurrences by the cascade of the foreign key, which also leaves their attendance in the
+ * rollups, as for any deleted recurrence.
+ */
+@Repository
+public class ProgramPurgeWriter {
+
+  private static final String FIND_DELETED =
+      """
+      SELECT program_id
+      FROM program
+      WHERE deleted_at IS NOT NULL
+      ORDER BY deleted_at
+      LIMIT ?
+      """;
+
+  private static final String DELETE_RECURRENCES =
+      """
+      DELETE FROM program_recurrence
+      WHERE recurrence_id IN (
+          SELECT recurrence_id FROM program_recurrence WHERE program_id = ? LIMIT ?)
+      """;
+
+  private static final String FIND_ATTACHMENTS =
+      """
+      SELECT attachment_url
+      FROM program_attachments
+      WHERE program_id = ?
+      ORDER BY attachment_url
+      LIMIT ?
+      """;
+
+  private static final String DELETE_ATTACHMENTS =
+      """
+      WITH purged AS (
+          DELETE FROM program_attachments
+          WHERE program_id = ? AND attachment_url = ANY(CAST(? AS VARCHAR[]))
+          RETURNING attachment_url)
+      DELETE FROM blob
+      WHERE blob_url IN (SELECT attachment_url FROM purged)
+      """;
+
+  private static final String DELETE_LABELS =
+      """
+      DELETE FROM label_program lp
+      USING program p
+      WHERE lp.program_id = p.program_id AND p.program_id = ? AND p.deleted_at IS NOT NULL
+      """;
+
+  private static final String DELETE_PROGRAM =
+      "DELETE FROM program WHERE program_id = ? AND deleted_at IS NOT NULL";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramPurgeWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramPurgeWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Finds the programs marked deleted, the oldest deletions first.
+   *
+   * @param limit Maximum number of programs.
+   * @return the ids of the programs.
+   */
+  public List<Integer> findDeletedProgramIds(int limit) {
+    return jdbcTemplate.queryForList(FIND_DELETED, Integer.class, limit);
+  }
+
+  /**
+   * Deletes a chunk of the recurrences of a program, with their participants.
+   *
+   * @param programId Id of the program.
+   * @param limit Maximum number of recurrences to delete.
+   * @return the number of deleted recurrences.
+   */
+  public int deleteRecurrences(Integer programId, int limit) {
+    return jdbcTemplate.update(DELETE_RECURRENCES, programId, limit);
+  }
+
+  /**
+   * Finds a chunk of the attachments of a program.
+   *
+   * @param programId Id of the program.
+   * @param limit Maximum number of attachments.
+   * @return the urls of the attachments.
+   */
+  public List<String> findAttachmentUrls(Integer programId, int limit) {
+    return jdbcTemplate.queryForList(FIND_ATTACHMENTS, String.class, programId, limit);
+  }
+
+  /**
+   * Deletes attachments of a program and the blobs of their files.
+   *
+   * @param programId Id of the program.
+   * @param attachmentUrls Urls of the attachments.
+   * @return the number of deleted blobs.
+   */
+  public int deleteAttachments(Integer programId, List<String> attachmentUrls) {
+    String[] urls = attachmentUrls.toArray(String[]::new);
+    return jdbcTemplate.update(
+        connection -> {
+          Array urlArray = connection.createArrayOf("varchar", urls);
+          PreparedStatement preparedStatement = connection.prepareStatement(DELETE_ATTACHMENTS);
+          preparedStatement.setInt(1, programId);
+          preparedStatement.setArray(2, urlArray);
+          return preparedStatement;
+        });
+  }
+
+  /**
+   * Deletes a program marked deleted, once its other rows are purged.
+   *
+   * @param programId Id of the program.
+   * @return whether the program was deleted.
+   */
+  public boolean deleteProgram(Integer programId) {
+    jdbcTemplate.update(DELETE_LABELS, programId);
+    return jdbcTemplate.update(DELETE_PROGRAM, programId) > 0;
+  }
+}
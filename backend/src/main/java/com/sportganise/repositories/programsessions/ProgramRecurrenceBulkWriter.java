@@ -0,0 +1,160 @@
+package com.sportganise.repositories.programsessions;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes the recurrences of a program with multi-row inserts and batched updates. The identity keys
+ * of program_recurrence prevent Hibernate from batching its inserts, so saving generated
+ * occurrences one by one costs a round trip per row; this writer sends them in a single statement
+ * per chunk.
+ */
+@Slf4j
+@Repository
+public class ProgramRecurrenceBulkWriter {
+
+  /** Rows per statement, which keeps the bind parameters far below the PostgreSQL limit. */
+  static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO program_recurrence (program_id, occurrence_date, cancelled) VALUES ";
+  private static final String INSERT_SUFFIX =
+      " RETURNING recurrence_id, program_id, occurrence_date";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramRecurrenceBulkWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramRecurrenceBulkWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts one recurrence per occurrence date.
+   *
+   * @param programId Id of the program the recurrences belong to.
+   * @param occurrenceDates Dates and times of the recurrences.
+   * @param cancelled Whether the recurrences are cancelled.
+   * @return the generated recurrence ids, in the order of the occurrence dates.
+   */
+  public List<Integer> insertRecurrences(
+      Integer programId, List<ZonedDateTime> occurrenceDates, boolean cancelled) {
+    List<Integer> recurrenceIds =
+        insertRows(
+            occurrenceDates.stream()
+                .map(occurrenceDate -> new RecurrenceRow(programId, occurrenceDate))
+                .toList(),
+            cancelled);
+
+    log.debug("INSERTED {} RECURRENCES FOR PROGRAM {}", recurrenceIds.size(), programId);
+    return recurrenceIds;
+  }
+
+  /**
+   * Inserts one recurrence per occurrence date of several programs, sharing the statements between
+   * the programs.
+   *
+   * @param occurrenceDatesByProgram Dates and times of the recurrences, keyed by program id.
+   * @return the number of inserted recurrences.
+   */
+  public int insertRecurrences(Map<Integer, List<ZonedDateTime>> occurrenceDatesByProgram) {
+    List<RecurrenceRow> rows = new ArrayList<>();
+    occurrenceDatesByProgram.forEach(
+        (programId, occurrenceDates) ->
+            occurrenceDates.forEach(
+                occurrenceDate -> rows.add(new RecurrenceRow(programId, occurrenceDate))));
+    int inserted = insertRows(rows, false).size();
+
+    log.debug("INSERTED {} RECURRENCES FOR {} PROGRAMS", inserted, occurrenceDatesByProgram.size());
+    return inserted;
+  }
+
+  /**
+   * Moves recurrences to new occurrence dates with one JDBC batch.
+   *
+   * @param occurrenceDates New date and time of each recurrence, keyed by recurrence id.
+   */
+  public void updateOccurrenceDates(Map<Integer, ZonedDateTime> occurrenceDates) {
+    if (occurrenceDates.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(
+        "UPDATE program_recurrence SET occurrence_date = ? WHERE recurrence_id = ?",
+        new ArrayList<>(occurrenceDates.entrySet()),
+        MAX_ROWS_PER_STATEMENT,
+        (preparedStatement, update) -> {
+          preparedStatement.setObject(1, update.getValue().toOffsetDateTime());
+          preparedStatement.setInt(2, update.getKey());
+        });
+
+    log.debug("MOVED {} RECURRENCES", occurrenceDates.size());
+  }
+
+  private List<Integer> insertRows(List<RecurrenceRow> rows, boolean cancelled) {
+    if (rows.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Integer> recurrenceIds = new ArrayList<>(rows.size());
+    for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+      recurrenceIds.addAll(
+          insertChunk(
+              rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size())), cancelled));
+    }
+    return recurrenceIds;
+  }
+
+  private List<Integer> insertChunk(List<RecurrenceRow> rows, boolean cancelled) {
+    String sql =
+        INSERT_PREFIX
+            + String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?)"))
+            + INSERT_SUFFIX;
+
+    // RETURNING does not follow the order of VALUES, so the ids are matched back by their row.
+    Map<RecurrenceKey, Deque<Integer>> idsByRow = new HashMap<>();
+    jdbcTemplate.query(
+        sql,
+        preparedStatement -> {
+          int index = 1;
+          for (RecurrenceRow row : rows) {
+            preparedStatement.setInt(index++, row.programId());
+            preparedStatement.setObject(index++, row.occurrenceDate().toOffsetDateTime());
+            preparedStatement.setBoolean(index++, cancelled);
+          }
+        },
+        resultSet -> {
+          RecurrenceKey key =
+              new RecurrenceKey(
+                  resultSet.getInt("program_id"),
+                  resultSet.getObject("occurrence_date", OffsetDateTime.class).toInstant());
+          idsByRow
+              .computeIfAbsent(key, ignored -> new ArrayDeque<>())
+              .add(resultSet.getInt("recurrence_id"));
+        });
+
+    return rows.stream().map(row -> idsByRow.get(row.key()).poll()).toList();
+  }
+
+  private record RecurrenceRow(Integer programId, ZonedDateTime occurrenceDate) {
+    RecurrenceKey key() {
+      return new RecurrenceKey(programId, occurrenceDate.toInstant());
+    }
+  }
+
+  private record RecurrenceKey(Integer programId, Instant occurrenceDate) {}
+}
@@ -6,6 +6,7 @@ import java.time.LocalTime;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -49,68 +50,133 @@ public interface ProgramRecurrenceRepository extends JpaRepository<ProgramRecurr
                """)
   List<ProgramRecurrence> findProgramRecurrenceByProgramId(Integer programId);
 
+  /**
+   * Finds all recurrences of several programs in a single query.
+   *
+   * @param programIds the program ids to find the recurrences for.
+   * @return a list of recurrences ordered by program and occurrence date.
+   */
   @Query(
-      value =
-          """
-      SELECT pr.*
-      FROM program_recurrence pr
-      JOIN program p ON p.program_id = pr.program_id
-      WHERE p.type = CAST(:programType AS program_type)
-      """,
-      nativeQuery = true)
-  List<ProgramRecurrence> findAllByProgramType(@Param("programType") String programType);
+      """
+      SELECT pr FROM ProgramRecurrence pr
+      WHERE pr.programId IN :programIds
+      ORDER BY pr.programId, pr.occurrenceDate
+      """)
+  List<ProgramRecurrence> findProgramRecurrencesByProgramIds(
+      @Param("programIds") List<Integer> programIds);
 
   /**
-   * Finds the last recurrence for a program.
+   * Finds one page of recurrences that occur inside a date window, in (occurrence date, recurrence
+   * id) order. The owning program is fetched in the same query.
    *
-   * @param programId the program id to find the last recurrence for.
-   * @return the last recurrence.
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param cursorDate occurrence date of the last recurrence of the previous page.
+   * @param cursorId recurrence id of the last recurrence of the previous page.
+   * @param pageable the page size.
+   * @return a list of recurrences with their program.
    */
   @Query(
       """
-            SELECT pr FROM ProgramRecurrence pr
-            WHERE pr.programId = :programId
-            ORDER BY pr.occurrenceDate DESC
-              """)
-  Optional<ProgramRecurrence> findLastRecurrenceByProgramId(@Param("programId") Integer programId);
+      SELECT pr FROM ProgramRecurrence pr
+      JOIN FETCH pr.program p
+      WHERE pr.occurrenceDate >= :from AND pr.occurrenceDate < :to
+      AND p.deletedAt IS NULL
+      AND (pr.occurrenceDate > :cursorDate
+        OR (pr.occurrenceDate = :cursorDate AND pr.recurrenceId > :cursorId))
+      ORDER BY pr.occurrenceDate, pr.recurrenceId
+      """)
+  List<ProgramRecurrence> findRecurrencesInWindow(
+      @Param("from") ZonedDateTime from,
+      @Param("to") ZonedDateTime to,
+      @Param("cursorDate") ZonedDateTime cursorDate,
+      @Param("cursorId") Integer cursorId,
+      Pageable pageable);
 
   /**
-   * Deletes all recurrences for a program.
+   * Finds the recurrences of several programs inside a date window.
    *
-   * @param programId the program id to delete the recurrences for.
+   * @param programIds the program ids to find the recurrences for.
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @return a list of recurrences.
    */
-  void deleteProgramRecurrenceByProgramId(Integer programId);
+  @Query(
+      """
+      SELECT pr FROM ProgramRecurrence pr
+      WHERE pr.programId IN :programIds
+      AND pr.occurrenceDate >= :from AND pr.occurrenceDate < :to
+      """)
+  List<ProgramRecurrence> findProgramRecurrencesInWindowByProgramIds(
+      @Param("programIds") List<Integer> programIds,
+      @Param("from") ZonedDateTime from,
+      @Param("to") ZonedDateTime to);
 
   /**
-   * Deletes all recurrences that are between two dates.
+   * Finds the recurrence of a program at a given date and time.
    *
-   * @param programId the program id to delete the recurrences for.
-   * @param firstDate the first date to compare the recurrences against.
-   * @param secondDate the second date to compare the recurrences against.
+   * @param programId the program id.
+   * @param occurrenceDate the date and time of the recurrence.
+   * @return the recurrence, if there is one.
+   */
+  Optional<ProgramRecurrence> findFirstByProgramIdAndOccurrenceDate(
+      Integer programId, ZonedDateTime occurrenceDate);
+
+  /**
+   * Finds the recurrences of the programs of a type that have fewer confirmed participants than
+   * their capacity, with their program, in a single query.
+   *
+   * @param programType the name of the program type.
+   * @return a list of recurrences with their program, in chronological order.
    */
-  @Transactional
-  @Modifying
   @Query(
       """
-             DELETE FROM ProgramRecurrence pr
-             WHERE pr.programId = :programId
-             AND pr.occurrenceDate >:firstDate AND pr.occurrenceDate< :secondDate
-                    """)
-  void deleteMiddleRecurrences(
-      @Param("programId") Integer programId,
-      @Param("firstDate") ZonedDateTime firstDate,
-      @Param("secondDate") ZonedDateTime secondDate);
+      SELECT pr FROM ProgramRecurrence pr
+      JOIN FETCH pr.program p
+      WHERE CAST(p.programType AS String) = :programType
+      AND pr.confirmedCount < p.capacity AND p.deletedAt IS NULL
+      ORDER BY pr.occurrenceDate, pr.recurrenceId
+      """)
+  List<ProgramRecurrence> findOpenRecurrencesByProgramType(
+      @Param("programType") String programType);
 
   /**
-   * Finds all recurrences that are between two dates.
+   * Finds the recurrences an account takes part in with one of the given participant types and that
+   * have fewer confirmed participants than their capacity, with their program, in a single query.
    *
-   * @param programId the program id to find the recurrences for.
-   * @param newStartDate the first date to compare the recurrences against.
-   * @param newEndDate the second date to compare the recurrences against.
-   * @return a list of recurrences.
+   * @param accountId the account id.
+   * @param participantTypes the participant types of the account.
+   * @return a list of recurrences with their program, in chronological order.
    */
-  List<ProgramRecurrence> findByProgramIdAndOccurrenceDateBetween(
-      Integer programId, ZonedDateTime newStartDate, ZonedDateTime newEndDate);
+  @Query(
+      """
+      SELECT pr FROM ProgramRecurrence pr
+      JOIN FETCH pr.program p
+      WHERE pr.confirmedCount < p.capacity AND p.deletedAt IS NULL
+      AND pr.recurrenceId IN (
+        SELECT pp.programParticipantId.recurrenceId FROM ProgramParticipant pp
+        WHERE pp.programParticipantId.accountId = :accountId
+        AND pp.type IN :participantTypes)
+      ORDER BY pr.occurrenceDate, pr.recurrenceId
+      """)
+  List<ProgramRecurrence> findOpenRecurrencesByParticipant(
+      @Param("accountId") Integer accountId,
+      @Param("participantTypes") List<String> participantTypes);
+
+  /**
+   * Counts the recurrences of a program.
+   *
+   * @param programId the program id to count the recurrences for.
+   * @return the number of recurrences.
+   */
+  long countByProgramId(Integer programId);
+
+  /**
+   * Deletes all recurrences for a program.
+   *
+   * @param programId the program id to delete the recurrences for.
+   */
+  void deleteProgramRecurrenceByProgramId(Integer programId);
 
   @Transactional
   @Modifying
@@ -180,4 +246,23 @@ public interface ProgramRecurrenceRepository extends JpaRepository<ProgramRecurr
             WHERE pr.recurrenceId = :recurrenceId
             """)
   ProgramRecurrence findProgramRecurrenceById(@Param("recurrenceId") Integer recurrenceId);
+
+  /**
+   * Finds the recurrences changed by the transactions between a watermark and a horizon, in
+   * transaction and change version order.
+   *
+   * @param watermark the lowest transaction id the client has not seen.
+   * @param horizon the transaction id below which every transaction has finished.
+   * @param pageable the maximum number of recurrences.
+   * @return a list of recurrences.
+   */
+  @Query(
+      """
+      SELECT pr FROM ProgramRecurrence pr
+      JOIN pr.program p
+      WHERE pr.changeXid >= :watermark AND pr.changeXid < :horizon AND p.deletedAt IS NULL
+      ORDER BY pr.changeXid, pr.changeVersion
+      """)
+  List<ProgramRecurrence> findChangedSince(
+      @Param("watermark") Long watermark, @Param("horizon") Long horizon, Pageable pageable);
 }
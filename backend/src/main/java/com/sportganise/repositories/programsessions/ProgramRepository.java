@@ -3,7 +3,10 @@ package com.sportganise.repositories.programsessions;
 import com.sportganise.entities.programsessions.Program;
 import com.sportganise.entities.programsessions.ProgramParticipant;
 import jakarta.transaction.Transactional;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,19 +17,106 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ProgramRepository extends JpaRepository<Program, Integer> {
 
-  @Query("""
+  /** Finds a program by id, unless it is deleted. */
+  @Override
+  @Query(
+      """
       SELECT p
       FROM Program p
-      WHERE p.programId = :programId
+      WHERE p.programId = :programId AND p.deletedAt IS NULL
+      """)
+  Optional<Program> findById(@Param("programId") Integer programId);
+
+  /** Checks that a program exists and is not deleted. */
+  @Override
+  @Query(
+      """
+      SELECT COUNT(p) > 0
+      FROM Program p
+      WHERE p.programId = :programId AND p.deletedAt IS NULL
+      """)
+  boolean existsById(@Param("programId") Integer programId);
+
+  @Query(
+      """
+      SELECT p
+      FROM Program p
+      WHERE p.programId = :programId AND p.deletedAt IS NULL
       """)
   Program findProgramById(@Param("programId") Integer programId);
 
   @Query("""
       SELECT p
       FROM Program p
+      WHERE p.deletedAt IS NULL
       """)
   List<Program> findPrograms();
 
+  /**
+   * Finds one page of non-recurring programs that occur inside a date window. Programs are ordered
+   * by occurrence date, then by descending program id so that their calendar sort key (the negated
+   * program id) is ascending.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param cursorDate occurrence date of the last entry of the previous page.
+   * @param cursorId sort key of the last entry of the previous page.
+   * @param pageable the page size.
+   * @return a list of non-recurring programs.
+   */
+  @Query(
+      """
+      SELECT p
+      FROM Program p
+      WHERE (p.frequency IS NULL OR LOWER(p.frequency) = 'once')
+      AND p.deletedAt IS NULL
+      AND p.occurrenceDate >= :from AND p.occurrenceDate < :to
+      AND (p.occurrenceDate > :cursorDate
+        OR (p.occurrenceDate = :cursorDate AND -p.programId > :cursorId))
+      ORDER BY p.occurrenceDate, p.programId DESC
+      """)
+  List<Program> findOneTimeProgramsInWindow(
+      @Param("from") ZonedDateTime from,
+      @Param("to") ZonedDateTime to,
+      @Param("cursorDate") ZonedDateTime cursorDate,
+      @Param("cursorId") Integer cursorId,
+      Pageable pageable);
+
+  /**
+   * Finds the recurring programs with virtual recurrences whose series overlaps a date window.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @return a list of recurring programs.
+   */
+  @Query(
+      """
+      SELECT p
+      FROM Program p
+      WHERE p.virtualRecurrences = true AND p.deletedAt IS NULL
+      AND p.frequency IS NOT NULL AND LOWER(p.frequency) <> 'once'
+      AND p.occurrenceDate < :to AND p.expiryDate >= :from
+      """)
+  List<Program> findVirtualRecurringProgramsInWindow(
+      @Param("from") ZonedDateTime from, @Param("to") ZonedDateTime to);
+
+  /**
+   * Finds the recurring programs of a type with virtual recurrences and room for participants.
+   * Their occurrences without a row have no confirmed participant, so all of them have spots left.
+   *
+   * @param programType the name of the program type.
+   * @return a list of recurring programs.
+   */
+  @Query(
+      """
+      SELECT p
+      FROM Program p
+      WHERE p.virtualRecurrences = true AND p.deletedAt IS NULL
+      AND CAST(p.programType AS String) = :programType AND p.capacity > 0
+      AND p.frequency IS NOT NULL AND LOWER(p.frequency) <> 'once'
+      """)
+  List<Program> findVirtualRecurringProgramsByProgramType(@Param("programType") String programType);
+
   @Query(
       """
       SELECT p
@@ -37,7 +127,9 @@ public interface ProgramRepository extends JpaRepository<Program, Integer> {
       @Param("recurrenceId") Integer recurrenceId);
 
   @Query(
-      value = "SELECT * FROM program WHERE type = CAST(:programType AS program_type)",
+      value =
+          "SELECT * FROM program WHERE type = CAST(:programType AS program_type)"
+              + " AND deleted_at IS NULL",
       nativeQuery = true)
   List<Program> findProgramByType(@Param("programType") String programType);
 
@@ -60,4 +152,39 @@ public interface ProgramRepository extends JpaRepository<Program, Integer> {
             WHERE p.programId = :programId
             """)
   void uncancelProgram(Integer programId);
+
+  /**
+   * Marks a program deleted, which hides it at once. Its rows are purged later in the background.
+   *
+   * @param programId the id of the program.
+   * @return the number of programs marked deleted, 0 if it was already deleted.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE program SET deleted_at = CURRENT_TIMESTAMP
+          WHERE program_id = :programId AND deleted_at IS NULL
+          """,
+      nativeQuery = true)
+  int softDeleteProgram(@Param("programId") Integer programId);
+
+  /**
+   * Finds the programs changed by the transactions between a watermark and a horizon, in
+   * transaction and change version order.
+   *
+   * @param watermark the lowest transaction id the client has not seen.
+   * @param horizon the transaction id below which every transaction has finished.
+   * @param pageable the maximum number of programs.
+   * @return a list of programs.
+   */
+  @Query(
+      """
+      SELECT p FROM Program p
+      WHERE p.changeXid >= :watermark AND p.changeXid < :horizon AND p.deletedAt IS NULL
+      ORDER BY p.changeXid, p.changeVersion
+      """)
+  List<Program> findChangedSince(
+      @Param("watermark") Long watermark, @Param("horizon") Long horizon, Pageable pageable);
 }
@@ -0,0 +1,158 @@
+package com.sportganise.repositories.programsessions;
+
+import com.sportganise.entities.programsessions.ProgramType;
+import io.micrometer.common.lang.Nullable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Searches programs with only the conditions of the filters that are set, so that each filter can
+ * use its index: the type index, the index on the lowercased location, the trigram index on the
+ * title and description for text, and the index on (occurence_date, program_id), which also gives
+ * the order of the keyset pages.
+ */
+@Repository
+public class ProgramSearchReader {
+
+  private static final String SELECT =
+      """
+      SELECT p.program_id, p.type, p.title, p.location, p.visibility, p.occurence_date,
+          p.duration, p.expiry_date, p.frequency, COALESCE(p.cancelled, FALSE) AS cancelled
+      FROM program p
+      WHERE p.occurence_date IS NOT NULL AND p.deleted_at IS NULL
+      """;
+
+  /** Same expression as the trigram index, which is only used when the query repeats it. */
+  private static final String TEXT = "(p.title || ' ' || COALESCE(p.description, ''))";
+
+  /**
+   * Filters of a program search. Null filters match every program.
+   *
+   * @param type Type of the programs.
+   * @param location Location of the programs, compared without case.
+   * @param visibility Visibility of the programs.
+   * @param cancelled Whether the programs are cancelled.
+   * @param from Programs whose last occurrence is before this date are left out.
+   * @param to Programs whose first occurrence is at or after this date are left out.
+   * @param text Text found in the title or description of the programs, without case.
+   */
+  public record ProgramSearchCriteria(
+      @Nullable ProgramType type,
+      @Nullable String location,
+      @Nullable String visibility,
+      @Nullable Boolean cancelled,
+      @Nullable ZonedDateTime from,
+      @Nullable ZonedDateTime to,
+      @Nullable String text) {}
+
+  /** A program matching a search. */
+  public record MatchingProgram(
+      Integer programId,
+      String programType,
+      String title,
+      String location,
+      String visibility,
+      ZonedDateTime occurrenceDate,
+      Integer durationMins,
+      ZonedDateTime expiryDate,
+      String frequency,
+      boolean cancelled) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ProgramSearchReader.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ProgramSearchReader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Reads the programs matching the criteria, ordered by first occurrence and id.
+   *
+   * @param criteria Filters of the search.
+   * @param afterDate First occurrence of the last program of the previous page, or null for the
+   *     first page.
+   * @param afterId Id of the last program of the previous page, or null for the first page.
+   * @param limit Maximum number of programs to read.
+   * @return the matching programs that come after the cursor.
+   */
+  public List<MatchingProgram> search(
+      ProgramSearchCriteria criteria,
+      @Nullable ZonedDateTime afterDate,
+      @Nullable Integer afterId,
+      int limit) {
+    StringBuilder sql = new StringBuilder(SELECT);
+    List<Object> args = new ArrayList<>();
+
+    if (criteria.type() != null) {
+      sql.append("AND p.type = CAST(? AS program_type)\n");
+      args.add(criteria.type().name());
+    }
+    if (criteria.location() != null) {
+      sql.append("AND LOWER(p.location) = LOWER(?)\n");
+      args.add(criteria.location().trim());
+    }
+    if (criteria.visibility() != null) {
+      sql.append("AND p.visibility = ?\n");
+      args.add(criteria.visibility());
+    }
+    if (criteria.cancelled() != null) {
+      sql.append("AND COALESCE(p.cancelled, FALSE) = ?\n");
+      args.add(criteria.cancelled());
+    }
+    if (criteria.from() != null) {
+      sql.append("AND COALESCE(p.expiry_date, p.occurence_date) >= ?\n");
+      args.add(criteria.from().toOffsetDateTime());
+    }
+    if (criteria.to() != null) {
+      sql.append("AND p.occurence_date < ?\n");
+      args.add(criteria.to().toOffsetDateTime());
+    }
+    if (criteria.text() != null) {
+      sql.append("AND ").append(TEXT).append(" ILIKE ? ESCAPE '\\'\n");
+      args.add("%" + escapeLike(criteria.text().trim()) + "%");
+    }
+    if (afterDate != null && afterId != null) {
+      sql.append("AND (p.occurence_date, p.program_id) > (?, ?)\n");
+      args.add(afterDate.toOffsetDateTime());
+      args.add(afterId);
+    }
+    sql.append("ORDER BY p.occurence_date, p.program_id\nLIMIT ?");
+    args.add(limit);
+
+    return jdbcTemplate.query(
+        sql.toString(), (resultSet, rowNum) -> toMatchingProgram(resultSet), args.toArray());
+  }
+
+  /** Escapes the wildcards of LIKE, so that the text is matched as it is written. */
+  static String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private static MatchingProgram toMatchingProgram(ResultSet resultSet) throws SQLException {
+    OffsetDateTime expiryDate = resultSet.getObject("expiry_date", OffsetDateTime.class);
+    return new MatchingProgram(
+        resultSet.getInt("program_id"),
+        resultSet.getString("type"),
+        resultSet.getString("title"),
+        resultSet.getString("location"),
+        resultSet.getString("visibility"),
+        resultSet
+            .getObject("occurence_date", OffsetDateTime.class)
+            .atZoneSameInstant(ZoneOffset.UTC),
+        (Integer) resultSet.getObject("duration"),
+        expiryDate != null ? expiryDate.atZoneSameInstant(ZoneOffset.UTC) : null,
+        resultSet.getString("frequency"),
+        resultSet.getBoolean("cancelled"));
+  }
+}
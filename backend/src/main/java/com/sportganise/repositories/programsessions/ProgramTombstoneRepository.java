@@ -0,0 +1,83 @@
+package com.sportganise.repositories.programsessions;
+
+import com.sportganise.entities.programsessions.ProgramTombstone;
+import jakarta.transaction.Transactional;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repository for the tombstones of deleted programs and recurrences. */
+@Repository
+public interface ProgramTombstoneRepository extends JpaRepository<ProgramTombstone, Long> {
+
+  /**
+   * Finds the tombstones written by the transactions between a watermark and a horizon, in
+   * transaction and change version order.
+   *
+   * @param watermark the lowest transaction id the client has not seen.
+   * @param horizon the transaction id below which every transaction has finished.
+   * @param pageable the maximum number of tombstones.
+   * @return a list of tombstones.
+   */
+  @Query(
+      """
+      SELECT t FROM ProgramTombstone t
+      WHERE t.changeXid >= :watermark AND t.changeXid < :horizon
+      ORDER BY t.changeXid, t.changeVersion
+      """)
+  List<ProgramTombstone> findChangedSince(
+      @Param("watermark") Long watermark, @Param("horizon") Long horizon, Pageable pageable);
+
+  /**
+   * Gets the oldest transaction id still in flight. Every transaction below it has finished, and
+   * every transaction that has not is at or above it.
+   *
+   * @return the xmin of the current snapshot.
+   */
+  @Query(
+      value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)",
+      nativeQuery = true)
+  Long findFinishedHorizon();
+
+  /**
+   * Gets the highest transaction id of the tombstones purged so far.
+   *
+   * @return the sync horizon, or 0 if no tombstone was purged.
+   */
+  @Query(value = "SELECT change_xid FROM program_sync_horizon", nativeQuery = true)
+  Long findSyncHorizon();
+
+  /**
+   * Moves the sync horizon past the tombstones that are about to be purged.
+   *
+   * @param deletedBefore tombstones of deletions before this date are purged.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          """
+      UPDATE program_sync_horizon
+      SET change_xid = GREATEST(change_xid, (
+          SELECT COALESCE(MAX(change_xid), 0) FROM program_tombstone
+          WHERE deleted_at < :deletedBefore))
+      """,
+      nativeQuery = true)
+  void advanceSyncHorizon(@Param("deletedBefore") ZonedDateTime deletedBefore);
+
+  /**
+   * Deletes the tombstones of deletions before a date.
+   *
+   * @param deletedBefore tombstones of deletions before this date are deleted.
+   * @return the number of deleted tombstones.
+   */
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ProgramTombstone t WHERE t.deletedAt < :deletedBefore")
+  int deleteTombstonesBefore(@Param("deletedBefore") ZonedDateTime deletedBefore);
+}
@@ -0,0 +1,105 @@
+package com.sportganise.repositories.programsessions;
+
+import com.sportganise.dto.programsessions.AttendanceDto;
+import com.sportganise.dto.programsessions.ProgramParticipantDto;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Applies the attendance of a whole roster with one statement. The roster is sent as two arrays,
+ * the participants whose attendance changes are updated by a single set-based UPDATE, and the
+ * resulting state of every participant of the roster is returned by the same statement.
+ */
+@Repository
+public class RosterAttendanceWriter {
+
+  /**
+   * Present participants are confirmed and leave the waitlist queue, absent participants lose their
+   * confirmation and are marked absent. Participants already in the submitted state are not
+   * written.
+   */
+  private static final String MARK_ATTENDANCE =
+      """
+      WITH roster AS (
+          SELECT * FROM unnest(CAST(? AS INTEGER[]), CAST(? AS BOOLEAN[]))
+              AS roster(account_id, present)),
+      marked AS (
+          UPDATE program_participants pp
+          SET is_confirmed = roster.present,
+              confirm_date = CASE WHEN roster.present THEN CURRENT_TIMESTAMP END,
+              is_absent = NOT roster.present,
+              opt_in_seq = CASE WHEN roster.present THEN NULL ELSE pp.opt_in_seq END
+          FROM roster
+          WHERE pp.recurrence_id = ? AND pp.account_id = roster.account_id
+          AND (pp.is_confirmed, pp.is_absent) IS DISTINCT FROM (roster.present, NOT roster.present)
+          RETURNING pp.account_id, pp.type, pp.is_confirmed, pp.confirm_date, TRUE AS changed)
+      SELECT account_id, type, is_confirmed, confirm_date, changed FROM marked
+      UNION ALL
+      SELECT pp.account_id, pp.type, pp.is_confirmed, pp.confirm_date, FALSE
+      FROM program_participants pp
+      JOIN roster ON roster.account_id = pp.account_id
+      WHERE pp.recurrence_id = ?
+      AND pp.account_id NOT IN (SELECT account_id FROM marked)
+      """;
+
+  /**
+   * Attendance of a participant after the roster was applied.
+   *
+   * @param participant State of the participant.
+   * @param changed Whether the roster changed the attendance of the participant.
+   */
+  public record MarkedAttendance(ProgramParticipantDto participant, boolean changed) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for RosterAttendanceWriter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public RosterAttendanceWriter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Marks the participants of a roster present or absent.
+   *
+   * @param recurrenceId Id of the recurrence, or of the program when it does not recur.
+   * @param roster Attendance of each participant, at most once per account.
+   * @return the attendance of the participants of the roster. Accounts that do not take part in the
+   *     recurrence are left out.
+   */
+  public List<MarkedAttendance> markAttendance(Integer recurrenceId, List<AttendanceDto> roster) {
+    Integer[] accountIds = roster.stream().map(AttendanceDto::getAccountId).toArray(Integer[]::new);
+    Boolean[] present = roster.stream().map(AttendanceDto::isPresent).toArray(Boolean[]::new);
+
+    return jdbcTemplate.query(
+        connection -> {
+          Array accountIdArray = connection.createArrayOf("integer", accountIds);
+          Array presentArray = connection.createArrayOf("boolean", present);
+          PreparedStatement preparedStatement = connection.prepareStatement(MARK_ATTENDANCE);
+          preparedStatement.setArray(1, accountIdArray);
+          preparedStatement.setArray(2, presentArray);
+          preparedStatement.setInt(3, recurrenceId);
+          preparedStatement.setInt(4, recurrenceId);
+          return preparedStatement;
+        },
+        (resultSet, rowNum) -> {
+          OffsetDateTime confirmDate = resultSet.getObject("confirm_date", OffsetDateTime.class);
+          return new MarkedAttendance(
+              new ProgramParticipantDto(
+                  resultSet.getInt("account_id"),
+                  recurrenceId,
+                  null,
+                  resultSet.getString("type"),
+                  resultSet.getBoolean("is_confirmed"),
+                  confirmDate != null ? confirmDate.atZoneSameInstant(ZoneOffset.UTC) : null),
+              resultSet.getBoolean("changed"));
+        });
+  }
+}
@@ -0,0 +1,156 @@
+package com.sportganise.repositories.programsessions;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the stored occurrences that are not cancelled inside a window, with the location of their
+ * program and the accounts coaching them, for the schedule conflict index. Stored occurrences are
+ * the recurrences of recurring programs and non-recurring programs, whose coaches take part in the
+ * recurrence of the program at its occurrence date.
+ */
+@Repository
+public class ScheduledSlotReader {
+
+  private static final String SLOTS =
+      """
+      SELECT p.program_id, pr.recurrence_id, p.title, p.location, pr.occurrence_date, p.duration,
+          ARRAY(SELECT pp.account_id FROM program_participants pp
+              WHERE pp.recurrence_id = pr.recurrence_id AND LOWER(pp.type) = 'coach') AS coach_ids
+      FROM program_recurrence pr
+      JOIN program p ON p.program_id = pr.program_id
+      WHERE pr.occurrence_date >= ? AND pr.occurrence_date < ?
+      AND NOT COALESCE(pr.cancelled, FALSE) AND NOT COALESCE(p.cancelled, FALSE)
+      AND p.deleted_at IS NULL
+      AND p.frequency IS NOT NULL AND LOWER(p.frequency) <> 'once'
+      %1$s
+      UNION ALL
+      SELECT p.program_id, own.recurrence_id, p.title, p.location, p.occurence_date, p.duration,
+          ARRAY(SELECT pp.account_id FROM program_participants pp
+              WHERE pp.recurrence_id = own.recurrence_id AND LOWER(pp.type) = 'coach')
+      FROM program p
+      LEFT JOIN LATERAL (
+          SELECT pr.recurrence_id FROM program_recurrence pr
+          WHERE pr.program_id = p.program_id AND pr.occurrence_date = p.occurence_date
+          ORDER BY pr.recurrence_id
+          LIMIT 1) own ON TRUE
+      WHERE p.occurence_date >= ? AND p.occurence_date < ?
+      AND NOT COALESCE(p.cancelled, FALSE) AND p.deleted_at IS NULL
+      AND (p.frequency IS NULL OR LOWER(p.frequency) = 'once')
+      %1$s
+      """;
+
+  private static final String ALL_SLOTS = SLOTS.formatted("");
+
+  private static final String PROGRAM_SLOTS = SLOTS.formatted("AND p.program_id = ?");
+
+  /**
+   * An occurrence held by the schedule conflict index.
+   *
+   * @param programId Id of the program.
+   * @param recurrenceId Id of the recurrence, or null for a non-recurring program without one yet
+   *     or an occurrence expanded from the recurrence rule.
+   * @param title Title of the program.
+   * @param location Location of the program.
+   * @param occurrenceDate Start of the occurrence.
+   * @param durationMins Duration of the occurrence.
+   * @param coachIds Ids of the accounts coaching the occurrence.
+   */
+  public record ScheduledSlot(
+      Integer programId,
+      Integer recurrenceId,
+      String title,
+      String location,
+      ZonedDateTime occurrenceDate,
+      Integer durationMins,
+      List<Integer> coachIds) {
+
+    /**
+     * Method to get the start of the occurrence.
+     *
+     * @return the start, in epoch milliseconds.
+     */
+    public long startMillis() {
+      return occurrenceDate.toInstant().toEpochMilli();
+    }
+
+    /**
+     * Method to get the end of the occurrence. An occurrence without a duration never overlaps
+     * another one.
+     *
+     * @return the end, in epoch milliseconds.
+     */
+    public long endMillis() {
+      return startMillis() + (durationMins != null ? durationMins * 60_000L : 0);
+    }
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for ScheduledSlotReader.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public ScheduledSlotReader(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Reads the stored occurrences of every program inside a window.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @return the occurrences that are not cancelled.
+   */
+  public List<ScheduledSlot> findSlots(ZonedDateTime from, ZonedDateTime to) {
+    return jdbcTemplate.query(
+        ALL_SLOTS,
+        (resultSet, rowNum) -> toSlot(resultSet),
+        from.toOffsetDateTime(),
+        to.toOffsetDateTime(),
+        from.toOffsetDateTime(),
+        to.toOffsetDateTime());
+  }
+
+  /**
+   * Reads the stored occurrences of a program inside a window.
+   *
+   * @param programId Id of the program.
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @return the occurrences that are not cancelled.
+   */
+  public List<ScheduledSlot> findSlots(Integer programId, ZonedDateTime from, ZonedDateTime to) {
+    return jdbcTemplate.query(
+        PROGRAM_SLOTS,
+        (resultSet, rowNum) -> toSlot(resultSet),
+        from.toOffsetDateTime(),
+        to.toOffsetDateTime(),
+        programId,
+        from.toOffsetDateTime(),
+        to.toOffsetDateTime(),
+        programId);
+  }
+
+  private static ScheduledSlot toSlot(ResultSet resultSet) throws SQLException {
+    Array coachIds = resultSet.getArray("coach_ids");
+    return new ScheduledSlot(
+        resultSet.getInt("program_id"),
+        (Integer) resultSet.getObject("recurrence_id"),
+        resultSet.getString("title"),
+        resultSet.getString("location"),
+        resultSet
+            .getObject("occurrence_date", OffsetDateTime.class)
+            .atZoneSameInstant(ZoneOffset.UTC),
+        (Integer) resultSet.getObject("duration"),
+        List.of((Integer[]) coachIds.getArray()));
+  }
+}
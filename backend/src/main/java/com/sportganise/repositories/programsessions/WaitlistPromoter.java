@@ -0,0 +1,99 @@
+package com.sportganise.repositories.programsessions;
+
+import jakarta.transaction.Transactional;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Confirms the first participants in the waitlist of a recurrence, as many as it has free spots.
+ * The recurrence row is locked first, so promotions of a recurrence and manual confirmations, which
+ * update its confirmed count, wait for each other and never confirm more participants than the
+ * capacity of the program.
+ */
+@Repository
+public class WaitlistPromoter {
+
+  /** Locks an upcoming recurrence that is not cancelled and reads its free spots. */
+  private static final String LOCK_RECURRENCE =
+      """
+      SELECT pr.recurrence_id, p.title, pr.occurrence_date,
+          p.capacity - pr.confirmed_count AS free_spots
+      FROM program_recurrence pr
+      JOIN program p ON p.program_id = pr.program_id
+      WHERE pr.recurrence_id = ? AND pr.occurrence_date > CURRENT_TIMESTAMP
+      AND NOT COALESCE(pr.cancelled, FALSE) AND NOT COALESCE(p.cancelled, FALSE)
+      AND p.deleted_at IS NULL
+      FOR UPDATE OF pr
+      """;
+
+  /** Confirms the participants ranked within the free spots and takes them out of the queue. */
+  private static final String CONFIRM_NEXT =
+      """
+      UPDATE program_participants pp
+      SET is_confirmed = TRUE, confirm_date = CURRENT_TIMESTAMP, is_absent = FALSE,
+          opt_in_seq = NULL
+      FROM waitlist_position wp
+      WHERE wp.recurrence_id = ? AND wp.rank <= ?
+      AND pp.recurrence_id = wp.recurrence_id AND pp.account_id = wp.account_id
+      RETURNING pp.account_id
+      """;
+
+  /**
+   * Participants confirmed in the waitlist of a recurrence.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @param title Title of the program.
+   * @param occurrenceDate Date of the recurrence.
+   * @param accountIds Ids of the accounts of the confirmed participants.
+   */
+  public record Promotion(
+      Integer recurrenceId, String title, ZonedDateTime occurrenceDate, List<Integer> accountIds) {}
+
+  private record FreeSpots(String title, ZonedDateTime occurrenceDate, int count) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for WaitlistPromoter.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public WaitlistPromoter(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Confirms the next participants in the waitlist of a recurrence, up to the capacity of its
+   * program, in one transaction.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @return the confirmed participants, with no account if the recurrence is full, past, cancelled
+   *     or has no one waiting.
+   */
+  @Transactional
+  public Promotion promoteNext(Integer recurrenceId) {
+    List<FreeSpots> recurrences =
+        jdbcTemplate.query(
+            LOCK_RECURRENCE,
+            (resultSet, rowNum) ->
+                new FreeSpots(
+                    resultSet.getString("title"),
+                    resultSet
+                        .getObject("occurrence_date", OffsetDateTime.class)
+                        .atZoneSameInstant(ZoneOffset.UTC),
+                    resultSet.getInt("free_spots")),
+            recurrenceId);
+    if (recurrences.isEmpty() || recurrences.getFirst().count() <= 0) {
+      return new Promotion(recurrenceId, null, null, List.of());
+    }
+
+    FreeSpots freeSpots = recurrences.getFirst();
+    List<Integer> accountIds =
+        jdbcTemplate.queryForList(CONFIRM_NEXT, Integer.class, recurrenceId, freeSpots.count());
+    return new Promotion(recurrenceId, freeSpots.title(), freeSpots.occurrenceDate(), accountIds);
+  }
+}
@@ -0,0 +1,65 @@
+package com.sportganise.repositories.programsessions;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Puts waitlisted participants in the queue of their recurrence. A participant opts in by taking
+ * the next value of a sequence, which orders the queue and never changes afterwards; the rank shown
+ * to players is the position in that order, computed when read by the waitlist_position view. Since
+ * no other participant is renumbered, leaving the queue only clears the participant's own row, and
+ * concurrent opt-ins never wait for each other.
+ */
+@Slf4j
+@Repository
+public class WaitlistQueue {
+
+  /**
+   * Gives the next opt-in sequence number to the participant if it is waitlisted and not in the
+   * queue yet, and counts the participants ahead of it in the same statement.
+   */
+  private static final String OPT_IN =
+      """
+      WITH opted AS (
+          UPDATE program_participants SET opt_in_seq = nextval('waitlist_opt_in_seq')
+          WHERE recurrence_id = ? AND account_id = ?
+          AND type = 'Waitlisted' AND is_confirmed = FALSE AND opt_in_seq IS NULL
+          RETURNING recurrence_id, opt_in_seq)
+      SELECT CAST(COUNT(pp.account_id) + 1 AS INTEGER)
+      FROM opted
+      LEFT JOIN program_participants pp
+          ON pp.recurrence_id = opted.recurrence_id
+          AND pp.opt_in_seq < opted.opt_in_seq AND pp.is_confirmed = FALSE
+      GROUP BY opted.opt_in_seq
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Constructor for WaitlistQueue.
+   *
+   * @param jdbcTemplate JDBC template bound to the application data source.
+   */
+  public WaitlistQueue(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Puts a waitlisted participant at the end of the queue of a recurrence, in one statement.
+   *
+   * @param recurrenceId Id of the recurrence.
+   * @param accountId Id of the account of the participant.
+   * @return the rank of the participant in the queue, or null if the participant is not waitlisted,
+   *     is confirmed or already opted in.
+   */
+  public Integer optIn(Integer recurrenceId, Integer accountId) {
+    List<Integer> ranks = jdbcTemplate.queryForList(OPT_IN, Integer.class, recurrenceId, accountId);
+    if (ranks.isEmpty()) {
+      log.debug("NOT OPTED IN (recurrenceId={}, accountId={})", recurrenceId, accountId);
+      return null;
+    }
+    return ranks.getFirst();
+  }
+}
@@ -0,0 +1,31 @@
+package com.sportganise.schedulers;
+
+import com.sportganise.services.programsessions.ProgramPurgeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Scheduled task to purge the rows and files of deleted programs. */
+@Component
+@Slf4j
+public class ProgramPurgeTask {
+  private final ProgramPurgeService programPurgeService;
+
+  public ProgramPurgeTask(ProgramPurgeService programPurgeService) {
+    this.programPurgeService = programPurgeService;
+  }
+
+  /** Purges the programs marked deleted every minute. */
+  @Scheduled(fixedDelayString = "${programs.purge.interval-ms:60000}")
+  public void purge() {
+    try {
+      int purged = programPurgeService.purgeDeletedPrograms();
+      if (purged > 0) {
+        log.info("Purged {} deleted programs.", purged);
+      }
+    } catch (DataAccessException e) {
+      log.error(e.getMessage());
+    }
+  }
+}
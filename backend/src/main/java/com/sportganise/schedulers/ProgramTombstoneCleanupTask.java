@@ -0,0 +1,37 @@
+package com.sportganise.schedulers;
+
+import com.sportganise.services.programsessions.ProgramSyncService;
+import java.time.ZonedDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Scheduled task to purge the tombstones of old program and recurrence deletions. */
+@Component
+@Slf4j
+public class ProgramTombstoneCleanupTask {
+  private final ProgramSyncService programSyncService;
+  private final int retentionDays;
+
+  public ProgramTombstoneCleanupTask(
+      ProgramSyncService programSyncService,
+      @Value("${programs.sync.tombstone-retention-days:30}") int retentionDays) {
+    this.programSyncService = programSyncService;
+    this.retentionDays = retentionDays;
+  }
+
+  /** Purges tombstones older than the retention period every day at 1 AM. */
+  @Scheduled(cron = "0 0 1 * * ?")
+  public void cleanup() {
+    log.info("Purging program tombstones...");
+    try {
+      int deletedCount =
+          programSyncService.purgeTombstones(ZonedDateTime.now().minusDays(retentionDays));
+      log.info("Deleted {} program tombstones.", deletedCount);
+    } catch (DataAccessException e) {
+      log.error(e.getMessage());
+    }
+  }
+}
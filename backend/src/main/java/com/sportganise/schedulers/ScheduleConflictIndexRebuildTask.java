@@ -0,0 +1,32 @@
+package com.sportganise.schedulers;
+
+import com.sportganise.services.programsessions.ScheduleConflictIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled task to rebuild the schedule conflict index, which moves its window forward and picks
+ * up changes made outside of this instance.
+ */
+@Component
+@Slf4j
+public class ScheduleConflictIndexRebuildTask {
+  private final ScheduleConflictIndex scheduleConflictIndex;
+
+  public ScheduleConflictIndexRebuildTask(ScheduleConflictIndex scheduleConflictIndex) {
+    this.scheduleConflictIndex = scheduleConflictIndex;
+  }
+
+  /** Rebuilds the index every day at 2 AM. */
+  @Scheduled(cron = "0 0 2 * * ?")
+  public void rebuild() {
+    log.info("Rebuilding schedule conflict index...");
+    try {
+      scheduleConflictIndex.rebuild();
+    } catch (DataAccessException e) {
+      log.error(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.sportganise.schedulers;
+
+import com.sportganise.services.programsessions.WaitlistPromotionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Scheduled task to promote waitlisted participants into freed spots. */
+@Component
+@Slf4j
+public class WaitlistPromotionTask {
+  private final WaitlistPromotionService waitlistPromotionService;
+
+  public WaitlistPromotionTask(WaitlistPromotionService waitlistPromotionService) {
+    this.waitlistPromotionService = waitlistPromotionService;
+  }
+
+  /** Promotes the waitlists of the recurrences with a freed spot every second. */
+  @Scheduled(fixedDelayString = "${programs.waitlist.promotion-interval-ms:1000}")
+  public void promote() {
+    int promoted = waitlistPromotionService.promoteQueuedWaitlists();
+    if (promoted > 0) {
+      log.debug("Promoted {} waitlisted participants.", promoted);
+    }
+  }
+}
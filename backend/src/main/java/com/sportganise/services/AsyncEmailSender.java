@@ -0,0 +1,62 @@
+package com.sportganise.services;
+
+import com.sportganise.config.ExecutorConfig;
+import com.sportganise.entities.programsessions.Program;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends emails in the background through a small pool of threads, so requests do not wait for the
+ * mail server. The pool has a bounded queue; when it is full, the email is not queued and the
+ * caller is told so instead of being blocked.
+ */
+@Slf4j
+@Service
+public class AsyncEmailSender {
+
+  private final EmailService emailService;
+  private final TaskExecutor executor;
+
+  /**
+   * Constructor for AsyncEmailSender.
+   *
+   * @param emailService Service sending the emails.
+   * @param executor Pool of threads sending the emails.
+   */
+  public AsyncEmailSender(
+      EmailService emailService,
+      @Qualifier(ExecutorConfig.EMAIL_SENDER_EXECUTOR) TaskExecutor executor) {
+    this.emailService = emailService;
+    this.executor = executor;
+  }
+
+  /**
+   * Method to queue the invitation email of a private program.
+   *
+   * @param toEmail recipient of the email
+   * @param program program the user was invited to
+   * @return true if the email was queued, false if the queue is full.
+   */
+  public boolean sendPrivateProgramInvitation(String toEmail, Program program) {
+    try {
+      executor.execute(
+          () -> {
+            try {
+              emailService.sendPrivateProgramInvitation(toEmail, program);
+            } catch (RuntimeException e) {
+              log.error(
+                  "Failed to send invitation to program {}: {}",
+                  program.getProgramId(),
+                  e.getMessage());
+            }
+          });
+      return true;
+    } catch (RejectedExecutionException e) {
+      log.warn("Email queue full, invitation to program {} not sent", program.getProgramId());
+      return false;
+    }
+  }
+}
@@ -8,8 +8,10 @@ import com.sportganise.exceptions.FileProcessingException;
 import com.sportganise.repositories.BlobRepository;
 import com.sportganise.repositories.directmessaging.DirectMessageBlobRepository;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -82,16 +84,11 @@ public class BlobService {
   public String uploadFile(
       MultipartFile file, boolean isMessageFile, String messageId, Integer accountId)
       throws FileProcessingException {
-    String fileName = file.getOriginalFilename();
-    String uniqueFileName = UUID.randomUUID() + "_" + fileName;
-    String s3Key = accountId + "/" + uniqueFileName;
+    String s3Key = computeS3Key(file, accountId);
 
     log.debug("Uploading file: {}", s3Key);
     try {
-      assert fileName != null;
-      PutObjectRequest objectRequest =
-          PutObjectRequest.builder().bucket(bucketName).key(s3Key).build();
-      s3Client.putObject(objectRequest, RequestBody.fromBytes(file.getBytes()));
+      putObject(file, s3Key);
       String s3Url = this.computeS3Url(s3Key);
 
       // ** Save the S3 Object URL in the Database.
@@ -125,6 +122,37 @@ public class BlobService {
     }
   }
 
+  /**
+   * Uploads a file to the AWS S3 Bucket without saving its blob row, for callers that upload
+   * several files at once and save the rows together with {@link #saveBlobs(List)}.
+   *
+   * @param file File to be uploaded.
+   * @param accountId Id of the account uploading the file.
+   * @return The URL of the newly uploaded file.
+   * @throws FileProcessingException If an error occurs while uploading the file.
+   */
+  public String putFile(MultipartFile file, Integer accountId) throws FileProcessingException {
+    String s3Key = computeS3Key(file, accountId);
+
+    log.debug("Uploading file: {}", s3Key);
+    try {
+      putObject(file, s3Key);
+      return this.computeS3Url(s3Key);
+    } catch (S3Exception | IOException e) {
+      throw new FileProcessingException("Error uploading file: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Saves the blob rows of uploaded files with one call.
+   *
+   * @param blobUrls URLs of the uploaded files.
+   */
+  public void saveBlobs(List<String> blobUrls) {
+    blobRepository.saveAll(
+        blobUrls.stream().map(blobUrl -> Blob.builder().blobUrl(blobUrl).build()).toList());
+  }
+
   /**
    * Deletes a file from the AWS S3 Bucket using its URL.
    *
@@ -157,6 +185,31 @@ public class BlobService {
     }
   }
 
+  private static String computeS3Key(MultipartFile file, Integer accountId) {
+    return accountId + "/" + UUID.randomUUID() + "_" + file.getOriginalFilename();
+  }
+
+  /**
+   * Streams the content of a file to the AWS S3 Bucket. The declared size lets the SDK send the
+   * content as it is read instead of loading the whole file in memory.
+   *
+   * @param file File to be uploaded.
+   * @param s3Key Key of the object.
+   * @throws IOException If the content of the file cannot be read.
+   */
+  private void putObject(MultipartFile file, String s3Key) throws IOException {
+    PutObjectRequest objectRequest =
+        PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(s3Key)
+            .contentLength(file.getSize())
+            .contentType(file.getContentType())
+            .build();
+    try (InputStream inputStream = file.getInputStream()) {
+      s3Client.putObject(objectRequest, RequestBody.fromInputStream(inputStream, file.getSize()));
+    }
+  }
+
   /**
    * Computes the S3 URL of a file.
    *
@@ -22,8 +22,10 @@ import com.sportganise.repositories.organization.AccountOrganizationRepository;
 import com.sportganise.services.BlobService;
 import com.sportganise.services.account.auth.Auth0ApiService;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -246,6 +248,20 @@ public class AccountService {
         .orElseThrow(() -> new AccountNotFoundException("Account not found"));
   }
 
+  /**
+   * Checks that every id belongs to an account, with a single query.
+   *
+   * @param ids ids of the accounts.
+   * @throws AccountNotFoundException if any of the accounts is not found.
+   */
+  public void validateAccountIds(List<Integer> ids) {
+    Set<Integer> existingIds = new HashSet<>(accountRepository.findExistingAccountIds(ids));
+    List<Integer> missingIds = ids.stream().filter(id -> !existingIds.contains(id)).toList();
+    if (!missingIds.isEmpty()) {
+      throw new AccountNotFoundException("Account not found: " + missingIds);
+    }
+  }
+
   /**
    * Lists all account with their permissions.
    *
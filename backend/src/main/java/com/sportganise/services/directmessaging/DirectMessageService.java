@@ -14,6 +14,7 @@ import com.sportganise.repositories.directmessaging.DirectMessageChannelMemberRe
 import com.sportganise.repositories.directmessaging.DirectMessageChannelRepository;
 import com.sportganise.repositories.directmessaging.DirectMessageRepository;
 import com.sportganise.services.BlobService;
+import io.micrometer.common.lang.Nullable;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +30,9 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 @Service
 public class DirectMessageService {
+  /** Number of messages in a page of a channel's history. */
+  static final int MESSAGE_PAGE_SIZE = 30;
+
   private final DirectMessageRepository directMessageRepository;
   private final DirectMessageChannelRepository directMessageChannelRepository;
   private final DirectMessageChannelMemberRepository directMessageChannelMemberRepository;
@@ -54,35 +58,35 @@ public class DirectMessageService {
   }
 
   /**
-   * Gets 30 most recent messages in a channel.
+   * Gets a page of the messages in a channel, the newest first. Without a cursor, the page holds
+   * the most recent messages; with one, the messages sent before the message it points to. The
+   * attachments of the whole page are fetched with a single query.
    *
    * @param channelId The ID of the channel.
+   * @param lastSentAt The sentAt of the last message of the previous page, or null.
+   * @param lastMessageId The ID of the last message of the previous page, or null.
    * @return List of messages in the channel in dto format.
    * @throws DirectMessageFetchException If an error occurs while fetching messages.
    */
-  public List<DirectMessageDto> getChannelMessages(int channelId, ZonedDateTime lastSentAt) {
+  public List<DirectMessageDto> getChannelMessages(
+      int channelId, @Nullable ZonedDateTime lastSentAt, @Nullable Integer lastMessageId) {
     try {
       log.info("Getting messages for channel {}", channelId);
-      int messageLimit = 30;
 
+      // Without a message id, the cursor keeps every message sent at lastSentAt out of the page.
       List<DirectMessage> messagesNoAttachments =
-          directMessageRepository.getMessagesByChannelId(channelId, lastSentAt, messageLimit);
+          lastSentAt == null
+              ? directMessageRepository.getLatestMessagesByChannelId(channelId, MESSAGE_PAGE_SIZE)
+              : directMessageRepository.getMessagesByChannelIdBefore(
+                  channelId,
+                  lastSentAt,
+                  lastMessageId != null ? lastMessageId : 0,
+                  MESSAGE_PAGE_SIZE);
+      Map<Integer, List<DmAttachmentDto>> attachmentsByMessage =
+          getMessagesAttachments(messagesNoAttachments);
       Map<Integer, MemberDetailsDto> memberDetails = getChannelMembersDetails(channelId);
-      for (Map.Entry<Integer, MemberDetailsDto> entry : memberDetails.entrySet()) {
-        Integer key = entry.getKey();
-        MemberDetailsDto value = entry.getValue();
-        System.out.println(
-            "Member Id: "
-                + key
-                + ", Values: "
-                + value.getAvatarUrl()
-                + ", "
-                + value.getFirstName());
-        System.out.println(memberDetails.get(key).getFirstName());
-      }
       log.debug("Received member details for channel.");
       List<DirectMessageDto> messages = new ArrayList<>();
-      List<DmAttachmentDto> attachments;
       DirectMessageDto messageDto;
       for (DirectMessage message : messagesNoAttachments) {
         // Case where member that sent the message isn't in the channel anymore.
@@ -103,8 +107,6 @@ public class DirectMessageService {
           messages.add(messageDto);
           continue;
         }
-        attachments = directMessageRepository.getMessageAttachments(message.getMessageId());
-        Collections.reverse(attachments);
         messageDto =
             DirectMessageDto.builder()
                 .messageId(message.getMessageId())
@@ -112,7 +114,7 @@ public class DirectMessageService {
                 .senderFirstName(memberDetails.get(message.getSenderId()).getFirstName())
                 .channelId(message.getChannelId())
                 .messageContent(message.getContent())
-                .attachments(attachments)
+                .attachments(attachmentsByMessage.getOrDefault(message.getMessageId(), List.of()))
                 .sentAt(message.getSentAt().toString())
                 .type(message.getType())
                 .avatarUrl(memberDetails.get(message.getSenderId()).getAvatarUrl())
@@ -130,6 +132,33 @@ public class DirectMessageService {
     }
   }
 
+  /**
+   * Gets the attachments of a page of messages with one query.
+   *
+   * @param messages The messages of the page.
+   * @return A Map of message IDs to their attachments.
+   */
+  private Map<Integer, List<DmAttachmentDto>> getMessagesAttachments(List<DirectMessage> messages) {
+    if (messages.isEmpty()) {
+      return Map.of();
+    }
+    List<Integer> messageIds = messages.stream().map(DirectMessage::getMessageId).toList();
+    Map<Integer, List<DmAttachmentDto>> attachmentsByMessage =
+        directMessageRepository.getMessagesAttachments(messageIds).stream()
+            .collect(
+                Collectors.groupingBy(
+                    blob -> blob.getCompositeKey().getMessageId(),
+                    Collectors.mapping(
+                        blob ->
+                            DmAttachmentDto.builder()
+                                .attachmentUrl(blob.getCompositeKey().getBlobUrl())
+                                .fileType(blob.getFileType())
+                                .build(),
+                        Collectors.toList())));
+    attachmentsByMessage.values().forEach(Collections::reverse);
+    return attachmentsByMessage;
+  }
+
   /**
    * Gets profile picture and first name for all members in a channel.
    *
@@ -7,11 +7,13 @@ import com.sportganise.entities.forum.Likes;
 import com.sportganise.entities.forum.LikesCompositeKey;
 import com.sportganise.entities.forum.Post;
 import com.sportganise.entities.forum.PostType;
+import com.sportganise.entities.programsessions.Program;
 import com.sportganise.entities.programsessions.ProgramType;
 import com.sportganise.exceptions.ResourceNotFoundException;
 import com.sportganise.repositories.AccountRepository;
 import com.sportganise.repositories.forum.LikesRepository;
 import com.sportganise.repositories.forum.PostAttachmentRepository;
+import com.sportganise.repositories.forum.PostBulkWriter;
 import com.sportganise.repositories.forum.PostRepository;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -35,6 +37,7 @@ public class PostService {
   @Autowired private PostAttachmentRepository attachmentRepository;
   @Autowired private FeedbackService feedbackService;
   @Autowired private AccountRepository accountRepository;
+  @Autowired private PostBulkWriter postBulkWriter;
 
   private static final ZonedDateTime ABSURD_DATE =
       ZonedDateTime.of(1, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
@@ -115,6 +118,7 @@ public class PostService {
                           post.getType(),
                           post.getOccurrenceDate(),
                           post.getCreationDate(),
+                          post.isCancelled(),
                           likeCount,
                           liked,
                           feedbackCount);
@@ -163,6 +167,7 @@ public class PostService {
         post.getType(),
         post.getOccurrenceDate(),
         post.getCreationDate(),
+        post.isCancelled(),
         likeCount,
         liked,
         feedbacks.size(),
@@ -211,12 +216,79 @@ public class PostService {
 
     String metadata = String.format("{\"programID\":%d}", programId);
 
-    Post newPost = new Post(accountId, title, description, metadata, postType, occurrenceDate);
+    Post newPost =
+        new Post(accountId, title, description, metadata, postType, occurrenceDate, programId);
 
     int rowsInserted = postRepository.insertPost(newPost);
     log.debug("POST CREATED WITH ROWS INSERTED: {}", rowsInserted);
   }
 
+  /**
+   * Method to create the posts of many new programs with one batch.
+   *
+   * @param accountId Id of account.
+   * @param programs Saved programs, whose title, description, occurrence date and type are copied
+   *     to their post.
+   * @return the number of created posts.
+   */
+  public int createNewPosts(Integer accountId, List<Program> programs) {
+    List<Post> newPosts =
+        programs.stream()
+            .map(
+                program ->
+                    new Post(
+                        accountId,
+                        program.getTitle(),
+                        program.getDescription(),
+                        String.format("{\"programID\":%d}", program.getProgramId()),
+                        programTypeToPostType(program.getProgramType()),
+                        program.getOccurrenceDate(),
+                        program.getProgramId()))
+            .toList();
+
+    int rowsInserted = postBulkWriter.insertPosts(newPosts);
+    log.debug("POSTS CREATED WITH ROWS INSERTED: {}", rowsInserted);
+    return rowsInserted;
+  }
+
+  /**
+   * Method to copy the title, description, type and occurrence date of a modified program to its
+   * post.
+   *
+   * @param program Modified program.
+   */
+  public void updateProgramPost(Program program) {
+    int rowsUpdated =
+        postRepository.updateProgramPost(
+            program.getProgramId(),
+            program.getTitle(),
+            program.getDescription(),
+            programTypeToPostType(program.getProgramType()),
+            program.getOccurrenceDate());
+    log.debug("POSTS UPDATED FOR PROGRAM {}: {}", program.getProgramId(), rowsUpdated);
+  }
+
+  /**
+   * Method to mark the post of a program cancelled or not.
+   *
+   * @param programId Id of the program.
+   * @param cancelled Whether the program is cancelled.
+   */
+  public void cancelProgramPost(Integer programId, boolean cancelled) {
+    int rowsUpdated = postRepository.updateProgramPostCancelled(programId, cancelled);
+    log.debug("POSTS MARKED CANCELLED={} FOR PROGRAM {}: {}", cancelled, programId, rowsUpdated);
+  }
+
+  /**
+   * Method to delete the post of a deleted program.
+   *
+   * @param programId Id of the program.
+   */
+  public void deleteProgramPost(Integer programId) {
+    int rowsDeleted = postRepository.deleteProgramPost(programId);
+    log.debug("POSTS DELETED FOR PROGRAM {}: {}", programId, rowsDeleted);
+  }
+
   private boolean likedPost(Integer postId, Integer accountId) {
     return likesRepository.findByPostIdAndAccountId(postId, accountId) != null;
   }
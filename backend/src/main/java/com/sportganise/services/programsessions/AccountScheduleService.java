@@ -0,0 +1,98 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ScheduleEntryDto;
+import com.sportganise.dto.programsessions.SchedulePageDto;
+import com.sportganise.repositories.programsessions.AccountScheduleReader;
+import com.sportganise.repositories.programsessions.AccountScheduleReader.UpcomingOccurrence;
+import io.micrometer.common.lang.Nullable;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pages through the upcoming occurrences of the programs an account takes part in, for the home
+ * screen. Each page is read with a single query and continues after the last occurrence of the
+ * previous page, so later pages cost the same as the first.
+ */
+@Slf4j
+@Service
+public class AccountScheduleService {
+
+  /** Largest number of occurrences in one page. */
+  static final int MAX_SCHEDULE_PAGE_SIZE = 100;
+
+  private final AccountScheduleReader accountScheduleReader;
+  private final Clock clock;
+
+  /**
+   * Constructor for AccountScheduleService.
+   *
+   * @param accountScheduleReader reader of the occurrences of an account.
+   */
+  @Autowired
+  public AccountScheduleService(AccountScheduleReader accountScheduleReader) {
+    this(accountScheduleReader, Clock.systemUTC());
+  }
+
+  AccountScheduleService(AccountScheduleReader accountScheduleReader, Clock clock) {
+    this.accountScheduleReader = accountScheduleReader;
+    this.clock = clock;
+  }
+
+  /**
+   * Method to get one page of the upcoming occurrences of an account, in chronological order.
+   *
+   * @param accountId Id of the account.
+   * @param cursorDate Next cursor date returned by the previous page, or null for the first page.
+   * @param cursorUid Next cursor uid returned by the previous page, or null for the first page.
+   * @param limit Maximum number of occurrences to return.
+   * @return the page of occurrences, with the cursor of the next page.
+   */
+  public SchedulePageDto getSchedulePage(
+      Integer accountId,
+      @Nullable ZonedDateTime cursorDate,
+      @Nullable String cursorUid,
+      int limit) {
+    if (limit < 1 || limit > MAX_SCHEDULE_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "The schedule page size must be between 1 and " + MAX_SCHEDULE_PAGE_SIZE + ".");
+    }
+
+    ZonedDateTime now = ZonedDateTime.now(clock);
+    ZonedDateTime afterDate = cursorDate != null ? cursorDate : now;
+    String afterUid = cursorDate != null && cursorUid != null ? cursorUid : "";
+
+    List<UpcomingOccurrence> occurrences =
+        accountScheduleReader.findUpcoming(accountId, now, afterDate, afterUid, limit + 1);
+    log.debug("SCHEDULE PAGE OF ACCOUNT {}: {} OCCURRENCES", accountId, occurrences.size());
+
+    if (occurrences.size() <= limit) {
+      return new SchedulePageDto(toEntries(occurrences), null, null);
+    }
+    List<UpcomingOccurrence> page = occurrences.subList(0, limit);
+    UpcomingOccurrence last = page.getLast();
+    return new SchedulePageDto(toEntries(page), last.occurrenceDate(), last.uid());
+  }
+
+  private static List<ScheduleEntryDto> toEntries(List<UpcomingOccurrence> occurrences) {
+    return occurrences.stream()
+        .map(
+            occurrence ->
+                new ScheduleEntryDto(
+                    occurrence.recurrenceId(),
+                    occurrence.programId(),
+                    occurrence.programType(),
+                    occurrence.title(),
+                    occurrence.description(),
+                    occurrence.location(),
+                    occurrence.occurrenceDate(),
+                    occurrence.durationMins(),
+                    occurrence.cancelled(),
+                    occurrence.participantType(),
+                    occurrence.confirmed()))
+        .toList();
+  }
+}
@@ -0,0 +1,129 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.AttendanceMonthDto;
+import com.sportganise.dto.programsessions.AttendanceStatsDto;
+import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
+import com.sportganise.repositories.programsessions.AttendanceStatsReader;
+import com.sportganise.repositories.programsessions.AttendanceStatsReader.MonthlyAttendance;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Attendance statistics of players and programs for season reviews. They are read from monthly
+ * rollups that the database updates whenever a participant is confirmed, marked absent or unabsent,
+ * so their cost only depends on the number of months requested.
+ */
+@Slf4j
+@Service
+public class AttendanceStatsService {
+
+  /** Months covered when no range is given, up to the current month. */
+  public static final int DEFAULT_MONTHS = 12;
+
+  /** Largest number of months covered by one request. */
+  public static final int MAX_MONTHS = 60;
+
+  private final AttendanceStatsReader attendanceStatsReader;
+  private final ProgramRepository programRepository;
+
+  /**
+   * Constructor for AttendanceStatsService.
+   *
+   * @param attendanceStatsReader Reads the attendance rollups.
+   * @param programRepository Program repository object.
+   */
+  public AttendanceStatsService(
+      AttendanceStatsReader attendanceStatsReader, ProgramRepository programRepository) {
+    this.attendanceStatsReader = attendanceStatsReader;
+    this.programRepository = programRepository;
+  }
+
+  /**
+   * Method to get the attendance of a player across all programs.
+   *
+   * @param accountId Id of the account of the player.
+   * @param from First month, or null for the 12 months up to the last month.
+   * @param to Last month, included, or null for the current month.
+   * @return the attendance of the player in total and per month.
+   */
+  public AttendanceStatsDto getAccountStats(Integer accountId, YearMonth from, YearMonth to) {
+    YearMonth last = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+    YearMonth first = from != null ? from : last.minusMonths(DEFAULT_MONTHS - 1);
+    validateRange(first, last);
+
+    log.debug("Fetching attendance of account {} from {} to {}", accountId, first, last);
+    List<MonthlyAttendance> monthlyAttendances =
+        attendanceStatsReader.findAccountAttendance(accountId, first, last);
+    return toStats(first, last, monthlyAttendances);
+  }
+
+  /**
+   * Method to get the attendance of a program across all its recurrences.
+   *
+   * @param programId Id of the program.
+   * @param from First month, or null for the 12 months up to the last month.
+   * @param to Last month, included, or null for the current month.
+   * @return the attendance of the program in total and per month.
+   * @throws ProgramNotFoundException if the program does not exist.
+   */
+  public AttendanceStatsDto getProgramStats(Integer programId, YearMonth from, YearMonth to) {
+    YearMonth last = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+    YearMonth first = from != null ? from : last.minusMonths(DEFAULT_MONTHS - 1);
+    validateRange(first, last);
+    if (!programRepository.existsById(programId)) {
+      throw new ProgramNotFoundException("Program not found for id: " + programId);
+    }
+
+    log.debug("Fetching attendance of program {} from {} to {}", programId, first, last);
+    List<MonthlyAttendance> monthlyAttendances =
+        attendanceStatsReader.findProgramAttendance(programId, first, last);
+    return toStats(first, last, monthlyAttendances);
+  }
+
+  private static void validateRange(YearMonth first, YearMonth last) {
+    if (first.isAfter(last)) {
+      throw new IllegalArgumentException("The first month must not be after the last month.");
+    }
+    if (ChronoUnit.MONTHS.between(first, last) >= MAX_MONTHS) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_MONTHS + " months of attendance can be requested at once.");
+    }
+  }
+
+  private static AttendanceStatsDto toStats(
+      YearMonth first, YearMonth last, List<MonthlyAttendance> monthlyAttendances) {
+    int confirmedCount = 0;
+    int absentCount = 0;
+    List<AttendanceMonthDto> months =
+        monthlyAttendances.stream()
+            .map(
+                attendance ->
+                    new AttendanceMonthDto(
+                        attendance.month(),
+                        attendance.confirmedCount(),
+                        attendance.absentCount(),
+                        attendanceRate(attendance.confirmedCount(), attendance.absentCount())))
+            .toList();
+    for (MonthlyAttendance attendance : monthlyAttendances) {
+      confirmedCount += attendance.confirmedCount();
+      absentCount += attendance.absentCount();
+    }
+    return new AttendanceStatsDto(
+        first,
+        last,
+        confirmedCount,
+        absentCount,
+        attendanceRate(confirmedCount, absentCount),
+        months);
+  }
+
+  private static Double attendanceRate(int confirmedCount, int absentCount) {
+    int total = confirmedCount + absentCount;
+    return total > 0 ? (double) confirmedCount / total : null;
+  }
+}
@@ -0,0 +1,106 @@
+package com.sportganise.services.programsessions;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable interval tree over half-open intervals [start, end). The intervals are sorted by start
+ * and laid out as a balanced binary search tree over the sorted array, where every node also holds
+ * the largest end of its subtree. A query skips every subtree that ends before the queried interval
+ * and every right subtree that starts after it, so it visits O(log n + k) nodes to find k
+ * overlapping intervals. Changes are made by building a new tree.
+ *
+ * @param <T> type of the values held by the intervals.
+ */
+final class IntervalTree<T> {
+
+  private final List<T> values;
+  private final long[] starts;
+  private final long[] ends;
+  private final long[] maxEnds;
+
+  private IntervalTree(List<T> values, ToLongFunction<T> start, ToLongFunction<T> end) {
+    this.values = values;
+    this.starts = new long[values.size()];
+    this.ends = new long[values.size()];
+    this.maxEnds = new long[values.size()];
+    for (int i = 0; i < values.size(); i++) {
+      starts[i] = start.applyAsLong(values.get(i));
+      ends[i] = end.applyAsLong(values.get(i));
+    }
+    computeMaxEnds(0, values.size());
+  }
+
+  /**
+   * Builds a tree over the given values.
+   *
+   * @param values the values to index.
+   * @param start start of the interval of a value, inclusive.
+   * @param end end of the interval of a value, exclusive.
+   * @param <T> type of the values.
+   * @return the tree.
+   */
+  static <T> IntervalTree<T> of(List<T> values, ToLongFunction<T> start, ToLongFunction<T> end) {
+    List<T> sorted = new ArrayList<>(values);
+    sorted.sort(Comparator.comparingLong(start));
+    return new IntervalTree<>(List.copyOf(sorted), start, end);
+  }
+
+  /**
+   * Method to get the values whose interval overlaps [from, to).
+   *
+   * @param from start of the interval, inclusive.
+   * @param to end of the interval, exclusive.
+   * @return the overlapping values, ordered by start.
+   */
+  List<T> overlapping(long from, long to) {
+    List<T> result = new ArrayList<>();
+    if (from < to) {
+      collect(0, values.size(), from, to, result);
+    }
+    return result;
+  }
+
+  /**
+   * Method to get the values of the tree.
+   *
+   * @return the values, ordered by start.
+   */
+  List<T> values() {
+    return values;
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  private long computeMaxEnds(int low, int high) {
+    if (low >= high) {
+      return Long.MIN_VALUE;
+    }
+    int mid = (low + high) >>> 1;
+    maxEnds[mid] =
+        Math.max(ends[mid], Math.max(computeMaxEnds(low, mid), computeMaxEnds(mid + 1, high)));
+    return maxEnds[mid];
+  }
+
+  private void collect(int low, int high, long from, long to, List<T> result) {
+    if (low >= high) {
+      return;
+    }
+    int mid = (low + high) >>> 1;
+    if (maxEnds[mid] <= from) {
+      return;
+    }
+    collect(low, mid, from, to, result);
+    if (starts[mid] >= to) {
+      return;
+    }
+    if (ends[mid] > from) {
+      result.add(values.get(mid));
+    }
+    collect(mid + 1, high, from, to, result);
+  }
+}
@@ -0,0 +1,136 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.config.ExecutorConfig;
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.exceptions.FileProcessingException;
+import com.sportganise.repositories.programsessions.ProgramAttachmentBulkWriter;
+import com.sportganise.services.BlobService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Uploads the attachments of a program. Files are streamed to S3 by a small pool of threads, so the
+ * request waits for the slowest upload instead of the sum of them, and the attachment rows are then
+ * written with one insert. The pool has a bounded queue; when it is full, the caller uploads the
+ * file itself. If an upload fails, or the transaction of the caller rolls back, the files already
+ * uploaded are deleted so that no object is left without its attachment row.
+ */
+@Slf4j
+@Service
+public class ProgramAttachmentUploader {
+
+  private final BlobService blobService;
+  private final ProgramAttachmentBulkWriter programAttachmentBulkWriter;
+  private final TaskExecutor executor;
+
+  /**
+   * Constructor for ProgramAttachmentUploader.
+   *
+   * @param blobService Service uploading the files.
+   * @param programAttachmentBulkWriter Writer inserting the attachment rows.
+   * @param executor Pool of threads uploading the files.
+   */
+  public ProgramAttachmentUploader(
+      BlobService blobService,
+      ProgramAttachmentBulkWriter programAttachmentBulkWriter,
+      @Qualifier(ExecutorConfig.ATTACHMENT_UPLOAD_EXECUTOR) TaskExecutor executor) {
+    this.blobService = blobService;
+    this.programAttachmentBulkWriter = programAttachmentBulkWriter;
+    this.executor = executor;
+  }
+
+  /**
+   * Method to upload files concurrently and attach them to a program.
+   *
+   * @param programId Id of the program.
+   * @param files Files to upload.
+   * @param accountId Id of the account uploading the files.
+   * @return the attachments, in the order of the files.
+   * @throws FileProcessingException if a file cannot be uploaded, after the other files are
+   *     deleted.
+   */
+  public List<ProgramAttachmentDto> uploadAttachments(
+      Integer programId, List<MultipartFile> files, Integer accountId)
+      throws FileProcessingException {
+    if (files == null || files.isEmpty()) {
+      return List.of();
+    }
+
+    List<CompletableFuture<String>> uploads =
+        files.stream()
+            .map(
+                file ->
+                    CompletableFuture.supplyAsync(
+                        () -> blobService.putFile(file, accountId), executor))
+            .toList();
+
+    List<String> attachmentUrls = new ArrayList<>(uploads.size());
+    FileProcessingException failure = null;
+    for (CompletableFuture<String> upload : uploads) {
+      try {
+        attachmentUrls.add(upload.join());
+      } catch (CompletionException e) {
+        // Waits for the remaining uploads too, so that every uploaded file can be deleted.
+        if (failure == null) {
+          failure =
+              e.getCause() instanceof FileProcessingException cause
+                  ? cause
+                  : new FileProcessingException("Error uploading file: " + e.getMessage());
+        }
+      }
+    }
+    if (failure != null) {
+      log.debug(
+          "ATTACHMENT UPLOAD FAILED FOR PROGRAM {}, DELETING {} UPLOADED FILES",
+          programId,
+          attachmentUrls.size());
+      deleteFiles(attachmentUrls);
+      throw failure;
+    }
+
+    deleteOnRollback(attachmentUrls);
+    blobService.saveBlobs(attachmentUrls);
+    programAttachmentBulkWriter.insertAttachments(programId, attachmentUrls);
+
+    log.debug("UPLOADED {} ATTACHMENTS FOR PROGRAM {}", attachmentUrls.size(), programId);
+    return attachmentUrls.stream()
+        .map(attachmentUrl -> new ProgramAttachmentDto(programId, attachmentUrl))
+        .toList();
+  }
+
+  /** The rows of the files are written in the transaction of the caller, if there is one. */
+  private void deleteOnRollback(List<String> attachmentUrls) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+              deleteFiles(attachmentUrls);
+            }
+          }
+        });
+  }
+
+  private void deleteFiles(List<String> attachmentUrls) {
+    for (String attachmentUrl : attachmentUrls) {
+      try {
+        blobService.deleteFile(attachmentUrl);
+      } catch (IOException | RuntimeException e) {
+        log.error("Failed to delete uploaded attachment {}: {}", attachmentUrl, e.getMessage());
+      }
+    }
+  }
+}
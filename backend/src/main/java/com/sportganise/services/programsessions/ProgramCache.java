@@ -0,0 +1,217 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramCacheStatsDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded read-through cache of program details and attachments, keyed by program id. Each map
+ * keeps at most the configured number of programs and evicts the least recently used one.
+ *
+ * <p>Writers call {@link #invalidate(Integer)} for every program they change. The entry is evicted
+ * right away and again once the surrounding transaction completes, so a reader that loaded the
+ * program before the commit cannot put the old state back. Cached values are shared and must not be
+ * modified by callers.
+ */
+@Slf4j
+@Component
+public class ProgramCache {
+
+  private final BoundedMap<ProgramDto> programs;
+  private final BoundedMap<List<ProgramAttachmentDto>> attachments;
+
+  /** Incremented by every invalidation, so that loads which raced with one are not cached. */
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructor for ProgramCache.
+   *
+   * @param maxEntries maximum number of programs kept in each map.
+   */
+  public ProgramCache(@Value("${programs.cache.max-entries:1000}") int maxEntries) {
+    this.programs = new BoundedMap<>(maxEntries);
+    this.attachments = new BoundedMap<>(maxEntries);
+  }
+
+  /**
+   * Gets the details of a program, loading them on a miss. Missing programs are not cached.
+   *
+   * @param programId Id of the program.
+   * @param loader loads the details of the program from the database.
+   * @return the details of the program, without attachments, or null if it does not exist.
+   */
+  public ProgramDto getProgram(Integer programId, Function<Integer, ProgramDto> loader) {
+    ProgramDto program = programs.get(programId);
+    if (program != null) {
+      hits.increment();
+      return program;
+    }
+
+    misses.increment();
+    long loadedGeneration = generation.get();
+    program = loader.apply(programId);
+    if (program != null) {
+      putIfCurrent(programs, programId, program, loadedGeneration);
+    }
+    return program;
+  }
+
+  /**
+   * Gets the attachments of a program, loading them on a miss.
+   *
+   * @param programId Id of the program.
+   * @param loader loads the attachments of the program from the database.
+   * @return the attachments of the program.
+   */
+  public List<ProgramAttachmentDto> getAttachments(
+      Integer programId, Function<Integer, List<ProgramAttachmentDto>> loader) {
+    List<ProgramAttachmentDto> programAttachments = attachments.get(programId);
+    if (programAttachments != null) {
+      hits.increment();
+      return programAttachments;
+    }
+
+    misses.increment();
+    long loadedGeneration = generation.get();
+    programAttachments = List.copyOf(loader.apply(programId));
+    putIfCurrent(attachments, programId, programAttachments, loadedGeneration);
+    return programAttachments;
+  }
+
+  /**
+   * Gets the attachments of several programs. The programs that are not cached are loaded together
+   * with a single call to the loader.
+   *
+   * @param programIds Ids of the programs.
+   * @param loader loads the attachments of the given programs, keyed by program id. Programs
+   *     without attachments may be left out.
+   * @return the attachments of each program, keyed by program id.
+   */
+  public Map<Integer, List<ProgramAttachmentDto>> getAttachments(
+      Collection<Integer> programIds,
+      Function<List<Integer>, Map<Integer, List<ProgramAttachmentDto>>> loader) {
+    Map<Integer, List<ProgramAttachmentDto>> result = new HashMap<>();
+    List<Integer> missingIds = new ArrayList<>();
+    for (Integer programId : new LinkedHashSet<>(programIds)) {
+      List<ProgramAttachmentDto> programAttachments = attachments.get(programId);
+      if (programAttachments != null) {
+        hits.increment();
+        result.put(programId, programAttachments);
+      } else {
+        misses.increment();
+        missingIds.add(programId);
+      }
+    }
+    if (missingIds.isEmpty()) {
+      return result;
+    }
+
+    long loadedGeneration = generation.get();
+    Map<Integer, List<ProgramAttachmentDto>> loaded = loader.apply(missingIds);
+    for (Integer programId : missingIds) {
+      List<ProgramAttachmentDto> programAttachments =
+          List.copyOf(loaded.getOrDefault(programId, List.of()));
+      putIfCurrent(attachments, programId, programAttachments, loadedGeneration);
+      result.put(programId, programAttachments);
+    }
+    return result;
+  }
+
+  /**
+   * Evicts a program after a change to its details or attachments.
+   *
+   * @param programId Id of the program that changed.
+   */
+  public void invalidate(Integer programId) {
+    evict(programId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              evict(programId);
+            }
+          });
+    }
+  }
+
+  /**
+   * Gets the hit, miss and eviction counts of the cache.
+   *
+   * @return the statistics of the cache.
+   */
+  public ProgramCacheStatsDto getStats() {
+    return new ProgramCacheStatsDto(
+        hits.sum(), misses.sum(), evictions.sum(), programs.size(), attachments.size());
+  }
+
+  private void evict(Integer programId) {
+    generation.incrementAndGet();
+    programs.remove(programId);
+    attachments.remove(programId);
+    log.debug("EVICTED PROGRAM {} FROM CACHE", programId);
+  }
+
+  private <V> void putIfCurrent(
+      BoundedMap<V> map, Integer programId, V value, long loadedGeneration) {
+    synchronized (map) {
+      if (generation.get() == loadedGeneration) {
+        map.put(programId, value);
+      }
+    }
+  }
+
+  /** Access-ordered map that drops its least recently used entry once it is full. */
+  private class BoundedMap<V> {
+    private final Map<Integer, V> entries;
+
+    BoundedMap(int maxEntries) {
+      this.entries =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, V> eldest) {
+              if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+              }
+              return false;
+            }
+          };
+    }
+
+    synchronized V get(Integer programId) {
+      return entries.get(programId);
+    }
+
+    synchronized void put(Integer programId, V value) {
+      entries.put(programId, value);
+    }
+
+    synchronized void remove(Integer programId) {
+      entries.remove(programId);
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+  }
+}
@@ -0,0 +1,427 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramCalendarPageDto;
+import com.sportganise.dto.programsessions.ProgramDetailsParticipantsDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramParticipantDto;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramAttachment;
+import com.sportganise.entities.programsessions.ProgramParticipant;
+import com.sportganise.entities.programsessions.ProgramParticipantId;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.WaitlistPosition;
+import com.sportganise.repositories.programsessions.ProgramAttachmentRepository;
+import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Assembles the program calendar with a fixed number of set-based queries. Recurrences, attachments
+ * and participants are each loaded once for the whole set of programs and stitched together in
+ * memory, so the number of queries does not grow with the size of the calendar.
+ */
+@Slf4j
+@Service
+public class ProgramCalendarAssembler {
+
+  private static final Comparator<CalendarEntry> CALENDAR_ORDER =
+      Comparator.<CalendarEntry, Instant>comparing(entry -> entry.occurrenceDate().toInstant())
+          .thenComparing(CalendarEntry::sortId);
+
+  private final ProgramRecurrenceRepository programRecurrenceRepository;
+  private final ProgramAttachmentRepository programAttachmentRepository;
+  private final ProgramParticipantRepository programParticipantRepository;
+  private final ProgramCache programCache;
+
+  /**
+   * Constructor for ProgramCalendarAssembler.
+   *
+   * @param programRecurrenceRepository program recurrence repository object.
+   * @param programAttachmentRepository program attachment repository object.
+   * @param programParticipantRepository program participant repository object.
+   * @param programCache cache of program details and attachments.
+   */
+  public ProgramCalendarAssembler(
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      ProgramAttachmentRepository programAttachmentRepository,
+      ProgramParticipantRepository programParticipantRepository,
+      ProgramCache programCache) {
+    this.programRecurrenceRepository = programRecurrenceRepository;
+    this.programAttachmentRepository = programAttachmentRepository;
+    this.programParticipantRepository = programParticipantRepository;
+    this.programCache = programCache;
+  }
+
+  /**
+   * Builds one ProgramDto per occurrence of the given programs. Recurring programs produce one dto
+   * per recurrence, other programs produce a single dto.
+   *
+   * @param programs the programs to assemble.
+   * @return a list of ProgramDto in program order, recurrences ordered by occurrence date.
+   */
+  public List<ProgramDto> assemblePrograms(List<Program> programs) {
+    if (programs == null || programs.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<Integer> programIds = programs.stream().map(Program::getProgramId).toList();
+    List<Integer> recurringProgramIds =
+        programs.stream().filter(this::isRecurring).map(Program::getProgramId).toList();
+
+    Map<Integer, List<ProgramAttachmentDto>> attachmentsByProgram =
+        getAttachmentsByProgramIds(programIds);
+    Map<Integer, List<ProgramRecurrence>> recurrencesByProgram =
+        recurringProgramIds.isEmpty()
+            ? new HashMap<>()
+            : programRecurrenceRepository
+                .findProgramRecurrencesByProgramIds(recurringProgramIds)
+                .stream()
+                .collect(Collectors.groupingBy(ProgramRecurrence::getProgramId));
+
+    log.debug(
+        "Assembling {} programs, {} of which are recurring",
+        programs.size(),
+        recurringProgramIds.size());
+
+    List<ProgramDto> programDtos = new ArrayList<>();
+    for (Program program : programs) {
+      List<ProgramAttachmentDto> programAttachments =
+          attachmentsByProgram.getOrDefault(program.getProgramId(), new ArrayList<>());
+
+      if (isRecurring(program)) {
+        List<ProgramRecurrence> recurrences =
+            recurrencesByProgram.getOrDefault(program.getProgramId(), new ArrayList<>());
+        if (program.isVirtualRecurrences()) {
+          recurrences = new ArrayList<>(recurrences);
+          recurrences.addAll(virtualOccurrences(program, recurrences, null, null));
+          recurrences.sort(
+              Comparator.comparing(recurrence -> recurrence.getOccurrenceDate().toInstant()));
+        }
+        for (ProgramRecurrence recurrence : recurrences) {
+          programDtos.add(
+              toProgramDto(
+                  program,
+                  recurrence.getRecurrenceId(),
+                  recurrence.getOccurrenceDate(),
+                  recurrence.isCancelled(),
+                  programAttachments));
+        }
+      } else {
+        programDtos.add(
+            toProgramDto(program, null, null, program.isCancelled(), programAttachments));
+      }
+    }
+
+    log.debug("PROGRAM DTOS COUNT (assembler): {}", programDtos.size());
+    return programDtos;
+  }
+
+  /**
+   * Pairs every ProgramDto with the participants of its recurrence. Participants of all recurrences
+   * are fetched with a single query.
+   *
+   * @param programDtos Dtos of programs.
+   * @param hasPermissions Boolean for whether the user has permissions to see the attendees.
+   * @return a list of ProgramDetailsParticipantsDto in the same order as the given dtos.
+   */
+  public List<ProgramDetailsParticipantsDto> assembleDetails(
+      List<ProgramDto> programDtos, boolean hasPermissions) {
+    Map<Integer, List<ProgramParticipantDto>> participantsByRecurrence =
+        hasPermissions ? getParticipantsByPrograms(programDtos) : new HashMap<>();
+
+    return programDtos.stream()
+        .map(
+            programDto ->
+                new ProgramDetailsParticipantsDto(
+                    programDto,
+                    programDto.getRecurrenceId() == null
+                        ? new ArrayList<>()
+                        : participantsByRecurrence.getOrDefault(
+                            programDto.getRecurrenceId(), new ArrayList<>())))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Merges one page of recurrences and one page of non-recurring programs into a single calendar
+   * page. Each entry is keyed by (occurrence date, sort id) where the sort id is the recurrence id
+   * for recurrences and the negated program id for non-recurring programs and virtual occurrences,
+   * so keys never collide. Both inputs must hold at most limit + 1 entries past the cursor.
+   *
+   * @param recurrences recurrences and virtual occurrences in the window, with their program.
+   * @param oneTimePrograms non-recurring programs in the window.
+   * @param limit maximum number of entries in the page.
+   * @param hasPermissions Boolean for whether the user has permissions to see the attendees.
+   * @return the calendar page and the cursor of the next page.
+   */
+  public ProgramCalendarPageDto assembleCalendarPage(
+      List<ProgramRecurrence> recurrences,
+      List<Program> oneTimePrograms,
+      int limit,
+      boolean hasPermissions) {
+    List<CalendarEntry> entries = new ArrayList<>();
+    for (ProgramRecurrence recurrence : recurrences) {
+      entries.add(
+          new CalendarEntry(
+              recurrence.getOccurrenceDate(),
+              calendarSortId(recurrence),
+              recurrence.getProgram(),
+              recurrence));
+    }
+    for (Program program : oneTimePrograms) {
+      entries.add(
+          new CalendarEntry(program.getOccurrenceDate(), -program.getProgramId(), program, null));
+    }
+    entries.sort(CALENDAR_ORDER);
+
+    boolean hasNextPage = entries.size() > limit;
+    List<CalendarEntry> page = entries.subList(0, Math.min(limit, entries.size()));
+
+    Map<Integer, List<ProgramAttachmentDto>> attachmentsByProgram =
+        getAttachmentsByProgramIds(
+            page.stream().map(entry -> entry.program().getProgramId()).distinct().toList());
+    Map<Integer, List<ProgramParticipantDto>> participantsByRecurrence =
+        hasPermissions
+            ? getParticipantsByRecurrenceIds(
+                page.stream()
+                    .filter(entry -> entry.recurrence() != null)
+                    .map(entry -> entry.recurrence().getRecurrenceId())
+                    .filter(Objects::nonNull)
+                    .toList())
+            : new HashMap<>();
+
+    List<ProgramDetailsParticipantsDto> programs = new ArrayList<>();
+    for (CalendarEntry entry : page) {
+      Program program = entry.program();
+      List<ProgramAttachmentDto> programAttachments =
+          attachmentsByProgram.getOrDefault(program.getProgramId(), new ArrayList<>());
+      if (entry.recurrence() != null) {
+        ProgramRecurrence recurrence = entry.recurrence();
+        programs.add(
+            new ProgramDetailsParticipantsDto(
+                toProgramDto(
+                    program,
+                    recurrence.getRecurrenceId(),
+                    recurrence.getOccurrenceDate(),
+                    recurrence.isCancelled(),
+                    programAttachments),
+                recurrence.getRecurrenceId() == null
+                    ? new ArrayList<>()
+                    : participantsByRecurrence.getOrDefault(
+                        recurrence.getRecurrenceId(), new ArrayList<>())));
+      } else {
+        programs.add(
+            new ProgramDetailsParticipantsDto(
+                toProgramDto(program, null, null, program.isCancelled(), programAttachments),
+                new ArrayList<>()));
+      }
+    }
+
+    log.debug("CALENDAR PAGE COUNT (assembler): {}, HAS NEXT: {}", programs.size(), hasNextPage);
+
+    if (!hasNextPage) {
+      return new ProgramCalendarPageDto(programs, null, null);
+    }
+    CalendarEntry last = page.getLast();
+    return new ProgramCalendarPageDto(programs, last.occurrenceDate(), last.sortId());
+  }
+
+  /**
+   * Expands the occurrences of a program that has virtual recurrences. Occurrences that already
+   * have a program_recurrence row, because they carry an exception, are left out so that the row
+   * takes their place. The returned recurrences are not persisted and have no recurrence id.
+   *
+   * @param program a recurring program with virtual recurrences.
+   * @param exceptions the program_recurrence rows of the program inside the window.
+   * @param from start of the window, inclusive, or null for the start of the program.
+   * @param to end of the window, exclusive, or null for the end of the program.
+   * @return the virtual occurrences inside the window, in order.
+   */
+  public List<ProgramRecurrence> virtualOccurrences(
+      Program program, List<ProgramRecurrence> exceptions, ZonedDateTime from, ZonedDateTime to) {
+    RecurrenceRule rule = RecurrenceRule.of(program);
+    Set<Instant> exceptionDates =
+        exceptions.stream()
+            .map(exception -> exception.getOccurrenceDate().toInstant())
+            .collect(Collectors.toSet());
+    List<ZonedDateTime> occurrenceDates =
+        from == null || to == null ? rule.occurrences() : rule.occurrencesBetween(from, to);
+
+    return occurrenceDates.stream()
+        .filter(occurrenceDate -> !exceptionDates.contains(occurrenceDate.toInstant()))
+        .map(
+            occurrenceDate ->
+                ProgramRecurrence.builder()
+                    .programId(program.getProgramId())
+                    .program(program)
+                    .occurrenceDate(occurrenceDate)
+                    .cancelled(program.isCancelled())
+                    .build())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Calendar sort id of a recurrence: its id, or the negated program id for a virtual occurrence.
+   *
+   * @param recurrence a recurrence or a virtual occurrence.
+   * @return the sort id used as the second part of the calendar cursor.
+   */
+  public static Integer calendarSortId(ProgramRecurrence recurrence) {
+    return recurrence.getRecurrenceId() != null
+        ? recurrence.getRecurrenceId()
+        : -recurrence.getProgramId();
+  }
+
+  /**
+   * Gets the attachments of several programs from the cache, loading the missing ones with a single
+   * query.
+   *
+   * @param programIds Ids of the programs.
+   * @return the attachments of each program, keyed by program id.
+   */
+  public Map<Integer, List<ProgramAttachmentDto>> getAttachmentsByProgramIds(
+      List<Integer> programIds) {
+    if (programIds.isEmpty()) {
+      return new HashMap<>();
+    }
+    return programCache.getAttachments(programIds, this::loadAttachmentsByProgramIds);
+  }
+
+  private Map<Integer, List<ProgramAttachmentDto>> loadAttachmentsByProgramIds(
+      List<Integer> programIds) {
+    List<ProgramAttachment> programAttachments =
+        programAttachmentRepository.findAttachmentsByProgramIds(programIds);
+
+    log.debug("PROGRAM ATTACHMENTS ENTITIES COUNT (assembler): {}", programAttachments.size());
+
+    return programAttachments.stream()
+        .map(
+            attachment ->
+                new ProgramAttachmentDto(
+                    attachment.getCompositeProgramAttachmentKey().getProgramId(),
+                    attachment.getCompositeProgramAttachmentKey().getAttachmentUrl()))
+        .collect(Collectors.groupingBy(ProgramAttachmentDto::getProgramId));
+  }
+
+  /**
+   * Loads the participants of every recurrence in the given dtos with a single query.
+   *
+   * @param programDtos Dtos of the programs.
+   * @return the participants of each recurrence, keyed by recurrence id.
+   */
+  private Map<Integer, List<ProgramParticipantDto>> getParticipantsByPrograms(
+      List<ProgramDto> programDtos) {
+    List<Integer> programIds =
+        programDtos.stream()
+            .filter(programDto -> programDto.getRecurrenceId() != null)
+            .map(ProgramDto::getProgramId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+
+    if (programIds.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    List<ProgramParticipant> participants =
+        programParticipantRepository.findParticipantsByProgramIds(programIds);
+
+    log.debug("PARTICIPANTS COUNT (assembler): {} ", participants.size());
+
+    return groupByRecurrence(participants);
+  }
+
+  /**
+   * Loads the participants of the given recurrences with a single query.
+   *
+   * @param recurrenceIds Ids of the recurrences.
+   * @return the participants of each recurrence, keyed by recurrence id.
+   */
+  private Map<Integer, List<ProgramParticipantDto>> getParticipantsByRecurrenceIds(
+      List<Integer> recurrenceIds) {
+    if (recurrenceIds.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    return groupByRecurrence(
+        programParticipantRepository.findParticipantsByRecurrenceIds(recurrenceIds));
+  }
+
+  /**
+   * Converts participants to dtos grouped by recurrence, with the rank of those in a waitlist. The
+   * ranks are loaded with a single query, and only when some participant opted in.
+   *
+   * @param participants Participants of any recurrences.
+   * @return the participants of each recurrence, keyed by recurrence id.
+   */
+  private Map<Integer, List<ProgramParticipantDto>> groupByRecurrence(
+      List<ProgramParticipant> participants) {
+    List<Integer> queuedRecurrenceIds =
+        participants.stream()
+            .filter(participant -> participant.getOptInSeq() != null)
+            .map(ProgramParticipant::getRecurrenceId)
+            .distinct()
+            .toList();
+    Map<ProgramParticipantId, Integer> ranks =
+        queuedRecurrenceIds.isEmpty()
+            ? new HashMap<>()
+            : programParticipantRepository.findWaitlistPositions(queuedRecurrenceIds).stream()
+                .collect(
+                    Collectors.toMap(
+                        WaitlistPosition::getProgramParticipantId, WaitlistPosition::getRank));
+
+    return participants.stream()
+        .map(
+            participant ->
+                new ProgramParticipantDto(
+                    participant, ranks.get(participant.getProgramParticipantId())))
+        .collect(Collectors.groupingBy(ProgramParticipantDto::getRecurrenceId));
+  }
+
+  private ProgramDto toProgramDto(
+      Program program,
+      Integer recurrenceId,
+      ZonedDateTime recurrenceDate,
+      boolean cancelled,
+      List<ProgramAttachmentDto> programAttachments) {
+    return new ProgramDto(
+        program.getProgramId(),
+        recurrenceId,
+        program.getProgramType(),
+        program.getTitle(),
+        program.getDescription(),
+        program.getAuthor(),
+        program.getCapacity(),
+        program.getOccurrenceDate(),
+        recurrenceDate,
+        program.getDurationMins(),
+        program.getExpiryDate(),
+        program.getFrequency(),
+        program.getLocation(),
+        program.getVisibility(),
+        cancelled,
+        programAttachments);
+  }
+
+  private boolean isRecurring(Program program) {
+    return !(program.getFrequency() == null || program.getFrequency().equalsIgnoreCase("once"));
+  }
+
+  /** One occurrence on the calendar, with its keyset pagination key. */
+  private record CalendarEntry(
+      ZonedDateTime occurrenceDate,
+      Integer sortId,
+      Program program,
+      ProgramRecurrence recurrence) {}
+}
@@ -0,0 +1,98 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramEnrollmentResultDto;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.services.account.AccountService;
+import jakarta.transaction.Transactional;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Enrolls accounts in programs with set-based statements. The accounts are validated with one query
+ * and every (recurrence, account) pair is inserted with one statement, instead of a lookup and a
+ * save per pair.
+ */
+@Slf4j
+@Service
+public class ProgramEnrollmentService {
+
+  private final AccountService accountService;
+  private final ProgramParticipantRepository programParticipantRepository;
+  private final ProgramRecurrenceRepository programRecurrenceRepository;
+  private final EventRsvpWriter eventRsvpWriter;
+
+  /**
+   * Constructor for ProgramEnrollmentService.
+   *
+   * @param accountService account service object.
+   * @param programParticipantRepository program participant repository object.
+   * @param programRecurrenceRepository program recurrence repository object.
+   * @param eventRsvpWriter finds or adds the recurrence of non-recurring programs.
+   */
+  public ProgramEnrollmentService(
+      AccountService accountService,
+      ProgramParticipantRepository programParticipantRepository,
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      EventRsvpWriter eventRsvpWriter) {
+    this.accountService = accountService;
+    this.programParticipantRepository = programParticipantRepository;
+    this.programRecurrenceRepository = programRecurrenceRepository;
+    this.eventRsvpWriter = eventRsvpWriter;
+  }
+
+  /**
+   * Enrolls accounts in every recurrence of a recurring program, or in the recurrence of a
+   * non-recurring program at its occurrence date. Accounts that already take part in a recurrence
+   * are skipped.
+   *
+   * @param programId Id of the program.
+   * @param isRecurring Whether the program has recurrences.
+   * @param accountIds Ids of the accounts to enroll.
+   * @param participantType Type of participant (Subscribed, Waitlisted, Coach).
+   * @param isConfirmed Whether the participants are confirmed.
+   * @return the number of inserted and skipped participants.
+   */
+  @Transactional
+  public ProgramEnrollmentResultDto enroll(
+      Integer programId,
+      boolean isRecurring,
+      Integer[] accountIds,
+      String participantType,
+      boolean isConfirmed) {
+    List<Integer> distinctAccountIds = Arrays.stream(accountIds).distinct().toList();
+    if (distinctAccountIds.isEmpty()) {
+      return new ProgramEnrollmentResultDto(0, 0);
+    }
+    accountService.validateAccountIds(distinctAccountIds);
+
+    int inserted;
+    long recurrenceCount;
+    if (isRecurring) {
+      recurrenceCount = programRecurrenceRepository.countByProgramId(programId);
+      inserted =
+          programParticipantRepository.enrollInProgramRecurrences(
+              programId, distinctAccountIds, participantType, isConfirmed);
+    } else {
+      recurrenceCount = 1;
+      Integer recurrenceId = eventRsvpWriter.findOrAddEventRecurrence(programId);
+      inserted =
+          programParticipantRepository.enrollInRecurrence(
+              recurrenceId, distinctAccountIds, participantType, isConfirmed);
+    }
+    int skipped = (int) (recurrenceCount * distinctAccountIds.size() - inserted);
+
+    log.info(
+        "Enrolled {} accounts as {} in {} recurrences of program {}: {} inserted, {} skipped",
+        distinctAccountIds.size(),
+        participantType,
+        recurrenceCount,
+        programId,
+        inserted,
+        skipped);
+    return new ProgramEnrollmentResultDto(inserted, skipped);
+  }
+}
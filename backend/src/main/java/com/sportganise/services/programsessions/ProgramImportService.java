@@ -0,0 +1,437 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramCreateRequestDto;
+import com.sportganise.dto.programsessions.ProgramImportDefinitionDto;
+import com.sportganise.dto.programsessions.ProgramImportErrorDto;
+import com.sportganise.dto.programsessions.ProgramImportResultDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto.ConflictType;
+import com.sportganise.entities.account.Account;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.exceptions.programexceptions.InvalidFrequencyException;
+import com.sportganise.exceptions.programexceptions.ProgramImportException;
+import com.sportganise.repositories.programsessions.ProgramBulkWriter;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.forum.PostService;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Creates a season of programs from one request. Every program is validated before anything is
+ * written, against the schedule conflict index and against the other programs of the request, so an
+ * import creates all of its programs or none of them. The programs, the recurrences of those with a
+ * roster, their posts and their participants are then written with set-based statements in one
+ * transaction, instead of the round trips per row of creating the programs one by one.
+ */
+@Slf4j
+@Service
+public class ProgramImportService {
+
+  /** Programs per import, which bounds the statements and the conflict checks of one request. */
+  static final int MAX_IMPORT_SIZE = 200;
+
+  private static final int MAX_TITLE_LENGTH = 30;
+  private static final int MAX_DESCRIPTION_LENGTH = 100;
+  private static final int MAX_LOCATION_LENGTH = 50;
+
+  private final AccountService accountService;
+  private final PostService postService;
+  private final ProgramBulkWriter programBulkWriter;
+  private final ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+  private final ProgramEnrollmentService programEnrollmentService;
+  private final ScheduleConflictIndex scheduleConflictIndex;
+
+  /** A program of the import, parsed and ready to be inserted. */
+  private record PlannedProgram(
+      int index,
+      ProgramImportDefinitionDto definition,
+      Program program,
+      List<ZonedDateTime> occurrenceDates) {
+
+    List<Integer> coachIds() {
+      return distinct(definition.getCoachesId());
+    }
+
+    List<PlannedSlot> slots() {
+      List<Integer> coachIds = coachIds();
+      return occurrenceDates.stream()
+          .map(
+              occurrenceDate ->
+                  new PlannedSlot(
+                      index,
+                      program.getTitle(),
+                      program.getLocation(),
+                      occurrenceDate,
+                      program.getDurationMins(),
+                      coachIds))
+          .toList();
+    }
+  }
+
+  /** An occurrence of a program of the import. */
+  private record PlannedSlot(
+      int index,
+      String title,
+      String location,
+      ZonedDateTime occurrenceDate,
+      int durationMins,
+      List<Integer> coachIds) {
+
+    long startMillis() {
+      return occurrenceDate.toInstant().toEpochMilli();
+    }
+
+    long endMillis() {
+      return startMillis() + durationMins * 60_000L;
+    }
+  }
+
+  /**
+   * Constructor for ProgramImportService.
+   *
+   * @param accountService account service object.
+   * @param postService post service object.
+   * @param programBulkWriter writer inserting programs with multi-row statements.
+   * @param programRecurrenceBulkWriter writer inserting recurrences with multi-row statements.
+   * @param programEnrollmentService service enrolling accounts with set-based statements.
+   * @param scheduleConflictIndex index of upcoming occurrences by location and coach.
+   */
+  public ProgramImportService(
+      AccountService accountService,
+      PostService postService,
+      ProgramBulkWriter programBulkWriter,
+      ProgramRecurrenceBulkWriter programRecurrenceBulkWriter,
+      ProgramEnrollmentService programEnrollmentService,
+      ScheduleConflictIndex scheduleConflictIndex) {
+    this.accountService = accountService;
+    this.postService = postService;
+    this.programBulkWriter = programBulkWriter;
+    this.programRecurrenceBulkWriter = programRecurrenceBulkWriter;
+    this.programEnrollmentService = programEnrollmentService;
+    this.scheduleConflictIndex = scheduleConflictIndex;
+  }
+
+  /**
+   * Method to create every program of an import, with a post for each of them and their
+   * participants. Recurring programs get a row per occurrence, written for all of them at once.
+   *
+   * @param accountId Id of the user making the request.
+   * @param definitions Programs to create.
+   * @return the ids of the created programs and the number of rows written.
+   * @throws ProgramImportException with every program that is invalid or overlaps a scheduled
+   *     program or another program of the import, if there are any.
+   */
+  @Transactional
+  public ProgramImportResultDto importPrograms(
+      Integer accountId, List<ProgramImportDefinitionDto> definitions) {
+    if (definitions == null || definitions.isEmpty()) {
+      throw new IllegalArgumentException("The import holds no program.");
+    }
+    if (definitions.size() > MAX_IMPORT_SIZE) {
+      throw new IllegalArgumentException(
+          "An import holds at most " + MAX_IMPORT_SIZE + " programs.");
+    }
+
+    Account user = accountService.getAccountById(accountId);
+    String author = user.getFirstName() + " " + user.getLastName();
+
+    List<ProgramImportErrorDto> errors = new ArrayList<>();
+    List<PlannedProgram> plannedPrograms = new ArrayList<>();
+    for (int index = 0; index < definitions.size(); index++) {
+      ProgramImportDefinitionDto definition = definitions.get(index);
+      try {
+        plannedPrograms.add(plan(index, definition, author));
+      } catch (IllegalArgumentException | DateTimeParseException | InvalidFrequencyException e) {
+        errors.add(
+            new ProgramImportErrorDto(index, titleOf(definition), e.getMessage(), List.of()));
+      }
+    }
+
+    List<Integer> accountIds =
+        distinct(
+            plannedPrograms.stream()
+                .flatMap(
+                    planned ->
+                        Stream.of(
+                            planned.definition().getParticipantsId(),
+                            planned.definition().getWaitlistsId(),
+                            planned.definition().getCoachesId()))
+                .filter(Objects::nonNull)
+                .flatMap(Arrays::stream)
+                .toArray(Integer[]::new));
+    if (!accountIds.isEmpty()) {
+      accountService.validateAccountIds(accountIds);
+    }
+
+    Map<Integer, List<ScheduleConflictDto>> conflicts = findConflicts(plannedPrograms);
+    for (PlannedProgram planned : plannedPrograms) {
+      List<ScheduleConflictDto> programConflicts = conflicts.get(planned.index());
+      if (programConflicts != null) {
+        errors.add(
+            new ProgramImportErrorDto(
+                planned.index(),
+                planned.program().getTitle(),
+                "The schedule overlaps " + programConflicts.size() + " other occurrences.",
+                programConflicts));
+      }
+    }
+
+    if (!errors.isEmpty()) {
+      errors.sort(Comparator.comparingInt(ProgramImportErrorDto::getIndex));
+      log.debug("PROGRAM IMPORT REJECTED: {} OF {} PROGRAMS", errors.size(), definitions.size());
+      throw new ProgramImportException(
+          errors.size() + " of " + definitions.size() + " programs cannot be imported.", errors);
+    }
+
+    return create(accountId, plannedPrograms);
+  }
+
+  private ProgramImportResultDto create(Integer accountId, List<PlannedProgram> plannedPrograms) {
+    List<Program> programs = plannedPrograms.stream().map(PlannedProgram::program).toList();
+    List<Integer> programIds = programBulkWriter.insertPrograms(programs);
+
+    Map<Integer, List<ZonedDateTime>> recurrences = new LinkedHashMap<>();
+    for (PlannedProgram planned : plannedPrograms) {
+      if (isRecurring(planned.program())) {
+        recurrences.put(planned.program().getProgramId(), planned.occurrenceDates());
+      }
+    }
+    int recurrencesCreated = programRecurrenceBulkWriter.insertRecurrences(recurrences);
+
+    int postsCreated = postService.createNewPosts(accountId, programs);
+
+    int participantsEnrolled = 0;
+    for (PlannedProgram planned : plannedPrograms) {
+      Integer programId = planned.program().getProgramId();
+      boolean isRecurring = isRecurring(planned.program());
+      ProgramImportDefinitionDto definition = planned.definition();
+      participantsEnrolled +=
+          enroll(programId, isRecurring, definition.getParticipantsId(), "Subscribed", true)
+              + enroll(programId, isRecurring, definition.getWaitlistsId(), "Waitlisted", false)
+              + enroll(programId, isRecurring, definition.getCoachesId(), "Coach", false);
+    }
+
+    programIds.forEach(scheduleConflictIndex::refresh);
+
+    log.info(
+        "Imported {} programs for account {}: {} recurrences, {} posts, {} participants",
+        programIds.size(),
+        accountId,
+        recurrencesCreated,
+        postsCreated,
+        participantsEnrolled);
+    return new ProgramImportResultDto(
+        programIds, recurrencesCreated, postsCreated, participantsEnrolled);
+  }
+
+  private int enroll(
+      Integer programId,
+      boolean isRecurring,
+      Integer[] accountIds,
+      String participantType,
+      boolean isConfirmed) {
+    if (accountIds == null || accountIds.length == 0) {
+      return 0;
+    }
+    return programEnrollmentService
+        .enroll(programId, isRecurring, accountIds, participantType, isConfirmed)
+        .getInserted();
+  }
+
+  /**
+   * Method to parse and validate a program of the import.
+   *
+   * @param index Position of the program in the import.
+   * @param definition Program to create.
+   * @param author Name of the user making the request.
+   * @return the program, with its occurrences.
+   * @throws IllegalArgumentException if a field is missing or invalid.
+   */
+  private PlannedProgram plan(int index, ProgramImportDefinitionDto definition, String author) {
+    if (definition == null || definition.getProgramData() == null) {
+      throw new IllegalArgumentException("Program data is missing.");
+    }
+    ProgramCreateRequestDto programData = definition.getProgramData();
+    requireText(programData.getTitle(), "Title", MAX_TITLE_LENGTH);
+    requireText(programData.getDescription(), "Description", MAX_DESCRIPTION_LENGTH);
+    if (programData.getLocation() != null
+        && programData.getLocation().length() > MAX_LOCATION_LENGTH) {
+      throw new IllegalArgumentException(
+          "Location is longer than " + MAX_LOCATION_LENGTH + " characters.");
+    }
+    if (programData.getType() == null) {
+      throw new IllegalArgumentException("Type is missing.");
+    }
+    if (programData.getCapacity() != null && programData.getCapacity() <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive.");
+    }
+    if (programData.getStartDate() == null
+        || programData.getStartTime() == null
+        || programData.getEndTime() == null) {
+      throw new IllegalArgumentException("Start date, start time and end time are required.");
+    }
+
+    LocalTime startTime = LocalTime.parse(programData.getStartTime());
+    ZonedDateTime occurrenceDate = ZonedDateTime.parse(programData.getStartDate()).with(startTime);
+    int durationMins =
+        (int) Duration.between(startTime, LocalTime.parse(programData.getEndTime())).toMinutes();
+    if (durationMins <= 0) {
+      throw new IllegalArgumentException("End time must be after start time.");
+    }
+
+    String frequency = programData.getFrequency();
+    ZonedDateTime expiryDate = null;
+    List<ZonedDateTime> occurrenceDates = List.of(occurrenceDate);
+    boolean recurring = frequency != null && !frequency.equalsIgnoreCase("once");
+    if (recurring) {
+      if (programData.getEndDate() == null) {
+        throw new IllegalArgumentException("End date is required for a recurring program.");
+      }
+      expiryDate = ZonedDateTime.parse(programData.getEndDate());
+      if (expiryDate.isBefore(occurrenceDate)) {
+        throw new IllegalArgumentException("End date must not be before start date.");
+      }
+      occurrenceDates = new RecurrenceRule(frequency, occurrenceDate, expiryDate).occurrences();
+    }
+
+    Program program =
+        new Program(
+            programData.getType(),
+            programData.getTitle(),
+            programData.getDescription(),
+            author,
+            programData.getCapacity(),
+            occurrenceDate,
+            durationMins,
+            expiryDate,
+            frequency,
+            programData.getLocation(),
+            programData.getVisibility());
+    return new PlannedProgram(index, definition, program, occurrenceDates);
+  }
+
+  /**
+   * Method to find the occurrences overlapping the programs of the import at the same location or
+   * with one of the same coaches, among the scheduled programs and the other programs of the
+   * import.
+   *
+   * @param plannedPrograms Programs of the import.
+   * @return the conflicts of each program that has some, keyed by its position in the import.
+   */
+  private Map<Integer, List<ScheduleConflictDto>> findConflicts(
+      List<PlannedProgram> plannedPrograms) {
+    Map<Integer, List<ScheduleConflictDto>> conflicts = new HashMap<>();
+    List<PlannedSlot> slots = new ArrayList<>();
+    for (PlannedProgram planned : plannedPrograms) {
+      List<ScheduleConflictDto> scheduled =
+          scheduleConflictIndex.findConflicts(
+              null,
+              planned.occurrenceDates(),
+              planned.program().getDurationMins(),
+              planned.program().getLocation(),
+              planned.coachIds());
+      if (!scheduled.isEmpty()) {
+        conflicts.computeIfAbsent(planned.index(), index -> new ArrayList<>()).addAll(scheduled);
+      }
+      slots.addAll(planned.slots());
+    }
+
+    Map<String, IntervalTree<PlannedSlot>> locationTrees =
+        buildTrees(slots, slot -> ScheduleConflictIndex.locationKeys(slot.location()));
+    Map<Integer, IntervalTree<PlannedSlot>> coachTrees = buildTrees(slots, PlannedSlot::coachIds);
+    for (PlannedSlot slot : slots) {
+      for (String locationKey : ScheduleConflictIndex.locationKeys(slot.location())) {
+        for (PlannedSlot other :
+            locationTrees.get(locationKey).overlapping(slot.startMillis(), slot.endMillis())) {
+          if (other.index() != slot.index()) {
+            conflicts
+                .computeIfAbsent(slot.index(), index -> new ArrayList<>())
+                .add(toConflict(ConflictType.LOCATION, slot, other, null));
+          }
+        }
+      }
+      for (Integer coachId : slot.coachIds()) {
+        for (PlannedSlot other :
+            coachTrees.get(coachId).overlapping(slot.startMillis(), slot.endMillis())) {
+          if (other.index() != slot.index()) {
+            conflicts
+                .computeIfAbsent(slot.index(), index -> new ArrayList<>())
+                .add(toConflict(ConflictType.COACH, slot, other, coachId));
+          }
+        }
+      }
+    }
+    return conflicts;
+  }
+
+  private static <K> Map<K, IntervalTree<PlannedSlot>> buildTrees(
+      List<PlannedSlot> slots, Function<PlannedSlot, Collection<K>> keys) {
+    Map<K, List<PlannedSlot>> slotsByKey = new HashMap<>();
+    for (PlannedSlot slot : slots) {
+      for (K key : keys.apply(slot)) {
+        slotsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+      }
+    }
+    Map<K, IntervalTree<PlannedSlot>> trees = new HashMap<>();
+    slotsByKey.forEach(
+        (key, keySlots) ->
+            trees.put(
+                key, IntervalTree.of(keySlots, PlannedSlot::startMillis, PlannedSlot::endMillis)));
+    return trees;
+  }
+
+  /** The program id of a conflict with another program of the import is null. */
+  private static ScheduleConflictDto toConflict(
+      ConflictType conflictType, PlannedSlot slot, PlannedSlot other, Integer coachId) {
+    return new ScheduleConflictDto(
+        conflictType,
+        slot.occurrenceDate(),
+        null,
+        null,
+        other.title(),
+        other.location(),
+        coachId,
+        other.occurrenceDate(),
+        other.durationMins());
+  }
+
+  private static void requireText(String value, String field, int maxLength) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException(field + " is missing.");
+    }
+    if (value.length() > maxLength) {
+      throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters.");
+    }
+  }
+
+  private static boolean isRecurring(Program program) {
+    return program.getFrequency() != null && !program.getFrequency().equalsIgnoreCase("once");
+  }
+
+  private static String titleOf(ProgramImportDefinitionDto definition) {
+    return definition != null && definition.getProgramData() != null
+        ? definition.getProgramData().getTitle()
+        : null;
+  }
+
+  private static List<Integer> distinct(Integer[] accountIds) {
+    return accountIds == null ? List.of() : Arrays.stream(accountIds).distinct().toList();
+  }
+}
@@ -0,0 +1,132 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.InvitationStatusDto;
+import com.sportganise.dto.programsessions.InvitationStatusDto.Status;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.exceptions.programexceptions.ProgramInvitationiException;
+import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.ProgramInvitationWriter;
+import com.sportganise.repositories.programsessions.ProgramInvitationWriter.InvitedAccount;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.services.AsyncEmailSender;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Invites whole teams to private programs. All the invited accounts are added as participants with
+ * one statement, and their invitation emails are handed to the background email sender, so the
+ * request does not wait for the mail server.
+ */
+@Slf4j
+@Service
+public class ProgramInvitationService {
+
+  /** Largest number of accounts invited by one request. */
+  public static final int MAX_INVITATIONS = 500;
+
+  private final ProgramRepository programRepository;
+  private final ProgramInvitationWriter programInvitationWriter;
+  private final EventRsvpWriter eventRsvpWriter;
+  private final AsyncEmailSender asyncEmailSender;
+
+  /**
+   * Constructor for ProgramInvitationService.
+   *
+   * @param programRepository Program repository object.
+   * @param programInvitationWriter Adds the invited accounts as participants.
+   * @param eventRsvpWriter Finds or adds the recurrence of non-recurring programs.
+   * @param asyncEmailSender Sends the invitation emails in the background.
+   */
+  public ProgramInvitationService(
+      ProgramRepository programRepository,
+      ProgramInvitationWriter programInvitationWriter,
+      EventRsvpWriter eventRsvpWriter,
+      AsyncEmailSender asyncEmailSender) {
+    this.programRepository = programRepository;
+    this.programInvitationWriter = programInvitationWriter;
+    this.eventRsvpWriter = eventRsvpWriter;
+    this.asyncEmailSender = asyncEmailSender;
+  }
+
+  /**
+   * Method to invite accounts to a private program. Participants of trainings are subscribed and
+   * confirmed without an email; participants of other programs are sent an invitation email.
+   *
+   * @param programId Id of the program.
+   * @param accountIds Ids of the accounts to invite.
+   * @return the outcome of the invitation of each account, in the order they were given.
+   * @throws ProgramNotFoundException if the program does not exist.
+   * @throws ProgramInvitationiException if the program is not private.
+   */
+  public List<InvitationStatusDto> inviteAll(Integer programId, List<Integer> accountIds) {
+    List<Integer> distinctAccountIds = accountIds.stream().distinct().toList();
+    if (distinctAccountIds.isEmpty() || distinctAccountIds.size() > MAX_INVITATIONS) {
+      throw new IllegalArgumentException(
+          "Between 1 and " + MAX_INVITATIONS + " accounts can be invited at once.");
+    }
+
+    Program program =
+        programRepository
+            .findById(programId)
+            .orElseThrow(() -> new ProgramNotFoundException("Program not found"));
+    // Direct user invitation is only supported for private events
+    if (!"private".equals(program.getVisibility())) {
+      throw new ProgramInvitationiException("User invitation only supported for private programs");
+    }
+
+    boolean isTraining = program.getProgramType() == ProgramType.TRAINING;
+    Map<Integer, InvitedAccount> invitedAccounts =
+        invite(program, distinctAccountIds, isTraining).stream()
+            .collect(Collectors.toMap(InvitedAccount::accountId, Function.identity()));
+
+    List<InvitationStatusDto> statuses =
+        distinctAccountIds.stream()
+            .map(accountId -> toStatus(accountId, invitedAccounts.get(accountId), program))
+            .toList();
+    log.info(
+        "Invited {} accounts to program {}: {} found",
+        distinctAccountIds.size(),
+        programId,
+        invitedAccounts.size());
+    return statuses;
+  }
+
+  /**
+   * Invites the accounts to every recurrence of a recurring program, or to the recurrence of a
+   * non-recurring program at its occurrence date.
+   */
+  private List<InvitedAccount> invite(
+      Program program, List<Integer> accountIds, boolean isTraining) {
+    String frequency = program.getFrequency();
+    if (frequency != null && !frequency.equalsIgnoreCase("once")) {
+      return programInvitationWriter.inviteToProgramRecurrences(
+          program.getProgramId(), accountIds, isTraining);
+    }
+    Integer recurrenceId = eventRsvpWriter.findOrAddEventRecurrence(program.getProgramId());
+    return programInvitationWriter.inviteToRecurrence(recurrenceId, accountIds, isTraining);
+  }
+
+  private InvitationStatusDto toStatus(
+      Integer accountId, InvitedAccount invitedAccount, Program program) {
+    if (invitedAccount == null) {
+      return new InvitationStatusDto(accountId, Status.ACCOUNT_NOT_FOUND, false);
+    }
+    boolean isTraining = program.getProgramType() == ProgramType.TRAINING;
+    if (isTraining && invitedAccount.alreadyConfirmed() && !invitedAccount.newParticipant()) {
+      return new InvitationStatusDto(accountId, Status.ALREADY_CONFIRMED, false);
+    }
+
+    Status status = invitedAccount.newParticipant() ? Status.INVITED : Status.REINVITED;
+    // Trainings confirm their participants directly, without an invitation email
+    boolean emailQueued =
+        !isTraining
+            && asyncEmailSender.sendPrivateProgramInvitation(invitedAccount.email(), program);
+    return new InvitationStatusDto(accountId, status, emailQueued);
+  }
+}
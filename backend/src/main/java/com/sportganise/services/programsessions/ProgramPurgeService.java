@@ -0,0 +1,106 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.repositories.programsessions.ProgramPurgeWriter;
+import com.sportganise.services.BlobService;
+import java.io.IOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Purges the programs marked deleted, in the background. Deleting a program only marks it, which
+ * hides it at once; its recurrences, participants, attachments and files are then removed here in
+ * chunks, outside of any request, before the program itself.
+ */
+@Slf4j
+@Service
+public class ProgramPurgeService {
+
+  private final ProgramPurgeWriter programPurgeWriter;
+  private final BlobService blobService;
+  private final int chunkSize;
+  private final int programsPerRun;
+
+  /**
+   * Constructor for ProgramPurgeService.
+   *
+   * @param programPurgeWriter Writer removing the rows of deleted programs.
+   * @param blobService Service deleting the files of the attachments.
+   * @param chunkSize Maximum number of rows removed by one statement.
+   * @param programsPerRun Maximum number of programs purged by one run.
+   */
+  public ProgramPurgeService(
+      ProgramPurgeWriter programPurgeWriter,
+      BlobService blobService,
+      @Value("${programs.purge.chunk-size:500}") int chunkSize,
+      @Value("${programs.purge.programs-per-run:20}") int programsPerRun) {
+    this.programPurgeWriter = programPurgeWriter;
+    this.blobService = blobService;
+    this.chunkSize = chunkSize;
+    this.programsPerRun = programsPerRun;
+  }
+
+  /**
+   * Method to purge the programs marked deleted, the oldest deletions first. A program that cannot
+   * be purged stays marked and is purged again by a later run.
+   *
+   * @return the number of purged programs.
+   */
+  public int purgeDeletedPrograms() {
+    int purged = 0;
+    for (Integer programId : programPurgeWriter.findDeletedProgramIds(programsPerRun)) {
+      try {
+        purgeProgram(programId);
+        purged++;
+      } catch (IOException | DataAccessException e) {
+        log.error("Failed to purge program {}: {}", programId, e.getMessage());
+      }
+    }
+    return purged;
+  }
+
+  /**
+   * Method to remove the rows and files of a program marked deleted, chunk by chunk.
+   *
+   * @param programId Id of the program.
+   * @throws IOException if a file cannot be deleted, before its attachment is removed.
+   */
+  void purgeProgram(Integer programId) throws IOException {
+    int recurrences = 0;
+    int deleted;
+    do {
+      deleted = programPurgeWriter.deleteRecurrences(programId, chunkSize);
+      recurrences += deleted;
+    } while (deleted == chunkSize);
+
+    int attachments = 0;
+    List<String> attachmentUrls;
+    do {
+      attachmentUrls = programPurgeWriter.findAttachmentUrls(programId, chunkSize);
+      if (attachmentUrls.isEmpty()) {
+        break;
+      }
+      deleteFiles(attachmentUrls);
+      programPurgeWriter.deleteAttachments(programId, attachmentUrls);
+      attachments += attachmentUrls.size();
+    } while (attachmentUrls.size() == chunkSize);
+
+    programPurgeWriter.deleteProgram(programId);
+    log.debug(
+        "PURGED PROGRAM {}: {} RECURRENCES, {} ATTACHMENTS", programId, recurrences, attachments);
+  }
+
+  /** Files are deleted before their rows, so a failed purge never loses track of a file. */
+  private void deleteFiles(List<String> attachmentUrls) throws IOException {
+    for (String attachmentUrl : attachmentUrls) {
+      try {
+        blobService.deleteFile(attachmentUrl);
+      } catch (IllegalArgumentException e) {
+        // A url that is not a file of the bucket has no file to delete.
+        log.warn("Skipping attachment {} of a purged program: {}", attachmentUrl, e.getMessage());
+      }
+    }
+  }
+}
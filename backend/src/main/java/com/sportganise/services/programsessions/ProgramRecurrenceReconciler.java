@@ -0,0 +1,136 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Brings the stored recurrences of a program in line with a new schedule. The existing recurrences
+ * are loaded once and compared in memory with the new occurrences, and only the differences are
+ * written: rows on a kept date are left alone, rows whose day is kept but whose time changed are
+ * moved, and the rest are deleted or inserted. Moving instead of recreating keeps the participants
+ * of a recurrence when only the start time of the program changes.
+ */
+@Slf4j
+@Service
+public class ProgramRecurrenceReconciler {
+
+  private static final int MAX_IDS_PER_DELETE = 1000;
+
+  private final ProgramRecurrenceRepository programRecurrenceRepository;
+  private final ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+
+  /**
+   * Constructor for ProgramRecurrenceReconciler.
+   *
+   * @param programRecurrenceRepository program recurrence repository object.
+   * @param programRecurrenceBulkWriter writer applying inserts and moves in bulk.
+   */
+  public ProgramRecurrenceReconciler(
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      ProgramRecurrenceBulkWriter programRecurrenceBulkWriter) {
+    this.programRecurrenceRepository = programRecurrenceRepository;
+    this.programRecurrenceBulkWriter = programRecurrenceBulkWriter;
+  }
+
+  /** Changes needed to turn the stored recurrences into the new schedule. */
+  public record Plan(
+      List<Integer> deletions, Map<Integer, ZonedDateTime> moves, List<ZonedDateTime> insertions) {
+
+    public boolean isEmpty() {
+      return deletions.isEmpty() && moves.isEmpty() && insertions.isEmpty();
+    }
+  }
+
+  /**
+   * Reconciles the recurrences of a program with its new recurrence rule.
+   *
+   * @param programId Id of the program.
+   * @param rule The new recurrence rule of the program.
+   * @return the plan that was applied.
+   */
+  @Transactional
+  public Plan reconcile(Integer programId, RecurrenceRule rule) {
+    List<ProgramRecurrence> existingRecurrences =
+        programRecurrenceRepository.findProgramRecurrenceByProgramId(programId);
+    Plan plan = plan(existingRecurrences, rule.occurrences());
+
+    log.debug(
+        "RECONCILING {} RECURRENCES OF PROGRAM {}: {} DELETED, {} MOVED, {} INSERTED",
+        existingRecurrences.size(),
+        programId,
+        plan.deletions().size(),
+        plan.moves().size(),
+        plan.insertions().size());
+
+    for (int from = 0; from < plan.deletions().size(); from += MAX_IDS_PER_DELETE) {
+      programRecurrenceRepository.deleteAllByIdInBatch(
+          plan.deletions()
+              .subList(from, Math.min(from + MAX_IDS_PER_DELETE, plan.deletions().size())));
+    }
+    programRecurrenceBulkWriter.updateOccurrenceDates(plan.moves());
+    programRecurrenceBulkWriter.insertRecurrences(programId, plan.insertions(), false);
+    return plan;
+  }
+
+  /**
+   * Computes the changes that turn the existing recurrences into the target occurrences. A
+   * recurrence is kept when a target occurrence has the same instant, then moved when a remaining
+   * target occurrence falls on the same day, and deleted otherwise. Remaining target occurrences
+   * are inserted.
+   *
+   * @param existingRecurrences The stored recurrences of the program.
+   * @param targetOccurrences The occurrences of the new schedule.
+   * @return the plan.
+   */
+  Plan plan(List<ProgramRecurrence> existingRecurrences, List<ZonedDateTime> targetOccurrences) {
+    Map<Instant, ZonedDateTime> unmatchedTargets = new LinkedHashMap<>();
+    for (ZonedDateTime occurrence : targetOccurrences) {
+      unmatchedTargets.put(occurrence.toInstant(), occurrence);
+    }
+
+    List<ProgramRecurrence> unmatchedRecurrences = new ArrayList<>();
+    for (ProgramRecurrence recurrence : existingRecurrences) {
+      if (unmatchedTargets.remove(recurrence.getOccurrenceDate().toInstant()) == null) {
+        unmatchedRecurrences.add(recurrence);
+      }
+    }
+
+    // Occurrences of a schedule share the zone of its first occurrence.
+    Map<LocalDate, ZonedDateTime> unmatchedTargetsByDay = new HashMap<>();
+    for (ZonedDateTime occurrence : unmatchedTargets.values()) {
+      unmatchedTargetsByDay.putIfAbsent(occurrence.toLocalDate(), occurrence);
+    }
+    ZoneId zone = targetOccurrences.isEmpty() ? null : targetOccurrences.getFirst().getZone();
+
+    List<Integer> deletions = new ArrayList<>();
+    Map<Integer, ZonedDateTime> moves = new LinkedHashMap<>();
+    for (ProgramRecurrence recurrence : unmatchedRecurrences) {
+      ZonedDateTime occurrence =
+          zone == null
+              ? null
+              : unmatchedTargetsByDay.remove(
+                  recurrence.getOccurrenceDate().withZoneSameInstant(zone).toLocalDate());
+      if (occurrence != null) {
+        unmatchedTargets.remove(occurrence.toInstant());
+        moves.put(recurrence.getRecurrenceId(), occurrence);
+      } else {
+        deletions.add(recurrence.getRecurrenceId());
+      }
+    }
+
+    return new Plan(deletions, moves, new ArrayList<>(unmatchedTargets.values()));
+  }
+}
@@ -0,0 +1,97 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramSearchPageDto;
+import com.sportganise.dto.programsessions.ProgramSearchResultDto;
+import com.sportganise.repositories.programsessions.ProgramSearchReader;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.MatchingProgram;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.ProgramSearchCriteria;
+import io.micrometer.common.lang.Nullable;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Searches programs with filters, one page at a time. Each page is read with a single query that
+ * only selects the columns of the results and continues after the last program of the previous
+ * page, so the client never downloads every program to filter them itself.
+ */
+@Slf4j
+@Service
+public class ProgramSearchService {
+
+  /** Largest number of programs in one page. */
+  static final int MAX_SEARCH_PAGE_SIZE = 50;
+
+  /** Shortest text searched, below which the trigram index cannot narrow the programs. */
+  static final int MIN_SEARCH_TEXT_LENGTH = 3;
+
+  private final ProgramSearchReader programSearchReader;
+
+  /**
+   * Constructor for ProgramSearchService.
+   *
+   * @param programSearchReader reader of the programs matching a search.
+   */
+  public ProgramSearchService(ProgramSearchReader programSearchReader) {
+    this.programSearchReader = programSearchReader;
+  }
+
+  /**
+   * Method to get one page of the programs matching a search, ordered by first occurrence.
+   *
+   * @param criteria Filters of the search. Null filters match every program.
+   * @param cursorDate Next cursor date returned by the previous page, or null for the first page.
+   * @param cursorId Next cursor id returned by the previous page, or null for the first page.
+   * @param limit Maximum number of programs to return.
+   * @return the page of programs, with the cursor of the next page.
+   */
+  public ProgramSearchPageDto searchPrograms(
+      ProgramSearchCriteria criteria,
+      @Nullable ZonedDateTime cursorDate,
+      @Nullable Integer cursorId,
+      int limit) {
+    if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "The search page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE + ".");
+    }
+    if (criteria.text() != null && criteria.text().trim().length() < MIN_SEARCH_TEXT_LENGTH) {
+      throw new IllegalArgumentException(
+          "The search text must have at least " + MIN_SEARCH_TEXT_LENGTH + " characters.");
+    }
+    if (criteria.from() != null
+        && criteria.to() != null
+        && !criteria.from().isBefore(criteria.to())) {
+      throw new IllegalArgumentException("The start of the search must be before its end.");
+    }
+
+    List<MatchingProgram> programs =
+        programSearchReader.search(criteria, cursorDate, cursorId, limit + 1);
+    log.debug("PROGRAM SEARCH PAGE: {} PROGRAMS", programs.size());
+
+    if (programs.size() <= limit) {
+      return new ProgramSearchPageDto(toResults(programs), null, null);
+    }
+    List<MatchingProgram> page = programs.subList(0, limit);
+    MatchingProgram last = page.getLast();
+    return new ProgramSearchPageDto(toResults(page), last.occurrenceDate(), last.programId());
+  }
+
+  private static List<ProgramSearchResultDto> toResults(List<MatchingProgram> programs) {
+    return programs.stream()
+        .map(
+            program ->
+                new ProgramSearchResultDto(
+                    program.programId(),
+                    program.programType(),
+                    program.title(),
+                    program.location(),
+                    program.visibility(),
+                    program.occurrenceDate(),
+                    program.durationMins(),
+                    program.expiryDate(),
+                    program.frequency(),
+                    program.cancelled()))
+        .toList();
+  }
+}
@@ -1,28 +1,31 @@
 package com.sportganise.services.programsessions;
 
 import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramCacheStatsDto;
+import com.sportganise.dto.programsessions.ProgramCalendarPageDto;
 import com.sportganise.dto.programsessions.ProgramDetailsParticipantsDto;
 import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramEnrollmentResultDto;
 import com.sportganise.dto.programsessions.ProgramParticipantDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
 import com.sportganise.entities.account.Account;
 import com.sportganise.entities.account.AccountType;
 import com.sportganise.entities.programsessions.Program;
 import com.sportganise.entities.programsessions.ProgramAttachment;
-import com.sportganise.entities.programsessions.ProgramAttachmentCompositeKey;
 import com.sportganise.entities.programsessions.ProgramParticipant;
-import com.sportganise.entities.programsessions.ProgramParticipantId;
 import com.sportganise.entities.programsessions.ProgramRecurrence;
 import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.entities.programsessions.WaitlistPosition;
 import com.sportganise.exceptions.EntityNotFoundException;
 import com.sportganise.exceptions.FileProcessingException;
 import com.sportganise.exceptions.InsufficientPermissionsException;
 import com.sportganise.exceptions.ResourceNotFoundException;
-import com.sportganise.exceptions.programexceptions.InvalidFrequencyException;
 import com.sportganise.exceptions.programexceptions.ProgramCreationException;
 import com.sportganise.exceptions.programexceptions.ProgramModificationException;
-import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
+import com.sportganise.exceptions.programexceptions.ScheduleConflictException;
 import com.sportganise.repositories.programsessions.ProgramAttachmentRepository;
 import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
 import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
 import com.sportganise.repositories.programsessions.ProgramRepository;
 import com.sportganise.services.BlobService;
@@ -30,16 +33,23 @@ import com.sportganise.services.account.AccountService;
 import com.sportganise.services.forum.PostService;
 import io.micrometer.common.lang.Nullable;
 import jakarta.transaction.Transactional;
-import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -48,6 +58,8 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class ProgramService {
 
+  private static final int MAX_CALENDAR_PAGE_SIZE = 500;
+
   private final ProgramRepository programRepository;
   private final AccountService accountService;
   private final PostService postService;
@@ -55,6 +67,13 @@ public class ProgramService {
   private final ProgramRecurrenceRepository programRecurrenceRepository;
   private final ProgramParticipantRepository programParticipantRepository;
   private final BlobService blobService;
+  private final ProgramCalendarAssembler programCalendarAssembler;
+  private final ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+  private final ProgramRecurrenceReconciler programRecurrenceReconciler;
+  private final ProgramEnrollmentService programEnrollmentService;
+  private final ProgramCache programCache;
+  private final ScheduleConflictIndex scheduleConflictIndex;
+  private final ProgramAttachmentUploader programAttachmentUploader;
 
   /**
    * Constructor for ProgramService.
@@ -62,6 +81,13 @@ public class ProgramService {
    * @param programRepository program repository object.
    * @param accountService account service object.
    * @param programAttachmentRepository program attachment repository object.
+   * @param programCalendarAssembler assembler building the calendar with set-based queries.
+   * @param programRecurrenceBulkWriter writer inserting recurrences with multi-row statements.
+   * @param programRecurrenceReconciler reconciler applying schedule changes to stored recurrences.
+   * @param programEnrollmentService service enrolling accounts with set-based statements.
+   * @param programCache cache of program details and attachments.
+   * @param scheduleConflictIndex index of upcoming occurrences by location and coach.
+   * @param programAttachmentUploader uploader streaming attachments concurrently.
    */
   public ProgramService(
       ProgramRepository programRepository,
@@ -70,7 +96,14 @@ public class ProgramService {
       ProgramAttachmentRepository programAttachmentRepository,
       ProgramRecurrenceRepository programRecurrenceRepository,
       ProgramParticipantRepository programParticipantRepository,
-      BlobService blobService) {
+      BlobService blobService,
+      ProgramCalendarAssembler programCalendarAssembler,
+      ProgramRecurrenceBulkWriter programRecurrenceBulkWriter,
+      ProgramRecurrenceReconciler programRecurrenceReconciler,
+      ProgramEnrollmentService programEnrollmentService,
+      ProgramCache programCache,
+      ScheduleConflictIndex scheduleConflictIndex,
+      ProgramAttachmentUploader programAttachmentUploader) {
     this.programRepository = programRepository;
     this.accountService = accountService;
     this.postService = postService;
@@ -78,6 +111,13 @@ public class ProgramService {
     this.programRecurrenceRepository = programRecurrenceRepository;
     this.programParticipantRepository = programParticipantRepository;
     this.blobService = blobService;
+    this.programCalendarAssembler = programCalendarAssembler;
+    this.programRecurrenceBulkWriter = programRecurrenceBulkWriter;
+    this.programRecurrenceReconciler = programRecurrenceReconciler;
+    this.programEnrollmentService = programEnrollmentService;
+    this.programCache = programCache;
+    this.scheduleConflictIndex = scheduleConflictIndex;
+    this.programAttachmentUploader = programAttachmentUploader;
   }
 
   public Optional<Program> getSessionById(Integer id) {
@@ -100,6 +140,16 @@ public class ProgramService {
 
     log.debug("PARTICIPANTS COUNT: {} ", participants.size());
 
+    // Ranks are computed from the order of opt-ins, so they are read only if someone opted in
+    Map<Integer, Integer> ranks =
+        participants.stream().anyMatch(participant -> participant.getOptInSeq() != null)
+            ? programParticipantRepository.findWaitlistPositions(List.of(recurrenceId)).stream()
+                .collect(
+                    Collectors.toMap(
+                        position -> position.getProgramParticipantId().getAccountId(),
+                        WaitlistPosition::getRank))
+            : new HashMap<>();
+
     return participants.stream()
         .map(
             participant -> {
@@ -110,7 +160,7 @@ public class ProgramService {
               return new ProgramParticipantDto(
                   account.getAccountId(),
                   recurrenceId,
-                  participant.getRank(),
+                  ranks.get(participant.getAccountId()),
                   participant.getType(),
                   participant.isConfirmed(),
                   participant.getConfirmedDate());
@@ -125,7 +175,7 @@ public class ProgramService {
    * @return a single programDto for the program that we fetched.
    */
   public ProgramDto getProgramDetails(Integer programId) {
-    Program program = programRepository.findProgramById(programId);
+    ProgramDto program = programCache.getProgram(programId, this::loadProgramDetails);
 
     log.debug("PROGRAM ID (getProgramDetails): {} ", program.getProgramId());
 
@@ -152,6 +202,16 @@ public class ProgramService {
         programAttachments);
   }
 
+  private ProgramDto loadProgramDetails(Integer programId) {
+    Program program = programRepository.findProgramById(programId);
+    if (program == null) {
+      return null;
+    }
+    ProgramDto programDto = new ProgramDto(program, null);
+    programDto.setCancelled(program.isCancelled());
+    return programDto;
+  }
+
   /**
    * Method to get all the attachments uploaded to a specific program.
    *
@@ -159,6 +219,10 @@ public class ProgramService {
    * @return a list of ProgramAttachmentDto related to the program.
    */
   public List<ProgramAttachmentDto> getProgramAttachments(Integer programId) {
+    return programCache.getAttachments(programId, this::loadProgramAttachments);
+  }
+
+  private List<ProgramAttachmentDto> loadProgramAttachments(Integer programId) {
 
     log.debug("PROGRAM ID: {}", programId);
 
@@ -191,79 +255,10 @@ public class ProgramService {
 
     log.debug("PROGRAMS COUNT: {} ", programs.size());
 
-    List<ProgramDto> programDtos = new ArrayList<>();
-
-    for (Program program : programs) {
-      log.debug("fetching program: {} ", program.getProgramId());
-      List<ProgramAttachmentDto> programAttachments = getProgramAttachments(program.getProgramId());
-      Integer programId = program.getProgramId();
-      ProgramType programType = program.getProgramType();
-      String title = program.getTitle();
-      String description = program.getDescription();
-      String author = program.getAuthor();
-      Integer capacity = program.getCapacity();
-      ZonedDateTime occurrenceDate = program.getOccurrenceDate();
-      Integer durationMins = program.getDurationMins();
-      ZonedDateTime expiryDate = program.getExpiryDate();
-      String frequency = program.getFrequency();
-      String location = program.getLocation();
-      String visibility = program.getVisibility();
-      boolean cancelled = program.isCancelled();
-
-      if (!(program.getFrequency() == null || program.getFrequency().equalsIgnoreCase("once"))) {
-        List<ProgramRecurrence> recurrences = getProgramRecurrences(program.getProgramId());
-        log.debug("PROGRAM RECURRENCES COUNT: {}", recurrences.size());
-        for (ProgramRecurrence recurrence : recurrences) {
-          log.debug("FETCHING RECURRENCE: {} ", recurrence.getRecurrenceId());
-          System.out.println("Program id: " + programId);
-          programDtos.add(
-              new ProgramDto(
-                  programId,
-                  recurrence.getRecurrenceId(),
-                  programType,
-                  title,
-                  description,
-                  author,
-                  capacity,
-                  occurrenceDate,
-                  recurrence.getOccurrenceDate(),
-                  durationMins,
-                  expiryDate,
-                  frequency,
-                  location,
-                  visibility,
-                  recurrence.isCancelled(),
-                  programAttachments));
-        }
-      } else {
-        programDtos.add(
-            new ProgramDto(
-                programId,
-                null,
-                programType,
-                title,
-                description,
-                author,
-                capacity,
-                occurrenceDate,
-                null,
-                durationMins,
-                expiryDate,
-                frequency,
-                location,
-                visibility,
-                cancelled,
-                programAttachments));
-        System.out.println("Program id: " + programId);
-      }
-    }
+    List<ProgramDto> programDtos = programCalendarAssembler.assemblePrograms(programs);
 
     log.debug("PROGRAM DTOS COUNT: {}", programDtos.size());
 
-    for (ProgramDto programDto : programDtos) {
-      System.out.println("Program id: " + programDto.getProgramId());
-    }
-
     return programDtos;
   }
 
@@ -277,22 +272,185 @@ public class ProgramService {
    */
   public List<ProgramDetailsParticipantsDto> getProgramDetailsParticipantsDto(
       List<ProgramDto> programDtos, Boolean hasPermissions) {
+    return programCalendarAssembler.assembleDetails(programDtos, hasPermissions);
+  }
 
-    return programDtos.stream()
-        .map(
-            programDto -> {
-              List<ProgramParticipantDto> participants =
-                  hasPermissions
-                      ? getParticipants(programDto.getRecurrenceId())
-                      : new ArrayList<>();
+  /**
+   * Method to fetch one page of the program calendar inside a date window. Pages are keyed by
+   * (occurrence date, sort id), where the sort id is the recurrence id of a recurrence or the
+   * negated program id of a non-recurring program.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param cursorDate occurrence date returned as the next cursor by the previous page, if any.
+   * @param cursorId sort id returned as the next cursor by the previous page, if any.
+   * @param limit maximum number of occurrences in the page.
+   * @param hasPermissions Boolean for whether the user has permissions to see the attendees.
+   * @return a page of programs and their participants.
+   */
+  public ProgramCalendarPageDto getProgramCalendar(
+      ZonedDateTime from,
+      ZonedDateTime to,
+      @Nullable ZonedDateTime cursorDate,
+      @Nullable Integer cursorId,
+      int limit,
+      boolean hasPermissions) {
+    if (from == null || to == null || !to.isAfter(from)) {
+      throw new IllegalArgumentException("The calendar window must end after it starts.");
+    }
+    if (limit < 1 || limit > MAX_CALENDAR_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "The calendar page size must be between 1 and " + MAX_CALENDAR_PAGE_SIZE + ".");
+    }
 
-              log.debug("PROGRAM PARTICIPANTS COUNT: {}", participants.size());
+    ZonedDateTime afterDate = cursorDate != null ? cursorDate : from;
+    Integer afterId = cursorDate != null && cursorId != null ? cursorId : Integer.MIN_VALUE;
+    Pageable pageable = PageRequest.of(0, limit + 1);
 
-              return new ProgramDetailsParticipantsDto(programDto, participants);
-            })
+    List<ProgramRecurrence> recurrences =
+        new ArrayList<>(
+            programRecurrenceRepository.findRecurrencesInWindow(
+                from, to, afterDate, afterId, pageable));
+    recurrences.addAll(getVirtualOccurrencesInWindow(from, to, afterDate, afterId, limit + 1));
+    List<Program> oneTimePrograms =
+        programRepository.findOneTimeProgramsInWindow(from, to, afterDate, afterId, pageable);
+
+    log.debug(
+        "CALENDAR WINDOW [{}, {}) RECURRENCES: {}, ONE-TIME PROGRAMS: {}",
+        from,
+        to,
+        recurrences.size(),
+        oneTimePrograms.size());
+
+    return programCalendarAssembler.assembleCalendarPage(
+        recurrences, oneTimePrograms, limit, hasPermissions);
+  }
+
+  /**
+   * Method to expand the virtual occurrences of programs inside a calendar window, past the given
+   * cursor. Occurrences that have a program_recurrence row are left out, since the row is already
+   * part of the window.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @param afterDate occurrence date of the cursor.
+   * @param afterId sort id of the cursor.
+   * @param limit maximum number of occurrences to return.
+   * @return the first virtual occurrences past the cursor, in calendar order.
+   */
+  private List<ProgramRecurrence> getVirtualOccurrencesInWindow(
+      ZonedDateTime from, ZonedDateTime to, ZonedDateTime afterDate, Integer afterId, int limit) {
+    List<Program> programs = programRepository.findVirtualRecurringProgramsInWindow(from, to);
+    if (programs.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Integer, List<ProgramRecurrence>> exceptionsByProgram =
+        programRecurrenceRepository
+            .findProgramRecurrencesInWindowByProgramIds(
+                programs.stream().map(Program::getProgramId).toList(), from, to)
+            .stream()
+            .collect(Collectors.groupingBy(ProgramRecurrence::getProgramId));
+
+    return programs.stream()
+        .flatMap(
+            program ->
+                programCalendarAssembler
+                    .virtualOccurrences(
+                        program,
+                        exceptionsByProgram.getOrDefault(program.getProgramId(), List.of()),
+                        from,
+                        to)
+                    .stream())
+        .filter(
+            occurrence ->
+                occurrence.getOccurrenceDate().isAfter(afterDate)
+                    || (occurrence.getOccurrenceDate().isEqual(afterDate)
+                        && ProgramCalendarAssembler.calendarSortId(occurrence) > afterId))
+        .sorted(
+            Comparator.comparing(
+                    (ProgramRecurrence occurrence) -> occurrence.getOccurrenceDate().toInstant())
+                .thenComparing(ProgramCalendarAssembler::calendarSortId))
+        .limit(limit)
         .collect(Collectors.toList());
   }
 
+  /**
+   * Method to give one occurrence of a program with virtual recurrences its own program_recurrence
+   * row, so that it can carry an exception such as a cancellation or participants. Returns the
+   * existing row if the occurrence already has one. Only the program's owners and admins can write
+   * the row, as for cancelling a recurrence.
+   *
+   * @param accountId Id of the user making the request.
+   * @param programId Id of the program.
+   * @param occurrenceDate Date and time of the occurrence.
+   * @return the ProgramDto of the occurrence, with its recurrence id.
+   */
+  @Transactional
+  public ProgramDto materializeOccurrence(
+      Integer accountId, Integer programId, ZonedDateTime occurrenceDate) {
+    checkProgramOwner(accountId, programId);
+    Program program = getProgramById(programId);
+    if (!isRecurring(program)) {
+      throw new IllegalArgumentException("Program " + programId + " is not recurring.");
+    }
+
+    ProgramRecurrence recurrence =
+        programRecurrenceRepository
+            .findFirstByProgramIdAndOccurrenceDate(programId, occurrenceDate)
+            .orElseGet(
+                () -> {
+                  if (!program.isVirtualRecurrences()
+                      || !RecurrenceRule.of(program).occursAt(occurrenceDate)) {
+                    throw new ResourceNotFoundException(
+                        "Program " + programId + " has no occurrence at " + occurrenceDate + ".");
+                  }
+                  log.debug("MATERIALIZING OCCURRENCE {} OF PROGRAM {}", occurrenceDate, programId);
+                  return programRecurrenceRepository.save(
+                      new ProgramRecurrence(programId, occurrenceDate, program.isCancelled()));
+                });
+
+    ProgramDto programDto = new ProgramDto(program, getProgramAttachments(programId));
+    programDto.setRecurrenceId(recurrence.getRecurrenceId());
+    programDto.setReccurenceDate(recurrence.getOccurrenceDate());
+    programDto.setCancelled(recurrence.isCancelled());
+    return programDto;
+  }
+
+  /**
+   * Method to write a program_recurrence row for every occurrence of a program with virtual
+   * recurrences, for changes that touch the whole series such as enrolling a roster. Afterwards the
+   * program no longer has virtual recurrences.
+   *
+   * @param program a recurring program.
+   */
+  private void materializeAllRecurrences(Program program) {
+    if (!program.isVirtualRecurrences()) {
+      return;
+    }
+
+    Set<Instant> exceptionDates =
+        programRecurrenceRepository
+            .findProgramRecurrenceByProgramId(program.getProgramId())
+            .stream()
+            .map(recurrence -> recurrence.getOccurrenceDate().toInstant())
+            .collect(Collectors.toSet());
+    List<ZonedDateTime> occurrenceDates =
+        RecurrenceRule.of(program).occurrences().stream()
+            .filter(occurrenceDate -> !exceptionDates.contains(occurrenceDate.toInstant()))
+            .toList();
+
+    log.debug(
+        "MATERIALIZING {} RECURRENCES OF PROGRAM {}",
+        occurrenceDates.size(),
+        program.getProgramId());
+
+    programRecurrenceBulkWriter.insertRecurrences(
+        program.getProgramId(), occurrenceDates, program.isCancelled());
+    program.setVirtualRecurrences(false);
+    programRepository.save(program);
+  }
+
   /**
    * Method to create new ProgramDto. It creates a new post too which will be linked to this program
    * by programId.
@@ -338,6 +496,23 @@ public class ProgramService {
 
     String author = user.getFirstName() + " " + user.getLastName();
 
+    ZonedDateTime plannedStart = ZonedDateTime.parse(startDate).with(LocalTime.parse(startTime));
+    List<ZonedDateTime> plannedDates =
+        frequency != null && !frequency.equalsIgnoreCase("once")
+            ? new RecurrenceRule(frequency, plannedStart, ZonedDateTime.parse(endDate))
+                .occurrences()
+            : List.of(plannedStart);
+    int plannedDurationMins =
+        (int)
+            java.time.Duration.between(LocalTime.parse(startTime), LocalTime.parse(endTime))
+                .toMinutes();
+    checkScheduleConflicts(
+        null,
+        plannedDates,
+        plannedDurationMins,
+        location,
+        coachesId != null ? Arrays.asList(coachesId) : List.of());
+
     Program savedProgram =
         createProgramObject(
             title,
@@ -363,25 +538,13 @@ public class ProgramService {
         programType,
         savedProgram.getProgramId());
 
-    List<ProgramAttachmentDto> programAttachmentsDto = new ArrayList<>();
-
-    if (attachments != null && !attachments.isEmpty()) {
-      try {
-        for (MultipartFile attachment : attachments) {
-          String s3AttachmentUrl = this.blobService.uploadFile(attachment, accountId);
-          log.debug("Attachment Saved to S3 bucket: {}", s3AttachmentUrl);
-          programAttachmentsDto.add(
-              new ProgramAttachmentDto(savedProgram.getProgramId(), s3AttachmentUrl));
-          ProgramAttachmentCompositeKey savedProgramCompositeKey =
-              new ProgramAttachmentCompositeKey(savedProgram.getProgramId(), s3AttachmentUrl);
-          ProgramAttachment programAttachment = new ProgramAttachment(savedProgramCompositeKey);
-          programAttachmentRepository.saveProgramAttachment(
-              programAttachment.getCompositeProgramAttachmentKey().getProgramId(),
-              programAttachment.getCompositeProgramAttachmentKey().getAttachmentUrl());
-        }
-      } catch (FileProcessingException | IOException e) {
-        throw new ProgramCreationException("Failed to create program: " + e.getMessage());
-      }
+    List<ProgramAttachmentDto> programAttachmentsDto;
+    try {
+      programAttachmentsDto =
+          programAttachmentUploader.uploadAttachments(
+              savedProgram.getProgramId(), attachments, accountId);
+    } catch (FileProcessingException e) {
+      throw new ProgramCreationException("Failed to create program: " + e.getMessage());
     }
 
     if (participantsId != null) {
@@ -397,6 +560,8 @@ public class ProgramService {
       this.createProgramParticipants(savedProgram.getProgramId(), coachesId, "Coach", false);
     }
 
+    scheduleConflictIndex.refresh(savedProgram.getProgramId());
+
     return new ProgramDto(savedProgram, programAttachmentsDto);
   }
 
@@ -407,67 +572,30 @@ public class ProgramService {
    * @param participants List of participant account IDs
    * @param participantType Type of participant (Subscribed, Waitlisted, Coach)
    * @param isConfirmed Whether the participant is confirmed
+   * @return the number of inserted and skipped participants.
    */
-  public void createProgramParticipants(
+  public ProgramEnrollmentResultDto createProgramParticipants(
       Integer programId, Integer[] participants, String participantType, Boolean isConfirmed) {
 
     if (participants == null || participants.length == 0) {
       log.info("There are no participants for this program.");
-      return;
+      return new ProgramEnrollmentResultDto(0, 0);
     }
 
     Program program = programRepository.findProgramById(programId);
-    boolean isRecurring =
-        program.getFrequency() != null && !program.getFrequency().equalsIgnoreCase("once");
+    boolean isRecurring = isRecurring(program);
 
     if (isRecurring) {
-      // Get all recurrences for this program
-      List<ProgramRecurrence> recurrences =
-          programRecurrenceRepository.findProgramRecurrenceByProgramId(programId);
-      log.debug("Adding participants to {} recurrences", recurrences.size());
-
-      for (ProgramRecurrence recurrence : recurrences) {
-        for (Integer participantId : participants) {
-          Account user = accountService.getAccount(participantId);
-
-          ZonedDateTime confirmedDate = isConfirmed ? ZonedDateTime.now() : null;
-
-          ProgramParticipant programParticipant =
-              new ProgramParticipant(
-                  new ProgramParticipantId(recurrence.getRecurrenceId(), user.getAccountId()),
-                  null,
-                  participantType,
-                  isConfirmed,
-                  confirmedDate);
-
-          programParticipantRepository.save(programParticipant);
-          log.debug(
-              "Created participant for recurrence ID {}: {}",
-              recurrence.getRecurrenceId(),
-              programParticipant);
-        }
-      }
-    } else {
-      // Non-recurring program - just add participants to the main program
-      for (Integer participantId : participants) {
-        Account user = accountService.getAccount(participantId);
-
-        ZonedDateTime confirmedDate = isConfirmed ? ZonedDateTime.now() : null;
-
-        ProgramParticipant programParticipant =
-            new ProgramParticipant(
-                new ProgramParticipantId(programId, user.getAccountId()),
-                null,
-                participantType,
-                isConfirmed,
-                confirmedDate);
-
-        programParticipantRepository.save(programParticipant);
-        log.info("Created participant: {}", programParticipant);
-      }
+      // A roster applies to every occurrence, so each one needs its own row
+      materializeAllRecurrences(program);
     }
 
-    log.info("Participants creation is successful");
+    if ("Coach".equalsIgnoreCase(participantType)) {
+      scheduleConflictIndex.refresh(programId);
+    }
+
+    return programEnrollmentService.enroll(
+        programId, isRecurring, participants, participantType, isConfirmed);
   }
 
   /**
@@ -539,55 +667,44 @@ public class ProgramService {
       parsedEndDateTime = null;
     }
 
+    log.debug("DEBUG:Parsed start date time: {}", parsedStartDateTime);
+    log.debug("DEBUG:Parsed end date time: {}", parsedEndDateTime);
+
+    if (!existingProgram.isCancelled()) {
+      checkScheduleConflicts(
+          existingProgram.getProgramId(),
+          newProgramIsRecurring
+              ? new RecurrenceRule(frequency, parsedStartDateTime, parsedEndDateTime).occurrences()
+              : List.of(parsedStartDateTime),
+          existingProgram.getDurationMins(),
+          location,
+          scheduleConflictIndex.getCoachIds(existingProgram.getProgramId()));
+    }
+
     boolean existingProgramIsRecurring =
         existingProgram.getFrequency() != null
             && !existingProgram.getFrequency().equalsIgnoreCase("once");
 
-    log.debug("DEBUG:Parsed start date time: {}", parsedStartDateTime);
-    log.debug("DEBUG:Parsed end date time: {}", parsedEndDateTime);
-
-    if (existingProgramIsRecurring) {
+    if (existingProgramIsRecurring && existingProgram.isVirtualRecurrences()) {
+      log.debug("Existing program has virtual recurrences");
+      if (!newProgramIsRecurring) {
+        deleteAllRecurrences(existingProgram.getProgramId());
+        existingProgram.setVirtualRecurrences(false);
+      } else {
+        modifyRecurrenceExceptions(
+            existingProgram.getProgramId(),
+            new RecurrenceRule(frequency, parsedStartDateTime, parsedEndDateTime),
+            !LocalTime.parse(startTime).equals(existingProgramStartTime));
+      }
+    } else if (existingProgramIsRecurring) {
       log.debug("Existing program is recurring");
       if (!newProgramIsRecurring) {
         log.debug("Deleting all recurrences for program: {}", existingProgram.getProgramId());
         deleteAllRecurrences(existingProgram.getProgramId());
       } else {
-
-        if (parsedStartDateTime.isAfter(existingProgram.getOccurrenceDate())) {
-          log.debug(
-              "Modifying recurrences for program with same frequency and different start time");
-          deletePrecedingRecurrences(existingProgram.getProgramId(), parsedStartDateTime);
-        }
-        if (!(LocalTime.parse(startTime)).equals(existingProgramStartTime)) {
-          log.debug("Modifying recurrences all start time");
-          modifyAllRecurrencesStartTime(existingProgram.getProgramId(), LocalTime.parse(startTime));
-        }
-        if (existingProgram.getExpiryDate().isAfter(parsedEndDateTime)) {
-          log.debug("Deleting overflowing recurrences for program with a receding end date");
-          deleteOverflowingRecurrences(parsedEndDateTime, existingProgram.getProgramId());
-        }
-
-        if (existingProgram.getFrequency().equalsIgnoreCase(frequency)
-            && existingProgram.getExpiryDate().isBefore(parsedEndDateTime)) {
-          log.debug("Modifying recurrences for program with same frequency and different end date");
-
-          ZonedDateTime lastOccurrence =
-              getLastProgramRecurrence(existingProgram.getProgramId()).getOccurrenceDate();
-          String usedFrequency = existingProgram.getFrequency();
-          ZonedDateTime newStartDate = getNextDateTime(lastOccurrence, usedFrequency);
-          createProgramRecurrences(
-              newStartDate, parsedEndDateTime, usedFrequency, existingProgram.getProgramId());
-
-        } else {
-          log.debug(
-              "Modifying recurrences for program with different frequency or receded start date");
-          modifyRecurrence(
-              existingProgram.getProgramId(),
-              parsedStartDateTime,
-              parsedEndDateTime,
-              existingProgram.getFrequency(),
-              frequency);
-        }
+        programRecurrenceReconciler.reconcile(
+            existingProgram.getProgramId(),
+            new RecurrenceRule(frequency, parsedStartDateTime, parsedEndDateTime));
       }
     } else if (newProgramIsRecurring) {
       log.debug("Creating recurrences for new recurring program");
@@ -607,6 +724,10 @@ public class ProgramService {
     existingProgram.setFrequency(frequency);
 
     Program savedProgram = programRepository.save(existingProgram);
+    postService.updateProgramPost(existingProgram);
+    // Covers the attachment changes below as well, which happen in the same transaction.
+    programCache.invalidate(existingProgram.getProgramId());
+    scheduleConflictIndex.refresh(existingProgram.getProgramId());
 
     log.debug("PROGRAM ID OF MODIFIED PROGRAM: {} ", existingProgram.getProgramId());
 
@@ -626,23 +747,10 @@ public class ProgramService {
       }
     }
 
-    List<ProgramAttachment> programAttachments = new ArrayList<>();
-    List<ProgramAttachmentDto> programAttachmentDtos = new ArrayList<>();
-    String s3AttachmentUrl;
-    if (attachmentsToAdd != null) {
-      if (!attachmentsToAdd.isEmpty()) {
-        for (MultipartFile attachment : attachmentsToAdd) {
-          s3AttachmentUrl = this.blobService.uploadFile(attachment, accountId);
-          ProgramAttachmentCompositeKey programAttachmentCompositeKey =
-              new ProgramAttachmentCompositeKey(programDtoToModify.getProgramId(), s3AttachmentUrl);
-          programAttachments.add(new ProgramAttachment(programAttachmentCompositeKey));
-          programAttachmentDtos.add(
-              new ProgramAttachmentDto(programDtoToModify.getProgramId(), s3AttachmentUrl));
-          programAttachmentRepository.saveAll(programAttachments);
-        }
-        log.debug("PROGRAM ATTACHMENTS COUNT (modifyProgram): {} ", programAttachments.size());
-      }
-    }
+    List<ProgramAttachmentDto> programAttachmentDtos =
+        programAttachmentUploader.uploadAttachments(
+            programDtoToModify.getProgramId(), attachmentsToAdd, accountId);
+    log.debug("PROGRAM ATTACHMENTS COUNT (modifyProgram): {} ", programAttachmentDtos.size());
 
     if (waitlistsId != null) {
       this.modifyProgramParticipants(savedProgram.getProgramId(), waitlistsId, "Waitlisted", false);
@@ -653,93 +761,35 @@ public class ProgramService {
 
   /**
    * Modified method to create or modify participants for an existing program and all its
-   * recurrences.
+   * recurrences. Accounts that already take part in a recurrence are skipped.
    *
    * @param programId Takes programId of program
    * @param participants List of participants for the program
    * @param participantType Type of participant (Subscribed, Waitlisted, Coach)
    * @param isConfirmed Whether the participant is confirmed
+   * @return the number of inserted and skipped participants.
    */
-  public void modifyProgramParticipants(
+  public ProgramEnrollmentResultDto modifyProgramParticipants(
       Integer programId, Integer[] participants, String participantType, Boolean isConfirmed) {
 
-    if (participants == null) {
+    if (participants == null || participants.length == 0) {
       log.info("There are no participants for this program (modifyProgram).");
-      return;
+      return new ProgramEnrollmentResultDto(0, 0);
     }
 
     Program program = programRepository.findProgramById(programId);
-    boolean isRecurring =
-        program.getFrequency() != null && !program.getFrequency().equalsIgnoreCase("once");
+    boolean isRecurring = isRecurring(program);
 
     if (isRecurring) {
-      // Get all recurrences for this program
-      List<ProgramRecurrence> recurrences =
-          programRecurrenceRepository.findProgramRecurrenceByProgramId(programId);
-      log.debug("Modifying participants for {} recurrences", recurrences.size());
-
-      for (ProgramRecurrence recurrence : recurrences) {
-        for (Integer participantId : participants) {
-          Account user = accountService.getAccount(participantId);
-
-          ProgramParticipant existingParticipant =
-              programParticipantRepository.findParticipant(
-                  recurrence.getRecurrenceId(), user.getAccountId());
-
-          if (existingParticipant != null) {
-            log.info(
-                "User {} already a participant for recurrence {}",
-                user.getAccountId(),
-                recurrence.getRecurrenceId());
-            continue;
-          }
-
-          ZonedDateTime confirmedDate = isConfirmed ? ZonedDateTime.now() : null;
-
-          ProgramParticipant programParticipant =
-              new ProgramParticipant(
-                  new ProgramParticipantId(recurrence.getRecurrenceId(), user.getAccountId()),
-                  null,
-                  participantType,
-                  isConfirmed,
-                  confirmedDate);
-
-          programParticipantRepository.save(programParticipant);
-          log.debug(
-              "Created participant for recurrence {}: {}",
-              recurrence.getRecurrenceId(),
-              programParticipant);
-        }
-      }
-    } else {
-      // Non-recurring program - just modify participants for the main program
-      for (Integer participantId : participants) {
-        Account user = accountService.getAccount(participantId);
-
-        ProgramParticipant existingParticipant =
-            programParticipantRepository.findParticipant(programId, user.getAccountId());
-
-        if (existingParticipant != null) {
-          log.info("User {} already a participant for this program.", user.getAccountId());
-          continue;
-        }
-
-        ZonedDateTime confirmedDate = isConfirmed ? ZonedDateTime.now() : null;
-
-        ProgramParticipant programParticipant =
-            new ProgramParticipant(
-                new ProgramParticipantId(programId, user.getAccountId()),
-                null,
-                participantType,
-                isConfirmed,
-                confirmedDate);
+      materializeAllRecurrences(program);
+    }
 
-        programParticipantRepository.save(programParticipant);
-        log.info("Created participant (modifyProgramParticipants): {}", programParticipant);
-      }
+    if ("Coach".equalsIgnoreCase(participantType)) {
+      scheduleConflictIndex.refresh(programId);
     }
 
-    log.info("Participants modification is successful");
+    return programEnrollmentService.enroll(
+        programId, isRecurring, participants, participantType, isConfirmed);
   }
 
   /**
@@ -785,8 +835,8 @@ public class ProgramService {
     Program program;
 
     if (frequency != null && !(frequency.equalsIgnoreCase("once"))) {
-      ZonedDateTime currentOccurrence = occurrenceDate;
       expiryDate = ZonedDateTime.parse(endDate);
+      RecurrenceRule.validateFrequency(frequency);
       program =
           new Program(
               programType,
@@ -800,6 +850,7 @@ public class ProgramService {
               frequency,
               location,
               visibility);
+      // Clients address every occurrence by its recurrence id, so each one gets its row.
       programRepository.save(program);
       createProgramRecurrences(occurrenceDate, expiryDate, frequency, program.getProgramId());
     } else {
@@ -831,57 +882,17 @@ public class ProgramService {
    */
   public void createProgramRecurrences(
       ZonedDateTime startDate, ZonedDateTime expiryDate, String frequency, Integer programId) {
-    ZonedDateTime currentOccurrence = startDate;
-    Program program = getProgramById(programId);
-    while (currentOccurrence.isBefore(expiryDate) || currentOccurrence.isEqual(expiryDate)) {
-      ProgramRecurrence recurrence = new ProgramRecurrence(programId, currentOccurrence, false);
-      programRecurrenceRepository.save(recurrence);
-      if (frequency.equalsIgnoreCase("daily")) {
-        currentOccurrence = currentOccurrence.plusDays(1);
-      } else if (frequency.equalsIgnoreCase("weekly")) {
-        currentOccurrence = currentOccurrence.plusDays(7);
-      } else if (frequency.equalsIgnoreCase("monthly")) {
-        currentOccurrence = currentOccurrence.plusMonths(1);
-      } else {
-        throw new InvalidFrequencyException("Invalid frequency: " + frequency);
-      }
-    }
-  }
-
-  /**
-   * Method to get the next date time based on the last date time and the frequency.
-   *
-   * @param lastOccurrence The last occurrence of the program.
-   * @param frequency The frequency of the program.
-   * @return The next occurrence of the program.
-   */
-  @NotNull
-  private ZonedDateTime getNextDateTime(ZonedDateTime lastOccurrence, String frequency) {
-    ZonedDateTime nextDateTime;
-    System.out.println("Last Occurrence in method getnext: " + lastOccurrence);
-    if (frequency.equalsIgnoreCase("daily")) {
-      nextDateTime = lastOccurrence.plusDays(1);
-    } else if (frequency.equalsIgnoreCase("weekly")) {
-      nextDateTime = lastOccurrence.plusDays(7);
-    } else if (frequency.equalsIgnoreCase("monthly")) {
-      nextDateTime = lastOccurrence.plusMonths(1);
-    } else {
-      throw new InvalidFrequencyException("Invalid frequency: " + frequency);
-    }
-    System.out.println("Next Occurrence in method getnext: " + nextDateTime);
-    return nextDateTime;
+    programRecurrenceBulkWriter.insertRecurrences(
+        programId, new RecurrenceRule(frequency, startDate, expiryDate).occurrences(), false);
   }
 
   /**
-   * Method to get the last occurrence of a program.
+   * Method to get the hit, miss and eviction counts of the program cache.
    *
-   * @param programId Id of the program.
-   * @return The last occurrence of the program.
+   * @return the statistics of the program cache.
    */
-  public ProgramRecurrence getLastProgramRecurrence(Integer programId) {
-    return programRecurrenceRepository
-        .findLastRecurrenceByProgramId(programId)
-        .orElseThrow(() -> new ProgramNotFoundException("Recurrence Not Found"));
+  public ProgramCacheStatsDto getCacheStats() {
+    return programCache.getStats();
   }
 
   /**
@@ -894,47 +905,25 @@ public class ProgramService {
   }
 
   /**
-   * Method to modify a recurring program with drastic changes, namely those with different
-   * frequencies and dates.
+   * Method to keep the rows of a program with virtual recurrences in line with its new recurrence
+   * rule. Only occurrences with an exception have a row, so the cost depends on the number of
+   * exceptions and not on the number of occurrences.
    *
    * @param programId Id of the program.
-   * @param newStartDate Start date of the first occurrence.
-   * @param newEndDate End date of the last occurrence.
-   * @param newFrequency Frequency of the program.
+   * @param newRule The new recurrence rule of the program.
+   * @param startTimeChanged Whether the time of day of the occurrences changed.
    */
-  public void modifyRecurrence(
-      Integer programId,
-      ZonedDateTime newStartDate,
-      ZonedDateTime newEndDate,
-      String previousFrequency,
-      String newFrequency) {
-    ZonedDateTime currentOccurrence = newStartDate;
-    ZonedDateTime nextOccurrence;
-
-    List<ProgramRecurrence> existingRecurrences =
-        programRecurrenceRepository.findByProgramIdAndOccurrenceDateBetween(
-            programId, newStartDate, newEndDate);
-    Set<ZonedDateTime> existingOccurrenceDates =
-        existingRecurrences.stream()
-            .map(ProgramRecurrence::getOccurrenceDate)
-            .collect(Collectors.toSet());
-    log.debug("EXISTING RECURRENCES COUNT: {}", existingRecurrences.size());
-
-    while (currentOccurrence.isBefore(newEndDate) || currentOccurrence.isEqual(newEndDate)) {
-      nextOccurrence = getNextDateTime(currentOccurrence, newFrequency);
-
-      boolean exists = existingOccurrenceDates.contains(currentOccurrence);
-
-      if (!exists) {
-        log.debug("CREATING NEW RECURRENCE: {} ", currentOccurrence);
-        ProgramRecurrence recurrence = new ProgramRecurrence(programId, currentOccurrence, false);
-        programRecurrenceRepository.save(recurrence);
-      } else {
-        log.debug("FOUND EXISTING RECURRENCE: {} ", currentOccurrence);
+  private void modifyRecurrenceExceptions(
+      Integer programId, RecurrenceRule newRule, boolean startTimeChanged) {
+    if (startTimeChanged) {
+      modifyAllRecurrencesStartTime(programId, newRule.getStart().toLocalTime());
+    }
+    for (ProgramRecurrence exception :
+        programRecurrenceRepository.findProgramRecurrenceByProgramId(programId)) {
+      if (!newRule.occursAt(exception.getOccurrenceDate())) {
+        log.debug("DELETING EXCEPTION OUTSIDE OF THE NEW RULE: {}", exception.getOccurrenceDate());
+        deleteProgramRecurrence(exception.getRecurrenceId());
       }
-
-      deleteMiddleRecurrences(programId, currentOccurrence, nextOccurrence);
-      currentOccurrence = nextOccurrence;
     }
   }
 
@@ -947,6 +936,7 @@ public class ProgramService {
    * @param affectAllRecurrences Boolean for whether all recurrences should be affected.
    * @param cancel Boolean for whether the program should be cancelled or not.
    */
+  @Transactional
   public void cancel(
       Integer programOrRecurrenceId,
       Integer accountId,
@@ -968,6 +958,7 @@ public class ProgramService {
       if (!isRecurrence || affectAllRecurrences) {
         programRepository.cancelProgram(programId);
         programRecurrenceRepository.cancelProgramRecurrences(programId);
+        postService.cancelProgramPost(programId, true);
       } else {
         programRecurrenceRepository.cancelRecurrence(programOrRecurrenceId);
       }
@@ -975,10 +966,16 @@ public class ProgramService {
       if (!isRecurrence || affectAllRecurrences) {
         programRepository.uncancelProgram(programId);
         programRecurrenceRepository.uncancelProgramRecurrences(programId);
+        postService.cancelProgramPost(programId, false);
       } else {
         programRecurrenceRepository.uncancelRecurrence(programOrRecurrenceId);
       }
     }
+    // The cache evicts again and the index reloads after the commit, when readers see the change.
+    if (!isRecurrence || affectAllRecurrences) {
+      programCache.invalidate(programId);
+    }
+    scheduleConflictIndex.refresh(programId);
   }
 
   /**
@@ -992,17 +989,50 @@ public class ProgramService {
   }
 
   /**
-   * Method to delete a program.
+   * Method to delete a program. The program is only marked deleted, which hides it at once, and its
+   * post is deleted; its recurrences, participants and attachments are purged in the background by
+   * ProgramPurgeService.
    *
    * @param accountId Id of the user making the request.
    * @param programId Id of the program to be deleted.
    */
   public void deleteProgram(Integer accountId, Integer programId) {
     checkProgramOwner(accountId, programId);
-    programRepository.deleteById(programId);
+    programRepository.softDeleteProgram(programId);
+    postService.deleteProgramPost(programId);
+    programCache.invalidate(programId);
+    scheduleConflictIndex.refresh(programId);
     log.debug("DELETED PROGRAM WITH ID: {}", programId);
   }
 
+  /**
+   * Method to check that planned occurrences do not overlap the occurrences of other programs at
+   * the same location or with the same coaches.
+   *
+   * @param programId Id of the program being modified, or null for a new program.
+   * @param plannedDates Start of each planned occurrence.
+   * @param durationMins Duration of the planned occurrences.
+   * @param location Location of the planned occurrences.
+   * @param coachIds Ids of the accounts coaching the planned occurrences.
+   * @throws ScheduleConflictException with the overlapping occurrences, if there are any.
+   */
+  private void checkScheduleConflicts(
+      @Nullable Integer programId,
+      List<ZonedDateTime> plannedDates,
+      Integer durationMins,
+      String location,
+      Collection<Integer> coachIds) {
+    List<ScheduleConflictDto> conflicts =
+        scheduleConflictIndex.findConflicts(
+            programId, plannedDates, durationMins, location, coachIds);
+    if (!conflicts.isEmpty()) {
+      log.debug("SCHEDULE CONFLICTS OF PROGRAM {}: {}", programId, conflicts.size());
+      throw new ScheduleConflictException(
+          "The schedule overlaps " + conflicts.size() + " occurrences of other programs.",
+          conflicts);
+    }
+  }
+
   /**
    * Method to check if the user is the program's coach or an ADMIN.
    *
@@ -1027,6 +1057,16 @@ public class ProgramService {
     return programParticipantRepository.findProgramCoachIds(programId);
   }
 
+  /**
+   * Method to check if a program is recurring.
+   *
+   * @param program the program.
+   * @return true if the program has a frequency other than once.
+   */
+  private boolean isRecurring(Program program) {
+    return program.getFrequency() != null && !program.getFrequency().equalsIgnoreCase("once");
+  }
+
   /**
    * Method to get a program by its id.
    *
@@ -1060,26 +1100,6 @@ public class ProgramService {
     programRecurrenceRepository.deleteProgramRecurrenceByRecurrenceId(recurrenceId);
   }
 
-  /**
-   * Method to delete a program and all its recurrences.
-   *
-   * @param programId Id of the program to be deleted.
-   */
-  public void deleteMiddleRecurrences(
-      Integer programId, ZonedDateTime firstDate, ZonedDateTime secondDate) {
-    ZonedDateTime effectiveStartDate = firstDate.plusMinutes(1);
-    ZonedDateTime effectiveEndDate = secondDate.minusMinutes(1);
-    log.debug(
-        "recurrences before middle remove: {} ",
-        programRecurrenceRepository.findProgramRecurrenceByProgramId(programId));
-    if (!effectiveStartDate.isAfter(effectiveEndDate)) {
-      programRecurrenceRepository.deleteMiddleRecurrences(programId, firstDate, secondDate);
-    }
-    log.debug(
-        "recurrences after middle remove: {} ",
-        programRecurrenceRepository.findProgramRecurrenceByProgramId(programId));
-  }
-
   public void deletePrecedingRecurrences(Integer programId, ZonedDateTime firstDate) {
     programRecurrenceRepository.deletePrecedingRecurrences(programId, firstDate);
   }
@@ -0,0 +1,184 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramChangesDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramRecurrenceChangeDto;
+import com.sportganise.dto.programsessions.ProgramTombstoneDto;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.ProgramTombstone;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.ProgramTombstoneRepository;
+import jakarta.transaction.Transactional;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Delta sync of programs and recurrences. The database records the transaction of every inserted or
+ * updated program and recurrence, and writes a tombstone for every deleted one, so a client only
+ * fetches the changes of the transactions after its watermark. Transactions commit in any order, so
+ * only the changes of transactions below the oldest one still in flight are returned; the others
+ * are returned once it has finished. Virtual recurrences are not rows; clients expand them from the
+ * program.
+ */
+@Slf4j
+@Service
+public class ProgramSyncService {
+
+  /** Largest number of changes returned by one request. */
+  public static final int MAX_LIMIT = 1000;
+
+  private final ProgramRepository programRepository;
+  private final ProgramRecurrenceRepository programRecurrenceRepository;
+  private final ProgramTombstoneRepository programTombstoneRepository;
+  private final ProgramCalendarAssembler programCalendarAssembler;
+
+  /**
+   * Constructor for ProgramSyncService.
+   *
+   * @param programRepository Program repository object.
+   * @param programRecurrenceRepository Program recurrence repository object.
+   * @param programTombstoneRepository Program tombstone repository object.
+   * @param programCalendarAssembler Loads the attachments of the changed programs.
+   */
+  public ProgramSyncService(
+      ProgramRepository programRepository,
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      ProgramTombstoneRepository programTombstoneRepository,
+      ProgramCalendarAssembler programCalendarAssembler) {
+    this.programRepository = programRepository;
+    this.programRecurrenceRepository = programRecurrenceRepository;
+    this.programTombstoneRepository = programTombstoneRepository;
+    this.programCalendarAssembler = programCalendarAssembler;
+  }
+
+  /**
+   * Method to get the programs, recurrences and deletions after a client watermark. A page holds
+   * whole transactions, so it is larger than the limit when a single transaction made more changes.
+   *
+   * @param watermark Lowest transaction id not seen by the client, or 0 for a full sync.
+   * @param limit Maximum number of changes to return.
+   * @return the oldest changes after the watermark, with the watermark to send next.
+   */
+  @Transactional
+  public ProgramChangesDto getChangesSince(long watermark, int limit) {
+    if (watermark < 0) {
+      throw new IllegalArgumentException("Watermark must not be negative.");
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+    }
+
+    if (watermark > 0 && watermark <= programTombstoneRepository.findSyncHorizon()) {
+      log.debug("WATERMARK {} IS OLDER THAN THE PURGED TOMBSTONES", watermark);
+      return new ProgramChangesDto(List.of(), List.of(), List.of(), 0, false, true);
+    }
+
+    // Taken before the changes are read: every transaction below it has finished, so its changes
+    // are all visible, and every transaction that commits later is at or above it.
+    long horizon = Math.max(watermark, programTombstoneRepository.findFinishedHorizon());
+    Pageable pageable = PageRequest.of(0, limit + 1);
+    List<Program> programs = programRepository.findChangedSince(watermark, horizon, pageable);
+    List<ProgramRecurrence> recurrences =
+        programRecurrenceRepository.findChangedSince(watermark, horizon, pageable);
+    List<ProgramTombstone> tombstones =
+        programTombstoneRepository.findChangedSince(watermark, horizon, pageable);
+
+    // Each list holds the oldest limit + 1 changes of its table, so the oldest limit + 1 changes
+    // overall are all among them, and so are all the changes of the transactions before the last.
+    List<Long> xids =
+        Stream.of(
+                programs.stream().map(Program::getChangeXid),
+                recurrences.stream().map(ProgramRecurrence::getChangeXid),
+                tombstones.stream().map(ProgramTombstone::getChangeXid))
+            .flatMap(stream -> stream)
+            .sorted()
+            .toList();
+    boolean hasMore = xids.size() > limit;
+    long nextWatermark = hasMore ? xids.get(limit) : horizon;
+    if (hasMore && nextWatermark == xids.getFirst()) {
+      // The first transaction alone made more than limit changes.
+      Pageable transaction = Pageable.unpaged();
+      programs = programRepository.findChangedSince(nextWatermark, nextWatermark + 1, transaction);
+      recurrences =
+          programRecurrenceRepository.findChangedSince(
+              nextWatermark, nextWatermark + 1, transaction);
+      tombstones =
+          programTombstoneRepository.findChangedSince(
+              nextWatermark, nextWatermark + 1, transaction);
+      nextWatermark++;
+    }
+    long pageEnd = nextWatermark;
+
+    List<Program> changedPrograms =
+        programs.stream().filter(program -> program.getChangeXid() < pageEnd).toList();
+    Map<Integer, List<ProgramAttachmentDto>> attachments =
+        programCalendarAssembler.getAttachmentsByProgramIds(
+            changedPrograms.stream().map(Program::getProgramId).toList());
+
+    List<ProgramDto> programDtos =
+        changedPrograms.stream()
+            .map(
+                program -> {
+                  ProgramDto programDto =
+                      new ProgramDto(
+                          program, attachments.getOrDefault(program.getProgramId(), List.of()));
+                  programDto.setCancelled(program.isCancelled());
+                  return programDto;
+                })
+            .toList();
+    List<ProgramRecurrenceChangeDto> recurrenceDtos =
+        recurrences.stream()
+            .filter(recurrence -> recurrence.getChangeXid() < pageEnd)
+            .map(
+                recurrence ->
+                    new ProgramRecurrenceChangeDto(
+                        recurrence.getRecurrenceId(),
+                        recurrence.getProgramId(),
+                        recurrence.getOccurrenceDate(),
+                        recurrence.isCancelled(),
+                        recurrence.getConfirmedCount()))
+            .toList();
+    List<ProgramTombstoneDto> tombstoneDtos =
+        tombstones.stream()
+            .filter(tombstone -> tombstone.getChangeXid() < pageEnd)
+            .map(
+                tombstone ->
+                    new ProgramTombstoneDto(
+                        tombstone.getEntityType(),
+                        tombstone.getEntityId(),
+                        tombstone.getProgramId()))
+            .toList();
+
+    log.debug(
+        "CHANGES SINCE {}: {} PROGRAMS, {} RECURRENCES, {} TOMBSTONES",
+        watermark,
+        programDtos.size(),
+        recurrenceDtos.size(),
+        tombstoneDtos.size());
+
+    return new ProgramChangesDto(
+        programDtos, recurrenceDtos, tombstoneDtos, nextWatermark, hasMore, false);
+  }
+
+  /**
+   * Method to purge the tombstones of old deletions. Clients whose watermark is older than the
+   * purged tombstones are asked to resync from scratch.
+   *
+   * @param deletedBefore Tombstones of deletions before this date are purged.
+   * @return the number of purged tombstones.
+   */
+  @Transactional
+  public int purgeTombstones(ZonedDateTime deletedBefore) {
+    programTombstoneRepository.advanceSyncHorizon(deletedBefore);
+    return programTombstoneRepository.deleteTombstonesBefore(deletedBefore);
+  }
+}
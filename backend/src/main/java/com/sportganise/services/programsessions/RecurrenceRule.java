@@ -0,0 +1,140 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.exceptions.programexceptions.InvalidFrequencyException;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recurrence rule of a program: the first occurrence, the last allowed occurrence date and the
+ * frequency. Occurrences are computed on demand instead of being read from program_recurrence, in
+ * the same way createProgramRecurrences used to step through them.
+ */
+public class RecurrenceRule {
+
+  private final String frequency;
+  private final ZonedDateTime start;
+  private final ZonedDateTime end;
+
+  /**
+   * Constructor for RecurrenceRule.
+   *
+   * @param frequency daily, weekly or monthly.
+   * @param start date and time of the first occurrence.
+   * @param end no occurrence happens after this date.
+   */
+  public RecurrenceRule(String frequency, ZonedDateTime start, ZonedDateTime end) {
+    validateFrequency(frequency);
+    this.frequency = frequency;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Method to check that a frequency can be used by a recurrence rule.
+   *
+   * @param frequency the frequency of a recurring program.
+   * @throws InvalidFrequencyException if the frequency is not daily, weekly or monthly.
+   */
+  public static void validateFrequency(String frequency) {
+    if (frequency == null
+        || !(frequency.equalsIgnoreCase("daily")
+            || frequency.equalsIgnoreCase("weekly")
+            || frequency.equalsIgnoreCase("monthly"))) {
+      throw new InvalidFrequencyException("Invalid frequency: " + frequency);
+    }
+  }
+
+  /**
+   * Builds the recurrence rule of a recurring program.
+   *
+   * @param program the recurring program.
+   * @return the recurrence rule of the program.
+   */
+  public static RecurrenceRule of(Program program) {
+    return new RecurrenceRule(
+        program.getFrequency(), program.getOccurrenceDate(), program.getExpiryDate());
+  }
+
+  /**
+   * Method to get the first occurrence of the rule.
+   *
+   * @return the date and time of the first occurrence.
+   */
+  public ZonedDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Method to get the occurrence that follows the given one.
+   *
+   * @param occurrence an occurrence of the rule.
+   * @return the next occurrence, which may be after the end of the rule.
+   */
+  public ZonedDateTime next(ZonedDateTime occurrence) {
+    if (frequency.equalsIgnoreCase("daily")) {
+      return occurrence.plusDays(1);
+    } else if (frequency.equalsIgnoreCase("weekly")) {
+      return occurrence.plusDays(7);
+    }
+    return occurrence.plusMonths(1);
+  }
+
+  /**
+   * Method to list every occurrence of the rule.
+   *
+   * @return the occurrences from the start to the end of the rule, in order.
+   */
+  public List<ZonedDateTime> occurrences() {
+    return occurrencesBetween(start, end.plusSeconds(1));
+  }
+
+  /**
+   * Method to list the occurrences inside a window. Daily and weekly rules jump straight to the
+   * window, so the cost depends on the size of the window and not on the age of the program.
+   *
+   * @param from start of the window, inclusive.
+   * @param to end of the window, exclusive.
+   * @return the occurrences inside the window, in order.
+   */
+  public List<ZonedDateTime> occurrencesBetween(ZonedDateTime from, ZonedDateTime to) {
+    List<ZonedDateTime> occurrences = new ArrayList<>();
+    ZonedDateTime current = firstOccurrenceNotBefore(from);
+    while (current.isBefore(to) && !current.isAfter(end)) {
+      occurrences.add(current);
+      current = next(current);
+    }
+    return occurrences;
+  }
+
+  /**
+   * Method to check if the rule has an occurrence at the given date and time.
+   *
+   * @param occurrenceDate the date and time to check.
+   * @return true if it is one of the occurrences of the rule.
+   */
+  public boolean occursAt(ZonedDateTime occurrenceDate) {
+    return occurrencesBetween(occurrenceDate, occurrenceDate.plusSeconds(1)).stream()
+        .anyMatch(occurrence -> occurrence.isEqual(occurrenceDate));
+  }
+
+  private ZonedDateTime firstOccurrenceNotBefore(ZonedDateTime from) {
+    if (!from.isAfter(start)) {
+      return start;
+    }
+    ZonedDateTime current = start;
+    if (!frequency.equalsIgnoreCase("monthly")) {
+      // Monthly occurrences are stepped one month at a time to keep the end-of-month clamping of
+      // the materialized recurrences, which is at most twelve steps per year.
+      long step = frequency.equalsIgnoreCase("daily") ? 1 : 7;
+      long skippedSteps = Math.max(0, ChronoUnit.DAYS.between(start, from) / step - 1);
+      current = start.plusDays(skippedSteps * step);
+    }
+    while (current.isBefore(from)) {
+      current = next(current);
+    }
+    return current;
+  }
+}
@@ -0,0 +1,379 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto.ConflictType;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.ScheduledSlotReader;
+import com.sportganise.repositories.programsessions.ScheduledSlotReader.ScheduledSlot;
+import io.micrometer.common.lang.Nullable;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index of the upcoming occurrences of every program, with one interval tree per location
+ * and one per coach, used to find the occurrences a new schedule would overlap before it is saved.
+ * Each lookup costs O(log n + k) for the k overlapping occurrences of a location or a coach,
+ * instead of a query over every recurrence.
+ *
+ * <p>Writers call {@link #refresh(Integer)} for every program whose occurrences, location or
+ * coaches they change. The occurrences of the program are read again once the surrounding
+ * transaction commits, and the trees of the locations and coaches it touches are rebuilt. The whole
+ * index is rebuilt when the application starts and every night, which also moves its window
+ * forward. Readers never wait: the trees are immutable and swapped in once built.
+ */
+@Slf4j
+@Component
+public class ScheduleConflictIndex {
+
+  private final ScheduledSlotReader scheduledSlotReader;
+  private final ProgramRepository programRepository;
+  private final ProgramRecurrenceRepository programRecurrenceRepository;
+  private final int horizonDays;
+  private final Clock clock;
+
+  /** Occurrences of each program, guarded by this. */
+  private final Map<Integer, List<ScheduledSlot>> slotsByProgram = new HashMap<>();
+
+  private volatile Map<String, IntervalTree<ScheduledSlot>> locationTrees = Map.of();
+  private volatile Map<Integer, IntervalTree<ScheduledSlot>> coachTrees = Map.of();
+
+  /**
+   * Constructor for ScheduleConflictIndex.
+   *
+   * @param scheduledSlotReader reader of the stored occurrences.
+   * @param programRepository program repository object.
+   * @param programRecurrenceRepository program recurrence repository object.
+   * @param horizonDays number of days ahead covered by the index.
+   */
+  @Autowired
+  public ScheduleConflictIndex(
+      ScheduledSlotReader scheduledSlotReader,
+      ProgramRepository programRepository,
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      @Value("${programs.conflicts.horizon-days:180}") int horizonDays) {
+    this(
+        scheduledSlotReader,
+        programRepository,
+        programRecurrenceRepository,
+        horizonDays,
+        Clock.systemUTC());
+  }
+
+  ScheduleConflictIndex(
+      ScheduledSlotReader scheduledSlotReader,
+      ProgramRepository programRepository,
+      ProgramRecurrenceRepository programRecurrenceRepository,
+      int horizonDays,
+      Clock clock) {
+    this.scheduledSlotReader = scheduledSlotReader;
+    this.programRepository = programRepository;
+    this.programRecurrenceRepository = programRecurrenceRepository;
+    this.horizonDays = horizonDays;
+    this.clock = clock;
+  }
+
+  /** Builds the index once the application is ready. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  /** Reads the occurrences of every program inside the window again and rebuilds every tree. */
+  public synchronized void rebuild() {
+    ZonedDateTime from = ZonedDateTime.now(clock);
+    ZonedDateTime to = from.plusDays(horizonDays);
+
+    List<ScheduledSlot> slots = new ArrayList<>(scheduledSlotReader.findSlots(from, to));
+    slots.addAll(
+        virtualSlots(programRepository.findVirtualRecurringProgramsInWindow(from, to), from, to));
+
+    slotsByProgram.clear();
+    slotsByProgram.putAll(slots.stream().collect(Collectors.groupingBy(ScheduledSlot::programId)));
+    locationTrees = buildTrees(slots, slot -> locationKeys(slot.location()));
+    coachTrees = buildTrees(slots, ScheduledSlot::coachIds);
+
+    log.info(
+        "SCHEDULE CONFLICT INDEX BUILT: {} OCCURRENCES, {} LOCATIONS, {} COACHES",
+        slots.size(),
+        locationTrees.size(),
+        coachTrees.size());
+  }
+
+  /**
+   * Reads the occurrences of a program again once the current transaction commits, or right away
+   * outside of a transaction.
+   *
+   * @param programId Id of the program that changed.
+   */
+  public void refresh(Integer programId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              try {
+                reload(programId);
+              } catch (DataAccessException e) {
+                // The nightly rebuild picks the program up again
+                log.error("Could not refresh program {} in the conflict index", programId, e);
+              }
+            }
+          });
+    } else {
+      reload(programId);
+    }
+  }
+
+  /**
+   * Method to find the indexed occurrences that overlap planned occurrences at the same location or
+   * with one of the same coaches. Planned occurrences outside of the window of the index are not
+   * checked.
+   *
+   * @param programId Id of the program being modified, whose own occurrences are left out, or null
+   *     for a new program.
+   * @param plannedDates Start of each planned occurrence.
+   * @param durationMins Duration of the planned occurrences.
+   * @param location Location of the planned occurrences.
+   * @param coachIds Ids of the accounts coaching the planned occurrences.
+   * @return the conflicts, ordered by planned occurrence.
+   */
+  public List<ScheduleConflictDto> findConflicts(
+      @Nullable Integer programId,
+      List<ZonedDateTime> plannedDates,
+      Integer durationMins,
+      String location,
+      Collection<Integer> coachIds) {
+    List<ScheduleConflictDto> conflicts = new ArrayList<>();
+    if (durationMins == null || durationMins <= 0) {
+      return conflicts;
+    }
+
+    Map<String, IntervalTree<ScheduledSlot>> locations = locationTrees;
+    Map<Integer, IntervalTree<ScheduledSlot>> coaches = coachTrees;
+    List<IntervalTree<ScheduledSlot>> locationTreesToCheck =
+        locationKeys(location).stream().map(locations::get).filter(Objects::nonNull).toList();
+
+    ZonedDateTime from = ZonedDateTime.now(clock);
+    ZonedDateTime to = from.plusDays(horizonDays);
+    for (ZonedDateTime plannedDate : plannedDates) {
+      if (plannedDate.isBefore(from) || !plannedDate.isBefore(to)) {
+        continue;
+      }
+      long start = plannedDate.toInstant().toEpochMilli();
+      long end = start + durationMins * 60_000L;
+
+      for (IntervalTree<ScheduledSlot> tree : locationTreesToCheck) {
+        for (ScheduledSlot slot : tree.overlapping(start, end)) {
+          if (!slot.programId().equals(programId)) {
+            conflicts.add(toConflict(ConflictType.LOCATION, plannedDate, slot, null));
+          }
+        }
+      }
+      for (Integer coachId : new LinkedHashSet<>(coachIds)) {
+        IntervalTree<ScheduledSlot> tree = coaches.get(coachId);
+        if (tree == null) {
+          continue;
+        }
+        for (ScheduledSlot slot : tree.overlapping(start, end)) {
+          if (!slot.programId().equals(programId)) {
+            conflicts.add(toConflict(ConflictType.COACH, plannedDate, slot, coachId));
+          }
+        }
+      }
+    }
+    return conflicts;
+  }
+
+  /**
+   * Method to get the coaches of the upcoming occurrences of a program.
+   *
+   * @param programId Id of the program.
+   * @return the ids of the accounts coaching at least one indexed occurrence of the program.
+   */
+  public synchronized Set<Integer> getCoachIds(Integer programId) {
+    return slotsByProgram.getOrDefault(programId, List.of()).stream()
+        .flatMap(slot -> slot.coachIds().stream())
+        .collect(Collectors.toSet());
+  }
+
+  private synchronized void reload(Integer programId) {
+    ZonedDateTime from = ZonedDateTime.now(clock);
+    ZonedDateTime to = from.plusDays(horizonDays);
+
+    List<ScheduledSlot> slots = new ArrayList<>(scheduledSlotReader.findSlots(programId, from, to));
+    Program program = programRepository.findProgramById(programId);
+    if (program != null && program.isVirtualRecurrences()) {
+      slots.addAll(virtualSlots(List.of(program), from, to));
+    }
+
+    List<ScheduledSlot> previous =
+        slots.isEmpty() ? slotsByProgram.remove(programId) : slotsByProgram.put(programId, slots);
+    List<ScheduledSlot> changed = new ArrayList<>(slots);
+    if (previous != null) {
+      changed.addAll(previous);
+    }
+
+    locationTrees = rebuildTrees(locationTrees, changed, slot -> locationKeys(slot.location()));
+    coachTrees = rebuildTrees(coachTrees, changed, ScheduledSlot::coachIds);
+    log.debug("SCHEDULE CONFLICT INDEX: PROGRAM {} HAS {} OCCURRENCES", programId, slots.size());
+  }
+
+  /**
+   * Expands the occurrences of programs with virtual recurrences. Occurrences that have a
+   * program_recurrence row are left out, since the row is read as a stored occurrence or is
+   * cancelled.
+   */
+  private List<ScheduledSlot> virtualSlots(
+      List<Program> programs, ZonedDateTime from, ZonedDateTime to) {
+    List<Program> activePrograms = programs.stream().filter(p -> !p.isCancelled()).toList();
+    if (activePrograms.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Integer, Set<Instant>> exceptionDates =
+        programRecurrenceRepository
+            .findProgramRecurrencesInWindowByProgramIds(
+                activePrograms.stream().map(Program::getProgramId).toList(), from, to)
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    ProgramRecurrence::getProgramId,
+                    Collectors.mapping(
+                        recurrence -> recurrence.getOccurrenceDate().toInstant(),
+                        Collectors.toSet())));
+
+    List<ScheduledSlot> slots = new ArrayList<>();
+    for (Program program : activePrograms) {
+      Set<Instant> exceptions = exceptionDates.getOrDefault(program.getProgramId(), Set.of());
+      for (ZonedDateTime occurrence : RecurrenceRule.of(program).occurrencesBetween(from, to)) {
+        if (!exceptions.contains(occurrence.toInstant())) {
+          slots.add(
+              new ScheduledSlot(
+                  program.getProgramId(),
+                  null,
+                  program.getTitle(),
+                  program.getLocation(),
+                  occurrence,
+                  program.getDurationMins(),
+                  List.of()));
+        }
+      }
+    }
+    return slots;
+  }
+
+  /** Rebuilds the trees of the keys of the changed occurrences from the current occurrences. */
+  private <K> Map<K, IntervalTree<ScheduledSlot>> rebuildTrees(
+      Map<K, IntervalTree<ScheduledSlot>> trees,
+      List<ScheduledSlot> changed,
+      Function<ScheduledSlot, Collection<K>> keys) {
+    Set<K> changedKeys = new HashSet<>();
+    Set<Integer> programIds = new HashSet<>();
+    for (ScheduledSlot slot : changed) {
+      changedKeys.addAll(keys.apply(slot));
+      programIds.add(slot.programId());
+    }
+    if (changedKeys.isEmpty()) {
+      return trees;
+    }
+
+    Map<K, List<ScheduledSlot>> slotsByKey = new HashMap<>();
+    for (K key : changedKeys) {
+      IntervalTree<ScheduledSlot> tree = trees.get(key);
+      List<ScheduledSlot> kept = new ArrayList<>();
+      if (tree != null) {
+        for (ScheduledSlot slot : tree.values()) {
+          if (!programIds.contains(slot.programId())) {
+            kept.add(slot);
+          }
+        }
+      }
+      slotsByKey.put(key, kept);
+    }
+    for (Integer programId : programIds) {
+      for (ScheduledSlot slot : slotsByProgram.getOrDefault(programId, List.of())) {
+        for (K key : keys.apply(slot)) {
+          if (changedKeys.contains(key)) {
+            slotsByKey.get(key).add(slot);
+          }
+        }
+      }
+    }
+
+    Map<K, IntervalTree<ScheduledSlot>> rebuilt = new HashMap<>(trees);
+    slotsByKey.forEach(
+        (key, slots) -> {
+          if (slots.isEmpty()) {
+            rebuilt.remove(key);
+          } else {
+            rebuilt.put(
+                key, IntervalTree.of(slots, ScheduledSlot::startMillis, ScheduledSlot::endMillis));
+          }
+        });
+    return rebuilt;
+  }
+
+  private static <K> Map<K, IntervalTree<ScheduledSlot>> buildTrees(
+      List<ScheduledSlot> slots, Function<ScheduledSlot, Collection<K>> keys) {
+    Map<K, List<ScheduledSlot>> slotsByKey = new HashMap<>();
+    for (ScheduledSlot slot : slots) {
+      for (K key : keys.apply(slot)) {
+        slotsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+      }
+    }
+    Map<K, IntervalTree<ScheduledSlot>> trees = new HashMap<>();
+    slotsByKey.forEach(
+        (key, keySlots) ->
+            trees.put(
+                key,
+                IntervalTree.of(keySlots, ScheduledSlot::startMillis, ScheduledSlot::endMillis)));
+    return trees;
+  }
+
+  /** Locations are compared without case and surrounding spaces; blank locations never clash. */
+  static List<String> locationKeys(String location) {
+    if (location == null || location.isBlank()) {
+      return List.of();
+    }
+    return List.of(location.trim().toLowerCase(Locale.ROOT));
+  }
+
+  private static ScheduleConflictDto toConflict(
+      ConflictType conflictType, ZonedDateTime plannedDate, ScheduledSlot slot, Integer coachId) {
+    return new ScheduleConflictDto(
+        conflictType,
+        plannedDate,
+        slot.programId(),
+        slot.recurrenceId(),
+        slot.title(),
+        slot.location(),
+        coachId,
+        slot.occurrenceDate(),
+        slot.durationMins());
+  }
+}
@@ -0,0 +1,159 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.repositories.programsessions.AccountScheduleReader;
+import com.sportganise.repositories.programsessions.AccountScheduleReader.ScheduledOccurrence;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the iCalendar (RFC 5545) feed of the programs an account takes part in, so that players
+ * can subscribe to their schedule from a calendar application. The feed is written event by event
+ * while the occurrences are read, and its ETag comes from a digest of the schedule computed by the
+ * database, so an unchanged feed is never rebuilt to answer a conditional request.
+ */
+@Slf4j
+@Service
+public class ScheduleFeedService {
+
+  /** Past occurrences kept in the feed. */
+  static final int PAST_DAYS = 30;
+
+  private static final DateTimeFormatter ICS_DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+  private static final int MAX_LINE_OCTETS = 75;
+  private static final String CRLF = "\r\n";
+
+  private final AccountScheduleReader accountScheduleReader;
+  private final Clock clock;
+
+  /**
+   * Constructor for ScheduleFeedService.
+   *
+   * @param accountScheduleReader reader of the occurrences of an account.
+   */
+  @Autowired
+  public ScheduleFeedService(AccountScheduleReader accountScheduleReader) {
+    this(accountScheduleReader, Clock.systemUTC());
+  }
+
+  ScheduleFeedService(AccountScheduleReader accountScheduleReader, Clock clock) {
+    this.accountScheduleReader = accountScheduleReader;
+    this.clock = clock;
+  }
+
+  /**
+   * Method to get the ETag of the feed of an account.
+   *
+   * @param accountId Id of the account.
+   * @return a weak ETag, which changes whenever an event of the feed changes.
+   */
+  public String getFeedEtag(Integer accountId) {
+    return "W/\"" + accountScheduleReader.fingerprint(accountId, feedStart()) + "\"";
+  }
+
+  /**
+   * Method to write the feed of an account.
+   *
+   * @param accountId Id of the account.
+   * @param outputStream Stream the feed is written to, as UTF-8.
+   * @throws IOException if the feed cannot be written.
+   */
+  public void writeFeed(Integer accountId, OutputStream outputStream) throws IOException {
+    Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+    String timestamp = ICS_DATE_TIME.format(clock.instant());
+    int[] events = {0};
+
+    writeLine(writer, "BEGIN:VCALENDAR");
+    writeLine(writer, "VERSION:2.0");
+    writeLine(writer, "PRODID:-//Sportganise//Schedule//EN");
+    writeLine(writer, "CALSCALE:GREGORIAN");
+    writeLine(writer, "METHOD:PUBLISH");
+    writeLine(writer, "X-WR-CALNAME:Sportganise");
+    try {
+      accountScheduleReader.streamOccurrences(
+          accountId,
+          feedStart(),
+          occurrence -> {
+            writeEvent(writer, occurrence, timestamp);
+            events[0]++;
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writeLine(writer, "END:VCALENDAR");
+    writer.flush();
+
+    log.debug("WROTE {} EVENTS TO THE FEED OF ACCOUNT {}", events[0], accountId);
+  }
+
+  /** Start of the feed, truncated to the day so that the ETag stays stable within a day. */
+  private ZonedDateTime feedStart() {
+    return ZonedDateTime.now(clock)
+        .withZoneSameInstant(ZoneOffset.UTC)
+        .truncatedTo(ChronoUnit.DAYS)
+        .minusDays(PAST_DAYS);
+  }
+
+  private void writeEvent(Writer writer, ScheduledOccurrence occurrence, String timestamp) {
+    ZonedDateTime start = occurrence.occurrenceDate();
+    ZonedDateTime end =
+        start.plusMinutes(occurrence.durationMins() != null ? occurrence.durationMins() : 0);
+    try {
+      writeLine(writer, "BEGIN:VEVENT");
+      writeLine(writer, "UID:" + occurrence.uid() + "@sportganise");
+      writeLine(writer, "DTSTAMP:" + timestamp);
+      writeLine(writer, "DTSTART:" + ICS_DATE_TIME.format(start));
+      writeLine(writer, "DTEND:" + ICS_DATE_TIME.format(end));
+      writeLine(writer, "SUMMARY:" + escape(occurrence.title()));
+      if (occurrence.description() != null) {
+        writeLine(writer, "DESCRIPTION:" + escape(occurrence.description()));
+      }
+      if (occurrence.location() != null) {
+        writeLine(writer, "LOCATION:" + escape(occurrence.location()));
+      }
+      writeLine(writer, "STATUS:" + (occurrence.cancelled() ? "CANCELLED" : "CONFIRMED"));
+      writeLine(writer, "END:VEVENT");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Escapes a text value as required by RFC 5545. */
+  static String escape(String text) {
+    return text.replace("\\", "\\\\")
+        .replace(";", "\\;")
+        .replace(",", "\\,")
+        .replace("\r\n", "\\n")
+        .replace("\n", "\\n");
+  }
+
+  /** Writes a content line, folded so that no line is longer than 75 octets. */
+  static void writeLine(Writer writer, String line) throws IOException {
+    int lineOctets = 0;
+    for (int i = 0; i < line.length(); ) {
+      int codePoint = line.codePointAt(i);
+      int octets = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+      if (lineOctets + octets > MAX_LINE_OCTETS) {
+        writer.write(CRLF);
+        writer.write(' ');
+        lineOctets = 1;
+      }
+      writer.write(Character.toChars(codePoint));
+      lineOctets += octets;
+      i += Character.charCount(codePoint);
+    }
+    writer.write(CRLF);
+  }
+}
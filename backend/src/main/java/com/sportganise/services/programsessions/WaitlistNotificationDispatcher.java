@@ -0,0 +1,75 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.config.ExecutorConfig;
+import com.sportganise.dto.notifications.NotificationRequestDto;
+import com.sportganise.repositories.programsessions.WaitlistPromoter.Promotion;
+import com.sportganise.services.notifications.NotificationsService;
+import java.time.format.DateTimeFormatter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Notifies participants that they were confirmed from the waitlist. Notifications are sent by a
+ * small pool of threads, so the promotion of the next recurrences does not wait for push and email
+ * delivery. The pool has a bounded queue; when it is full, the caller sends the notification
+ * itself, which slows promotions down instead of dropping notifications.
+ */
+@Slf4j
+@Service
+public class WaitlistNotificationDispatcher {
+
+  private static final DateTimeFormatter DATE_FORMAT =
+      DateTimeFormatter.ofPattern("EEEE, MMMM d 'at' HH:mm");
+
+  private final NotificationsService notificationsService;
+  private final TaskExecutor executor;
+
+  /**
+   * Constructor for WaitlistNotificationDispatcher.
+   *
+   * @param notificationsService Service sending the notifications.
+   * @param executor Pool of threads sending the notifications.
+   */
+  public WaitlistNotificationDispatcher(
+      NotificationsService notificationsService,
+      @Qualifier(ExecutorConfig.WAITLIST_NOTIFICATION_EXECUTOR) TaskExecutor executor) {
+    this.notificationsService = notificationsService;
+    this.executor = executor;
+  }
+
+  /**
+   * Method to notify the participants confirmed by a promotion, in the background.
+   *
+   * @param promotion Promotion of a recurrence.
+   */
+  public void dispatch(Promotion promotion) {
+    if (promotion.accountIds().isEmpty()) {
+      return;
+    }
+
+    NotificationRequestDto notificationRequestDto =
+        NotificationRequestDto.builder()
+            .title("You're in: " + promotion.title())
+            .body(
+                "A spot opened up and you have been confirmed for "
+                    + promotion.title()
+                    + " on "
+                    + DATE_FORMAT.format(promotion.occurrenceDate())
+                    + ".")
+            .recipients(promotion.accountIds())
+            .build();
+    executor.execute(
+        () -> {
+          try {
+            notificationsService.sendNotificationToUser(notificationRequestDto);
+          } catch (RuntimeException e) {
+            log.error(
+                "Failed to notify promoted participants of recurrence {}: {}",
+                promotion.recurrenceId(),
+                e.getMessage());
+          }
+        });
+  }
+}
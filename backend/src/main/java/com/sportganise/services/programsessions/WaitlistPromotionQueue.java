@@ -0,0 +1,76 @@
+package com.sportganise.services.programsessions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded queue of the recurrences that have a free spot, waiting for their waitlist to be
+ * promoted. Events are queued once the transaction that freed the spot has committed, so the
+ * promotion sees the spot, and a recurrence is queued at most once until it is taken from the
+ * queue. Queuing never blocks the request that freed the spot: when the queue is full the event is
+ * dropped, and the recurrence is promoted the next time one of its spots is freed.
+ */
+@Slf4j
+@Component
+public class WaitlistPromotionQueue {
+
+  private final BlockingQueue<Integer> recurrenceIds;
+  private final Set<Integer> queuedRecurrenceIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor for WaitlistPromotionQueue.
+   *
+   * @param capacity Maximum number of recurrences waiting to be promoted.
+   */
+  public WaitlistPromotionQueue(
+      @Value("${programs.waitlist.promotion-queue-capacity:1000}") int capacity) {
+    this.recurrenceIds = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /**
+   * Method to queue the recurrence of a freed spot.
+   *
+   * @param event Event of the freed spot.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSpotFreed(WaitlistSpotFreedEvent event) {
+    Integer recurrenceId = event.recurrenceId();
+    if (!queuedRecurrenceIds.add(recurrenceId)) {
+      return;
+    }
+    if (!recurrenceIds.offer(recurrenceId)) {
+      queuedRecurrenceIds.remove(recurrenceId);
+      log.warn("WAITLIST PROMOTION QUEUE FULL, DROPPED RECURRENCE {}", recurrenceId);
+    }
+  }
+
+  /**
+   * Method to take the recurrences waiting to be promoted out of the queue.
+   *
+   * @param maxRecurrences Maximum number of recurrences taken.
+   * @return the recurrences, in the order their spots were freed.
+   */
+  public List<Integer> drain(int maxRecurrences) {
+    List<Integer> drained = new ArrayList<>();
+    recurrenceIds.drainTo(drained, maxRecurrences);
+    drained.forEach(queuedRecurrenceIds::remove);
+    return drained;
+  }
+
+  /**
+   * Method to count the recurrences waiting to be promoted.
+   *
+   * @return the size of the queue.
+   */
+  public int size() {
+    return recurrenceIds.size();
+  }
+}
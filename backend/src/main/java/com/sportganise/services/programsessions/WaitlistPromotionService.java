@@ -0,0 +1,80 @@
+package com.sportganise.services.programsessions;
+
+import com.sportganise.repositories.programsessions.WaitlistPromoter;
+import com.sportganise.repositories.programsessions.WaitlistPromoter.Promotion;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Promotes waitlisted participants into the spots freed by absences and opt-outs. The recurrences
+ * with a freed spot are taken from the promotion queue in batches, each recurrence is promoted in
+ * its own transaction, and the promoted participants are notified in the background.
+ */
+@Slf4j
+@Service
+public class WaitlistPromotionService {
+
+  /** Maximum number of recurrences promoted per batch. */
+  static final int BATCH_SIZE = 100;
+
+  private final WaitlistPromotionQueue waitlistPromotionQueue;
+  private final WaitlistPromoter waitlistPromoter;
+  private final WaitlistNotificationDispatcher waitlistNotificationDispatcher;
+
+  /**
+   * Constructor for WaitlistPromotionService.
+   *
+   * @param waitlistPromotionQueue Queue of the recurrences with a freed spot.
+   * @param waitlistPromoter Confirms the next participants of a recurrence.
+   * @param waitlistNotificationDispatcher Notifies the promoted participants.
+   */
+  public WaitlistPromotionService(
+      WaitlistPromotionQueue waitlistPromotionQueue,
+      WaitlistPromoter waitlistPromoter,
+      WaitlistNotificationDispatcher waitlistNotificationDispatcher) {
+    this.waitlistPromotionQueue = waitlistPromotionQueue;
+    this.waitlistPromoter = waitlistPromoter;
+    this.waitlistNotificationDispatcher = waitlistNotificationDispatcher;
+  }
+
+  /**
+   * Method to promote the waitlists of the queued recurrences, batch after batch until the queue is
+   * empty.
+   *
+   * @return the number of participants confirmed.
+   */
+  public int promoteQueuedWaitlists() {
+    int promoted = 0;
+    List<Integer> recurrenceIds = waitlistPromotionQueue.drain(BATCH_SIZE);
+    while (!recurrenceIds.isEmpty()) {
+      for (Integer recurrenceId : recurrenceIds) {
+        promoted += promote(recurrenceId);
+      }
+      recurrenceIds = waitlistPromotionQueue.drain(BATCH_SIZE);
+    }
+    return promoted;
+  }
+
+  private int promote(Integer recurrenceId) {
+    Promotion promotion;
+    try {
+      promotion = waitlistPromoter.promoteNext(recurrenceId);
+    } catch (DataAccessException e) {
+      // A failed recurrence must not hold back the others
+      log.error(
+          "Failed to promote the waitlist of recurrence {}: {}", recurrenceId, e.getMessage());
+      return 0;
+    }
+
+    if (!promotion.accountIds().isEmpty()) {
+      log.info(
+          "Promoted {} participants from the waitlist of recurrence {}",
+          promotion.accountIds().size(),
+          recurrenceId);
+      waitlistNotificationDispatcher.dispatch(promotion);
+    }
+    return promotion.accountIds().size();
+  }
+}
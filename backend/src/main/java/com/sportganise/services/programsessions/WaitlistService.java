@@ -1,5 +1,6 @@
 package com.sportganise.services.programsessions;
 
+import com.sportganise.dto.programsessions.AttendanceDto;
 import com.sportganise.dto.programsessions.DetailedProgramParticipantDto;
 import com.sportganise.dto.programsessions.ProgramAttachmentDto;
 import com.sportganise.dto.programsessions.ProgramDto;
@@ -18,17 +19,28 @@ import com.sportganise.exceptions.ResourceNotFoundException;
 import com.sportganise.exceptions.programexceptions.ProgramInvitationiException;
 import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
 import com.sportganise.repositories.AccountRepository;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.EventRsvpWriter.RsvpOutcome;
 import com.sportganise.repositories.programsessions.ProgramAttachmentRepository;
 import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
 import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
 import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.RosterAttendanceWriter;
+import com.sportganise.repositories.programsessions.RosterAttendanceWriter.MarkedAttendance;
+import com.sportganise.repositories.programsessions.WaitlistQueue;
 import com.sportganise.services.EmailService;
+import jakarta.transaction.Transactional;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /** Service for managing the waitlist and participation in program sessions. */
@@ -42,6 +54,11 @@ public class WaitlistService {
   private final EmailService emailService;
   private final ProgramAttachmentRepository programAttachmentRepository;
   private final ProgramRecurrenceRepository recurrenceRepository;
+  private final ProgramCalendarAssembler programCalendarAssembler;
+  private final WaitlistQueue waitlistQueue;
+  private final ApplicationEventPublisher eventPublisher;
+  private final RosterAttendanceWriter rosterAttendanceWriter;
+  private final EventRsvpWriter eventRsvpWriter;
 
   /**
    * Constructor for WaitlistService.
@@ -54,13 +71,23 @@ public class WaitlistService {
       AccountRepository accountRepository,
       EmailService emailService,
       ProgramAttachmentRepository programAttachmentRepository,
-      ProgramRecurrenceRepository recurrenceRepository) {
+      ProgramRecurrenceRepository recurrenceRepository,
+      ProgramCalendarAssembler programCalendarAssembler,
+      WaitlistQueue waitlistQueue,
+      ApplicationEventPublisher eventPublisher,
+      RosterAttendanceWriter rosterAttendanceWriter,
+      EventRsvpWriter eventRsvpWriter) {
     this.participantRepository = participantRepository;
     this.programRepository = programRepository;
     this.accountRepository = accountRepository;
     this.emailService = emailService;
     this.programAttachmentRepository = programAttachmentRepository;
     this.recurrenceRepository = recurrenceRepository;
+    this.programCalendarAssembler = programCalendarAssembler;
+    this.waitlistQueue = waitlistQueue;
+    this.eventPublisher = eventPublisher;
+    this.rosterAttendanceWriter = rosterAttendanceWriter;
+    this.eventRsvpWriter = eventRsvpWriter;
   }
 
   /**
@@ -103,8 +130,13 @@ public class WaitlistService {
   public ProgramParticipantDto fetchParticipant(Integer recurrenceId, Integer accountId)
       throws ParticipantNotFoundException {
     ProgramParticipant programParticipant = this.getParticipant(recurrenceId, accountId);
+    ProgramParticipantDto programParticipantDto = new ProgramParticipantDto(programParticipant);
+    if (programParticipant.getOptInSeq() != null) {
+      programParticipantDto.setRank(
+          participantRepository.findWaitlistRank(recurrenceId, accountId));
+    }
 
-    return new ProgramParticipantDto(programParticipant);
+    return programParticipantDto;
   }
 
   /**
@@ -118,33 +150,35 @@ public class WaitlistService {
   public Integer optProgramParticipantDto(Integer recurrenceId, Integer accountId)
       throws ParticipantNotFoundException {
 
-    Integer maxRank = participantRepository.findMaxRank(recurrenceId);
-    int newRank = (maxRank == null) ? 1 : maxRank + 1;
-
     ProgramParticipant optedParticipant = getWaitlistedParticipant(recurrenceId, accountId);
 
-    if (optedParticipant.isConfirmed() == true || optedParticipant.getRank() != null) {
+    if (optedParticipant.isConfirmed() == true || optedParticipant.getOptInSeq() != null) {
       log.warn("Participant already confirmed");
       return null;
     }
 
-    optedParticipant.setRank(newRank);
-
-    ProgramParticipant savedParticipant = participantRepository.save(optedParticipant);
+    // The participant takes the next opt-in sequence number and its rank is counted at once
+    Integer rank = waitlistQueue.optIn(recurrenceId, accountId);
+    if (rank == null) {
+      log.warn("Participant already opted in");
+      return null;
+    }
 
     // TODO: Notify everyone
 
-    return savedParticipant.getRank();
+    return rank;
   }
 
   /**
-   * Confirms a participant's spot in a program, updating ranks of other participants.
+   * Confirms a participant's spot in a program. The participants behind it move up without being
+   * written, since ranks are computed from the order of opt-ins.
    *
    * @param recurrenceId The ID of the program.
    * @param accountId The ID of the participant's account.
    * @return A DTO representing the confirmed participant, or null if not found.
    * @throws ParticipantNotFoundException whenever participant can't be found
    */
+  @Transactional
   public ProgramParticipantDto confirmParticipant(Integer recurrenceId, Integer accountId)
       throws ParticipantNotFoundException {
     log.info(
@@ -153,13 +187,15 @@ public class WaitlistService {
   }
 
   /**
-   * Removes a participant from the waitlist and updates ranks of other participants.
+   * Removes a participant from the waitlist. Only the participant's own row is written. A confirmed
+   * participant who opts out gives up its spot, which is then offered to the waitlist.
    *
    * @param recurrenceId The ID of the program.
    * @param accountId The ID of the participant's account.
    * @return A DTO representing the opted-out participant, or null if not found.
    * @throws ParticipantNotFoundException whenever participant can't be found
    */
+  @Transactional
   public ProgramParticipantDto optOutParticipant(Integer recurrenceId, Integer accountId)
       throws ParticipantNotFoundException {
     log.info(
@@ -179,6 +215,7 @@ public class WaitlistService {
    * @return A DTO representing the opted-out participant, or null if not found.
    * @throws ParticipantNotFoundException whenever participant can't be found
    */
+  @Transactional
   public ProgramParticipantDto removeParticipant(
       Integer recurrenceId, Integer accountId, boolean confirmParticipant)
       throws ParticipantNotFoundException {
@@ -192,18 +229,27 @@ public class WaitlistService {
 
     ProgramParticipant optedParticipant = getWaitlistedParticipant(recurrenceId, accountId);
 
+    boolean spotFreed = false;
     if (confirmParticipant) {
       // Confirm participant
       ZonedDateTime ldt = ZonedDateTime.now();
       optedParticipant.setConfirmedDate(ldt);
       optedParticipant.setConfirmed(true);
+      optedParticipant.setAbsent(false);
+    } else if (optedParticipant.isConfirmed()) {
+      optedParticipant.setConfirmed(false);
+      optedParticipant.setConfirmedDate(null);
+      spotFreed = true;
     }
 
-    // Update the ranks of everyone
-    participantRepository.updateRanks(recurrenceId, optedParticipant.getRank());
-    optedParticipant.setRank(null);
+    // Leaving the queue moves everyone behind up, as ranks are counted from the opt-in order
+    optedParticipant.setOptInSeq(null);
 
     ProgramParticipant savedParticipant = participantRepository.save(optedParticipant);
+    if (spotFreed) {
+      // The waitlist is promoted in the background once this transaction commits
+      eventPublisher.publishEvent(new WaitlistSpotFreedEvent(recurrenceId));
+    }
     log.debug(
         "Participant processed successfully (recurrenceId={}, accountId={})",
         savedParticipant.getRecurrenceId(),
@@ -219,10 +265,8 @@ public class WaitlistService {
    * @return A list of DTOs representing the opted-in participants.
    */
   public List<ProgramParticipantDto> allOptedParticipants(Integer recurrenceId) {
-    List<ProgramParticipant> queue = participantRepository.findOptedParticipants(recurrenceId);
-
     List<ProgramParticipantDto> queueDto =
-        queue.stream().map(pp -> new ProgramParticipantDto(pp)).collect(Collectors.toList());
+        participantRepository.findOptedParticipants(recurrenceId);
     log.debug("Found {} opted participants:{}", queueDto.size(), queueDto);
     ;
 
@@ -230,7 +274,8 @@ public class WaitlistService {
   }
 
   /**
-   * Marks a confirmed participant as absent and removes their confirmation.
+   * Marks a confirmed participant as absent and removes their confirmation. The freed spot is
+   * offered to the waitlist in the background.
    *
    * @param recurrenceId The ID of the program.
    * @param accountId The ID of the participant's account.
@@ -250,30 +295,87 @@ public class WaitlistService {
 
     programParticipant.setConfirmed(false);
     programParticipant.setConfirmedDate(null);
+    programParticipant.setAbsent(true);
 
     ProgramParticipant savedParticipant = participantRepository.save(programParticipant);
+    eventPublisher.publishEvent(new WaitlistSpotFreedEvent(recurrenceId));
     return new ProgramParticipantDto(savedParticipant);
   }
 
   /**
-   * Marks a participant as unabsent.
+   * Marks the attendance of a whole roster in one statement. Either every participant of the roster
+   * is marked, or none is.
+   *
+   * @param recurrenceId The ID of the program.
+   * @param roster Attendance of each participant of the roster.
+   * @return DTOs representing the participants of the roster once marked.
+   * @throws ParticipantNotFoundException if an account of the roster does not take part in the
+   *     program.
+   */
+  @Transactional
+  public List<ProgramParticipantDto> markAttendance(
+      Integer recurrenceId, List<AttendanceDto> roster) throws ParticipantNotFoundException {
+    if (roster == null || roster.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Set<Integer> accountIds = new HashSet<>();
+    for (AttendanceDto attendance : roster) {
+      if (attendance.getAccountId() == null || !accountIds.add(attendance.getAccountId())) {
+        throw new IllegalArgumentException("Each participant must appear once in the roster");
+      }
+    }
+
+    List<MarkedAttendance> markedAttendances =
+        rosterAttendanceWriter.markAttendance(recurrenceId, roster);
+    if (markedAttendances.size() < roster.size()) {
+      markedAttendances.forEach(marked -> accountIds.remove(marked.participant().getAccountId()));
+      log.error("Participants not found for program={}, accounts={}", recurrenceId, accountIds);
+      throw new ParticipantNotFoundException(
+          "Participants not found for program: " + recurrenceId + ", accounts: " + accountIds);
+    }
+
+    log.info(
+        "Marked attendance of {} participants (recurrenceId={}), {} changed",
+        markedAttendances.size(),
+        recurrenceId,
+        markedAttendances.stream().filter(MarkedAttendance::changed).count());
+    if (markedAttendances.stream()
+        .anyMatch(marked -> marked.changed() && !marked.participant().isConfirmed())) {
+      eventPublisher.publishEvent(new WaitlistSpotFreedEvent(recurrenceId));
+    }
+
+    return markedAttendances.stream().map(MarkedAttendance::participant).toList();
+  }
+
+  /**
+   * Marks a participant as unabsent. The participant is confirmed again while the recurrence has a
+   * spot left, and joins its waitlist once the spot it freed was taken.
    *
    * @param reccurenceId The ID of the program.
    * @param accountId The ID of the participant's account.
+   * @return The participant, with its rank if it was waitlisted.
+   * @throws ParticipantNotFoundException if the account does not take part in the recurrence.
    */
-  public void markUnabsent(Integer reccurenceId, Integer accountId)
+  public ProgramParticipantDto markUnabsent(Integer reccurenceId, Integer accountId)
       throws ParticipantNotFoundException {
-    ProgramParticipant programParticipant = this.getParticipant(reccurenceId, accountId);
-    log.info("Marking unabsent participant {}", programParticipant);
-
-    programParticipant.setConfirmed(true);
-    programParticipant.setConfirmedDate(ZonedDateTime.now());
+    RsvpOutcome outcome = eventRsvpWriter.markUnabsent(reccurenceId, accountId);
+    if (outcome == null) {
+      log.warn("Participant not found for program={}, account={}", reccurenceId, accountId);
+      throw new ParticipantNotFoundException(
+          "Participant not found for program: " + reccurenceId + ", account: " + accountId);
+    }
+    log.info(
+        "Marked unabsent {} (recurrenceId={}, accountId={})", outcome, reccurenceId, accountId);
 
-    ProgramParticipant savedParticipant = participantRepository.save(programParticipant);
+    return fetchParticipant(reccurenceId, accountId);
   }
 
   /**
-   * Gets all programs that are open for waitlisted participants to join.
+   * Gets all programs that are open for waitlisted participants to join. The recurrences are
+   * compared to the capacity of their program through their maintained confirmed count, so they are
+   * all found with a single query. Admins also see the occurrences without a row of the trainings
+   * with virtual recurrences, which have no participant yet.
    *
    * @return A list of ProgramDto's containing the waitlisted .
    * @throws ResourceNotFoundException whenever programs can't be found.
@@ -290,59 +392,73 @@ public class WaitlistService {
                 });
 
     // TODO: Come back to this for the coach
+    // Admins see every training, others the recurrences where they are a coach or waitlisted
+    List<ProgramRecurrence> recurrences;
     if (account.getType() == AccountType.ADMIN) {
-      List<ProgramRecurrence> programs =
-          recurrenceRepository.findAllByProgramType(ProgramType.TRAINING.toString());
-
-      return programs.stream()
-          .filter(
-              program -> {
-                Integer programId = program.getProgramId();
-                Integer confirmedCount =
-                    participantRepository.countConfirmedParticipants(program.getRecurrenceId());
-                return confirmedCount < getProgram(programId).getCapacity();
-              })
-          .map(
-              program -> {
-                List<ProgramAttachmentDto> programAttachments =
-                    getProgramAttachments(program.getProgramId());
-                ProgramDto programDto =
-                    new ProgramDto(getProgram(program.getProgramId()), programAttachments);
-                programDto.setReccurenceDate(program.getOccurrenceDate());
-                programDto.setRecurrenceId(program.getRecurrenceId());
-                return programDto;
-              })
-          .collect(Collectors.toList());
+      recurrences =
+          new ArrayList<>(
+              recurrenceRepository.findOpenRecurrencesByProgramType(ProgramType.TRAINING.name()));
+      recurrences.addAll(getVirtualOccurrences(ProgramType.TRAINING));
+      recurrences.sort(
+          Comparator.comparing(
+                  (ProgramRecurrence recurrence) -> recurrence.getOccurrenceDate().toInstant())
+              .thenComparing(ProgramCalendarAssembler::calendarSortId));
     } else {
-      List<ProgramParticipant> userParticipants = participantRepository.findByAccountId(accountId);
-      return userParticipants.stream()
-          // Only include participants with the role "Coach" or "Waitlisted"
-          .filter(pp -> "Coach".equals(pp.getType()) || "Waitlisted".equals(pp.getType()))
-          .map(
-              pp ->
-                  recurrenceRepository
-                      .findById(pp.getProgramParticipantId().getRecurrenceId())
-                      .orElse(null))
-          .distinct() // Remove duplicate programs if user is in multiple roles
-          .filter(
-              program -> {
-                Integer programId = program.getProgramId();
-                Integer confirmedCount =
-                    participantRepository.countConfirmedParticipants(program.getRecurrenceId());
-                return confirmedCount < getProgram(programId).getCapacity();
-              })
-          .map(
-              program -> {
-                List<ProgramAttachmentDto> programAttachments =
-                    getProgramAttachments(program.getProgramId());
-                ProgramDto programDto =
-                    new ProgramDto(getProgram(program.getProgramId()), programAttachments);
-                programDto.setReccurenceDate(program.getOccurrenceDate());
-                programDto.setRecurrenceId(program.getRecurrenceId());
-                return programDto;
-              })
-          .collect(Collectors.toList());
+      recurrences =
+          recurrenceRepository.findOpenRecurrencesByParticipant(
+              accountId, List.of("Coach", "Waitlisted"));
     }
+
+    Map<Integer, List<ProgramAttachmentDto>> programAttachments =
+        programCalendarAssembler.getAttachmentsByProgramIds(
+            recurrences.stream().map(ProgramRecurrence::getProgramId).distinct().toList());
+
+    return recurrences.stream()
+        .map(
+            recurrence -> {
+              ProgramDto programDto =
+                  new ProgramDto(
+                      recurrence.getProgram(),
+                      programAttachments.getOrDefault(recurrence.getProgramId(), List.of()));
+              programDto.setReccurenceDate(recurrence.getOccurrenceDate());
+              programDto.setRecurrenceId(recurrence.getRecurrenceId());
+              return programDto;
+            })
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Expands the occurrences without a row of the programs of a type with virtual recurrences. Those
+   * occurrences have no participant, so they all have spots left.
+   *
+   * @param programType Type of the programs.
+   * @return the virtual occurrences, with their program.
+   */
+  private List<ProgramRecurrence> getVirtualOccurrences(ProgramType programType) {
+    List<Program> programs =
+        programRepository.findVirtualRecurringProgramsByProgramType(programType.name());
+    if (programs.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Integer, List<ProgramRecurrence>> exceptionsByProgram =
+        recurrenceRepository
+            .findProgramRecurrencesByProgramIds(
+                programs.stream().map(Program::getProgramId).toList())
+            .stream()
+            .collect(Collectors.groupingBy(ProgramRecurrence::getProgramId));
+
+    return programs.stream()
+        .flatMap(
+            program ->
+                programCalendarAssembler
+                    .virtualOccurrences(
+                        program,
+                        exceptionsByProgram.getOrDefault(program.getProgramId(), List.of()),
+                        null,
+                        null)
+                    .stream())
+        .toList();
   }
 
   /**
@@ -440,51 +556,43 @@ public class WaitlistService {
   }
 
   /**
-   * RSVPs a user to an event.
+   * RSVPs a user to an event. The user is confirmed while the event has spots left, and joins its
+   * waitlist once it is full, so concurrent RSVPs never confirm more users than its capacity. The
+   * RSVP is made to the recurrence of the event at its occurrence date.
    *
    * @param accountId The user to RSVP
    * @param programId The program to RSVP the user to
-   * @return True if the user is newly registered as a participant, false otherwise.
+   * @return The participant, with its rank if it was waitlisted, or null if the program does not
+   *     take RSVPs.
+   * @throws ProgramInvitationiException if the user is already confirmed to the program.
    */
-  public boolean rsvpToEvent(Integer accountId, Integer programId) {
+  public ProgramParticipantDto rsvpToEvent(Integer accountId, Integer programId) {
     Program program = this.getProgram(programId);
 
     if (program.getProgramType().equals(ProgramType.TRAINING)
         || program.getProgramType().equals(ProgramType.SPECIALTRAINING)) {
       log.warn("RSVP not allowed for this program type");
-      return false;
+      return null;
     }
 
-    ProgramParticipant participant =
-        participantRepository
-            .findById(new ProgramParticipantId(programId, accountId))
-            .orElseGet(
-                () -> {
-                  Account account =
-                      accountRepository
-                          .findById(accountId)
-                          .orElseThrow(
-                              () ->
-                                  new AccountNotFoundException(
-                                      "Account not found for id: " + accountId));
-                  return new ProgramParticipant(
-                      new ProgramParticipantId(programId, account.getAccountId()),
-                      null,
-                      null,
-                      false,
-                      null);
-                });
+    if (!accountRepository.existsById(accountId)) {
+      throw new AccountNotFoundException("Account not found for id: " + accountId);
+    }
 
-    if (participant.isConfirmed()) {
+    Integer recurrenceId = eventRsvpWriter.findOrAddEventRecurrence(programId);
+    RsvpOutcome outcome = eventRsvpWriter.rsvp(recurrenceId, accountId);
+    if (outcome == RsvpOutcome.ALREADY_CONFIRMED) {
       log.warn("Participant already confirmed program");
       throw new ProgramInvitationiException("Participant already confirmed to program");
     }
+    log.info(
+        "RSVP {} (programId={}, recurrenceId={}, accountId={})",
+        outcome,
+        programId,
+        recurrenceId,
+        accountId);
 
-    participant.setConfirmed(true);
-    participant.setConfirmedDate(ZonedDateTime.now());
-    participantRepository.save(participant);
-
-    return participant.isConfirmed();
+    return fetchParticipant(recurrenceId, accountId);
   }
 
   /**
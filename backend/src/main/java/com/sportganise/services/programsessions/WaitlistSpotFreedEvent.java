@@ -0,0 +1,9 @@
+package com.sportganise.services.programsessions;
+
+/**
+ * Published when a confirmed spot of a recurrence is given up, so that the waitlist of the
+ * recurrence moves up.
+ *
+ * @param recurrenceId Id of the recurrence.
+ */
+public record WaitlistSpotFreedEvent(Integer recurrenceId) {}
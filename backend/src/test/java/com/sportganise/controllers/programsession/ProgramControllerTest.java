@@ -1,6 +1,7 @@
 package com.sportganise.controllers.programsession;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -12,7 +13,10 @@ import com.sportganise.entities.account.Account;
 import com.sportganise.entities.account.AccountType;
 import com.sportganise.entities.programsessions.ProgramType;
 import com.sportganise.exceptions.AccountNotFoundException;
+import com.sportganise.exceptions.programexceptions.ProgramImportException;
+import com.sportganise.exceptions.programexceptions.ScheduleConflictException;
 import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramImportService;
 import com.sportganise.services.programsessions.ProgramService;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -45,6 +49,8 @@ public class ProgramControllerTest {
 
   @MockBean private ProgramService programService;
 
+  @MockBean private ProgramImportService programImportService;
+
   @InjectMocks private ProgramController programController;
 
   private ProgramDto mockProgramDto;
@@ -182,6 +188,65 @@ public class ProgramControllerTest {
         .andExpect(jsonPath("$.message").value("Programs successfully fetched."));
   }
 
+  @Test
+  public void testGetProgramCalendar_Success() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.COACH);
+
+    ZonedDateTime from = ZonedDateTime.parse("2025-05-01T00:00:00Z");
+    ZonedDateTime to = ZonedDateTime.parse("2025-06-01T00:00:00Z");
+    ProgramCalendarPageDto mockPage =
+        new ProgramCalendarPageDto(
+            List.of(
+                new ProgramDetailsParticipantsDto(
+                    mockProgramDto, List.of(mockProgramParticipantDto))),
+            ZonedDateTime.parse("2025-05-15T10:00:00Z"),
+            111);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(accountService.hasPermissions(mockAccount.getType())).thenReturn(true);
+    Mockito.when(programService.getProgramCalendar(from, to, null, null, 1, true))
+        .thenReturn(mockPage);
+
+    mockMvc
+        .perform(
+            get("/api/programs/2/calendar")
+                .param("from", "2025-05-01T00:00:00Z")
+                .param("to", "2025-06-01T00:00:00Z")
+                .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.programs[0].programDetails.programId").value(111))
+        .andExpect(jsonPath("$.data.programs[0].attendees[0].accountId").value(1))
+        .andExpect(jsonPath("$.data.nextCursorId").value(111))
+        .andExpect(jsonPath("$.message").value("Programs successfully fetched."));
+  }
+
+  @Test
+  public void testGetProgramCalendar_InvalidWindow() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.PLAYER);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(
+            programService.getProgramCalendar(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.anyBoolean()))
+        .thenThrow(new IllegalArgumentException("The calendar window must end after it starts."));
+
+    mockMvc
+        .perform(
+            get("/api/programs/2/calendar")
+                .param("from", "2025-06-01T00:00:00Z")
+                .param("to", "2025-05-01T00:00:00Z"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   public void testCreateProgram_Success() throws Exception {
     Account mockAccount = new Account();
@@ -284,6 +349,137 @@ public class ProgramControllerTest {
         .andExpect(status().isForbidden());
   }
 
+  @Test
+  public void testCreateProgram_ScheduleConflict() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.COACH);
+
+    MockMultipartFile programData =
+        new MockMultipartFile(
+            "programData",
+            "program.json",
+            MediaType.APPLICATION_JSON_VALUE,
+            jsonPayload.getBytes(StandardCharsets.UTF_8));
+
+    ScheduleConflictDto conflict =
+        new ScheduleConflictDto(
+            ScheduleConflictDto.ConflictType.LOCATION,
+            ZonedDateTime.parse("2030-06-01T10:00:00Z"),
+            5,
+            7,
+            "Other Training",
+            "Gym",
+            null,
+            ZonedDateTime.parse("2030-06-01T09:30:00Z"),
+            60);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(accountService.hasPermissions(mockAccount.getType())).thenReturn(true);
+    Mockito.when(
+            programService.createProgramDto(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.<Integer[]>any(),
+                Mockito.<Integer[]>any(),
+                Mockito.<Integer[]>any()))
+        .thenThrow(
+            new ScheduleConflictException(
+                "The schedule overlaps 1 occurrences of other programs.", List.of(conflict)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.multipart("/api/programs/2/create-program")
+                .file(programData)
+                .contentType(MediaType.MULTIPART_FORM_DATA))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.data[0].conflictType").value("LOCATION"))
+        .andExpect(jsonPath("$.data[0].programId").value(5));
+  }
+
+  @Test
+  public void testImportPrograms_Success() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.COACH);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(accountService.hasPermissions(mockAccount.getType())).thenReturn(true);
+    Mockito.when(programImportService.importPrograms(Mockito.eq(2), Mockito.anyList()))
+        .thenReturn(new ProgramImportResultDto(List.of(111, 112), 0, 2, 3));
+
+    mockMvc
+        .perform(
+            post("/api/programs/2/import-programs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    "[{\"programData\": "
+                        + jsonPayload
+                        + ", \"coachesId\": [2]}, {\"programData\": "
+                        + jsonPayload
+                        + ", \"participantsId\": [3, 4]}]"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.data.programIds[1]").value(112))
+        .andExpect(jsonPath("$.data.postsCreated").value(2))
+        .andExpect(jsonPath("$.data.participantsEnrolled").value(3));
+  }
+
+  @Test
+  public void testImportPrograms_Rejected() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.COACH);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(accountService.hasPermissions(mockAccount.getType())).thenReturn(true);
+    Mockito.when(programImportService.importPrograms(Mockito.eq(2), Mockito.anyList()))
+        .thenThrow(
+            new ProgramImportException(
+                "1 of 1 programs cannot be imported.",
+                List.of(
+                    new ProgramImportErrorDto(
+                        0, "Title", "End time must be after start time.", List.of()))));
+
+    mockMvc
+        .perform(
+            post("/api/programs/2/import-programs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"programData\": " + jsonPayload + "}]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.data[0].index").value(0))
+        .andExpect(jsonPath("$.data[0].message").value("End time must be after start time."));
+  }
+
+  @Test
+  public void testImportPrograms_InsufficientPermissions() throws Exception {
+    Account mockAccount = new Account();
+    mockAccount.setAccountId(2);
+    mockAccount.setType(AccountType.PLAYER);
+
+    Mockito.when(accountService.getAccount(2)).thenReturn(mockAccount);
+    Mockito.when(accountService.hasPermissions(mockAccount.getType())).thenReturn(false);
+
+    mockMvc
+        .perform(
+            post("/api/programs/2/import-programs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"programData\": " + jsonPayload + "}]"))
+        .andExpect(status().isForbidden());
+
+    Mockito.verifyNoInteractions(programImportService);
+  }
+
   @Test
   public void testModifyProgram_Success() throws Exception {
     Account mockAccount = new Account();
@@ -5,15 +5,20 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.sportganise.controllers.programsessions.ProgramParticipantController;
+import com.sportganise.dto.programsessions.InvitationStatusDto;
+import com.sportganise.dto.programsessions.InvitationStatusDto.Status;
 import com.sportganise.dto.programsessions.ProgramParticipantDto;
 import com.sportganise.exceptions.GlobalExceptionHandler;
+import com.sportganise.exceptions.ParticipantNotFoundException;
 import com.sportganise.exceptions.ResourceNotFoundException;
+import com.sportganise.services.programsessions.ProgramInvitationService;
 import com.sportganise.services.programsessions.WaitlistService;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.*;
 import org.springframework.test.web.servlet.request.*;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -22,6 +27,8 @@ public class ProgramParticipantControllerTest {
 
   @Mock private WaitlistService waitlistService;
 
+  @Mock private ProgramInvitationService programInvitationService;
+
   @InjectMocks private ProgramParticipantController programParticipantController;
 
   private Integer programId = 1;
@@ -307,4 +314,99 @@ public class ProgramParticipantControllerTest {
 
     verify(waitlistService).inviteToPrivateEvent(accountId, programId);
   }
+
+  @Test
+  public void testMarkAttendance_Success() throws Exception {
+    this.mockMvc = MockMvcBuilders.standaloneSetup(programParticipantController).build();
+    ProgramParticipantDto presentParticipant = new ProgramParticipantDto();
+    presentParticipant.setRecurrenceId(programId);
+    presentParticipant.setAccountId(3);
+    presentParticipant.setConfirmed(true);
+    when(waitlistService.markAttendance(eq(programId), anyList()))
+        .thenReturn(List.of(validParticipantDto, presentParticipant));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.patch("/api/program-participant/mark-attendance")
+                .param("reccurenceId", programId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    """
+                    [{"accountId": 2, "present": false}, {"accountId": 3, "present": true}]
+                    """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(2))
+        .andExpect(jsonPath("$.data[1].accountId").value(3))
+        .andExpect(jsonPath("$.data[1].confirmed").value(true));
+
+    verify(waitlistService)
+        .markAttendance(
+            eq(programId),
+            argThat(
+                roster ->
+                    roster.size() == 2
+                        && roster.get(0).getAccountId() == 2
+                        && !roster.get(0).isPresent()
+                        && roster.get(1).isPresent()));
+  }
+
+  @Test
+  public void testMarkAttendance_ParticipantNotFound() throws Exception {
+    this.mockMvc =
+        MockMvcBuilders.standaloneSetup(programParticipantController)
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+    when(waitlistService.markAttendance(eq(programId), anyList()))
+        .thenThrow(
+            new ParticipantNotFoundException(
+                "Participants not found for program: 1, accounts: [9]"));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.patch("/api/program-participant/mark-attendance")
+                .param("reccurenceId", programId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"accountId\": 9, \"present\": true}]"))
+        .andExpect(status().isNotFound())
+        .andExpect(
+            jsonPath("$.message").value("Participants not found for program: 1, accounts: [9]"));
+  }
+
+  @Test
+  public void testInviteAllToPrivateEvent_ReturnsStatusPerAccount() throws Exception {
+    this.mockMvc = MockMvcBuilders.standaloneSetup(programParticipantController).build();
+    when(programInvitationService.inviteAll(programId, List.of(2, 9)))
+        .thenReturn(
+            List.of(
+                new InvitationStatusDto(2, Status.INVITED, true),
+                new InvitationStatusDto(9, Status.ACCOUNT_NOT_FOUND, false)));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/program-participant/invite-private-bulk")
+                .param("programId", programId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[2, 9]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].status").value("INVITED"))
+        .andExpect(jsonPath("$.data[0].emailQueued").value(true))
+        .andExpect(jsonPath("$.data[1].status").value("ACCOUNT_NOT_FOUND"));
+  }
+
+  @Test
+  public void testRsvpParticipant_EventFull_JoinsWaitlist() throws Exception {
+    this.mockMvc = MockMvcBuilders.standaloneSetup(programParticipantController).build();
+    ProgramParticipantDto waitlisted = new ProgramParticipantDto();
+    waitlisted.setConfirmed(false);
+    waitlisted.setRank(4);
+    when(waitlistService.rsvpToEvent(accountId, programId)).thenReturn(waitlisted);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/api/program-participant/rsvp")
+                .param("programId", programId.toString())
+                .param("accountId", accountId.toString()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data").value(false));
+  }
 }
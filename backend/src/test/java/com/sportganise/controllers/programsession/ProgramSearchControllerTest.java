@@ -0,0 +1,94 @@
+package com.sportganise.controllers.programsession;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sportganise.controllers.programsessions.ProgramSearchController;
+import com.sportganise.dto.programsessions.ProgramSearchPageDto;
+import com.sportganise.dto.programsessions.ProgramSearchResultDto;
+import com.sportganise.entities.account.Account;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.exceptions.AccountNotFoundException;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.ProgramSearchCriteria;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramSearchService;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = ProgramSearchController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class ProgramSearchControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private AccountService accountService;
+
+  @MockBean private ProgramSearchService programSearchService;
+
+  @Test
+  void searchPrograms_shouldReturnPageOfMatchingPrograms() throws Exception {
+    ZonedDateTime occurrenceDate = ZonedDateTime.of(2025, 5, 20, 18, 0, 0, 0, ZoneOffset.UTC);
+    ProgramSearchResultDto result =
+        new ProgramSearchResultDto(
+            4,
+            "TRAINING",
+            "Swim Training",
+            "Gym",
+            "public",
+            occurrenceDate,
+            60,
+            null,
+            "once",
+            false);
+    ProgramSearchCriteria criteria =
+        new ProgramSearchCriteria(ProgramType.TRAINING, "Gym", null, false, null, null, "swim");
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(programSearchService.searchPrograms(criteria, null, null, 10))
+        .thenReturn(new ProgramSearchPageDto(List.of(result), occurrenceDate, 4));
+
+    mockMvc
+        .perform(
+            get("/api/programs/1/search")
+                .param("q", "swim")
+                .param("type", "TRAINING")
+                .param("location", "Gym")
+                .param("visibility", " ")
+                .param("cancelled", "false")
+                .param("limit", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.results[0].programId").value(4))
+        .andExpect(jsonPath("$.data.results[0].title").value("Swim Training"))
+        .andExpect(jsonPath("$.data.nextCursorId").value(4));
+  }
+
+  @Test
+  void searchPrograms_shouldReturnBadRequestForInvalidSearch() throws Exception {
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(programSearchService.searchPrograms(any(), eq(null), eq(null), eq(500)))
+        .thenThrow(new IllegalArgumentException("The search page size must be between 1 and 50."));
+
+    mockMvc
+        .perform(get("/api/programs/1/search").param("limit", "500"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void searchPrograms_shouldReturnNotFoundForUnknownAccount() throws Exception {
+    when(accountService.getAccount(999)).thenThrow(new AccountNotFoundException("Not found"));
+
+    mockMvc.perform(get("/api/programs/999/search")).andExpect(status().isNotFound());
+
+    verifyNoInteractions(programSearchService);
+  }
+}
@@ -0,0 +1,73 @@
+package com.sportganise.controllers.programsession;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sportganise.controllers.programsessions.ProgramSyncController;
+import com.sportganise.dto.programsessions.ProgramChangesDto;
+import com.sportganise.dto.programsessions.ProgramTombstoneDto;
+import com.sportganise.entities.account.Account;
+import com.sportganise.exceptions.AccountNotFoundException;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.ProgramSyncService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = ProgramSyncController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class ProgramSyncControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private AccountService accountService;
+
+  @MockBean private ProgramSyncService programSyncService;
+
+  @Test
+  void getChangesSince_shouldReturnChangesAndNextWatermark() throws Exception {
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(programSyncService.getChangesSince(40, 500))
+        .thenReturn(
+            new ProgramChangesDto(
+                List.of(),
+                List.of(),
+                List.of(new ProgramTombstoneDto("PROGRAM", 3, 3)),
+                41,
+                false,
+                false));
+
+    mockMvc
+        .perform(get("/api/programs/1/changes-since").param("watermark", "40"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.watermark").value(41))
+        .andExpect(jsonPath("$.data.tombstones[0].entityType").value("PROGRAM"))
+        .andExpect(jsonPath("$.data.tombstones[0].entityId").value(3));
+  }
+
+  @Test
+  void getChangesSince_shouldReturnBadRequestForInvalidLimit() throws Exception {
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(programSyncService.getChangesSince(0, 5000))
+        .thenThrow(new IllegalArgumentException("Limit must be between 1 and 1000."));
+
+    mockMvc
+        .perform(get("/api/programs/1/changes-since").param("limit", "5000"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getChangesSince_shouldReturnNotFoundForUnknownAccount() throws Exception {
+    when(accountService.getAccount(999)).thenThrow(new AccountNotFoundException("Not found"));
+
+    mockMvc.perform(get("/api/programs/999/changes-since")).andExpect(status().isNotFound());
+
+    verifyNoInteractions(programSyncService);
+  }
+}
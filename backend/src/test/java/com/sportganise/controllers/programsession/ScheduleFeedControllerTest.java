@@ -0,0 +1,133 @@
+package com.sportganise.controllers.programsession;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sportganise.controllers.programsessions.ScheduleFeedController;
+import com.sportganise.dto.programsessions.ScheduleEntryDto;
+import com.sportganise.dto.programsessions.SchedulePageDto;
+import com.sportganise.entities.account.Account;
+import com.sportganise.exceptions.AccountNotFoundException;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.programsessions.AccountScheduleService;
+import com.sportganise.services.programsessions.ScheduleFeedService;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = ScheduleFeedController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class ScheduleFeedControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private AccountService accountService;
+
+  @MockBean private ScheduleFeedService scheduleFeedService;
+
+  @MockBean private AccountScheduleService accountScheduleService;
+
+  @Test
+  void getSchedule_shouldReturnPageOfUpcomingOccurrences() throws Exception {
+    ZonedDateTime occurrenceDate = ZonedDateTime.of(2025, 5, 20, 18, 0, 0, 0, ZoneOffset.UTC);
+    ScheduleEntryDto entry =
+        new ScheduleEntryDto(
+            10,
+            2,
+            "TRAINING",
+            "Training",
+            "Weekly training",
+            "Gym",
+            occurrenceDate,
+            90,
+            false,
+            "Subscribed",
+            true);
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(accountScheduleService.getSchedulePage(1, null, null, 20))
+        .thenReturn(new SchedulePageDto(List.of(entry), occurrenceDate, "recurrence-10"));
+
+    mockMvc
+        .perform(get("/api/programs/1/schedule"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.entries[0].recurrenceId").value(10))
+        .andExpect(jsonPath("$.data.entries[0].confirmed").value(true))
+        .andExpect(jsonPath("$.data.nextCursorUid").value("recurrence-10"));
+  }
+
+  @Test
+  void getSchedule_shouldReturnNotFoundForUnknownAccount() throws Exception {
+    when(accountService.getAccount(999)).thenThrow(new AccountNotFoundException("Not found"));
+
+    mockMvc.perform(get("/api/programs/999/schedule")).andExpect(status().isNotFound());
+
+    verifyNoInteractions(accountScheduleService);
+  }
+
+  @Test
+  void getScheduleFeed_shouldStreamFeedWithETag() throws Exception {
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(scheduleFeedService.getFeedEtag(1)).thenReturn("W/\"abc123\"");
+    doAnswer(
+            invocation -> {
+              OutputStream outputStream = invocation.getArgument(1);
+              outputStream.write("BEGIN:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8));
+              return null;
+            })
+        .when(scheduleFeedService)
+        .writeFeed(eq(1), any(OutputStream.class));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/programs/1/schedule.ics"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"abc123\""))
+        .andExpect(content().string("BEGIN:VCALENDAR\r\n"));
+  }
+
+  @Test
+  void getScheduleFeed_shouldAnswerNotModifiedWithoutBuildingFeed() throws Exception {
+    when(accountService.getAccount(1)).thenReturn(new Account());
+    when(scheduleFeedService.getFeedEtag(1)).thenReturn("W/\"abc123\"");
+
+    mockMvc
+        .perform(
+            get("/api/programs/1/schedule.ics")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"abc123\""))
+        .andExpect(status().isNotModified());
+
+    verify(scheduleFeedService, never()).writeFeed(any(), any());
+  }
+
+  @Test
+  void getScheduleFeed_shouldReturnNotFoundForUnknownAccount() throws Exception {
+    when(accountService.getAccount(999)).thenThrow(new AccountNotFoundException("Not found"));
+
+    mockMvc.perform(get("/api/programs/999/schedule.ics")).andExpect(status().isNotFound());
+
+    verifyNoInteractions(scheduleFeedService);
+  }
+}
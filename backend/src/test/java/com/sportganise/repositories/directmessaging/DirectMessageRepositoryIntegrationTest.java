@@ -0,0 +1,131 @@
+package com.sportganise.repositories.directmessaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.directmessaging.DirectMessage;
+import com.sportganise.entities.directmessaging.DirectMessageBlob;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the keyset paging of the message history of a channel. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class DirectMessageRepositoryIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime SENT_AT =
+      ZonedDateTime.of(2025, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private DirectMessageRepository directMessageRepository;
+
+  private Integer accountId;
+
+  private Integer channelId;
+
+  @BeforeEach
+  void setUp() {
+    accountId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+            VALUES ('PLAYER', 'dm@test.com', 'auth0|dm', '5140000000', 'Test', 'Player')
+            RETURNING account_id
+            """,
+            Integer.class);
+    channelId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO channel (name, type, channel_hash)
+            VALUES ('Team', 'GROUP', 'dm-history-test')
+            RETURNING channel_id
+            """,
+            Integer.class);
+  }
+
+  private Integer saveMessage(ZonedDateTime sentAt) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO message (channel_id, sender_id, content, sent_at, type)
+        VALUES (?, ?, 'Hello', ?, 'CHAT')
+        RETURNING message_id
+        """,
+        Integer.class,
+        channelId,
+        accountId,
+        sentAt.toOffsetDateTime());
+  }
+
+  @Test
+  void getMessagesByChannelIdBefore_shouldPageThroughMessagesSentAtTheSameInstant() {
+    Integer oldest = saveMessage(SENT_AT.minusMinutes(1));
+    Integer first = saveMessage(SENT_AT);
+    Integer second = saveMessage(SENT_AT);
+    Integer third = saveMessage(SENT_AT);
+
+    List<DirectMessage> firstPage =
+        directMessageRepository.getLatestMessagesByChannelId(channelId, 2);
+    DirectMessage last = firstPage.getLast();
+    List<DirectMessage> secondPage =
+        directMessageRepository.getMessagesByChannelIdBefore(
+            channelId, last.getSentAt(), last.getMessageId(), 2);
+
+    assertThat(firstPage).extracting(DirectMessage::getMessageId).containsExactly(third, second);
+    assertThat(secondPage).extracting(DirectMessage::getMessageId).containsExactly(first, oldest);
+  }
+
+  @Test
+  void getMessagesAttachments_shouldFetchTheAttachmentsOfEveryMessageOfThePage() {
+    Integer withFiles = saveMessage(SENT_AT);
+    Integer withImage = saveMessage(SENT_AT.plusMinutes(1));
+    Integer withoutAttachment = saveMessage(SENT_AT.plusMinutes(2));
+    jdbcTemplate.update(
+        """
+        INSERT INTO message_blob (message_id, blob_url, file_type)
+        VALUES (?, 'https://bucket/a.pdf', 'FILE'), (?, 'https://bucket/b.pdf', 'FILE'),
+            (?, 'https://bucket/c.png', 'IMAGE')
+        """,
+        withFiles,
+        withFiles,
+        withImage);
+
+    List<DirectMessageBlob> attachments =
+        directMessageRepository.getMessagesAttachments(
+            List.of(withFiles, withImage, withoutAttachment));
+
+    assertThat(attachments)
+        .extracting(blob -> blob.getCompositeKey().getMessageId())
+        .containsExactlyInAnyOrder(withFiles, withFiles, withImage);
+  }
+}
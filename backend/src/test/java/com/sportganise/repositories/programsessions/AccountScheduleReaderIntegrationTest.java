@@ -0,0 +1,210 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.repositories.programsessions.AccountScheduleReader.UpcomingOccurrence;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the pages of upcoming occurrences of the schedule of an account. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AccountScheduleReader.class)
+public class AccountScheduleReaderIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private AccountScheduleReader accountScheduleReader;
+
+  private final ZonedDateTime now =
+      ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+  private Integer accountId;
+  private Integer programId;
+
+  private Integer saveAccount(String name) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+        VALUES ('PLAYER', ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+        """,
+        Integer.class,
+        name + "@test.com",
+        "auth0|" + name,
+        name);
+  }
+
+  private Integer saveRecurrence(ZonedDateTime occurrenceDate) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO program_recurrence (program_id, occurrence_date)
+        VALUES (?, ?) RETURNING recurrence_id
+        """,
+        Integer.class,
+        programId,
+        occurrenceDate.toOffsetDateTime());
+  }
+
+  private void saveParticipant(Integer recurrenceId, Integer accountId) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed)
+        VALUES (?, ?, 'Waitlisted', FALSE)
+        """,
+        recurrenceId,
+        accountId);
+  }
+
+  @BeforeEach
+  void setUp() {
+    accountId = saveAccount("scheduled");
+    programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration,
+                frequency)
+            VALUES ('TRAINING', 'Weekly Training', 'Test Coach', 10, ?, 60, 'weekly')
+            RETURNING program_id
+            """,
+            Integer.class,
+            now.minusWeeks(1).toOffsetDateTime());
+  }
+
+  private List<UpcomingOccurrence> readAllPages(int limit) {
+    List<UpcomingOccurrence> occurrences = new ArrayList<>();
+    ZonedDateTime afterDate = now;
+    String afterUid = "";
+    List<UpcomingOccurrence> page;
+    do {
+      page = accountScheduleReader.findUpcoming(accountId, now, afterDate, afterUid, limit);
+      occurrences.addAll(page);
+      if (!page.isEmpty()) {
+        afterDate = page.getLast().occurrenceDate();
+        afterUid = page.getLast().uid();
+      }
+    } while (page.size() == limit);
+    return occurrences;
+  }
+
+  @Test
+  void findUpcoming_shouldPageThroughUpcomingOccurrencesOfTheAccountOnly() {
+    Integer pastId = saveRecurrence(now.minusDays(1));
+    saveParticipant(pastId, accountId);
+    List<Integer> upcomingIds = new ArrayList<>();
+    for (int week = 1; week <= 5; week++) {
+      Integer recurrenceId = saveRecurrence(now.plusWeeks(week));
+      saveParticipant(recurrenceId, accountId);
+      upcomingIds.add(recurrenceId);
+    }
+    // A page ends between the two occurrences of the third week, which share their date
+    Integer sameDateId = saveRecurrence(now.plusWeeks(3));
+    saveParticipant(sameDateId, accountId);
+    Integer otherId = saveRecurrence(now.plusWeeks(2));
+    saveParticipant(otherId, saveAccount("other"));
+
+    List<UpcomingOccurrence> occurrences = readAllPages(3);
+
+    assertThat(occurrences)
+        .extracting(UpcomingOccurrence::recurrenceId)
+        .containsExactlyInAnyOrder(
+            upcomingIds.get(0),
+            upcomingIds.get(1),
+            upcomingIds.get(2),
+            sameDateId,
+            upcomingIds.get(3),
+            upcomingIds.get(4));
+    assertThat(occurrences)
+        .extracting(UpcomingOccurrence::occurrenceDate)
+        .isSortedAccordingTo(ZonedDateTime::compareTo);
+    assertThat(occurrences)
+        .allSatisfy(
+            occurrence -> {
+              assertThat(occurrence.programId()).isEqualTo(programId);
+              assertThat(occurrence.title()).isEqualTo("Weekly Training");
+              assertThat(occurrence.programType()).isEqualTo("TRAINING");
+              assertThat(occurrence.participantType()).isEqualTo("Waitlisted");
+              assertThat(occurrence.confirmed()).isFalse();
+            });
+  }
+
+  @Test
+  void findUpcoming_shouldReturnNothingPastTheLastOccurrence() {
+    Integer recurrenceId = saveRecurrence(now.plusDays(1));
+    saveParticipant(recurrenceId, accountId);
+
+    List<UpcomingOccurrence> firstPage =
+        accountScheduleReader.findUpcoming(accountId, now, now, "", 10);
+
+    assertThat(firstPage).hasSize(1);
+    UpcomingOccurrence last = firstPage.getFirst();
+    assertThat(
+            accountScheduleReader.findUpcoming(
+                accountId, now, last.occurrenceDate(), last.uid(), 10))
+        .isEmpty();
+  }
+
+  @Test
+  void findUpcoming_shouldReadNonRecurringProgramsThroughTheirRecurrence() {
+    Integer eventId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TOURNAMENT', 'Tournament', 'Test Coach', 10, ?, 60)
+            RETURNING program_id
+            """,
+            Integer.class,
+            now.plusDays(2).toOffsetDateTime());
+    Integer recurrenceId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program_recurrence (program_id, occurrence_date)
+            VALUES (?, ?) RETURNING recurrence_id
+            """,
+            Integer.class,
+            eventId,
+            now.plusDays(2).toOffsetDateTime());
+    saveParticipant(recurrenceId, accountId);
+
+    List<UpcomingOccurrence> occurrences = readAllPages(10);
+
+    assertThat(occurrences).hasSize(1);
+    assertThat(occurrences.getFirst().uid()).isEqualTo("recurrence-" + recurrenceId);
+    assertThat(occurrences.getFirst().recurrenceId()).isEqualTo(recurrenceId);
+    assertThat(occurrences.getFirst().programId()).isEqualTo(eventId);
+    assertThat(occurrences.getFirst().title()).isEqualTo("Tournament");
+  }
+}
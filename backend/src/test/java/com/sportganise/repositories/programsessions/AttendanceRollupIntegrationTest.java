@@ -0,0 +1,173 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.dto.programsessions.AttendanceDto;
+import com.sportganise.repositories.programsessions.AttendanceStatsReader.MonthlyAttendance;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Integration test for the monthly attendance rollups maintained by the database as participants
+ * are confirmed, marked absent, unabsent or removed.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AttendanceStatsReader.class, RosterAttendanceWriter.class})
+public class AttendanceRollupIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final YearMonth JANUARY = YearMonth.of(2025, 1);
+  private static final YearMonth FEBRUARY = YearMonth.of(2025, 2);
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private AttendanceStatsReader attendanceStatsReader;
+
+  @Autowired private RosterAttendanceWriter rosterAttendanceWriter;
+
+  private Integer programId;
+  private Integer januaryId;
+  private Integer februaryId;
+  private Integer firstId;
+  private Integer secondId;
+
+  private Integer saveAccount(String name) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+        VALUES ('PLAYER', ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+        """,
+        Integer.class,
+        name + "@test.com",
+        "auth0|" + name,
+        name);
+  }
+
+  private Integer saveRecurrence(String occurrenceDate) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO program_recurrence (program_id, occurrence_date)
+        VALUES (?, CAST(? AS TIMESTAMPTZ)) RETURNING recurrence_id
+        """,
+        Integer.class,
+        programId,
+        occurrenceDate);
+  }
+
+  private void saveParticipant(Integer recurrenceId, Integer accountId, boolean confirmed) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed,
+            confirm_date)
+        VALUES (?, ?, 'Subscribed', ?, CASE WHEN ? THEN now() END)
+        """,
+        recurrenceId,
+        accountId,
+        confirmed,
+        confirmed);
+  }
+
+  private void markAbsent(Integer recurrenceId, Integer accountId) {
+    jdbcTemplate.update(
+        """
+        UPDATE program_participants SET is_confirmed = FALSE, confirm_date = NULL, is_absent = TRUE
+        WHERE recurrence_id = ? AND account_id = ?
+        """,
+        recurrenceId,
+        accountId);
+  }
+
+  @BeforeEach
+  void setUp() {
+    programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TRAINING', 'Training', 'Test Coach', 10, '2025-01-07T18:00:00Z', 60)
+            RETURNING program_id
+            """,
+            Integer.class);
+    januaryId = saveRecurrence("2025-01-07T18:00:00Z");
+    februaryId = saveRecurrence("2025-02-04T18:00:00Z");
+    firstId = saveAccount("first");
+    secondId = saveAccount("second");
+  }
+
+  @Test
+  void rollups_shouldFollowConfirmationsAbsencesAndRemovals() {
+    saveParticipant(januaryId, firstId, true);
+    saveParticipant(januaryId, secondId, true);
+    saveParticipant(februaryId, firstId, false);
+
+    markAbsent(januaryId, secondId);
+    assertThat(attendanceStatsReader.findProgramAttendance(programId, JANUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(JANUARY, 1, 1));
+    assertThat(attendanceStatsReader.findAccountAttendance(secondId, JANUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(JANUARY, 0, 1));
+
+    // Marking unabsent confirms the participant again
+    jdbcTemplate.update(
+        """
+        UPDATE program_participants SET is_confirmed = TRUE, confirm_date = now(),
+            is_absent = FALSE
+        WHERE recurrence_id = ? AND account_id = ?
+        """,
+        januaryId,
+        secondId);
+    assertThat(attendanceStatsReader.findAccountAttendance(secondId, JANUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(JANUARY, 1, 0));
+
+    jdbcTemplate.update(
+        "DELETE FROM program_participants WHERE recurrence_id = ? AND account_id = ?",
+        januaryId,
+        firstId);
+    assertThat(attendanceStatsReader.findProgramAttendance(programId, JANUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(JANUARY, 1, 0));
+  }
+
+  @Test
+  void rollups_shouldCountARosterInTheMonthOfItsRecurrence() {
+    saveParticipant(februaryId, firstId, false);
+    saveParticipant(februaryId, secondId, true);
+
+    rosterAttendanceWriter.markAttendance(
+        februaryId, List.of(new AttendanceDto(firstId, true), new AttendanceDto(secondId, false)));
+
+    assertThat(attendanceStatsReader.findProgramAttendance(programId, JANUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(FEBRUARY, 1, 1));
+    assertThat(attendanceStatsReader.findAccountAttendance(firstId, FEBRUARY, FEBRUARY))
+        .containsExactly(new MonthlyAttendance(FEBRUARY, 1, 0));
+    assertThat(attendanceStatsReader.findAccountAttendance(firstId, JANUARY, JANUARY)).isEmpty();
+  }
+}
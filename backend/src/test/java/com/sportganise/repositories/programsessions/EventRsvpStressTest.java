@@ -0,0 +1,277 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.repositories.programsessions.EventRsvpWriter.RsvpOutcome;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Concurrency stress test for EventRsvpWriter. Hundreds of RSVPs to the same event run in parallel,
+ * each in its own transaction, and must confirm exactly as many participants as the capacity of the
+ * program, the others joining the waitlist with dense ranks. The throughput of the RSVPs is logged.
+ * The test data is committed, so it is not run in a test transaction and is deleted after each
+ * test.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EventRsvpWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EventRsvpStressTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final int CAPACITY = 25;
+  private static final int PARTICIPANTS = 300;
+  private static final int THREADS = 32;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EventRsvpWriter eventRsvpWriter;
+
+  private Integer programId;
+  private Integer recurrenceId;
+  private List<Integer> accountIds;
+
+  @BeforeEach
+  void setUp() {
+    programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TOURNAMENT', 'Open Tournament', 'Test Coach', ?, now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class,
+            CAPACITY);
+    recurrenceId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program_recurrence (program_id, occurrence_date)
+            VALUES (?, now()) RETURNING recurrence_id
+            """,
+            Integer.class,
+            programId);
+    accountIds =
+        jdbcTemplate.queryForList(
+            """
+            INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+            SELECT 'PLAYER', 'rsvp' || n || '@test.com', 'auth0|rsvp' || n, '5140000000',
+                'Player', 'Number ' || n
+            FROM generate_series(1, ?) n
+            RETURNING account_id
+            """,
+            Integer.class,
+            PARTICIPANTS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM program WHERE program_id = ?", programId);
+    jdbcTemplate.update("DELETE FROM account WHERE email LIKE 'rsvp%@test.com'");
+  }
+
+  private int confirmedParticipants() {
+    return jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM program_participants WHERE recurrence_id = ? AND is_confirmed",
+        Integer.class,
+        recurrenceId);
+  }
+
+  private int confirmedCount() {
+    return jdbcTemplate.queryForObject(
+        "SELECT confirmed_count FROM program_recurrence WHERE recurrence_id = ?",
+        Integer.class,
+        recurrenceId);
+  }
+
+  private List<Integer> queueRanks() {
+    return jdbcTemplate.queryForList(
+        "SELECT rank FROM waitlist_position WHERE recurrence_id = ?", Integer.class, recurrenceId);
+  }
+
+  /** Runs the tasks on a thread pool, all released at once, and returns their results. */
+  private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startGate = new CountDownLatch(1);
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (Callable<T> task : tasks) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  startGate.await();
+                  return task.call();
+                }));
+      }
+      startGate.countDown();
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void rsvp_shouldNeverConfirmMoreParticipantsThanCapacity() throws Exception {
+    List<Callable<RsvpOutcome>> rsvps =
+        accountIds.stream()
+            .<Callable<RsvpOutcome>>map(
+                accountId -> () -> eventRsvpWriter.rsvp(recurrenceId, accountId))
+            .toList();
+
+    long start = System.nanoTime();
+    List<RsvpOutcome> outcomes = runConcurrently(rsvps);
+    long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+    log.info(
+        "{} concurrent RSVPs on {} threads in {} ms ({} RSVPs/s)",
+        PARTICIPANTS,
+        THREADS,
+        millis,
+        PARTICIPANTS * 1000L / millis);
+
+    Map<RsvpOutcome, Long> counts =
+        outcomes.stream()
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    assertThat(counts)
+        .containsOnly(
+            Map.entry(RsvpOutcome.CONFIRMED, (long) CAPACITY),
+            Map.entry(RsvpOutcome.WAITLISTED, (long) (PARTICIPANTS - CAPACITY)));
+    assertThat(confirmedParticipants()).isEqualTo(CAPACITY);
+    assertThat(confirmedCount()).isEqualTo(CAPACITY);
+    assertThat(queueRanks())
+        .containsExactlyInAnyOrderElementsOf(
+            IntStream.rangeClosed(1, PARTICIPANTS - CAPACITY).boxed().toList());
+  }
+
+  @Test
+  void rsvp_shouldConfirmRepeatedRsvpsOfAnAccountOnce() throws Exception {
+    Integer accountId = accountIds.getFirst();
+    List<Callable<RsvpOutcome>> rsvps =
+        Collections.nCopies(THREADS, () -> eventRsvpWriter.rsvp(recurrenceId, accountId));
+
+    List<RsvpOutcome> outcomes = runConcurrently(rsvps);
+
+    assertThat(outcomes).containsOnlyOnce(RsvpOutcome.CONFIRMED);
+    assertThat(outcomes)
+        .filteredOn(outcome -> outcome != RsvpOutcome.CONFIRMED)
+        .containsOnly(RsvpOutcome.ALREADY_CONFIRMED);
+    assertThat(confirmedCount()).isEqualTo(1);
+    assertThat(queueRanks()).isEmpty();
+  }
+
+  @Test
+  void findOrAddEventRecurrence_shouldAddOneRecurrenceForConcurrentFirstRsvps() throws Exception {
+    Integer oneTimeProgramId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('FUNDRAISER', 'Gala', 'Test Coach', ?, now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class,
+            CAPACITY);
+    try {
+      List<Callable<RsvpOutcome>> rsvps =
+          accountIds.stream()
+              .limit(THREADS)
+              .<Callable<RsvpOutcome>>map(
+                  accountId ->
+                      () ->
+                          eventRsvpWriter.rsvp(
+                              eventRsvpWriter.findOrAddEventRecurrence(oneTimeProgramId),
+                              accountId))
+              .toList();
+
+      List<RsvpOutcome> outcomes = runConcurrently(rsvps);
+
+      List<Integer> recurrenceIds =
+          jdbcTemplate.queryForList(
+              "SELECT recurrence_id FROM program_recurrence WHERE program_id = ?",
+              Integer.class,
+              oneTimeProgramId);
+      assertThat(recurrenceIds).hasSize(1);
+      assertThat(outcomes).filteredOn(RsvpOutcome.CONFIRMED::equals).hasSize(CAPACITY);
+      assertThat(
+              jdbcTemplate.queryForObject(
+                  "SELECT confirmed_count FROM program_recurrence WHERE recurrence_id = ?",
+                  Integer.class,
+                  recurrenceIds.getFirst()))
+          .isEqualTo(CAPACITY);
+    } finally {
+      jdbcTemplate.update("DELETE FROM program WHERE program_id = ?", oneTimeProgramId);
+    }
+  }
+
+  @Test
+  void markUnabsent_shouldWaitlistTheParticipantWhenItsSpotWasTaken() {
+    accountIds.stream().limit(CAPACITY).forEach(id -> eventRsvpWriter.rsvp(recurrenceId, id));
+    Integer absentId = accountIds.getFirst();
+    jdbcTemplate.update(
+        """
+        UPDATE program_participants SET is_confirmed = FALSE, confirm_date = NULL, is_absent = TRUE
+        WHERE recurrence_id = ? AND account_id = ?
+        """,
+        recurrenceId,
+        absentId);
+    assertThat(eventRsvpWriter.rsvp(recurrenceId, accountIds.get(CAPACITY)))
+        .isEqualTo(RsvpOutcome.CONFIRMED);
+
+    RsvpOutcome outcome = eventRsvpWriter.markUnabsent(recurrenceId, absentId);
+
+    assertThat(outcome).isEqualTo(RsvpOutcome.WAITLISTED);
+    assertThat(confirmedCount()).isEqualTo(CAPACITY);
+    assertThat(confirmedParticipants()).isEqualTo(CAPACITY);
+    assertThat(queueRanks()).containsExactly(1);
+    assertThat(eventRsvpWriter.markUnabsent(recurrenceId, accountIds.get(1)))
+        .isEqualTo(RsvpOutcome.CONFIRMED);
+  }
+}
@@ -0,0 +1,95 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramType;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for ProgramBulkWriter. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramBulkWriter.class)
+public class ProgramBulkWriterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2030, 9, 2, 18, 0, 0, 0, ZoneId.of("UTC"));
+
+  @Autowired private ProgramRepository programRepository;
+
+  @Autowired private ProgramBulkWriter programBulkWriter;
+
+  private static Program program(int week) {
+    Program program =
+        new Program(
+            ProgramType.SPECIALTRAINING,
+            "Week " + week,
+            "Season program",
+            "Test Coach",
+            week % 2 == 0 ? 20 : null,
+            START.plusWeeks(week),
+            90,
+            week % 2 == 0 ? START.plusWeeks(week + 4) : null,
+            week % 2 == 0 ? "weekly" : "once",
+            "Gym",
+            "public");
+    program.setVirtualRecurrences(week % 2 == 0);
+    return program;
+  }
+
+  @Test
+  void insertPrograms_shouldSetGeneratedIdsInProgramOrder() {
+    int rows = ProgramBulkWriter.MAX_ROWS_PER_STATEMENT + 3;
+    List<Program> programs =
+        IntStream.range(0, rows).mapToObj(ProgramBulkWriterIntegrationTest::program).toList();
+
+    List<Integer> programIds = programBulkWriter.insertPrograms(programs);
+
+    assertThat(programIds).hasSize(rows).doesNotHaveDuplicates().isSorted();
+    assertThat(programs.stream().map(Program::getProgramId).toList()).isEqualTo(programIds);
+
+    Program weekly = programRepository.findProgramById(programIds.get(2));
+    assertThat(weekly.getTitle()).isEqualTo("Week 2");
+    assertThat(weekly.getProgramType()).isEqualTo(ProgramType.SPECIALTRAINING);
+    assertThat(weekly.getOccurrenceDate().toInstant()).isEqualTo(START.plusWeeks(2).toInstant());
+    assertThat(weekly.getExpiryDate().toInstant()).isEqualTo(START.plusWeeks(6).toInstant());
+    assertThat(weekly.isVirtualRecurrences()).isTrue();
+
+    Program once = programRepository.findProgramById(programIds.get(3));
+    assertThat(once.getCapacity()).isNull();
+    assertThat(once.getExpiryDate()).isNull();
+    assertThat(once.isVirtualRecurrences()).isFalse();
+  }
+}
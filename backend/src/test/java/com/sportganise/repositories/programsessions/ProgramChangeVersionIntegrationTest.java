@@ -0,0 +1,264 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramAttachment;
+import com.sportganise.entities.programsessions.ProgramAttachmentCompositeKey;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.ProgramTombstone;
+import com.sportganise.entities.programsessions.ProgramType;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Integration test for the change versions and tombstones maintained by the database triggers,
+ * which the delta sync relies on.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProgramChangeVersionIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2025, 1, 1, 18, 0, 0, 0, ZoneId.of("UTC"));
+
+  private static final PageRequest ALL = PageRequest.of(0, 1000);
+
+  @Autowired private TestEntityManager entityManager;
+
+  @Autowired private ProgramRepository programRepository;
+
+  @Autowired private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Autowired private ProgramAttachmentRepository programAttachmentRepository;
+
+  @Autowired private ProgramTombstoneRepository programTombstoneRepository;
+
+  private Program saveProgramWithRecurrences(int recurrences) {
+    Program program =
+        programRepository.save(
+            Program.builder()
+                .programType(ProgramType.TRAINING)
+                .title("Weekly Training")
+                .author("Test Coach")
+                .capacity(20)
+                .occurrenceDate(START)
+                .durationMins(60)
+                .expiryDate(START.plusWeeks(recurrences - 1))
+                .frequency("weekly")
+                .location("Gym")
+                .visibility("public")
+                .build());
+    programRecurrenceRepository.saveAll(
+        IntStream.range(0, recurrences)
+            .mapToObj(
+                week -> new ProgramRecurrence(program.getProgramId(), START.plusWeeks(week), false))
+            .toList());
+    flushAndClear();
+    return program;
+  }
+
+  /** Changes made by the triggers are only seen once the persistence context is reloaded. */
+  private void flushAndClear() {
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private long programVersion(Integer programId) {
+    return programRepository.findById(programId).orElseThrow().getChangeVersion();
+  }
+
+  private long highestVersion() {
+    return entityManager
+        .getEntityManager()
+        .createQuery("SELECT MAX(pr.changeVersion) FROM ProgramRecurrence pr", Long.class)
+        .getSingleResult();
+  }
+
+  /** The test transaction is still in flight, so its changes are read past any horizon. */
+  private List<Program> programsChangedAfter(long version) {
+    return programRepository.findChangedSince(0L, Long.MAX_VALUE, ALL).stream()
+        .filter(program -> program.getChangeVersion() > version)
+        .toList();
+  }
+
+  private List<ProgramRecurrence> recurrencesChangedAfter(long version) {
+    return programRecurrenceRepository.findChangedSince(0L, Long.MAX_VALUE, ALL).stream()
+        .filter(recurrence -> recurrence.getChangeVersion() > version)
+        .toList();
+  }
+
+  private List<ProgramTombstone> tombstonesChangedAfter(long version) {
+    return programTombstoneRepository.findChangedSince(0L, Long.MAX_VALUE, ALL).stream()
+        .filter(tombstone -> tombstone.getChangeVersion() > version)
+        .toList();
+  }
+
+  private long currentXid() {
+    return ((Number)
+            entityManager
+                .getEntityManager()
+                .createNativeQuery("SELECT CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT)")
+                .getSingleResult())
+        .longValue();
+  }
+
+  @Test
+  void insert_shouldAssignChangeVersions() {
+    Program program = saveProgramWithRecurrences(3);
+
+    assertThat(programVersion(program.getProgramId())).isPositive();
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(program.getProgramId()))
+        .extracting(ProgramRecurrence::getChangeVersion)
+        .doesNotContainNull()
+        .doesNotHaveDuplicates();
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(program.getProgramId()))
+        .extracting(ProgramRecurrence::getChangeXid)
+        .containsOnly(currentXid());
+  }
+
+  @Test
+  void bulkCancel_shouldBumpTheVersionOfEveryRecurrence() {
+    Program program = saveProgramWithRecurrences(4);
+    long watermark = highestVersion();
+
+    programRecurrenceRepository.cancelProgramRecurrences(program.getProgramId());
+    flushAndClear();
+
+    List<ProgramRecurrence> changed = recurrencesChangedAfter(watermark);
+    assertThat(changed).hasSize(4).allMatch(ProgramRecurrence::isCancelled);
+    assertThat(changed)
+        .extracting(ProgramRecurrence::getChangeVersion)
+        .isSorted()
+        .allMatch(version -> version > watermark);
+  }
+
+  @Test
+  void cancelProgram_shouldBumpTheVersionOfTheProgram() {
+    Program program = saveProgramWithRecurrences(1);
+    long version = programVersion(program.getProgramId());
+
+    programRepository.cancelProgram(program.getProgramId());
+    flushAndClear();
+
+    assertThat(programsChangedAfter(version))
+        .extracting(Program::getProgramId)
+        .containsExactly(program.getProgramId());
+  }
+
+  @Test
+  void unchangedSave_shouldKeepTheVersion() {
+    Program program = saveProgramWithRecurrences(1);
+    long version = programVersion(program.getProgramId());
+
+    programRepository.save(programRepository.findById(program.getProgramId()).orElseThrow());
+    programRepository.uncancelProgram(program.getProgramId());
+    flushAndClear();
+
+    assertThat(programVersion(program.getProgramId())).isEqualTo(version);
+  }
+
+  @Test
+  void attachmentChange_shouldBumpTheVersionOfTheProgram() {
+    Program program = saveProgramWithRecurrences(1);
+    long version = programVersion(program.getProgramId());
+
+    programAttachmentRepository.save(
+        new ProgramAttachment(
+            new ProgramAttachmentCompositeKey(program.getProgramId(), "/file.pdf")));
+    flushAndClear();
+
+    assertThat(programVersion(program.getProgramId())).isGreaterThan(version);
+  }
+
+  @Test
+  void delete_shouldWriteTombstonesForTheProgramAndItsRecurrences() {
+    Program program = saveProgramWithRecurrences(2);
+    long watermark = highestVersion();
+
+    programRepository.deleteById(program.getProgramId());
+    flushAndClear();
+
+    List<ProgramTombstone> tombstones = tombstonesChangedAfter(watermark);
+    assertThat(tombstones)
+        .extracting(ProgramTombstone::getEntityType)
+        .containsExactlyInAnyOrder(
+            ProgramTombstone.RECURRENCE, ProgramTombstone.RECURRENCE, ProgramTombstone.PROGRAM);
+    assertThat(tombstones).allMatch(t -> t.getProgramId().equals(program.getProgramId()));
+  }
+
+  @Test
+  void softDelete_shouldHideTheProgramAndWriteItsTombstoneAtOnce() {
+    Program program = saveProgramWithRecurrences(2);
+    long watermark = highestVersion();
+
+    assertThat(programRepository.softDeleteProgram(program.getProgramId())).isEqualTo(1);
+    assertThat(programRepository.softDeleteProgram(program.getProgramId())).isZero();
+    flushAndClear();
+
+    assertThat(programRepository.findById(program.getProgramId())).isEmpty();
+    assertThat(programRepository.existsById(program.getProgramId())).isFalse();
+    assertThat(programsChangedAfter(watermark)).isEmpty();
+    assertThat(tombstonesChangedAfter(watermark))
+        .extracting(ProgramTombstone::getEntityType)
+        .containsExactly(ProgramTombstone.PROGRAM);
+  }
+
+  @Test
+  void findFinishedHorizon_shouldStayAtOrBelowTheTransactionInFlight() {
+    Program program = saveProgramWithRecurrences(1);
+    long horizon = programTombstoneRepository.findFinishedHorizon();
+
+    assertThat(horizon).isLessThanOrEqualTo(currentXid());
+    assertThat(programRepository.findChangedSince(0L, horizon, ALL))
+        .extracting(Program::getProgramId)
+        .doesNotContain(program.getProgramId());
+  }
+
+  @Test
+  void purge_shouldMoveTheSyncHorizonPastThePurgedTombstones() {
+    Program program = saveProgramWithRecurrences(2);
+    programRepository.deleteById(program.getProgramId());
+    flushAndClear();
+    long newestTombstone = tombstonesChangedAfter(0).getLast().getChangeXid();
+
+    ZonedDateTime deletedBefore = ZonedDateTime.now().plusMinutes(1);
+    programTombstoneRepository.advanceSyncHorizon(deletedBefore);
+    int purged = programTombstoneRepository.deleteTombstonesBefore(deletedBefore);
+
+    assertThat(purged).isGreaterThanOrEqualTo(3);
+    assertThat(programTombstoneRepository.findSyncHorizon()).isEqualTo(newestTombstone);
+  }
+}
@@ -0,0 +1,163 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramParticipant;
+import com.sportganise.entities.programsessions.ProgramParticipantId;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.ProgramType;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Integration test for the confirmed count of recurrences maintained by the database, and for the
+ * waitlist queries that compare it to the capacity of the program.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProgramConfirmedCountIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2025, 1, 1, 18, 0, 0, 0, ZoneId.of("UTC"));
+
+  @Autowired private TestEntityManager entityManager;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ProgramRepository programRepository;
+
+  @Autowired private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Autowired private ProgramParticipantRepository programParticipantRepository;
+
+  private Integer saveAccount(String name) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+        VALUES ('PLAYER', ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+        """,
+        Integer.class,
+        name + "@test.com",
+        "auth0|" + name,
+        name);
+  }
+
+  private ProgramRecurrence saveRecurrence(ProgramType programType, int capacity) {
+    Program program =
+        programRepository.save(
+            Program.builder()
+                .programType(programType)
+                .title("Training")
+                .author("Test Coach")
+                .capacity(capacity)
+                .occurrenceDate(START)
+                .durationMins(60)
+                .visibility("public")
+                .build());
+    return programRecurrenceRepository.save(
+        new ProgramRecurrence(program.getProgramId(), START, false));
+  }
+
+  private ProgramParticipant saveParticipant(
+      Integer recurrenceId, Integer accountId, String type, boolean confirmed) {
+    return programParticipantRepository.save(
+        ProgramParticipant.builder()
+            .programParticipantId(new ProgramParticipantId(recurrenceId, accountId))
+            .type(type)
+            .isConfirmed(confirmed)
+            .confirmedDate(confirmed ? START : null)
+            .build());
+  }
+
+  private int confirmedCount(Integer recurrenceId) {
+    entityManager.flush();
+    entityManager.clear();
+    return programRecurrenceRepository.findById(recurrenceId).orElseThrow().getConfirmedCount();
+  }
+
+  @Test
+  void confirmedCount_shouldFollowConfirmationsAbsencesAndRemovals() {
+    Integer recurrenceId = saveRecurrence(ProgramType.TRAINING, 10).getRecurrenceId();
+    saveParticipant(recurrenceId, saveAccount("first"), "Subscribed", true);
+    Integer secondId = saveAccount("second");
+    saveParticipant(recurrenceId, secondId, "Waitlisted", false);
+    assertThat(confirmedCount(recurrenceId)).isEqualTo(1);
+
+    ProgramParticipant second =
+        programParticipantRepository
+            .findById(new ProgramParticipantId(recurrenceId, secondId))
+            .orElseThrow();
+    second.setConfirmed(true);
+    second.setConfirmedDate(START);
+    programParticipantRepository.save(second);
+    assertThat(confirmedCount(recurrenceId)).isEqualTo(2);
+
+    second = programParticipantRepository.findById(second.getProgramParticipantId()).orElseThrow();
+    second.setConfirmed(false);
+    second.setConfirmedDate(null);
+    programParticipantRepository.save(second);
+    assertThat(confirmedCount(recurrenceId)).isEqualTo(1);
+
+    jdbcTemplate.update("DELETE FROM program_participants WHERE recurrence_id = ?", recurrenceId);
+    assertThat(confirmedCount(recurrenceId)).isZero();
+  }
+
+  @Test
+  void findOpenRecurrences_shouldOnlyReturnRecurrencesBelowCapacity() {
+    ProgramRecurrence full = saveRecurrence(ProgramType.TRAINING, 1);
+    ProgramRecurrence open = saveRecurrence(ProgramType.TRAINING, 2);
+    ProgramRecurrence tournament = saveRecurrence(ProgramType.TOURNAMENT, 2);
+    Integer playerId = saveAccount("player");
+    Integer coachId = saveAccount("coach");
+    saveParticipant(full.getRecurrenceId(), playerId, "Subscribed", true);
+    saveParticipant(open.getRecurrenceId(), playerId, "Subscribed", true);
+    saveParticipant(full.getRecurrenceId(), coachId, "Coach", false);
+    saveParticipant(tournament.getRecurrenceId(), coachId, "Coach", false);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(
+            programRecurrenceRepository.findOpenRecurrencesByProgramType(
+                ProgramType.TRAINING.name()))
+        .extracting(ProgramRecurrence::getRecurrenceId)
+        .contains(open.getRecurrenceId())
+        .doesNotContain(full.getRecurrenceId(), tournament.getRecurrenceId());
+    assertThat(
+            programRecurrenceRepository.findOpenRecurrencesByParticipant(
+                coachId, List.of("Coach", "Waitlisted")))
+        .extracting(ProgramRecurrence::getRecurrenceId)
+        .containsExactly(tournament.getRecurrenceId());
+  }
+}
@@ -0,0 +1,137 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.repositories.programsessions.ProgramInvitationWriter.InvitedAccount;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the invitation of accounts to a private program with one statement. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramInvitationWriter.class)
+public class ProgramInvitationWriterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ProgramInvitationWriter programInvitationWriter;
+
+  private Integer saveAccount(String name, String type) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+        VALUES (?, ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+        """,
+        Integer.class,
+        type,
+        name + "@test.com",
+        "auth0|" + name,
+        name);
+  }
+
+  private Integer saveProgram(String type) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO program (type, title, author, capacity, occurence_date, duration,
+            visibility)
+        VALUES (CAST(? AS program_type), 'Team Event', 'Test Coach', 60, now(), 60, 'private')
+        RETURNING program_id
+        """,
+        Integer.class,
+        type);
+  }
+
+  private Integer saveRecurrence(Integer programId, int week) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO program_recurrence (program_id, occurrence_date)
+        VALUES (?, now() + make_interval(weeks => ?)) RETURNING recurrence_id
+        """,
+        Integer.class,
+        programId,
+        week);
+  }
+
+  @Test
+  void invite_shouldAddNewParticipantsAndReportExistingOnes() {
+    Integer recurrenceId = saveRecurrence(saveProgram("TOURNAMENT"), 0);
+    Integer playerId = saveAccount("player", "PLAYER");
+    Integer coachId = saveAccount("coach", "COACH");
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed,
+            confirm_date)
+        VALUES (?, ?, 'COACH', TRUE, now())
+        """,
+        recurrenceId,
+        coachId);
+
+    List<InvitedAccount> invited =
+        programInvitationWriter.inviteToRecurrence(
+            recurrenceId, List.of(playerId, coachId, -1), false);
+
+    assertThat(invited)
+        .containsExactlyInAnyOrder(
+            new InvitedAccount(playerId, "player@test.com", true, false),
+            new InvitedAccount(coachId, "coach@test.com", false, true));
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT type FROM program_participants WHERE recurrence_id = ? AND account_id = ?",
+                String.class,
+                recurrenceId,
+                playerId))
+        .isEqualTo("PLAYER");
+  }
+
+  @Test
+  void invite_shouldConfirmTrainingParticipantsInEveryRecurrence() {
+    Integer programId = saveProgram("TRAINING");
+    Integer firstId = saveRecurrence(programId, 0);
+    Integer secondId = saveRecurrence(programId, 1);
+    Integer playerId = saveAccount("trainee", "PLAYER");
+
+    List<InvitedAccount> invited =
+        programInvitationWriter.inviteToProgramRecurrences(programId, List.of(playerId), true);
+
+    assertThat(invited)
+        .containsExactly(new InvitedAccount(playerId, "trainee@test.com", true, false));
+    assertThat(
+            jdbcTemplate.queryForList(
+                """
+                SELECT recurrence_id FROM program_participants
+                WHERE account_id = ? AND type = 'Subscribed' AND is_confirmed
+                """,
+                Integer.class,
+                playerId))
+        .containsExactlyInAnyOrder(firstId, secondId);
+  }
+}
@@ -0,0 +1,160 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the chunked purge of the programs marked deleted. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramPurgeWriter.class)
+public class ProgramPurgeWriterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2030, 9, 2, 18, 0, 0, 0, ZoneOffset.UTC);
+
+  private static final String ATTACHMENT_URL = "https://bucket.s3.amazonaws.com/1/plan.pdf";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ProgramPurgeWriter programPurgeWriter;
+
+  private Integer accountId;
+
+  @BeforeEach
+  void setUp() {
+    accountId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+            VALUES ('COACH', 'purge@test.com', 'auth0|purge', '5140000000', 'Test', 'Coach')
+            RETURNING account_id
+            """,
+            Integer.class);
+  }
+
+  private Integer saveProgram(int recurrences) {
+    Integer programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration,
+                expiry_date, frequency)
+            VALUES ('TRAINING', 'Weekly Training', 'Test Coach', 10, ?, 60, ?, 'weekly')
+            RETURNING program_id
+            """,
+            Integer.class,
+            START.toOffsetDateTime(),
+            START.plusWeeks(recurrences - 1).toOffsetDateTime());
+    for (int week = 0; week < recurrences; week++) {
+      Integer recurrenceId =
+          jdbcTemplate.queryForObject(
+              """
+              INSERT INTO program_recurrence (program_id, occurrence_date)
+              VALUES (?, ?) RETURNING recurrence_id
+              """,
+              Integer.class,
+              programId,
+              START.plusWeeks(week).toOffsetDateTime());
+      jdbcTemplate.update(
+          """
+          INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed)
+          VALUES (?, ?, 'Coach', FALSE)
+          """,
+          recurrenceId,
+          accountId);
+    }
+    jdbcTemplate.update(
+        """
+        INSERT INTO post (account_id, title, description, type, occurrence_date, program_id)
+        VALUES (?, 'Weekly Training', 'Season program', 'TRAINING', ?, ?)
+        """,
+        accountId,
+        START.toOffsetDateTime(),
+        programId);
+    return programId;
+  }
+
+  private int count(String sql, Object... args) {
+    return jdbcTemplate.queryForObject(sql, Integer.class, args);
+  }
+
+  @Test
+  void purge_shouldRemoveEveryRowOfTheDeletedProgramOnly() {
+    Integer programId = saveProgram(3);
+    Integer keptId = saveProgram(1);
+    jdbcTemplate.update(
+        "INSERT INTO program_attachments (program_id, attachment_url) VALUES (?, ?)",
+        programId,
+        ATTACHMENT_URL);
+    jdbcTemplate.update("INSERT INTO blob (blob_url) VALUES (?)", ATTACHMENT_URL);
+    jdbcTemplate.update(
+        "UPDATE program SET deleted_at = CURRENT_TIMESTAMP WHERE program_id = ?", programId);
+    int tombstones =
+        count("SELECT COUNT(*) FROM program_tombstone WHERE program_id = ?", programId);
+
+    assertThat(programPurgeWriter.findDeletedProgramIds(10)).containsExactly(programId);
+    assertThat(programPurgeWriter.deleteRecurrences(programId, 2)).isEqualTo(2);
+    assertThat(programPurgeWriter.deleteRecurrences(programId, 2)).isEqualTo(1);
+    assertThat(programPurgeWriter.deleteRecurrences(programId, 2)).isZero();
+    List<String> attachmentUrls = programPurgeWriter.findAttachmentUrls(programId, 2);
+    assertThat(attachmentUrls).containsExactly(ATTACHMENT_URL);
+    assertThat(programPurgeWriter.deleteAttachments(programId, attachmentUrls)).isEqualTo(1);
+    assertThat(programPurgeWriter.deleteProgram(programId)).isTrue();
+
+    assertThat(count("SELECT COUNT(*) FROM program WHERE program_id = ?", programId)).isZero();
+    assertThat(count("SELECT COUNT(*) FROM program_participants WHERE account_id = ?", accountId))
+        .isEqualTo(1);
+    assertThat(count("SELECT COUNT(*) FROM program_attachments")).isZero();
+    assertThat(count("SELECT COUNT(*) FROM blob WHERE blob_url = ?", ATTACHMENT_URL)).isZero();
+    assertThat(count("SELECT COUNT(*) FROM post WHERE account_id = ?", accountId)).isEqualTo(1);
+    assertThat(count("SELECT COUNT(*) FROM program_recurrence WHERE program_id = ?", keptId))
+        .isEqualTo(1);
+    // The tombstone was written when the program was marked deleted, the purge adds none
+    assertThat(tombstones).isEqualTo(1);
+    assertThat(count("SELECT COUNT(*) FROM program_tombstone WHERE program_id = ?", programId))
+        .isEqualTo(1);
+    assertThat(programPurgeWriter.findDeletedProgramIds(10)).isEmpty();
+  }
+
+  @Test
+  void deleteProgram_shouldKeepProgramsThatAreNotMarkedDeleted() {
+    Integer programId = saveProgram(1);
+
+    assertThat(programPurgeWriter.findDeletedProgramIds(10)).isEmpty();
+    assertThat(programPurgeWriter.deleteProgram(programId)).isFalse();
+    assertThat(count("SELECT COUNT(*) FROM program WHERE program_id = ?", programId)).isEqualTo(1);
+  }
+}
@@ -0,0 +1,170 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.ProgramType;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Integration test for ProgramRecurrenceBulkWriter. It also times the creation of a year of daily
+ * recurrences with the former row-by-row saves and with the bulk writer.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramRecurrenceBulkWriter.class)
+public class ProgramRecurrenceBulkWriterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2025, 1, 1, 18, 0, 0, 0, ZoneId.of("UTC"));
+
+  @Autowired private ProgramRepository programRepository;
+
+  @Autowired private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Autowired private ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+
+  private Program saveProgram() {
+    return programRepository.save(
+        Program.builder()
+            .programType(ProgramType.TRAINING)
+            .title("Daily Training")
+            .author("Test Coach")
+            .capacity(20)
+            .occurrenceDate(START)
+            .durationMins(60)
+            .expiryDate(START.plusDays(364))
+            .frequency("daily")
+            .location("Gym")
+            .visibility("public")
+            .build());
+  }
+
+  private List<ZonedDateTime> dailyOccurrences(int days) {
+    return IntStream.range(0, days).mapToObj(START::plusDays).toList();
+  }
+
+  @Test
+  void insertRecurrences_shouldReturnGeneratedIdsInOccurrenceOrder() {
+    Program program = saveProgram();
+    int rows = ProgramRecurrenceBulkWriter.MAX_ROWS_PER_STATEMENT + 5;
+
+    List<Integer> recurrenceIds =
+        programRecurrenceBulkWriter.insertRecurrences(
+            program.getProgramId(), dailyOccurrences(rows), false);
+
+    assertThat(recurrenceIds).hasSize(rows).doesNotHaveDuplicates();
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(program.getProgramId()))
+        .hasSize(rows);
+    assertOccurrenceDates(recurrenceIds, dailyOccurrences(rows));
+  }
+
+  /** Each returned id must be the recurrence of the occurrence date at the same position. */
+  private void assertOccurrenceDates(
+      List<Integer> recurrenceIds, List<ZonedDateTime> occurrenceDates) {
+    Map<Integer, Instant> storedDates =
+        programRecurrenceRepository.findAllById(recurrenceIds).stream()
+            .collect(
+                Collectors.toMap(
+                    ProgramRecurrence::getRecurrenceId,
+                    recurrence -> recurrence.getOccurrenceDate().toInstant()));
+    assertThat(recurrenceIds.stream().map(storedDates::get).toList())
+        .isEqualTo(occurrenceDates.stream().map(ZonedDateTime::toInstant).toList());
+  }
+
+  @Test
+  void insertRecurrences_shouldShareStatementsBetweenPrograms() {
+    Program first = saveProgram();
+    Program second = saveProgram();
+    Map<Integer, List<ZonedDateTime>> occurrenceDates = new LinkedHashMap<>();
+    occurrenceDates.put(first.getProgramId(), dailyOccurrences(3));
+    occurrenceDates.put(second.getProgramId(), dailyOccurrences(2));
+
+    int inserted = programRecurrenceBulkWriter.insertRecurrences(occurrenceDates);
+
+    assertThat(inserted).isEqualTo(5);
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(first.getProgramId()))
+        .hasSize(3);
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(second.getProgramId()))
+        .hasSize(2);
+  }
+
+  @Test
+  void insertRecurrences_shouldInsertTheSameRowsAsRowByRowSaves() {
+    List<ZonedDateTime> occurrenceDates = dailyOccurrences(365);
+    // Warm up both paths so that the timings do not include connection and statement setup.
+    programRecurrenceRepository.save(
+        new ProgramRecurrence(saveProgram().getProgramId(), START, false));
+    programRecurrenceBulkWriter.insertRecurrences(
+        saveProgram().getProgramId(), occurrenceDates.subList(0, 1), false);
+
+    Integer rowByRowProgramId = saveProgram().getProgramId();
+    long rowByRowStart = System.nanoTime();
+    List<ProgramRecurrence> saved = new ArrayList<>();
+    for (ZonedDateTime occurrenceDate : occurrenceDates) {
+      saved.add(
+          programRecurrenceRepository.save(
+              new ProgramRecurrence(rowByRowProgramId, occurrenceDate, false)));
+    }
+    long rowByRowMillis = (System.nanoTime() - rowByRowStart) / 1_000_000;
+
+    Integer bulkProgramId = saveProgram().getProgramId();
+    long bulkStart = System.nanoTime();
+    List<Integer> inserted =
+        programRecurrenceBulkWriter.insertRecurrences(bulkProgramId, occurrenceDates, false);
+    long bulkMillis = (System.nanoTime() - bulkStart) / 1_000_000;
+
+    log.info(
+        "Created {} recurrences: row by row {} ms, bulk writer {} ms",
+        occurrenceDates.size(),
+        rowByRowMillis,
+        bulkMillis);
+
+    // Timings are only logged: wall-clock comparisons are not reliable on shared runners.
+    assertThat(saved).hasSize(occurrenceDates.size());
+    assertThat(inserted).hasSize(occurrenceDates.size()).doesNotHaveDuplicates();
+    assertThat(programRecurrenceRepository.findProgramRecurrenceByProgramId(bulkProgramId))
+        .hasSize(occurrenceDates.size());
+    assertOccurrenceDates(inserted, occurrenceDates);
+  }
+}
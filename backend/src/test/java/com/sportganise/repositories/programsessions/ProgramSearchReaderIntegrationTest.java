@@ -0,0 +1,154 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.MatchingProgram;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.ProgramSearchCriteria;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the filters and pages of the program search. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramSearchReader.class)
+public class ProgramSearchReaderIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ProgramSearchReader programSearchReader;
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2030, 9, 2, 18, 0, 0, 0, ZoneOffset.UTC);
+
+  private static final ProgramSearchCriteria ALL =
+      new ProgramSearchCriteria(null, null, null, null, null, null, null);
+
+  private Integer saveProgram(
+      String type,
+      String title,
+      String description,
+      String location,
+      ZonedDateTime occurrenceDate,
+      ZonedDateTime expiryDate,
+      boolean cancelled) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO program (type, title, description, author, capacity, occurence_date,
+            duration, expiry_date, frequency, location, visibility, cancelled)
+        VALUES (CAST(? AS program_type), ?, ?, 'Test Coach', 10, ?, 60, ?, ?, ?, 'public', ?)
+        RETURNING program_id
+        """,
+        Integer.class,
+        type,
+        title,
+        description,
+        occurrenceDate.toOffsetDateTime(),
+        expiryDate != null ? expiryDate.toOffsetDateTime() : null,
+        expiryDate != null ? "weekly" : "once",
+        location,
+        cancelled);
+  }
+
+  private List<Integer> search(ProgramSearchCriteria criteria) {
+    return programSearchReader.search(criteria, null, null, 100).stream()
+        .map(MatchingProgram::programId)
+        .toList();
+  }
+
+  @Test
+  void search_shouldOnlyReturnProgramsMatchingEveryFilter() {
+    Integer swim =
+        saveProgram("TRAINING", "Swim Training", "Laps at 50% pace", "Pool", START, null, false);
+    Integer weekly =
+        saveProgram(
+            "TRAINING",
+            "Weekly Practice",
+            "Swimming drills",
+            "pool",
+            START.minusWeeks(4),
+            START.plusWeeks(4),
+            false);
+    Integer cancelled =
+        saveProgram("TRAINING", "Swim Clinic", null, "Pool", START.plusDays(1), null, true);
+    Integer tournament =
+        saveProgram("TOURNAMENT", "Cup", "Open swim tournament", "Field", START, null, false);
+    Integer past =
+        saveProgram("TRAINING", "Swim Camp", null, "Pool", START.minusWeeks(2), null, false);
+
+    assertThat(search(new ProgramSearchCriteria(null, null, null, null, null, null, "SWIM")))
+        .contains(swim, weekly, cancelled, tournament, past);
+    assertThat(
+            search(
+                new ProgramSearchCriteria(
+                    ProgramType.TRAINING, " POOL ", "public", false, START, null, "swim")))
+        .containsExactly(weekly, swim);
+    assertThat(search(new ProgramSearchCriteria(null, null, null, true, null, null, null)))
+        .contains(cancelled)
+        .doesNotContain(swim, weekly, tournament, past);
+    assertThat(
+            search(
+                new ProgramSearchCriteria(
+                    null, "pool", null, null, START.minusWeeks(3), START.minusWeeks(1), null)))
+        .containsExactly(weekly, past);
+    // The wildcards of LIKE in the text are matched as they are written
+    assertThat(search(new ProgramSearchCriteria(null, null, null, null, null, null, "50%")))
+        .containsExactly(swim);
+  }
+
+  @Test
+  void search_shouldPageThroughProgramsSharingTheirFirstOccurrence() {
+    String location = "Paged Gym";
+    List<Integer> programIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      programIds.add(saveProgram("TRAINING", "Paged " + i, null, location, START, null, false));
+    }
+    ProgramSearchCriteria criteria =
+        new ProgramSearchCriteria(null, location, null, null, null, null, null);
+
+    List<Integer> found = new ArrayList<>();
+    List<MatchingProgram> page = programSearchReader.search(criteria, null, null, 2);
+    while (!page.isEmpty()) {
+      page.forEach(program -> found.add(program.programId()));
+      MatchingProgram last = page.getLast();
+      page = programSearchReader.search(criteria, last.occurrenceDate(), last.programId(), 2);
+    }
+
+    assertThat(found).isEqualTo(programIds);
+    assertThat(programSearchReader.search(ALL, START, programIds.getLast(), 100))
+        .extracting(MatchingProgram::programId)
+        .doesNotContainAnyElementsOf(programIds);
+  }
+}
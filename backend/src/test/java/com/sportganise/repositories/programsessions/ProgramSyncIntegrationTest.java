@@ -0,0 +1,160 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.dto.programsessions.ProgramChangesDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramTombstoneDto;
+import com.sportganise.services.programsessions.ProgramCalendarAssembler;
+import com.sportganise.services.programsessions.ProgramSyncService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Integration test for the watermark of the delta sync when transactions commit out of order. The
+ * transactions run on their own connections and are committed, so the test is not run in a test
+ * transaction and its programs are deleted after it.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProgramSyncService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProgramSyncIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private DataSource dataSource;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ProgramSyncService programSyncService;
+
+  @MockBean private ProgramCalendarAssembler programCalendarAssembler;
+
+  private final List<String> syncedTitles = new ArrayList<>();
+
+  private final List<Integer> syncedTombstones = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM program WHERE title LIKE 'Sync %'");
+  }
+
+  private static Connection begin(DataSource dataSource) throws SQLException {
+    Connection connection = dataSource.getConnection();
+    connection.setAutoCommit(false);
+    return connection;
+  }
+
+  private static void insertProgram(Connection connection, String title) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            """
+            INSERT INTO program (type, title, author, occurence_date, duration)
+            VALUES ('TRAINING', ?, 'Test Coach', now(), 60)
+            """)) {
+      statement.setString(1, title);
+      statement.executeUpdate();
+    }
+  }
+
+  private static void deleteProgram(Connection connection, Integer programId) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement("DELETE FROM program WHERE program_id = ?")) {
+      statement.setInt(1, programId);
+      statement.executeUpdate();
+    }
+  }
+
+  /** Syncs every change after the watermark, as a client would, and returns the next watermark. */
+  private long sync(long watermark) {
+    ProgramChangesDto changes;
+    do {
+      changes = programSyncService.getChangesSince(watermark, ProgramSyncService.MAX_LIMIT);
+      changes.getPrograms().stream().map(ProgramDto::getTitle).forEach(syncedTitles::add);
+      changes.getTombstones().stream()
+          .map(ProgramTombstoneDto::getEntityId)
+          .forEach(syncedTombstones::add);
+      watermark = changes.getWatermark();
+    } while (changes.isHasMore());
+    return watermark;
+  }
+
+  @Test
+  void getChangesSince_shouldReturnChangesCommittedOutOfOrder() throws SQLException {
+    Integer deletedId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, occurence_date, duration)
+            VALUES ('TRAINING', 'Sync Deleted', 'Test Coach', now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class);
+    long watermark = sync(0);
+    syncedTitles.clear();
+    syncedTombstones.clear();
+
+    try (Connection earliest = begin(dataSource);
+        Connection slowest = begin(dataSource);
+        Connection fastest = begin(dataSource)) {
+      insertProgram(earliest, "Sync Earliest");
+      insertProgram(slowest, "Sync Slowest");
+      insertProgram(fastest, "Sync Fastest");
+      deleteProgram(fastest, deletedId);
+      fastest.commit();
+      // Started before the slowest transaction, but changed again and committed after it began.
+      insertProgram(earliest, "Sync Earliest Again");
+      earliest.commit();
+
+      watermark = sync(watermark);
+
+      assertThat(syncedTitles).containsExactly("Sync Earliest", "Sync Earliest Again");
+      assertThat(syncedTombstones).isEmpty();
+
+      slowest.commit();
+    }
+
+    sync(watermark);
+
+    assertThat(syncedTitles)
+        .containsExactlyInAnyOrder(
+            "Sync Earliest", "Sync Earliest Again", "Sync Slowest", "Sync Fastest");
+    assertThat(syncedTombstones).containsExactly(deletedId);
+  }
+}
@@ -0,0 +1,150 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.dto.programsessions.AttendanceDto;
+import com.sportganise.repositories.programsessions.RosterAttendanceWriter.MarkedAttendance;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the attendance of a roster applied with a single statement. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RosterAttendanceWriter.class)
+public class RosterAttendanceWriterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private RosterAttendanceWriter rosterAttendanceWriter;
+
+  private Integer recurrenceId;
+  private Integer presentId;
+  private Integer absentId;
+  private Integer outsiderId;
+
+  private Integer saveAccount(String name) {
+    return jdbcTemplate.queryForObject(
+        """
+        INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+        VALUES ('PLAYER', ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+        """,
+        Integer.class,
+        name + "@test.com",
+        "auth0|" + name,
+        name);
+  }
+
+  private void saveParticipant(Integer accountId, boolean confirmed) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed,
+            confirm_date)
+        VALUES (?, ?, 'Subscribed', ?, CASE WHEN ? THEN now() END)
+        """,
+        recurrenceId,
+        accountId,
+        confirmed,
+        confirmed);
+  }
+
+  private boolean isConfirmed(Integer accountId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT is_confirmed FROM program_participants WHERE recurrence_id = ? AND account_id = ?",
+        Boolean.class,
+        recurrenceId,
+        accountId);
+  }
+
+  @BeforeEach
+  void setUp() {
+    Integer programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TRAINING', 'Training', 'Test Coach', 10, now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class);
+    recurrenceId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program_recurrence (program_id, occurrence_date)
+            VALUES (?, now()) RETURNING recurrence_id
+            """,
+            Integer.class,
+            programId);
+    presentId = saveAccount("present");
+    absentId = saveAccount("absent");
+    outsiderId = saveAccount("outsider");
+    saveParticipant(presentId, false);
+    saveParticipant(absentId, true);
+  }
+
+  @Test
+  void markAttendance_shouldApplyRosterAndReportChanges() {
+    List<MarkedAttendance> marked =
+        rosterAttendanceWriter.markAttendance(
+            recurrenceId,
+            List.of(new AttendanceDto(presentId, true), new AttendanceDto(absentId, false)));
+
+    Map<Integer, MarkedAttendance> byAccount =
+        marked.stream()
+            .collect(
+                Collectors.toMap(
+                    attendance -> attendance.participant().getAccountId(),
+                    attendance -> attendance));
+    assertThat(byAccount).containsOnlyKeys(presentId, absentId);
+    assertThat(byAccount.get(presentId).participant().isConfirmed()).isTrue();
+    assertThat(byAccount.get(presentId).participant().getConfirmedDate()).isNotNull();
+    assertThat(byAccount.get(absentId).participant().isConfirmed()).isFalse();
+    assertThat(byAccount.get(absentId).participant().getConfirmedDate()).isNull();
+    assertThat(marked).allMatch(MarkedAttendance::changed);
+    assertThat(isConfirmed(presentId)).isTrue();
+    assertThat(isConfirmed(absentId)).isFalse();
+  }
+
+  @Test
+  void markAttendance_shouldLeaveUnchangedParticipantsAndSkipNonParticipants() {
+    List<MarkedAttendance> marked =
+        rosterAttendanceWriter.markAttendance(
+            recurrenceId,
+            List.of(new AttendanceDto(absentId, true), new AttendanceDto(outsiderId, true)));
+
+    assertThat(marked).hasSize(1);
+    assertThat(marked.getFirst().participant().getAccountId()).isEqualTo(absentId);
+    assertThat(marked.getFirst().changed()).isFalse();
+    assertThat(marked.getFirst().participant().isConfirmed()).isTrue();
+  }
+}
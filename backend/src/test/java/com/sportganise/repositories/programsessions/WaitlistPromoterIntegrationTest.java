@@ -0,0 +1,134 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sportganise.repositories.programsessions.WaitlistPromoter.Promotion;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Integration test for the promotion of waitlisted participants into free spots. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WaitlistPromoter.class, WaitlistQueue.class})
+public class WaitlistPromoterIntegrationTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private WaitlistPromoter waitlistPromoter;
+
+  @Autowired private WaitlistQueue waitlistQueue;
+
+  private Integer saveRecurrence(int capacity, String occurrenceDate) {
+    Integer programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TRAINING', 'Popular Training', 'Test Coach', ?, now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class,
+            capacity);
+    return jdbcTemplate.queryForObject(
+        "INSERT INTO program_recurrence (program_id, occurrence_date) VALUES (?, "
+            + occurrenceDate
+            + ") RETURNING recurrence_id",
+        Integer.class,
+        programId);
+  }
+
+  private Integer saveParticipant(Integer recurrenceId, String name, boolean confirmed) {
+    Integer accountId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+            VALUES ('PLAYER', ?, ?, '5140000000', ?, 'Player') RETURNING account_id
+            """,
+            Integer.class,
+            name + "@test.com",
+            "auth0|" + name,
+            name);
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed,
+            confirm_date)
+        VALUES (?, ?, ?, ?, CASE WHEN ? THEN now() END)
+        """,
+        recurrenceId,
+        accountId,
+        confirmed ? "Subscribed" : "Waitlisted",
+        confirmed,
+        confirmed);
+    if (!confirmed) {
+      waitlistQueue.optIn(recurrenceId, accountId);
+    }
+    return accountId;
+  }
+
+  private List<Integer> queue(Integer recurrenceId) {
+    return jdbcTemplate.queryForList(
+        "SELECT account_id FROM waitlist_position WHERE recurrence_id = ? ORDER BY rank",
+        Integer.class,
+        recurrenceId);
+  }
+
+  @Test
+  void promoteNext_shouldConfirmFirstRankedParticipantsUpToCapacity() {
+    Integer recurrenceId = saveRecurrence(3, "now() + interval '1 day'");
+    saveParticipant(recurrenceId, "confirmed", true);
+    Integer first = saveParticipant(recurrenceId, "first", false);
+    Integer second = saveParticipant(recurrenceId, "second", false);
+    Integer third = saveParticipant(recurrenceId, "third", false);
+
+    Promotion promotion = waitlistPromoter.promoteNext(recurrenceId);
+
+    assertThat(promotion.accountIds()).containsExactlyInAnyOrder(first, second);
+    assertThat(promotion.title()).isEqualTo("Popular Training");
+    assertThat(queue(recurrenceId)).containsExactly(third);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT confirmed_count FROM program_recurrence WHERE recurrence_id = ?",
+                Integer.class,
+                recurrenceId))
+        .isEqualTo(3);
+
+    assertThat(waitlistPromoter.promoteNext(recurrenceId).accountIds()).isEmpty();
+  }
+
+  @Test
+  void promoteNext_shouldNotPromoteIntoPastRecurrences() {
+    Integer recurrenceId = saveRecurrence(2, "now() - interval '1 day'");
+    Integer waitlisted = saveParticipant(recurrenceId, "late", false);
+
+    assertThat(waitlistPromoter.promoteNext(recurrenceId).accountIds()).isEmpty();
+    assertThat(queue(recurrenceId)).containsExactly(waitlisted);
+  }
+}
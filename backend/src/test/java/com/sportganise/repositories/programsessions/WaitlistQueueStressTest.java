@@ -0,0 +1,240 @@
+package com.sportganise.repositories.programsessions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Concurrency stress test for WaitlistQueue. Hundreds of opt-ins of the same recurrence run in
+ * parallel, each in its own transaction, and must end up with unique opt-in sequence numbers and
+ * dense ranks in the queue. The throughput of the opt-ins is logged. The test data is committed, so
+ * it is not run in a test transaction and is deleted after each test.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(WaitlistQueue.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WaitlistQueueStressTest {
+  /** PostgreSQL test container. */
+  @SuppressWarnings("resource")
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+          .withInitScript("init.sql");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void setProperties(DynamicPropertyRegistry dynamicPropertyRegistry) {
+    dynamicPropertyRegistry.add("spring.datasource.url", postgres::getJdbcUrl);
+    dynamicPropertyRegistry.add("spring.datasource.username", postgres::getUsername);
+    dynamicPropertyRegistry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  private static final int PARTICIPANTS = 300;
+  private static final int THREADS = 32;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private WaitlistQueue waitlistQueue;
+
+  private Integer programId;
+  private Integer recurrenceId;
+  private List<Integer> accountIds;
+
+  @BeforeEach
+  void setUp() {
+    programId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program (type, title, author, capacity, occurence_date, duration)
+            VALUES ('TRAINING', 'Popular Training', 'Test Coach', 10, now(), 60)
+            RETURNING program_id
+            """,
+            Integer.class);
+    recurrenceId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO program_recurrence (program_id, occurrence_date)
+            VALUES (?, now()) RETURNING recurrence_id
+            """,
+            Integer.class,
+            programId);
+    accountIds =
+        jdbcTemplate.queryForList(
+            """
+            INSERT INTO account (type, email, auth0_id, phone, first_name, last_name)
+            SELECT 'PLAYER', 'stress' || n || '@test.com', 'auth0|stress' || n, '5140000000',
+                'Player', 'Number ' || n
+            FROM generate_series(1, ?) n
+            RETURNING account_id
+            """,
+            Integer.class,
+            PARTICIPANTS);
+    jdbcTemplate.update(
+        """
+        INSERT INTO program_participants (recurrence_id, account_id, type, is_confirmed)
+        SELECT ?, account_id, 'Waitlisted', FALSE FROM account
+        WHERE email LIKE 'stress%@test.com'
+        """,
+        recurrenceId);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM program WHERE program_id = ?", programId);
+    jdbcTemplate.update("DELETE FROM account WHERE email LIKE 'stress%@test.com'");
+  }
+
+  private List<Integer> queueRanks() {
+    return jdbcTemplate.queryForList(
+        "SELECT rank FROM waitlist_position WHERE recurrence_id = ?", Integer.class, recurrenceId);
+  }
+
+  private List<Long> optInSequence() {
+    return jdbcTemplate.queryForList(
+        "SELECT opt_in_seq FROM program_participants"
+            + " WHERE recurrence_id = ? AND opt_in_seq IS NOT NULL",
+        Long.class,
+        recurrenceId);
+  }
+
+  /** Takes a participant out of the queue the way an opt-out or a confirmation does. */
+  private int optOut(Integer accountId) {
+    return jdbcTemplate.update(
+        "UPDATE program_participants SET opt_in_seq = NULL"
+            + " WHERE recurrence_id = ? AND account_id = ?",
+        recurrenceId,
+        accountId);
+  }
+
+  private static List<Integer> ranksUpTo(int count) {
+    return IntStream.rangeClosed(1, count).boxed().toList();
+  }
+
+  /** Runs the tasks on a thread pool, all released at once, and returns their results. */
+  private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startGate = new CountDownLatch(1);
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (Callable<T> task : tasks) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  startGate.await();
+                  return task.call();
+                }));
+      }
+      startGate.countDown();
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void optIn_shouldQueueConcurrentOptInsWithDenseRanks() throws Exception {
+    List<Callable<Integer>> optIns =
+        accountIds.stream()
+            .<Callable<Integer>>map(accountId -> () -> waitlistQueue.optIn(recurrenceId, accountId))
+            .toList();
+
+    long start = System.nanoTime();
+    List<Integer> ranks = runConcurrently(optIns);
+    long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+    log.info(
+        "{} concurrent opt-ins on {} threads in {} ms ({} opt-ins/s)",
+        PARTICIPANTS,
+        THREADS,
+        millis,
+        PARTICIPANTS * 1000L / millis);
+
+    // A returned rank may miss opt-ins that were not committed yet, never the other way around
+    assertThat(ranks).doesNotContainNull().allMatch(rank -> rank >= 1 && rank <= PARTICIPANTS);
+    assertThat(optInSequence()).hasSize(PARTICIPANTS).doesNotHaveDuplicates();
+    assertThat(queueRanks()).containsExactlyInAnyOrderElementsOf(ranksUpTo(PARTICIPANTS));
+  }
+
+  @Test
+  void optIn_shouldGiveOneRankToRepeatedOptInsOfAParticipant() throws Exception {
+    Integer accountId = accountIds.getFirst();
+    List<Callable<Integer>> optIns =
+        Collections.nCopies(THREADS, () -> waitlistQueue.optIn(recurrenceId, accountId));
+
+    List<Integer> ranks = runConcurrently(optIns);
+
+    assertThat(ranks.stream().filter(Objects::nonNull).toList()).containsExactly(1);
+    assertThat(optInSequence()).hasSize(1);
+    assertThat(queueRanks()).containsExactly(1);
+  }
+
+  @Test
+  void optOuts_shouldKeepRanksDenseWhileOthersOptIn() throws Exception {
+    int waitlisted = PARTICIPANTS * 2 / 3;
+    List<Integer> firstAccounts = accountIds.subList(0, waitlisted);
+    List<Integer> lateAccounts = accountIds.subList(waitlisted, PARTICIPANTS);
+    firstAccounts.forEach(accountId -> waitlistQueue.optIn(recurrenceId, accountId));
+
+    // Half of the waitlist opts out while the late participants opt in
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < firstAccounts.size(); i += 2) {
+      Integer accountId = firstAccounts.get(i);
+      tasks.add(() -> optOut(accountId));
+    }
+    int optOuts = tasks.size();
+    for (Integer accountId : lateAccounts) {
+      tasks.add(() -> waitlistQueue.optIn(recurrenceId, accountId));
+    }
+    Collections.shuffle(tasks);
+
+    long start = System.nanoTime();
+    runConcurrently(tasks);
+    long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+    log.info(
+        "{} concurrent opt-ins and opt-outs in {} ms ({} operations/s)",
+        tasks.size(),
+        millis,
+        tasks.size() * 1000L / millis);
+
+    int expected = waitlisted - optOuts + lateAccounts.size();
+    assertThat(optInSequence()).hasSize(expected).doesNotHaveDuplicates();
+    assertThat(queueRanks()).containsExactlyInAnyOrderElementsOf(ranksUpTo(expected));
+  }
+}
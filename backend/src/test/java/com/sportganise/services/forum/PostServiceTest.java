@@ -2,6 +2,7 @@ package com.sportganise.services.forum;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,6 +13,8 @@ import com.sportganise.dto.forum.ViewPostDto;
 import com.sportganise.entities.forum.Likes;
 import com.sportganise.entities.forum.Post;
 import com.sportganise.entities.forum.PostType;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramType;
 import com.sportganise.repositories.AccountRepository;
 import com.sportganise.repositories.forum.LikesRepository;
 import com.sportganise.repositories.forum.PostAttachmentRepository;
@@ -206,6 +209,40 @@ public class PostServiceTest {
     verify(likesRepository, times(1)).deleteByPostIdAndAccountId(postId, accountId);
   }
 
+  @Test
+  public void createNewPost_ShouldLinkThePostToTheProgram() {
+    ZonedDateTime occurrenceDate = ZonedDateTime.parse("2025-01-20T10:30:00Z");
+
+    postService.createNewPost(
+        2, "Fundraiser", "Bake sale", occurrenceDate, ProgramType.FUNDRAISER, 7);
+
+    verify(postRepository, times(1))
+        .insertPost(
+            argThat(
+                post ->
+                    post.getProgramId().equals(7)
+                        && post.getType() == PostType.FUNDRAISER
+                        && post.getMetadata().equals("{\"programID\":7}")));
+  }
+
+  @Test
+  public void updateProgramPost_ShouldCopyTheProgramToItsPost() {
+    ZonedDateTime occurrenceDate = ZonedDateTime.parse("2025-01-20T10:30:00Z");
+    Program program =
+        Program.builder()
+            .programId(7)
+            .title("Moved training")
+            .description("Now on Monday")
+            .programType(ProgramType.SPECIALTRAINING)
+            .occurrenceDate(occurrenceDate)
+            .build();
+
+    postService.updateProgramPost(program);
+
+    verify(postRepository, times(1))
+        .updateProgramPost(7, "Moved training", "Now on Monday", PostType.SPECIAL, occurrenceDate);
+  }
+
   @Test
   public void getThreeMonthsAgo_ShouldReturn_CorrectDate() throws Exception {
     Method method = PostService.class.getDeclaredMethod("getThreeMonthsAgo");
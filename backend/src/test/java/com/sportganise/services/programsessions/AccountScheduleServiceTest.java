@@ -0,0 +1,93 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.SchedulePageDto;
+import com.sportganise.repositories.programsessions.AccountScheduleReader;
+import com.sportganise.repositories.programsessions.AccountScheduleReader.UpcomingOccurrence;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountScheduleServiceTest {
+  @Mock private AccountScheduleReader accountScheduleReader;
+
+  private AccountScheduleService accountScheduleService;
+
+  private static final ZonedDateTime NOW =
+      ZonedDateTime.of(2025, 5, 15, 13, 45, 0, 0, ZoneOffset.UTC);
+
+  @BeforeEach
+  void setUp() {
+    Clock clock = Clock.fixed(Instant.parse("2025-05-15T13:45:00Z"), ZoneOffset.UTC);
+    accountScheduleService = new AccountScheduleService(accountScheduleReader, clock);
+  }
+
+  private static UpcomingOccurrence occurrence(int recurrenceId, int day) {
+    return new UpcomingOccurrence(
+        "recurrence-" + recurrenceId,
+        recurrenceId,
+        2,
+        "TRAINING",
+        "Training",
+        "Weekly training",
+        "Gym",
+        ZonedDateTime.of(2025, 5, day, 18, 0, 0, 0, ZoneOffset.UTC),
+        90,
+        false,
+        "Subscribed",
+        true);
+  }
+
+  @Test
+  void getSchedulePage_shouldReturnLastPageWithoutCursor() {
+    when(accountScheduleReader.findUpcoming(1, NOW, NOW, "", 3))
+        .thenReturn(List.of(occurrence(10, 20), occurrence(11, 27)));
+
+    SchedulePageDto page = accountScheduleService.getSchedulePage(1, null, null, 2);
+
+    assertEquals(2, page.getEntries().size());
+    assertEquals(10, page.getEntries().getFirst().getRecurrenceId());
+    assertEquals("Subscribed", page.getEntries().getFirst().getParticipantType());
+    assertNull(page.getNextCursorDate());
+    assertNull(page.getNextCursorUid());
+  }
+
+  @Test
+  void getSchedulePage_shouldReturnCursorOfLastEntryWhenMoreOccurrencesFollow() {
+    ZonedDateTime cursorDate = ZonedDateTime.of(2025, 5, 18, 18, 0, 0, 0, ZoneOffset.UTC);
+    when(accountScheduleReader.findUpcoming(1, NOW, cursorDate, "recurrence-9", 3))
+        .thenReturn(List.of(occurrence(10, 20), occurrence(11, 27), occurrence(12, 29)));
+
+    SchedulePageDto page = accountScheduleService.getSchedulePage(1, cursorDate, "recurrence-9", 2);
+
+    assertEquals(2, page.getEntries().size());
+    assertEquals(
+        ZonedDateTime.of(2025, 5, 27, 18, 0, 0, 0, ZoneOffset.UTC), page.getNextCursorDate());
+    assertEquals("recurrence-11", page.getNextCursorUid());
+  }
+
+  @Test
+  void getSchedulePage_shouldRejectPageSizeOutOfBounds() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> accountScheduleService.getSchedulePage(1, null, null, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            accountScheduleService.getSchedulePage(
+                1, null, null, AccountScheduleService.MAX_SCHEDULE_PAGE_SIZE + 1));
+
+    verify(accountScheduleReader, never()).findUpcoming(any(), any(), any(), any(), anyInt());
+  }
+}
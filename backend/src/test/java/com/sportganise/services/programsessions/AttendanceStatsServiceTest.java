@@ -0,0 +1,97 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.AttendanceStatsDto;
+import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
+import com.sportganise.repositories.programsessions.AttendanceStatsReader;
+import com.sportganise.repositories.programsessions.AttendanceStatsReader.MonthlyAttendance;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AttendanceStatsServiceTest {
+  @Mock private AttendanceStatsReader attendanceStatsReader;
+
+  @Mock private ProgramRepository programRepository;
+
+  @InjectMocks private AttendanceStatsService attendanceStatsService;
+
+  private static final YearMonth SEPTEMBER = YearMonth.of(2024, 9);
+  private static final YearMonth DECEMBER = YearMonth.of(2024, 12);
+
+  @Test
+  void getAccountStats_shouldSumMonthsAndComputeRates() {
+    when(attendanceStatsReader.findAccountAttendance(7, SEPTEMBER, DECEMBER))
+        .thenReturn(
+            List.of(new MonthlyAttendance(SEPTEMBER, 3, 1), new MonthlyAttendance(DECEMBER, 0, 0)));
+
+    AttendanceStatsDto stats = attendanceStatsService.getAccountStats(7, SEPTEMBER, DECEMBER);
+
+    assertEquals(3, stats.getConfirmedCount());
+    assertEquals(1, stats.getAbsentCount());
+    assertEquals(0.75, stats.getAttendanceRate());
+    assertEquals(2, stats.getMonths().size());
+    assertEquals(0.75, stats.getMonths().get(0).getAttendanceRate());
+    assertNull(stats.getMonths().get(1).getAttendanceRate());
+  }
+
+  @Test
+  void getAccountStats_shouldDefaultToTheLastTwelveMonths() {
+    YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+    YearMonth firstMonth = currentMonth.minusMonths(11);
+    when(attendanceStatsReader.findAccountAttendance(7, firstMonth, currentMonth))
+        .thenReturn(List.of());
+
+    AttendanceStatsDto stats = attendanceStatsService.getAccountStats(7, null, null);
+
+    assertEquals(firstMonth, stats.getFrom());
+    assertEquals(currentMonth, stats.getTo());
+    assertNull(stats.getAttendanceRate());
+    assertTrue(stats.getMonths().isEmpty());
+  }
+
+  @Test
+  void getAccountStats_shouldRejectInvalidRanges() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> attendanceStatsService.getAccountStats(7, DECEMBER, SEPTEMBER));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> attendanceStatsService.getAccountStats(7, SEPTEMBER, SEPTEMBER.plusMonths(60)));
+
+    verifyNoInteractions(attendanceStatsReader);
+  }
+
+  @Test
+  void getProgramStats_shouldReadTheProgramRollups() {
+    when(programRepository.existsById(3)).thenReturn(true);
+    when(attendanceStatsReader.findProgramAttendance(3, SEPTEMBER, DECEMBER))
+        .thenReturn(List.of(new MonthlyAttendance(SEPTEMBER, 8, 2)));
+
+    AttendanceStatsDto stats = attendanceStatsService.getProgramStats(3, SEPTEMBER, DECEMBER);
+
+    assertEquals(8, stats.getConfirmedCount());
+    assertEquals(2, stats.getAbsentCount());
+    assertEquals(0.8, stats.getAttendanceRate());
+  }
+
+  @Test
+  void getProgramStats_shouldThrowForUnknownProgram() {
+    when(programRepository.existsById(3)).thenReturn(false);
+
+    assertThrows(
+        ProgramNotFoundException.class,
+        () -> attendanceStatsService.getProgramStats(3, SEPTEMBER, DECEMBER));
+
+    verifyNoInteractions(attendanceStatsReader);
+  }
+}
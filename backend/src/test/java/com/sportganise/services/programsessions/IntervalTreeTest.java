@@ -0,0 +1,72 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+
+  private record Interval(long start, long end) {}
+
+  private static IntervalTree<Interval> treeOf(List<Interval> intervals) {
+    return IntervalTree.of(intervals, Interval::start, Interval::end);
+  }
+
+  @Test
+  void overlapping_shouldTreatIntervalsAsHalfOpen() {
+    Interval morning = new Interval(9, 12);
+    Interval noon = new Interval(12, 13);
+    Interval afternoon = new Interval(13, 17);
+    IntervalTree<Interval> tree = treeOf(List.of(afternoon, morning, noon));
+
+    assertEquals(List.of(morning), tree.overlapping(10, 12));
+    assertEquals(List.of(morning, noon), tree.overlapping(11, 13));
+    assertEquals(List.of(), tree.overlapping(17, 20));
+    assertEquals(List.of(), tree.overlapping(8, 9));
+    assertEquals(List.of(), tree.overlapping(12, 12));
+  }
+
+  @Test
+  void overlapping_shouldFindLongIntervalsStartingFarBefore() {
+    Interval allDay = new Interval(0, 100);
+    List<Interval> intervals = new ArrayList<>(List.of(allDay));
+    for (int i = 0; i < 50; i++) {
+      intervals.add(new Interval(i * 2L, i * 2L + 1));
+    }
+    IntervalTree<Interval> tree = treeOf(intervals);
+
+    assertEquals(List.of(allDay), tree.overlapping(99, 100));
+    assertEquals(List.of(allDay, new Interval(50, 51)), tree.overlapping(50, 51));
+  }
+
+  @Test
+  void overlapping_shouldMatchScanOfEveryInterval() {
+    Random random = new Random(42);
+    List<Interval> intervals = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      long start = random.nextInt(100_000);
+      intervals.add(new Interval(start, start + 1 + random.nextInt(500)));
+    }
+    IntervalTree<Interval> tree = treeOf(intervals);
+    assertEquals(intervals.size(), tree.size());
+
+    for (int i = 0; i < 500; i++) {
+      long from = random.nextInt(100_000);
+      long to = from + 1 + random.nextInt(1_000);
+      List<Interval> expected =
+          intervals.stream()
+              .filter(interval -> interval.start() < to && interval.end() > from)
+              .sorted(Comparator.comparingLong(Interval::start))
+              .toList();
+
+      List<Interval> found = tree.overlapping(from, to);
+
+      assertEquals(expected.size(), found.size());
+      assertTrue(found.containsAll(expected));
+    }
+  }
+}
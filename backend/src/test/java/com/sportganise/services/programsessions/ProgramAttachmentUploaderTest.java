@@ -0,0 +1,109 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.config.ExecutorConfig;
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.exceptions.FileProcessingException;
+import com.sportganise.repositories.programsessions.ProgramAttachmentBulkWriter;
+import com.sportganise.services.BlobService;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramAttachmentUploaderTest {
+  @Mock private BlobService blobService;
+
+  @Mock private ProgramAttachmentBulkWriter programAttachmentBulkWriter;
+
+  private ThreadPoolTaskExecutor executor;
+
+  private ProgramAttachmentUploader programAttachmentUploader;
+
+  @BeforeEach
+  void setUp() {
+    executor = new ExecutorConfig().attachmentUploadExecutor(3, 10);
+    executor.initialize();
+    programAttachmentUploader =
+        new ProgramAttachmentUploader(blobService, programAttachmentBulkWriter, executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  private static MultipartFile file(String name) {
+    return new MockMultipartFile(name, name, "application/pdf", name.getBytes());
+  }
+
+  @Test
+  void uploadAttachments_shouldUploadConcurrentlyAndInsertTheRowsOnce() throws Exception {
+    List<MultipartFile> files = List.of(file("a.pdf"), file("b.pdf"), file("c.pdf"));
+    // Every upload waits for the others to start, which only completes if they run concurrently.
+    CountDownLatch started = new CountDownLatch(files.size());
+    when(blobService.putFile(any(), eq(2)))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              assertTrue(started.await(5, TimeUnit.SECONDS));
+              MultipartFile file = invocation.getArgument(0);
+              return "https://bucket/2/" + file.getOriginalFilename();
+            });
+
+    List<ProgramAttachmentDto> attachments =
+        programAttachmentUploader.uploadAttachments(7, files, 2);
+
+    List<String> attachmentUrls =
+        List.of("https://bucket/2/a.pdf", "https://bucket/2/b.pdf", "https://bucket/2/c.pdf");
+    assertEquals(
+        attachmentUrls, attachments.stream().map(ProgramAttachmentDto::getAttachmentUrl).toList());
+    verify(blobService, times(1)).saveBlobs(attachmentUrls);
+    verify(programAttachmentBulkWriter, times(1)).insertAttachments(7, attachmentUrls);
+  }
+
+  @Test
+  void uploadAttachments_shouldDeleteTheUploadedFilesWhenAnUploadFails() throws Exception {
+    when(blobService.putFile(any(), eq(2)))
+        .thenAnswer(
+            invocation -> {
+              MultipartFile file = invocation.getArgument(0);
+              if (file.getOriginalFilename().equals("b.pdf")) {
+                throw new FileProcessingException("Error uploading file: b.pdf");
+              }
+              return "https://bucket/2/" + file.getOriginalFilename();
+            });
+
+    FileProcessingException exception =
+        assertThrows(
+            FileProcessingException.class,
+            () ->
+                programAttachmentUploader.uploadAttachments(
+                    7, List.of(file("a.pdf"), file("b.pdf"), file("c.pdf")), 2));
+
+    assertEquals("Error uploading file: b.pdf", exception.getMessage());
+    verify(blobService, times(1)).deleteFile("https://bucket/2/a.pdf");
+    verify(blobService, times(1)).deleteFile("https://bucket/2/c.pdf");
+    verify(blobService, never()).saveBlobs(any());
+    verifyNoInteractions(programAttachmentBulkWriter);
+  }
+
+  @Test
+  void uploadAttachments_shouldNotUploadWithoutFiles() {
+    assertTrue(programAttachmentUploader.uploadAttachments(7, null, 2).isEmpty());
+
+    verifyNoInteractions(blobService, programAttachmentBulkWriter);
+  }
+}
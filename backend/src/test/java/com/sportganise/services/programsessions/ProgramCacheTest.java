@@ -0,0 +1,113 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramCacheStatsDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ProgramCacheTest {
+
+  private static ProgramDto programDto(Integer programId) {
+    ProgramDto programDto = new ProgramDto();
+    programDto.setProgramId(programId);
+    return programDto;
+  }
+
+  @Test
+  void getProgram_shouldLoadOnlyOnMiss() {
+    ProgramCache programCache = new ProgramCache(10);
+    AtomicInteger loads = new AtomicInteger();
+
+    programCache.getProgram(1, id -> programDto(loads.incrementAndGet()));
+    ProgramDto cached = programCache.getProgram(1, id -> programDto(loads.incrementAndGet()));
+
+    assertEquals(1, loads.get());
+    assertEquals(1, cached.getProgramId());
+    ProgramCacheStatsDto stats = programCache.getStats();
+    assertEquals(1, stats.getHits());
+    assertEquals(1, stats.getMisses());
+  }
+
+  @Test
+  void getProgram_shouldNotCacheMissingPrograms() {
+    ProgramCache programCache = new ProgramCache(10);
+
+    assertNull(programCache.getProgram(1, id -> null));
+
+    assertEquals(0, programCache.getStats().getCachedPrograms());
+  }
+
+  @Test
+  void getProgram_shouldEvictLeastRecentlyUsedProgram() {
+    ProgramCache programCache = new ProgramCache(2);
+    programCache.getProgram(1, ProgramCacheTest::programDto);
+    programCache.getProgram(2, ProgramCacheTest::programDto);
+    programCache.getProgram(1, ProgramCacheTest::programDto);
+
+    programCache.getProgram(3, ProgramCacheTest::programDto);
+
+    AtomicInteger loads = new AtomicInteger();
+    programCache.getProgram(1, id -> programDto(loads.incrementAndGet()));
+    assertEquals(0, loads.get());
+    programCache.getProgram(2, id -> programDto(loads.incrementAndGet()));
+    assertEquals(1, loads.get());
+    assertEquals(2, programCache.getStats().getEvictions());
+    assertEquals(2, programCache.getStats().getCachedPrograms());
+  }
+
+  @Test
+  void invalidate_shouldEvictProgramAndAttachments() {
+    ProgramCache programCache = new ProgramCache(10);
+    programCache.getProgram(1, ProgramCacheTest::programDto);
+    programCache.getAttachments(1, id -> List.of(new ProgramAttachmentDto(1, "/file1.pdf")));
+
+    programCache.invalidate(1);
+
+    ProgramCacheStatsDto stats = programCache.getStats();
+    assertEquals(0, stats.getCachedPrograms());
+    assertEquals(0, stats.getCachedAttachmentLists());
+  }
+
+  @Test
+  void getProgram_shouldNotCacheLoadThatRacedWithInvalidation() {
+    ProgramCache programCache = new ProgramCache(10);
+
+    programCache.getProgram(
+        1,
+        id -> {
+          // The program changes while its old state is being loaded.
+          programCache.invalidate(1);
+          return programDto(id);
+        });
+
+    assertEquals(0, programCache.getStats().getCachedPrograms());
+  }
+
+  @Test
+  void getAttachments_shouldLoadMissingProgramsWithOneCallAndCacheEmptyLists() {
+    ProgramCache programCache = new ProgramCache(10);
+    programCache.getAttachments(1, id -> List.of(new ProgramAttachmentDto(1, "/file1.pdf")));
+    List<List<Integer>> loaderCalls = new ArrayList<>();
+
+    Map<Integer, List<ProgramAttachmentDto>> attachments =
+        programCache.getAttachments(
+            List.of(1, 2, 3),
+            ids -> {
+              loaderCalls.add(ids);
+              return Map.of(2, List.of(new ProgramAttachmentDto(2, "/file2.pdf")));
+            });
+    programCache.getAttachments(List.of(2, 3), ids -> Map.of());
+
+    assertEquals(List.of(List.of(2, 3)), loaderCalls);
+    assertEquals(1, attachments.get(1).size());
+    assertEquals(1, attachments.get(2).size());
+    assertTrue(attachments.get(3).isEmpty());
+    assertEquals(3, programCache.getStats().getHits());
+  }
+}
@@ -0,0 +1,264 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ProgramCalendarPageDto;
+import com.sportganise.dto.programsessions.ProgramDetailsParticipantsDto;
+import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.entities.programsessions.*;
+import com.sportganise.repositories.programsessions.ProgramAttachmentRepository;
+import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import java.time.*;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramCalendarAssemblerTest {
+  @Mock private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Mock private ProgramAttachmentRepository programAttachmentRepository;
+
+  @Mock private ProgramParticipantRepository programParticipantRepository;
+
+  @Spy private ProgramCache programCache = new ProgramCache(100);
+
+  @InjectMocks private ProgramCalendarAssembler programCalendarAssembler;
+
+  private List<Program> createMockPrograms() {
+    Program program1 =
+        Program.builder()
+            .programId(1)
+            .programType(ProgramType.TRAINING)
+            .title("First Program")
+            .description("First Description")
+            .capacity(10)
+            .occurrenceDate(
+                ZonedDateTime.of(
+                    LocalDate.of(2025, 5, 15), LocalTime.of(10, 0), ZoneId.systemDefault()))
+            .durationMins(60)
+            .frequency("Once")
+            .location("Location 1")
+            .visibility("public")
+            .build();
+
+    Program program2 =
+        Program.builder()
+            .programId(2)
+            .programType(ProgramType.FUNDRAISER)
+            .title("Second Program")
+            .description("Second Description")
+            .capacity(20)
+            .occurrenceDate(
+                ZonedDateTime.of(
+                    LocalDate.of(2025, 6, 15), LocalTime.of(14, 0), ZoneId.systemDefault()))
+            .durationMins(120)
+            .expiryDate(
+                ZonedDateTime.of(
+                    LocalDate.of(2025, 6, 29), LocalTime.of(14, 0), ZoneId.systemDefault()))
+            .frequency("weekly")
+            .location("Location 2")
+            .visibility("private")
+            .build();
+
+    return List.of(program1, program2);
+  }
+
+  private List<ProgramRecurrence> createMockRecurrences() {
+    ProgramRecurrence recurrence1 =
+        ProgramRecurrence.builder()
+            .recurrenceId(10)
+            .programId(2)
+            .occurrenceDate(
+                ZonedDateTime.of(
+                    LocalDate.of(2025, 6, 15), LocalTime.of(14, 0), ZoneId.systemDefault()))
+            .build();
+    ProgramRecurrence recurrence2 =
+        ProgramRecurrence.builder()
+            .recurrenceId(11)
+            .programId(2)
+            .occurrenceDate(
+                ZonedDateTime.of(
+                    LocalDate.of(2025, 6, 22), LocalTime.of(14, 0), ZoneId.systemDefault()))
+            .cancelled(true)
+            .build();
+    return List.of(recurrence1, recurrence2);
+  }
+
+  @Test
+  void assemblePrograms_shouldExpandRecurrencesWithOneQueryPerRelation() {
+    List<Program> programs = createMockPrograms();
+    when(programAttachmentRepository.findAttachmentsByProgramIds(List.of(1, 2)))
+        .thenReturn(
+            List.of(
+                new ProgramAttachment(new ProgramAttachmentCompositeKey(2, "/file1.pdf")),
+                new ProgramAttachment(new ProgramAttachmentCompositeKey(2, "/file2.pdf"))));
+    when(programRecurrenceRepository.findProgramRecurrencesByProgramIds(List.of(2)))
+        .thenReturn(createMockRecurrences());
+
+    List<ProgramDto> result = programCalendarAssembler.assemblePrograms(programs);
+
+    assertEquals(3, result.size());
+
+    ProgramDto firstProgram = result.getFirst();
+    assertEquals(1, firstProgram.getProgramId());
+    assertNull(firstProgram.getRecurrenceId());
+    assertEquals(ProgramType.TRAINING, firstProgram.getProgramType());
+    assertTrue(firstProgram.getProgramAttachments().isEmpty());
+
+    ProgramDto firstRecurrence = result.get(1);
+    assertEquals(2, firstRecurrence.getProgramId());
+    assertEquals(10, firstRecurrence.getRecurrenceId());
+    assertEquals("Second Program", firstRecurrence.getTitle());
+    assertEquals(2, firstRecurrence.getProgramAttachments().size());
+    assertFalse(firstRecurrence.isCancelled());
+
+    ProgramDto secondRecurrence = result.get(2);
+    assertEquals(11, secondRecurrence.getRecurrenceId());
+    assertTrue(secondRecurrence.isCancelled());
+
+    verify(programAttachmentRepository, times(1)).findAttachmentsByProgramIds(anyList());
+    verify(programRecurrenceRepository, times(1)).findProgramRecurrencesByProgramIds(anyList());
+    verify(programAttachmentRepository, never()).findAttachmentsByProgramId(any());
+    verify(programRecurrenceRepository, never()).findProgramRecurrenceByProgramId(any());
+  }
+
+  @Test
+  void assemblePrograms_shouldNotQueryWhenThereAreNoPrograms() {
+    List<ProgramDto> result = programCalendarAssembler.assemblePrograms(List.of());
+
+    assertTrue(result.isEmpty());
+    verifyNoInteractions(programAttachmentRepository, programRecurrenceRepository);
+  }
+
+  @Test
+  void assembleDetails_shouldGroupParticipantsByRecurrence() {
+    ProgramDto recurrence10 = new ProgramDto();
+    recurrence10.setProgramId(2);
+    recurrence10.setRecurrenceId(10);
+    ProgramDto recurrence11 = new ProgramDto();
+    recurrence11.setProgramId(2);
+    recurrence11.setRecurrenceId(11);
+    ProgramDto oneOff = new ProgramDto();
+    oneOff.setProgramId(1);
+
+    when(programParticipantRepository.findParticipantsByProgramIds(List.of(2)))
+        .thenReturn(
+            List.of(
+                new ProgramParticipant(
+                    new ProgramParticipantId(10, 101),
+                    null,
+                    "Subscribed",
+                    true,
+                    ZonedDateTime.now(),
+                    false),
+                new ProgramParticipant(
+                    new ProgramParticipantId(10, 102), null, "Coach", false, null, false),
+                new ProgramParticipant(
+                    new ProgramParticipantId(11, 101), 7L, "Waitlisted", false, null, false)));
+    when(programParticipantRepository.findWaitlistPositions(List.of(11)))
+        .thenReturn(List.of(new WaitlistPosition(new ProgramParticipantId(11, 101), 1)));
+
+    List<ProgramDetailsParticipantsDto> result =
+        programCalendarAssembler.assembleDetails(List.of(recurrence10, recurrence11, oneOff), true);
+
+    assertEquals(3, result.size());
+    assertEquals(2, result.get(0).getAttendees().size());
+    assertEquals(1, result.get(1).getAttendees().size());
+    assertEquals(1, result.get(1).getAttendees().getFirst().getRank());
+    assertTrue(result.get(2).getAttendees().isEmpty());
+    verify(programParticipantRepository, times(1)).findParticipantsByProgramIds(anyList());
+  }
+
+  @Test
+  void assembleDetails_shouldNotLoadParticipantsWithoutPermissions() {
+    ProgramDto recurrence = new ProgramDto();
+    recurrence.setProgramId(2);
+    recurrence.setRecurrenceId(10);
+
+    List<ProgramDetailsParticipantsDto> result =
+        programCalendarAssembler.assembleDetails(List.of(recurrence), false);
+
+    assertEquals(1, result.size());
+    assertTrue(result.getFirst().getAttendees().isEmpty());
+    verifyNoInteractions(programParticipantRepository);
+  }
+
+  @Test
+  void assembleCalendarPage_shouldMergeInKeyOrderAndReturnNextCursor() {
+    List<Program> programs = createMockPrograms();
+    Program oneTimeProgram = programs.get(0);
+    Program weeklyProgram = programs.get(1);
+    List<ProgramRecurrence> recurrences = createMockRecurrences();
+    recurrences.forEach(recurrence -> recurrence.setProgram(weeklyProgram));
+    // Same instant as the first recurrence: the one-time program sorts first on its negated id.
+    oneTimeProgram.setOccurrenceDate(recurrences.getFirst().getOccurrenceDate());
+
+    when(programAttachmentRepository.findAttachmentsByProgramIds(List.of(1, 2)))
+        .thenReturn(List.of());
+    when(programParticipantRepository.findParticipantsByRecurrenceIds(List.of(10)))
+        .thenReturn(
+            List.of(
+                new ProgramParticipant(
+                    new ProgramParticipantId(10, 101), null, "Subscribed", false, null, false)));
+
+    ProgramCalendarPageDto page =
+        programCalendarAssembler.assembleCalendarPage(
+            recurrences, List.of(oneTimeProgram), 2, true);
+
+    assertEquals(2, page.getPrograms().size());
+    assertEquals(1, page.getPrograms().get(0).getProgramDetails().getProgramId());
+    assertNull(page.getPrograms().get(0).getProgramDetails().getRecurrenceId());
+    assertTrue(page.getPrograms().get(0).getAttendees().isEmpty());
+    assertEquals(10, page.getPrograms().get(1).getProgramDetails().getRecurrenceId());
+    assertEquals(1, page.getPrograms().get(1).getAttendees().size());
+    assertEquals(10, page.getNextCursorId());
+    assertEquals(recurrences.getFirst().getOccurrenceDate(), page.getNextCursorDate());
+  }
+
+  @Test
+  void assembleCalendarPage_shouldNotReturnCursorOnLastPage() {
+    Program weeklyProgram = createMockPrograms().get(1);
+    List<ProgramRecurrence> recurrences = createMockRecurrences();
+    recurrences.forEach(recurrence -> recurrence.setProgram(weeklyProgram));
+
+    when(programAttachmentRepository.findAttachmentsByProgramIds(List.of(2))).thenReturn(List.of());
+
+    ProgramCalendarPageDto page =
+        programCalendarAssembler.assembleCalendarPage(recurrences, List.of(), 5, false);
+
+    assertEquals(2, page.getPrograms().size());
+    assertNull(page.getNextCursorDate());
+    assertNull(page.getNextCursorId());
+    verifyNoInteractions(programParticipantRepository);
+  }
+
+  @Test
+  void assemblePrograms_shouldExpandVirtualRecurrencesAroundExceptions() {
+    Program weeklyProgram = createMockPrograms().get(1);
+    weeklyProgram.setVirtualRecurrences(true);
+    ProgramRecurrence cancelledException = createMockRecurrences().get(1);
+
+    when(programAttachmentRepository.findAttachmentsByProgramIds(List.of(2))).thenReturn(List.of());
+    when(programRecurrenceRepository.findProgramRecurrencesByProgramIds(List.of(2)))
+        .thenReturn(List.of(cancelledException));
+
+    List<ProgramDto> result = programCalendarAssembler.assemblePrograms(List.of(weeklyProgram));
+
+    // Weekly from June 15 to June 29: the June 22 occurrence is the cancelled exception row.
+    assertEquals(3, result.size());
+    assertNull(result.get(0).getRecurrenceId());
+    assertEquals(11, result.get(1).getRecurrenceId());
+    assertTrue(result.get(1).isCancelled());
+    assertNull(result.get(2).getRecurrenceId());
+    assertEquals(weeklyProgram.getExpiryDate(), result.get(2).getReccurenceDate());
+  }
+}
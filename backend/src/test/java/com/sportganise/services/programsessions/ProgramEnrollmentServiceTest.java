@@ -0,0 +1,86 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ProgramEnrollmentResultDto;
+import com.sportganise.exceptions.AccountNotFoundException;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.services.account.AccountService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramEnrollmentServiceTest {
+  @Mock private AccountService accountService;
+
+  @Mock private ProgramParticipantRepository programParticipantRepository;
+
+  @Mock private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Mock private EventRsvpWriter eventRsvpWriter;
+
+  @InjectMocks private ProgramEnrollmentService programEnrollmentService;
+
+  @Test
+  void enroll_shouldInsertEveryRecurrenceAndAccountPairWithOneStatement() {
+    when(programRecurrenceRepository.countByProgramId(1)).thenReturn(12L);
+    when(programParticipantRepository.enrollInProgramRecurrences(
+            1, List.of(101, 102, 103), "Subscribed", true))
+        .thenReturn(33);
+
+    ProgramEnrollmentResultDto result =
+        programEnrollmentService.enroll(
+            1, true, new Integer[] {101, 102, 103, 101}, "Subscribed", true);
+
+    assertEquals(33, result.getInserted());
+    assertEquals(3, result.getSkipped());
+    verify(accountService, times(1)).validateAccountIds(List.of(101, 102, 103));
+    verify(programParticipantRepository, never()).save(any());
+    verify(programParticipantRepository, never()).findParticipant(any(), any());
+  }
+
+  @Test
+  void enroll_shouldUseTheRecurrenceOfOneTimePrograms() {
+    when(eventRsvpWriter.findOrAddEventRecurrence(7)).thenReturn(70);
+    when(programParticipantRepository.enrollInRecurrence(70, List.of(101, 102), "Coach", false))
+        .thenReturn(2);
+
+    ProgramEnrollmentResultDto result =
+        programEnrollmentService.enroll(7, false, new Integer[] {101, 102}, "Coach", false);
+
+    assertEquals(2, result.getInserted());
+    assertEquals(0, result.getSkipped());
+    verifyNoInteractions(programRecurrenceRepository);
+  }
+
+  @Test
+  void enroll_shouldNotInsertWhenAnAccountIsMissing() {
+    doThrow(new AccountNotFoundException("Account not found: [999]"))
+        .when(accountService)
+        .validateAccountIds(List.of(101, 999));
+
+    assertThrows(
+        AccountNotFoundException.class,
+        () ->
+            programEnrollmentService.enroll(1, true, new Integer[] {101, 999}, "Subscribed", true));
+
+    verifyNoInteractions(programParticipantRepository);
+  }
+
+  @Test
+  void enroll_shouldNotQueryWithoutAccounts() {
+    ProgramEnrollmentResultDto result =
+        programEnrollmentService.enroll(1, true, new Integer[] {}, "Subscribed", true);
+
+    assertEquals(0, result.getInserted());
+    verifyNoInteractions(accountService, programParticipantRepository, programRecurrenceRepository);
+  }
+}
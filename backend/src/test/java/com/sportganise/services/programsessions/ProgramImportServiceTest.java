@@ -0,0 +1,315 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ProgramCreateRequestDto;
+import com.sportganise.dto.programsessions.ProgramEnrollmentResultDto;
+import com.sportganise.dto.programsessions.ProgramImportDefinitionDto;
+import com.sportganise.dto.programsessions.ProgramImportErrorDto;
+import com.sportganise.dto.programsessions.ProgramImportResultDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto.ConflictType;
+import com.sportganise.entities.account.Account;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.exceptions.programexceptions.ProgramImportException;
+import com.sportganise.repositories.programsessions.ProgramBulkWriter;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
+import com.sportganise.services.account.AccountService;
+import com.sportganise.services.forum.PostService;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramImportServiceTest {
+  @Mock private AccountService accountService;
+
+  @Mock private PostService postService;
+
+  @Mock private ProgramBulkWriter programBulkWriter;
+
+  @Mock private ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+
+  @Mock private ProgramEnrollmentService programEnrollmentService;
+
+  @Mock private ScheduleConflictIndex scheduleConflictIndex;
+
+  @InjectMocks private ProgramImportService programImportService;
+
+  private static ProgramImportDefinitionDto definition(
+      String title,
+      String startDate,
+      String startTime,
+      String endTime,
+      String location,
+      String frequency,
+      String endDate,
+      Integer[] coachesId) {
+    ProgramCreateRequestDto programData =
+        new ProgramCreateRequestDto(
+            title,
+            ProgramType.TRAINING,
+            startDate,
+            endDate,
+            "public",
+            "Season program",
+            20,
+            startTime,
+            endTime,
+            location,
+            frequency);
+    return new ProgramImportDefinitionDto(programData, null, null, coachesId);
+  }
+
+  private void mockAuthor() {
+    Account author = new Account();
+    author.setFirstName("Test");
+    author.setLastName("Coach");
+    when(accountService.getAccountById(2)).thenReturn(author);
+  }
+
+  @Test
+  void importPrograms_shouldCreateEveryProgramWithBatchedStatements() {
+    mockAuthor();
+    when(programBulkWriter.insertPrograms(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Program> programs = invocation.getArgument(0);
+              for (int i = 0; i < programs.size(); i++) {
+                programs.get(i).setProgramId(11 + i);
+              }
+              return List.of(11, 12);
+            });
+    when(programRecurrenceBulkWriter.insertRecurrences(anyMap())).thenReturn(4);
+    when(postService.createNewPosts(eq(2), anyList())).thenReturn(2);
+    when(programEnrollmentService.enroll(11, true, new Integer[] {5}, "Coach", false))
+        .thenReturn(new ProgramEnrollmentResultDto(4, 0));
+
+    ProgramImportResultDto result =
+        programImportService.importPrograms(
+            2,
+            List.of(
+                definition(
+                    "Weekly Training",
+                    "2030-09-02T00:00:00Z",
+                    "18:00",
+                    "19:30",
+                    "Gym",
+                    "weekly",
+                    "2030-09-23T23:59:00Z",
+                    new Integer[] {5}),
+                definition(
+                    "Tryouts",
+                    "2030-09-07T00:00:00Z",
+                    "10:00",
+                    "12:00",
+                    "Field",
+                    "once",
+                    null,
+                    null)));
+
+    assertEquals(List.of(11, 12), result.getProgramIds());
+    assertEquals(4, result.getRecurrencesCreated());
+    assertEquals(2, result.getPostsCreated());
+    assertEquals(4, result.getParticipantsEnrolled());
+
+    ArgumentCaptor<List<Program>> programs = ArgumentCaptor.forClass(List.class);
+    verify(programBulkWriter, times(1)).insertPrograms(programs.capture());
+    assertEquals("Test Coach", programs.getValue().get(0).getAuthor());
+    assertEquals(90, programs.getValue().get(0).getDurationMins());
+    assertFalse(programs.getValue().get(0).isVirtualRecurrences());
+
+    ArgumentCaptor<Map<Integer, List<ZonedDateTime>>> recurrences =
+        ArgumentCaptor.forClass(Map.class);
+    verify(programRecurrenceBulkWriter, times(1)).insertRecurrences(recurrences.capture());
+    assertEquals(List.of(11), List.copyOf(recurrences.getValue().keySet()));
+    assertEquals(4, recurrences.getValue().get(11).size());
+    verify(programEnrollmentService, times(1))
+        .enroll(anyInt(), anyBoolean(), any(), any(), anyBoolean());
+    verify(accountService, times(1)).validateAccountIds(List.of(5));
+    verify(scheduleConflictIndex, times(1)).refresh(11);
+    verify(scheduleConflictIndex, times(1)).refresh(12);
+  }
+
+  @Test
+  void importPrograms_shouldWriteTheRecurrencesOfProgramsWithoutRoster() {
+    mockAuthor();
+    when(programBulkWriter.insertPrograms(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Program> programs = invocation.getArgument(0);
+              programs.getFirst().setProgramId(11);
+              return List.of(11);
+            });
+
+    programImportService.importPrograms(
+        2,
+        List.of(
+            definition(
+                "Weekly Training",
+                "2030-09-02T00:00:00Z",
+                "18:00",
+                "19:30",
+                "Gym",
+                "weekly",
+                "2030-12-23T23:59:00Z",
+                null)));
+
+    ArgumentCaptor<List<Program>> programs = ArgumentCaptor.forClass(List.class);
+    verify(programBulkWriter).insertPrograms(programs.capture());
+    assertFalse(programs.getValue().get(0).isVirtualRecurrences());
+    ArgumentCaptor<Map<Integer, List<ZonedDateTime>>> recurrences =
+        ArgumentCaptor.forClass(Map.class);
+    verify(programRecurrenceBulkWriter, times(1)).insertRecurrences(recurrences.capture());
+    assertEquals(17, recurrences.getValue().get(11).size());
+    verifyNoInteractions(programEnrollmentService);
+    verify(accountService, never()).validateAccountIds(any());
+  }
+
+  @Test
+  void importPrograms_shouldRejectOverlappingProgramsOfTheImport() {
+    mockAuthor();
+
+    ProgramImportException exception =
+        assertThrows(
+            ProgramImportException.class,
+            () ->
+                programImportService.importPrograms(
+                    2,
+                    List.of(
+                        definition(
+                            "Morning Training",
+                            "2030-09-07T00:00:00Z",
+                            "10:00",
+                            "12:00",
+                            "Gym",
+                            "once",
+                            null,
+                            new Integer[] {5}),
+                        definition(
+                            "Late Training",
+                            "2030-09-07T00:00:00Z",
+                            "11:00",
+                            "13:00",
+                            " gym ",
+                            "once",
+                            null,
+                            new Integer[] {5}))));
+
+    List<ProgramImportErrorDto> errors = exception.getErrors();
+    assertEquals(2, errors.size());
+    assertEquals(0, errors.get(0).getIndex());
+    assertEquals(
+        List.of(ConflictType.LOCATION, ConflictType.COACH),
+        errors.get(0).getConflicts().stream().map(ScheduleConflictDto::getConflictType).toList());
+    assertEquals("Late Training", errors.get(0).getConflicts().get(0).getTitle());
+    assertNull(errors.get(0).getConflicts().get(0).getProgramId());
+    assertEquals(1, errors.get(1).getIndex());
+    assertEquals("Morning Training", errors.get(1).getConflicts().get(0).getTitle());
+    verifyNoInteractions(programBulkWriter, postService, programEnrollmentService);
+  }
+
+  @Test
+  void importPrograms_shouldRejectProgramsOverlappingScheduledPrograms() {
+    mockAuthor();
+    ScheduleConflictDto conflict =
+        new ScheduleConflictDto(
+            ConflictType.LOCATION,
+            ZonedDateTime.parse("2030-09-07T10:00:00Z"),
+            40,
+            null,
+            "Existing Training",
+            "Gym",
+            null,
+            ZonedDateTime.parse("2030-09-07T09:00:00Z"),
+            90);
+    when(scheduleConflictIndex.findConflicts(isNull(), anyList(), eq(120), eq("Gym"), anyList()))
+        .thenReturn(List.of(conflict));
+
+    ProgramImportException exception =
+        assertThrows(
+            ProgramImportException.class,
+            () ->
+                programImportService.importPrograms(
+                    2,
+                    List.of(
+                        definition(
+                            "Tryouts",
+                            "2030-09-07T00:00:00Z",
+                            "10:00",
+                            "12:00",
+                            "Gym",
+                            "once",
+                            null,
+                            null))));
+
+    assertEquals(1, exception.getErrors().size());
+    assertEquals(List.of(conflict), exception.getErrors().get(0).getConflicts());
+    verifyNoInteractions(programBulkWriter, postService);
+  }
+
+  @Test
+  void importPrograms_shouldReportEveryInvalidProgram() {
+    mockAuthor();
+
+    ProgramImportException exception =
+        assertThrows(
+            ProgramImportException.class,
+            () ->
+                programImportService.importPrograms(
+                    2,
+                    List.of(
+                        definition(
+                            "Backwards",
+                            "2030-09-07T00:00:00Z",
+                            "12:00",
+                            "10:00",
+                            "Gym",
+                            "once",
+                            null,
+                            null),
+                        definition(
+                            "Valid",
+                            "2030-09-08T00:00:00Z",
+                            "10:00",
+                            "12:00",
+                            "Gym",
+                            "once",
+                            null,
+                            null),
+                        definition(
+                            "Yearly",
+                            "2030-09-09T00:00:00Z",
+                            "10:00",
+                            "12:00",
+                            "Gym",
+                            "yearly",
+                            "2031-09-09T00:00:00Z",
+                            null))));
+
+    assertEquals("2 of 3 programs cannot be imported.", exception.getMessage());
+    assertEquals(
+        List.of(0, 2),
+        exception.getErrors().stream().map(ProgramImportErrorDto::getIndex).toList());
+    assertEquals("End time must be after start time.", exception.getErrors().get(0).getMessage());
+    assertEquals("Invalid frequency: yearly", exception.getErrors().get(1).getMessage());
+    verifyNoInteractions(programBulkWriter);
+  }
+
+  @Test
+  void importPrograms_shouldRejectAnEmptyImport() {
+    assertThrows(
+        IllegalArgumentException.class, () -> programImportService.importPrograms(2, List.of()));
+
+    verifyNoInteractions(accountService, programBulkWriter);
+  }
+}
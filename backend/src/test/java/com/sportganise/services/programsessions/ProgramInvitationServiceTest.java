@@ -0,0 +1,110 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.InvitationStatusDto;
+import com.sportganise.dto.programsessions.InvitationStatusDto.Status;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.exceptions.programexceptions.ProgramInvitationiException;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.ProgramInvitationWriter;
+import com.sportganise.repositories.programsessions.ProgramInvitationWriter.InvitedAccount;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.services.AsyncEmailSender;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramInvitationServiceTest {
+  @Mock private ProgramRepository programRepository;
+
+  @Mock private ProgramInvitationWriter programInvitationWriter;
+
+  @Mock private EventRsvpWriter eventRsvpWriter;
+
+  @Mock private AsyncEmailSender asyncEmailSender;
+
+  @InjectMocks private ProgramInvitationService programInvitationService;
+
+  private static Program program(ProgramType programType, String visibility) {
+    return Program.builder()
+        .programId(1)
+        .programType(programType)
+        .title("Tournament")
+        .visibility(visibility)
+        .build();
+  }
+
+  @Test
+  void inviteAll_shouldInviteInOneStatementAndQueueEmails() {
+    Program tournament = program(ProgramType.TOURNAMENT, "private");
+    when(programRepository.findById(1)).thenReturn(Optional.of(tournament));
+    when(eventRsvpWriter.findOrAddEventRecurrence(1)).thenReturn(40);
+    when(programInvitationWriter.inviteToRecurrence(40, List.of(2, 3, 9), false))
+        .thenReturn(
+            List.of(
+                new InvitedAccount(2, "new@test.com", true, false),
+                new InvitedAccount(3, "known@test.com", false, false)));
+    when(asyncEmailSender.sendPrivateProgramInvitation("new@test.com", tournament))
+        .thenReturn(true);
+    when(asyncEmailSender.sendPrivateProgramInvitation("known@test.com", tournament))
+        .thenReturn(false);
+
+    List<InvitationStatusDto> statuses = programInvitationService.inviteAll(1, List.of(2, 3, 2, 9));
+
+    assertEquals(3, statuses.size());
+    assertEquals(Status.INVITED, statuses.get(0).getStatus());
+    assertTrue(statuses.get(0).isEmailQueued());
+    assertEquals(Status.REINVITED, statuses.get(1).getStatus());
+    assertFalse(statuses.get(1).isEmailQueued());
+    assertEquals(Status.ACCOUNT_NOT_FOUND, statuses.get(2).getStatus());
+    verify(programInvitationWriter, times(1)).inviteToRecurrence(40, List.of(2, 3, 9), false);
+  }
+
+  @Test
+  void inviteAll_shouldConfirmTrainingParticipantsWithoutEmail() {
+    Program training = program(ProgramType.TRAINING, "private");
+    training.setFrequency("weekly");
+    when(programRepository.findById(1)).thenReturn(Optional.of(training));
+    when(programInvitationWriter.inviteToProgramRecurrences(1, List.of(2, 3), true))
+        .thenReturn(
+            List.of(
+                new InvitedAccount(2, "new@test.com", true, false),
+                new InvitedAccount(3, "confirmed@test.com", false, true)));
+
+    List<InvitationStatusDto> statuses = programInvitationService.inviteAll(1, List.of(2, 3));
+
+    assertEquals(Status.INVITED, statuses.get(0).getStatus());
+    assertEquals(Status.ALREADY_CONFIRMED, statuses.get(1).getStatus());
+    verifyNoInteractions(asyncEmailSender, eventRsvpWriter);
+  }
+
+  @Test
+  void inviteAll_shouldRejectPublicPrograms() {
+    when(programRepository.findById(1))
+        .thenReturn(Optional.of(program(ProgramType.TOURNAMENT, "public")));
+
+    assertThrows(
+        ProgramInvitationiException.class, () -> programInvitationService.inviteAll(1, List.of(2)));
+    verifyNoInteractions(programInvitationWriter);
+  }
+
+  @Test
+  void inviteAll_shouldRejectEmptyOrOversizedRequests() {
+    assertThrows(
+        IllegalArgumentException.class, () -> programInvitationService.inviteAll(1, List.of()));
+    List<Integer> tooMany =
+        IntStream.rangeClosed(1, ProgramInvitationService.MAX_INVITATIONS + 1).boxed().toList();
+    assertThrows(
+        IllegalArgumentException.class, () -> programInvitationService.inviteAll(1, tooMany));
+    verifyNoInteractions(programRepository, programInvitationWriter);
+  }
+}
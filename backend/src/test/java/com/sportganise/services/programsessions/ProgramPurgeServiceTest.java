@@ -0,0 +1,66 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.repositories.programsessions.ProgramPurgeWriter;
+import com.sportganise.services.BlobService;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramPurgeServiceTest {
+  @Mock private ProgramPurgeWriter programPurgeWriter;
+
+  @Mock private BlobService blobService;
+
+  private ProgramPurgeService programPurgeService;
+
+  @BeforeEach
+  void setUp() {
+    programPurgeService = new ProgramPurgeService(programPurgeWriter, blobService, 2, 10);
+  }
+
+  @Test
+  void purgeDeletedPrograms_shouldRemoveEveryRowChunkByChunkBeforeTheProgram() throws Exception {
+    when(programPurgeWriter.findDeletedProgramIds(10)).thenReturn(List.of(7));
+    when(programPurgeWriter.deleteRecurrences(7, 2)).thenReturn(2, 2, 1);
+    when(programPurgeWriter.findAttachmentUrls(7, 2))
+        .thenReturn(List.of("https://bucket/a.pdf", "https://bucket/b.pdf"), List.of());
+    when(programPurgeWriter.deleteProgram(7)).thenReturn(true);
+
+    assertEquals(1, programPurgeService.purgeDeletedPrograms());
+
+    InOrder inOrder = inOrder(programPurgeWriter, blobService);
+    inOrder.verify(programPurgeWriter, times(3)).deleteRecurrences(7, 2);
+    inOrder.verify(blobService).deleteFile("https://bucket/a.pdf");
+    inOrder.verify(blobService).deleteFile("https://bucket/b.pdf");
+    inOrder
+        .verify(programPurgeWriter)
+        .deleteAttachments(7, List.of("https://bucket/a.pdf", "https://bucket/b.pdf"));
+    inOrder.verify(programPurgeWriter).deleteProgram(7);
+  }
+
+  @Test
+  void purgeDeletedPrograms_shouldKeepTheProgramWhenAFileCannotBeDeleted() throws Exception {
+    when(programPurgeWriter.findDeletedProgramIds(10)).thenReturn(List.of(7, 8));
+    when(programPurgeWriter.findAttachmentUrls(anyInt(), eq(2)))
+        .thenReturn(List.of("https://bucket/a.pdf"), List.of());
+    doThrow(new IOException("Error deleting file from S3"))
+        .when(blobService)
+        .deleteFile("https://bucket/a.pdf");
+
+    assertEquals(1, programPurgeService.purgeDeletedPrograms());
+
+    verify(programPurgeWriter, never()).deleteAttachments(eq(7), any());
+    verify(programPurgeWriter, never()).deleteProgram(7);
+    verify(programPurgeWriter, times(1)).deleteProgram(8);
+  }
+}
@@ -0,0 +1,106 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramRecurrenceReconcilerTest {
+  @Mock private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Mock private ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+
+  @InjectMocks private ProgramRecurrenceReconciler programRecurrenceReconciler;
+
+  private static ZonedDateTime may(int day, int hour) {
+    return ZonedDateTime.of(LocalDate.of(2025, 5, day), LocalTime.of(hour, 0), ZoneId.of("UTC"));
+  }
+
+  private static ProgramRecurrence recurrence(int recurrenceId, ZonedDateTime occurrenceDate) {
+    return ProgramRecurrence.builder()
+        .recurrenceId(recurrenceId)
+        .programId(1)
+        .occurrenceDate(occurrenceDate)
+        .build();
+  }
+
+  @Test
+  void plan_shouldKeepRecurrencesOnUnchangedOccurrences() {
+    ProgramRecurrenceReconciler.Plan plan =
+        programRecurrenceReconciler.plan(
+            List.of(recurrence(10, may(15, 10)), recurrence(11, may(16, 10))),
+            List.of(may(15, 10), may(16, 10)));
+
+    assertTrue(plan.isEmpty());
+  }
+
+  @Test
+  void plan_shouldMoveRecurrencesWhenOnlyTheStartTimeChanges() {
+    ProgramRecurrenceReconciler.Plan plan =
+        programRecurrenceReconciler.plan(
+            List.of(recurrence(10, may(15, 10)), recurrence(11, may(16, 10))),
+            List.of(may(15, 12), may(16, 12)));
+
+    assertEquals(Map.of(10, may(15, 12), 11, may(16, 12)), plan.moves());
+    assertTrue(plan.deletions().isEmpty());
+    assertTrue(plan.insertions().isEmpty());
+  }
+
+  @Test
+  void plan_shouldDeleteDroppedAndInsertNewOccurrences() {
+    // Daily from May 15 to May 17 becomes every other day from May 16 to May 20.
+    ProgramRecurrenceReconciler.Plan plan =
+        programRecurrenceReconciler.plan(
+            List.of(
+                recurrence(10, may(15, 10)),
+                recurrence(11, may(16, 10)),
+                recurrence(12, may(17, 10))),
+            List.of(may(16, 10), may(18, 10), may(20, 10)));
+
+    assertEquals(List.of(10, 12), plan.deletions());
+    assertTrue(plan.moves().isEmpty());
+    assertEquals(List.of(may(18, 10), may(20, 10)), plan.insertions());
+  }
+
+  @Test
+  void plan_shouldDeleteEverythingWhenThereAreNoOccurrences() {
+    ProgramRecurrenceReconciler.Plan plan =
+        programRecurrenceReconciler.plan(List.of(recurrence(10, may(15, 10))), List.of());
+
+    assertEquals(List.of(10), plan.deletions());
+    assertTrue(plan.insertions().isEmpty());
+  }
+
+  @Test
+  void reconcile_shouldLoadOnceAndApplyThePlanInBulk() {
+    when(programRecurrenceRepository.findProgramRecurrenceByProgramId(1))
+        .thenReturn(
+            List.of(
+                recurrence(10, may(15, 10)),
+                recurrence(11, may(16, 10)),
+                recurrence(12, may(17, 10))));
+
+    programRecurrenceReconciler.reconcile(1, new RecurrenceRule("daily", may(16, 11), may(18, 11)));
+
+    verify(programRecurrenceRepository, times(1)).findProgramRecurrenceByProgramId(1);
+    verify(programRecurrenceRepository, times(1)).deleteAllByIdInBatch(List.of(10));
+    verify(programRecurrenceBulkWriter, times(1))
+        .updateOccurrenceDates(Map.of(11, may(16, 11), 12, may(17, 11)));
+    verify(programRecurrenceBulkWriter, times(1)).insertRecurrences(1, List.of(may(18, 11)), false);
+    verifyNoMoreInteractions(programRecurrenceRepository);
+  }
+}
@@ -0,0 +1,97 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ProgramSearchPageDto;
+import com.sportganise.dto.programsessions.ProgramSearchResultDto;
+import com.sportganise.entities.programsessions.ProgramType;
+import com.sportganise.repositories.programsessions.ProgramSearchReader;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.MatchingProgram;
+import com.sportganise.repositories.programsessions.ProgramSearchReader.ProgramSearchCriteria;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramSearchServiceTest {
+  @Mock private ProgramSearchReader programSearchReader;
+
+  @InjectMocks private ProgramSearchService programSearchService;
+
+  private static final ProgramSearchCriteria CRITERIA =
+      new ProgramSearchCriteria(ProgramType.TRAINING, "Gym", null, false, null, null, "swim");
+
+  private static MatchingProgram program(int programId, int day) {
+    return new MatchingProgram(
+        programId,
+        "TRAINING",
+        "Swim Training " + programId,
+        "Gym",
+        "public",
+        ZonedDateTime.of(2025, 5, day, 18, 0, 0, 0, ZoneOffset.UTC),
+        60,
+        null,
+        "once",
+        false);
+  }
+
+  @Test
+  void searchPrograms_shouldReturnCursorOfNextPageWhenMoreProgramsMatch() {
+    when(programSearchReader.search(CRITERIA, null, null, 3))
+        .thenReturn(List.of(program(4, 1), program(7, 2), program(5, 3)));
+
+    ProgramSearchPageDto page = programSearchService.searchPrograms(CRITERIA, null, null, 2);
+
+    assertEquals(
+        List.of(4, 7),
+        page.getResults().stream().map(ProgramSearchResultDto::getProgramId).toList());
+    assertEquals("Swim Training 4", page.getResults().get(0).getTitle());
+    assertEquals(
+        ZonedDateTime.of(2025, 5, 2, 18, 0, 0, 0, ZoneOffset.UTC), page.getNextCursorDate());
+    assertEquals(7, page.getNextCursorId());
+  }
+
+  @Test
+  void searchPrograms_shouldContinueAfterCursorAndEndOnLastPage() {
+    ZonedDateTime cursorDate = ZonedDateTime.of(2025, 5, 2, 18, 0, 0, 0, ZoneOffset.UTC);
+    when(programSearchReader.search(CRITERIA, cursorDate, 7, 3)).thenReturn(List.of(program(5, 3)));
+
+    ProgramSearchPageDto page = programSearchService.searchPrograms(CRITERIA, cursorDate, 7, 2);
+
+    assertEquals(1, page.getResults().size());
+    assertNull(page.getNextCursorDate());
+    assertNull(page.getNextCursorId());
+  }
+
+  @Test
+  void searchPrograms_shouldRejectInvalidSearches() {
+    ProgramSearchCriteria shortText =
+        new ProgramSearchCriteria(null, null, null, null, null, null, " a ");
+    ZonedDateTime date = ZonedDateTime.of(2025, 5, 2, 18, 0, 0, 0, ZoneOffset.UTC);
+    ProgramSearchCriteria emptyRange =
+        new ProgramSearchCriteria(null, null, null, null, date, date, null);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programSearchService.searchPrograms(CRITERIA, null, null, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            programSearchService.searchPrograms(
+                CRITERIA, null, null, ProgramSearchService.MAX_SEARCH_PAGE_SIZE + 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programSearchService.searchPrograms(shortText, null, null, 20));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programSearchService.searchPrograms(emptyRange, null, null, 20));
+    verifyNoInteractions(programSearchReader);
+  }
+}
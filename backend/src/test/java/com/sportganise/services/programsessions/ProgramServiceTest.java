@@ -2,34 +2,45 @@ package com.sportganise.services.programsessions;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramCalendarPageDto;
 import com.sportganise.dto.programsessions.ProgramDto;
+import com.sportganise.dto.programsessions.ProgramEnrollmentResultDto;
 import com.sportganise.dto.programsessions.ProgramParticipantDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto.ConflictType;
 import com.sportganise.entities.account.Account;
 import com.sportganise.entities.account.AccountType;
 import com.sportganise.entities.account.Address;
 import com.sportganise.entities.programsessions.*;
 import com.sportganise.exceptions.EntityNotFoundException;
+import com.sportganise.exceptions.programexceptions.ScheduleConflictException;
 import com.sportganise.repositories.AccountRepository;
 import com.sportganise.repositories.programsessions.ProgramAttachmentRepository;
 import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceBulkWriter;
 import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
 import com.sportganise.repositories.programsessions.ProgramRepository;
 import com.sportganise.services.BlobService;
 import com.sportganise.services.account.AccountService;
+import com.sportganise.services.forum.PostService;
 import java.io.IOException;
 import java.time.*;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,13 +59,29 @@ public class ProgramServiceTest {
 
   @Mock private BlobService blobService;
 
+  @Mock private ProgramCalendarAssembler programCalendarAssembler;
+
+  @Mock private ProgramRecurrenceBulkWriter programRecurrenceBulkWriter;
+
+  @Mock private ProgramRecurrenceReconciler programRecurrenceReconciler;
+
+  @Mock private ProgramEnrollmentService programEnrollmentService;
+
+  @Spy private ProgramCache programCache = new ProgramCache(100);
+
+  @Mock private ScheduleConflictIndex scheduleConflictIndex;
+
+  @Mock private ProgramAttachmentUploader programAttachmentUploader;
+
+  @Mock private PostService postService;
+
   @InjectMocks private ProgramService programService;
 
   @Test
   public void testGetParticipants() {
     ProgramParticipant participant1 =
         new ProgramParticipant(
-            new ProgramParticipantId(1, 101), null, "Player", true, ZonedDateTime.now());
+            new ProgramParticipantId(1, 101), null, "Player", true, ZonedDateTime.now(), false);
 
     ProgramParticipant participant2 =
         new ProgramParticipant(
@@ -62,7 +89,8 @@ public class ProgramServiceTest {
             null,
             "Coach",
             false,
-            ZonedDateTime.now().minusDays(1));
+            ZonedDateTime.now().minusDays(1),
+            false);
 
     List<ProgramParticipant> mockParticipants = List.of(participant1, participant2);
 
@@ -180,6 +208,44 @@ public class ProgramServiceTest {
     assertEquals("attachment2.url", programDto.getProgramAttachments().get(1).getAttachmentUrl());
   }
 
+  @Test
+  void testGetProgramDetails_shouldReadThroughCacheUntilProgramIsDeleted() {
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .programType(ProgramType.TRAINING)
+            .title("Training Program")
+            .frequency("once")
+            .build();
+    when(programRepository.findProgramById(1)).thenReturn(mockProgram);
+    when(programAttachmentRepository.findAttachmentsByProgramId(1)).thenReturn(List.of());
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(1));
+
+    programService.getProgramDetails(1);
+    programService.getProgramDetails(1);
+    verify(programRepository, times(1)).findProgramById(1);
+    verify(programAttachmentRepository, times(1)).findAttachmentsByProgramId(1);
+
+    programService.deleteProgram(1, 1);
+    programService.getProgramDetails(1);
+    verify(programRepository, times(2)).findProgramById(1);
+    assertEquals(2, programService.getCacheStats().getHits());
+  }
+
+  @Test
+  void deleteProgram_shouldOnlyMarkTheProgramDeleted() {
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(1));
+    when(programRepository.softDeleteProgram(1)).thenReturn(1);
+
+    programService.deleteProgram(1, 1);
+
+    verify(programRepository, times(1)).softDeleteProgram(1);
+    verify(postService, times(1)).deleteProgramPost(1);
+    verify(programRepository, never()).deleteById(any());
+    verifyNoInteractions(programRecurrenceRepository, programAttachmentRepository, blobService);
+    verify(scheduleConflictIndex, times(1)).refresh(1);
+  }
+
   @Test
   void testGetProgramAttachments() {
     Integer programId = 1;
@@ -260,43 +326,18 @@ public class ProgramServiceTest {
   void testGetPrograms() {
     List<Program> mockPrograms = createMockPrograms();
     when(programRepository.findPrograms()).thenReturn(mockPrograms);
-    ProgramRecurrence recurrence2 =
-        ProgramRecurrence.builder()
-            .recurrenceId(1)
-            .programId(2)
-            .occurrenceDate(
-                ZonedDateTime.of(
-                    LocalDate.of(2025, 5, 15), LocalTime.of(10, 0), ZoneId.systemDefault()))
-            .build();
-
-    when(programRecurrenceRepository.findProgramRecurrenceByProgramId(2))
-        .thenReturn(List.of(recurrence2));
 
-    mockPrograms.forEach(
-        program ->
-            when(programAttachmentRepository.findAttachmentsByProgramId(program.getProgramId()))
-                .thenReturn(List.of()));
+    ProgramDto programDto = new ProgramDto(mockPrograms.getFirst(), List.of());
+    when(programCalendarAssembler.assemblePrograms(mockPrograms)).thenReturn(List.of(programDto));
 
     List<ProgramDto> result = programService.getPrograms();
 
-    assertNotNull(result);
-    assertEquals(2, result.size(), "Expected 2 programs");
-
-    ProgramDto firstProgram = result.getFirst();
-    assertEquals(1, firstProgram.getProgramId(), "Expected program ID to be 1");
-    assertEquals(
-        ProgramType.TRAINING, firstProgram.getProgramType(), "Expected program type training");
-    assertEquals("First Program", firstProgram.getTitle(), "Expected program title");
-    assertTrue(firstProgram.getProgramAttachments().isEmpty(), "Expected no attachments");
-
-    ProgramDto secondProgram = result.get(1);
-    assertEquals(2, secondProgram.getProgramId(), "Expected program ID to be 2");
-    assertEquals(
-        ProgramType.FUNDRAISER, secondProgram.getProgramType(), "Expected program type fundraiser");
-    assertEquals("Second Program", secondProgram.getTitle(), "Expected program title");
-    assertTrue(secondProgram.getProgramAttachments().isEmpty(), "Expected no attachments");
-
+    assertEquals(1, result.size());
+    assertEquals(1, result.getFirst().getProgramId());
     verify(programRepository).findPrograms();
+    verify(programCalendarAssembler).assemblePrograms(mockPrograms);
+    verify(programAttachmentRepository, never()).findAttachmentsByProgramId(any());
+    verify(programRecurrenceRepository, never()).findProgramRecurrenceByProgramId(any());
   }
 
   @Test
@@ -345,7 +386,9 @@ public class ProgramServiceTest {
 
     programService.createProgramRecurrences(startDate, endDate, frequency, programId);
 
-    verify(programRecurrenceRepository, times(4)).save(Mockito.any(ProgramRecurrence.class));
+    verify(programRecurrenceBulkWriter, times(1))
+        .insertRecurrences(eq(programId), argThat(dates -> dates.size() == 4), eq(false));
+    verify(programRecurrenceRepository, never()).save(Mockito.any(ProgramRecurrence.class));
   }
 
   @Test
@@ -412,8 +455,9 @@ public class ProgramServiceTest {
         "daily",
         null);
 
-    verify(programRecurrenceRepository)
-        .deleteOverflowingRecurrences(any(ZonedDateTime.class), any(Integer.class));
+    // The end date takes the end time, so the May 15 and May 16 occurrences are left.
+    verify(programRecurrenceReconciler, times(1))
+        .reconcile(eq(1), argThat(rule -> rule.occurrences().size() == 2));
   }
 
   @Test
@@ -437,12 +481,7 @@ public class ProgramServiceTest {
 
     ProgramDto mockProgramDto = new ProgramDto(mockProgram, Collections.emptyList());
 
-    ZonedDateTime lastrecurrence =
-        ZonedDateTime.of(LocalDate.of(2025, 5, 16), LocalTime.of(10, 0), ZoneId.of("UTC"));
-
     when(programRepository.findById(1)).thenReturn(Optional.of(mockProgram));
-    when(programRecurrenceRepository.findLastRecurrenceByProgramId(1))
-        .thenReturn(Optional.of(new ProgramRecurrence(1, lastrecurrence, false)));
 
     programService.modifyProgram(
         mockProgramDto,
@@ -462,9 +501,10 @@ public class ProgramServiceTest {
         "daily",
         null);
 
-    System.out.println("Last Occurrence: " + lastrecurrence);
-
-    verify(programRecurrenceRepository, times(2)).save(any());
+    // May 15 to May 18, as the end date takes the end time: the reconciler keeps the stored rows
+    // and inserts the missing ones.
+    verify(programRecurrenceReconciler, times(1))
+        .reconcile(eq(1), argThat(rule -> rule.occurrences().size() == 4));
   }
 
   @Test
@@ -474,6 +514,29 @@ public class ProgramServiceTest {
     programService.cancel(1, 1, false, false, true);
     verify(programRecurrenceRepository, times(1)).cancelProgramRecurrences(any());
     verify(programRepository, times(1)).cancelProgram(any());
+    verify(postService, times(1)).cancelProgramPost(1, true);
+  }
+
+  @Test
+  void cancel_shouldRefreshTheConflictIndexAfterTheUpdates() {
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(1));
+
+    programService.cancel(1, 1, false, false, true);
+
+    InOrder inOrder = inOrder(programRepository, scheduleConflictIndex);
+    inOrder.verify(programRepository).cancelProgram(1);
+    inOrder.verify(scheduleConflictIndex).refresh(1);
+  }
+
+  @Test
+  void cancel_shouldInvalidateTheCachedProgramAfterTheUpdates() {
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(1));
+
+    programService.cancel(1, 1, false, false, false);
+
+    InOrder inOrder = inOrder(programRepository, programCache);
+    inOrder.verify(programRepository).uncancelProgram(1);
+    inOrder.verify(programCache).invalidate(1);
   }
 
   @Test
@@ -483,6 +546,7 @@ public class ProgramServiceTest {
     programService.cancel(1, 1, false, false, false);
     verify(programRecurrenceRepository, times(1)).uncancelProgramRecurrences(any());
     verify(programRepository, times(1)).uncancelProgram(any());
+    verify(postService, times(1)).cancelProgramPost(1, false);
   }
 
   @Test
@@ -492,6 +556,7 @@ public class ProgramServiceTest {
     when(programRecurrenceRepository.findProgramRecurrenceById(1)).thenReturn(mockRecurrence);
     programService.cancel(1, 1, true, false, true);
     verify(programRecurrenceRepository, times(1)).cancelRecurrence(any());
+    verify(postService, never()).cancelProgramPost(any(), anyBoolean());
   }
 
   @Test
@@ -525,4 +590,287 @@ public class ProgramServiceTest {
         com.sportganise.exceptions.InsufficientPermissionsException.class,
         () -> programService.cancel(1, 1, false, false, true));
   }
+
+  @Test
+  public void testGetProgramCalendar_FirstPageStartsAtWindow() {
+    ZonedDateTime from = ZonedDateTime.of(2025, 5, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+    ZonedDateTime to = from.plusMonths(1);
+    ProgramCalendarPageDto mockPage = new ProgramCalendarPageDto(List.of(), null, null);
+
+    when(programRecurrenceRepository.findRecurrencesInWindow(
+            eq(from), eq(to), eq(from), eq(Integer.MIN_VALUE), any()))
+        .thenReturn(List.of());
+    when(programRepository.findOneTimeProgramsInWindow(
+            eq(from), eq(to), eq(from), eq(Integer.MIN_VALUE), any()))
+        .thenReturn(List.of());
+    when(programCalendarAssembler.assembleCalendarPage(List.of(), List.of(), 50, true))
+        .thenReturn(mockPage);
+
+    ProgramCalendarPageDto result =
+        programService.getProgramCalendar(from, to, null, null, 50, true);
+
+    assertSame(mockPage, result);
+    verify(programRepository, never()).findPrograms();
+  }
+
+  @Test
+  public void testGetProgramCalendar_InvalidWindow() {
+    ZonedDateTime from = ZonedDateTime.of(2025, 5, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programService.getProgramCalendar(from, from, null, null, 50, true));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programService.getProgramCalendar(from, from.plusDays(1), null, null, 0, true));
+    verifyNoInteractions(programRecurrenceRepository, programCalendarAssembler);
+  }
+
+  @Test
+  public void testMaterializeOccurrence_shouldSaveOneRecurrence() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 5, 15, 10, 0, 0, 0, ZoneId.of("UTC"));
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .programType(ProgramType.TRAINING)
+            .occurrenceDate(start)
+            .expiryDate(start.plusWeeks(52))
+            .frequency("weekly")
+            .virtualRecurrences(true)
+            .build();
+    ProgramRecurrence savedRecurrence =
+        ProgramRecurrence.builder()
+            .recurrenceId(7)
+            .programId(1)
+            .occurrenceDate(start.plusWeeks(2))
+            .build();
+
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(3));
+    when(programRepository.findProgramById(1)).thenReturn(mockProgram);
+    when(programRecurrenceRepository.findFirstByProgramIdAndOccurrenceDate(1, start.plusWeeks(2)))
+        .thenReturn(Optional.empty());
+    when(programRecurrenceRepository.save(any(ProgramRecurrence.class)))
+        .thenReturn(savedRecurrence);
+
+    ProgramDto result = programService.materializeOccurrence(3, 1, start.plusWeeks(2));
+
+    assertEquals(7, result.getRecurrenceId());
+    verify(programRecurrenceRepository, times(1)).save(any(ProgramRecurrence.class));
+  }
+
+  @Test
+  public void testMaterializeOccurrence_shouldRejectAccountsThatDoNotOwnTheProgram() {
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(3));
+    when(accountService.getAccountById(2))
+        .thenReturn(Account.builder().accountId(2).type(AccountType.PLAYER).build());
+
+    assertThrows(
+        com.sportganise.exceptions.InsufficientPermissionsException.class,
+        () -> programService.materializeOccurrence(2, 1, ZonedDateTime.now()));
+    verifyNoInteractions(programRecurrenceRepository);
+  }
+
+  @Test
+  public void testMaterializeOccurrence_shouldRejectDateOutsideOfRule() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 5, 15, 10, 0, 0, 0, ZoneId.of("UTC"));
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .occurrenceDate(start)
+            .expiryDate(start.plusWeeks(52))
+            .frequency("weekly")
+            .virtualRecurrences(true)
+            .build();
+
+    when(programParticipantRepository.findProgramCoachIds(1)).thenReturn(List.of(3));
+    when(programRepository.findProgramById(1)).thenReturn(mockProgram);
+    when(programRecurrenceRepository.findFirstByProgramIdAndOccurrenceDate(1, start.plusDays(1)))
+        .thenReturn(Optional.empty());
+
+    assertThrows(
+        com.sportganise.exceptions.ResourceNotFoundException.class,
+        () -> programService.materializeOccurrence(3, 1, start.plusDays(1)));
+    verify(programRecurrenceRepository, never()).save(any());
+  }
+
+  @Test
+  public void testCreateProgramParticipants_shouldMaterializeVirtualRecurrences() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 5, 15, 10, 0, 0, 0, ZoneId.of("UTC"));
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .occurrenceDate(start)
+            .expiryDate(start.plusWeeks(3))
+            .frequency("weekly")
+            .virtualRecurrences(true)
+            .build();
+
+    when(programRepository.findProgramById(1)).thenReturn(mockProgram);
+    when(programRecurrenceRepository.findProgramRecurrenceByProgramId(1))
+        .thenReturn(List.of(new ProgramRecurrence(1, start.plusWeeks(1), true)))
+        .thenReturn(List.of());
+
+    programService.createProgramParticipants(1, new Integer[] {}, "Subscribed", true);
+    verify(programRecurrenceBulkWriter, never()).insertRecurrences(any(), any(), anyBoolean());
+
+    programService.createProgramParticipants(1, new Integer[] {5}, "Subscribed", true);
+
+    verify(programRecurrenceBulkWriter, times(1))
+        .insertRecurrences(eq(1), argThat(dates -> dates.size() == 3), eq(false));
+    assertFalse(mockProgram.isVirtualRecurrences());
+    verify(programRepository, times(1)).save(mockProgram);
+    verify(programEnrollmentService, times(1))
+        .enroll(eq(1), eq(true), eq(new Integer[] {5}), eq("Subscribed"), eq(true));
+  }
+
+  @Test
+  public void testModifyProgramParticipants_shouldEnrollOneTimeProgramWithOneStatement() {
+    Program mockProgram = Program.builder().programId(1).frequency("once").build();
+    when(programRepository.findProgramById(1)).thenReturn(mockProgram);
+    when(programEnrollmentService.enroll(1, false, new Integer[] {5, 6}, "Waitlisted", false))
+        .thenReturn(new ProgramEnrollmentResultDto(1, 1));
+
+    ProgramEnrollmentResultDto result =
+        programService.modifyProgramParticipants(1, new Integer[] {5, 6}, "Waitlisted", false);
+
+    assertEquals(1, result.getInserted());
+    assertEquals(1, result.getSkipped());
+    verifyNoInteractions(programRecurrenceRepository, programRecurrenceBulkWriter);
+  }
+
+  @Test
+  void testModifyProgram_virtualRecurrencesOnlyTouchExceptions() throws IOException {
+    ZonedDateTime start = ZonedDateTime.of(2025, 5, 15, 10, 0, 0, 0, ZoneId.of("UTC"));
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .programType(ProgramType.TRAINING)
+            .title("First Program")
+            .occurrenceDate(start)
+            .expiryDate(start.plusYears(1))
+            .frequency("Daily")
+            .virtualRecurrences(true)
+            .build();
+    ProgramRecurrence keptException =
+        ProgramRecurrence.builder().recurrenceId(3).programId(1).occurrenceDate(start).build();
+    ProgramRecurrence droppedException =
+        ProgramRecurrence.builder()
+            .recurrenceId(4)
+            .programId(1)
+            .occurrenceDate(start.plusMonths(11))
+            .build();
+
+    when(programRepository.findById(1)).thenReturn(Optional.of(mockProgram));
+    when(programRecurrenceRepository.findProgramRecurrenceByProgramId(1))
+        .thenReturn(List.of(keptException, droppedException));
+
+    programService.modifyProgram(
+        new ProgramDto(mockProgram, Collections.emptyList()),
+        "First Program",
+        ProgramType.TRAINING,
+        "2025-05-15T10:00:00Z[UTC]",
+        "2025-12-31T11:00:00Z[UTC]",
+        "public",
+        "First Description",
+        10,
+        "10:00",
+        "11:00",
+        "Location 1",
+        Collections.emptyList(),
+        Collections.emptyList(),
+        1,
+        "daily",
+        null);
+
+    verify(programRecurrenceRepository, never()).save(any());
+    verify(programRecurrenceRepository).deleteProgramRecurrenceByRecurrenceId(4);
+    verify(programRecurrenceRepository, never()).deleteProgramRecurrenceByRecurrenceId(3);
+    assertTrue(mockProgram.isVirtualRecurrences());
+  }
+
+  @Test
+  void createProgramDto_shouldRejectScheduleOverlappingAnotherProgram() {
+    Account coach = Account.builder().accountId(2).firstName("John").lastName("Doe").build();
+    ScheduleConflictDto conflict =
+        new ScheduleConflictDto(
+            ConflictType.LOCATION,
+            ZonedDateTime.parse("2030-06-01T10:00:00Z"),
+            5,
+            7,
+            "Other Training",
+            "Gym",
+            null,
+            ZonedDateTime.parse("2030-06-01T09:30:00Z"),
+            60);
+    when(accountService.getAccountById(2)).thenReturn(coach);
+    when(scheduleConflictIndex.findConflicts(
+            isNull(), argThat(dates -> dates.size() == 3), eq(90), eq("Gym"), eq(List.of(2))))
+        .thenReturn(List.of(conflict));
+
+    ScheduleConflictException exception =
+        assertThrows(
+            ScheduleConflictException.class,
+            () ->
+                programService.createProgramDto(
+                    "Training",
+                    ProgramType.TRAINING,
+                    "2030-06-01T00:00:00Z",
+                    "2030-06-15T23:59:00Z",
+                    "public",
+                    "Weekly training",
+                    10,
+                    "10:00",
+                    "11:30",
+                    "Gym",
+                    null,
+                    2,
+                    "weekly",
+                    null,
+                    null,
+                    new Integer[] {2}));
+
+    assertEquals(List.of(conflict), exception.getConflicts());
+    verify(programRepository, never()).save(any());
+    verify(scheduleConflictIndex, never()).refresh(any());
+  }
+
+  @Test
+  void modifyProgram_shouldCheckConflictsWithoutTheOccurrencesOfTheProgram() throws IOException {
+    Program mockProgram =
+        Program.builder()
+            .programId(1)
+            .programType(ProgramType.TOURNAMENT)
+            .title("Tournament")
+            .occurrenceDate(ZonedDateTime.parse("2030-05-15T10:00:00Z[UTC]"))
+            .durationMins(120)
+            .location("Gym")
+            .build();
+    when(programRepository.findById(1)).thenReturn(Optional.of(mockProgram));
+    when(programRepository.save(mockProgram)).thenReturn(mockProgram);
+    when(scheduleConflictIndex.getCoachIds(1)).thenReturn(Set.of(3));
+
+    programService.modifyProgram(
+        new ProgramDto(mockProgram, Collections.emptyList()),
+        "Tournament",
+        ProgramType.TOURNAMENT,
+        "2030-05-16T00:00:00Z[UTC]",
+        null,
+        "public",
+        "Moved to the next day",
+        10,
+        "10:00",
+        "12:00",
+        "Field",
+        Collections.emptyList(),
+        Collections.emptyList(),
+        1,
+        "once",
+        null);
+
+    verify(scheduleConflictIndex)
+        .findConflicts(
+            1, List.of(ZonedDateTime.parse("2030-05-16T10:00:00Z[UTC]")), 120, "Field", Set.of(3));
+    verify(scheduleConflictIndex).refresh(1);
+    verify(postService).updateProgramPost(mockProgram);
+  }
 }
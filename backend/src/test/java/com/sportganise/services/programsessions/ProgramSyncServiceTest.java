@@ -0,0 +1,198 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramChangesDto;
+import com.sportganise.dto.programsessions.ProgramRecurrenceChangeDto;
+import com.sportganise.dto.programsessions.ProgramTombstoneDto;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.entities.programsessions.ProgramTombstone;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.ProgramTombstoneRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+public class ProgramSyncServiceTest {
+  @Mock private ProgramRepository programRepository;
+
+  @Mock private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  @Mock private ProgramTombstoneRepository programTombstoneRepository;
+
+  @Mock private ProgramCalendarAssembler programCalendarAssembler;
+
+  @InjectMocks private ProgramSyncService programSyncService;
+
+  private static Program program(Integer programId, long xid) {
+    return Program.builder()
+        .programId(programId)
+        .title("Program " + programId)
+        .cancelled(true)
+        .changeVersion(xid * 10)
+        .changeXid(xid)
+        .build();
+  }
+
+  private static ProgramRecurrence recurrence(Integer recurrenceId, long xid) {
+    return ProgramRecurrence.builder()
+        .recurrenceId(recurrenceId)
+        .programId(1)
+        .occurrenceDate(ZonedDateTime.parse("2025-01-01T18:00:00Z"))
+        .changeVersion(xid * 10)
+        .changeXid(xid)
+        .build();
+  }
+
+  private static ProgramTombstone tombstone(Integer entityId, long xid) {
+    return ProgramTombstone.builder()
+        .changeVersion(xid * 10)
+        .changeXid(xid)
+        .entityType(ProgramTombstone.RECURRENCE)
+        .entityId(entityId)
+        .programId(1)
+        .build();
+  }
+
+  @Test
+  void getChangesSince_shouldReturnTheOldestChangesAcrossTables() {
+    PageRequest pageable = PageRequest.of(0, 4);
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(0L);
+    when(programTombstoneRepository.findFinishedHorizon()).thenReturn(100L);
+    when(programRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(program(1, 11), program(2, 16)));
+    when(programRecurrenceRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(recurrence(5, 12), recurrence(6, 14)));
+    when(programTombstoneRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(tombstone(7, 13), tombstone(8, 15)));
+    when(programCalendarAssembler.getAttachmentsByProgramIds(List.of(1)))
+        .thenReturn(Map.of(1, List.of(new ProgramAttachmentDto(1, "/file.pdf"))));
+
+    ProgramChangesDto changes = programSyncService.getChangesSince(10, 3);
+
+    assertEquals(14, changes.getWatermark());
+    assertTrue(changes.isHasMore());
+    assertFalse(changes.isResyncRequired());
+    assertEquals(1, changes.getPrograms().size());
+    assertTrue(changes.getPrograms().getFirst().isCancelled());
+    assertEquals(1, changes.getPrograms().getFirst().getProgramAttachments().size());
+    assertEquals(
+        List.of(5),
+        changes.getRecurrences().stream()
+            .map(ProgramRecurrenceChangeDto::getRecurrenceId)
+            .toList());
+    assertEquals(
+        List.of(7),
+        changes.getTombstones().stream().map(ProgramTombstoneDto::getEntityId).toList());
+  }
+
+  @Test
+  void getChangesSince_shouldNotSplitTheChangesOfATransaction() {
+    PageRequest pageable = PageRequest.of(0, 3);
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(0L);
+    when(programTombstoneRepository.findFinishedHorizon()).thenReturn(100L);
+    when(programRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(program(1, 11), program(2, 12)));
+    when(programRecurrenceRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(recurrence(5, 12), recurrence(6, 12), recurrence(7, 12)));
+
+    ProgramChangesDto changes = programSyncService.getChangesSince(10, 2);
+
+    assertEquals(12, changes.getWatermark());
+    assertTrue(changes.isHasMore());
+    assertEquals(1, changes.getPrograms().size());
+    assertTrue(changes.getRecurrences().isEmpty());
+  }
+
+  @Test
+  void getChangesSince_shouldReturnATransactionLargerThanTheLimitWhole() {
+    PageRequest pageable = PageRequest.of(0, 3);
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(0L);
+    when(programTombstoneRepository.findFinishedHorizon()).thenReturn(100L);
+    when(programRecurrenceRepository.findChangedSince(10L, 100L, pageable))
+        .thenReturn(List.of(recurrence(5, 11), recurrence(6, 11), recurrence(7, 11)));
+    when(programTombstoneRepository.findChangedSince(10L, 100L, pageable)).thenReturn(List.of());
+    when(programRecurrenceRepository.findChangedSince(11L, 12L, Pageable.unpaged()))
+        .thenReturn(List.of(recurrence(5, 11), recurrence(6, 11), recurrence(7, 11)));
+    when(programTombstoneRepository.findChangedSince(11L, 12L, Pageable.unpaged()))
+        .thenReturn(List.of(tombstone(8, 11)));
+
+    ProgramChangesDto changes = programSyncService.getChangesSince(10, 2);
+
+    assertEquals(12, changes.getWatermark());
+    assertTrue(changes.isHasMore());
+    assertEquals(3, changes.getRecurrences().size());
+    assertEquals(1, changes.getTombstones().size());
+  }
+
+  @Test
+  void getChangesSince_shouldMoveTheWatermarkToTheFinishedHorizon() {
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(0L);
+    when(programTombstoneRepository.findFinishedHorizon()).thenReturn(50L);
+
+    ProgramChangesDto changes = programSyncService.getChangesSince(42, 100);
+
+    assertEquals(50, changes.getWatermark());
+    assertFalse(changes.isHasMore());
+    assertTrue(changes.getPrograms().isEmpty());
+    verify(programRepository).findChangedSince(42L, 50L, PageRequest.of(0, 101));
+  }
+
+  @Test
+  void getChangesSince_shouldKeepTheWatermarkWhenNothingChanged() {
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(0L);
+    when(programTombstoneRepository.findFinishedHorizon()).thenReturn(42L);
+
+    ProgramChangesDto changes = programSyncService.getChangesSince(42, 100);
+
+    assertEquals(42, changes.getWatermark());
+    assertFalse(changes.isHasMore());
+    assertTrue(changes.getPrograms().isEmpty());
+  }
+
+  @Test
+  void getChangesSince_shouldRequireResyncBehindPurgedTombstones() {
+    when(programTombstoneRepository.findSyncHorizon()).thenReturn(50L);
+
+    assertTrue(programSyncService.getChangesSince(50, 100).isResyncRequired());
+    ProgramChangesDto changes = programSyncService.getChangesSince(20, 100);
+
+    assertTrue(changes.isResyncRequired());
+    assertEquals(0, changes.getWatermark());
+    verifyNoInteractions(programRepository, programRecurrenceRepository);
+  }
+
+  @Test
+  void getChangesSince_shouldRejectInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> programSyncService.getChangesSince(-1, 10));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> programSyncService.getChangesSince(0, ProgramSyncService.MAX_LIMIT + 1));
+    verifyNoInteractions(programTombstoneRepository);
+  }
+
+  @Test
+  void purgeTombstones_shouldMoveTheHorizonBeforeDeleting() {
+    ZonedDateTime deletedBefore = ZonedDateTime.parse("2025-01-01T00:00:00Z");
+    when(programTombstoneRepository.deleteTombstonesBefore(deletedBefore)).thenReturn(3);
+
+    assertEquals(3, programSyncService.purgeTombstones(deletedBefore));
+
+    InOrder inOrder = inOrder(programTombstoneRepository);
+    inOrder.verify(programTombstoneRepository).advanceSyncHorizon(deletedBefore);
+    inOrder.verify(programTombstoneRepository).deleteTombstonesBefore(deletedBefore);
+  }
+}
@@ -0,0 +1,71 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sportganise.exceptions.programexceptions.InvalidFrequencyException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RecurrenceRuleTest {
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2025, 1, 31, 10, 0, 0, 0, ZoneId.of("UTC"));
+
+  @Test
+  void occurrences_shouldIncludeStartAndEnd() {
+    RecurrenceRule rule = new RecurrenceRule("weekly", START, START.plusWeeks(3));
+
+    List<ZonedDateTime> occurrences = rule.occurrences();
+
+    assertEquals(4, occurrences.size());
+    assertEquals(START, occurrences.getFirst());
+    assertEquals(START.plusWeeks(3), occurrences.getLast());
+  }
+
+  @Test
+  void occurrencesBetween_shouldOnlyExpandTheWindow() {
+    RecurrenceRule rule = new RecurrenceRule("daily", START, START.plusYears(5));
+
+    List<ZonedDateTime> occurrences =
+        rule.occurrencesBetween(START.plusYears(4), START.plusYears(4).plusDays(3));
+
+    assertEquals(
+        List.of(START.plusYears(4), START.plusYears(4).plusDays(1), START.plusYears(4).plusDays(2)),
+        occurrences);
+  }
+
+  @Test
+  void occurrencesBetween_shouldStepMonthlyLikeMaterializedRecurrences() {
+    RecurrenceRule rule = new RecurrenceRule("Monthly", START, START.plusMonths(3));
+
+    List<ZonedDateTime> occurrences = rule.occurrences();
+
+    // Jan 31 -> Feb 28 -> Mar 28 -> Apr 28, as createProgramRecurrences used to store them.
+    assertEquals(4, occurrences.size());
+    assertEquals(28, occurrences.get(2).getDayOfMonth());
+  }
+
+  @Test
+  void occursAt_shouldOnlyMatchOccurrences() {
+    RecurrenceRule rule = new RecurrenceRule("weekly", START, START.plusWeeks(10));
+
+    assertTrue(rule.occursAt(START.plusWeeks(5)));
+    assertFalse(rule.occursAt(START.plusWeeks(5).plusDays(1)));
+    assertFalse(rule.occursAt(START.plusWeeks(11)));
+  }
+
+  @Test
+  void constructor_shouldRejectUnknownFrequency() {
+    assertThrows(
+        InvalidFrequencyException.class,
+        () -> new RecurrenceRule("yearly", START, START.plusYears(1)));
+  }
+
+  @Test
+  void validateFrequency_shouldAcceptTheFrequenciesOfTheRule() {
+    assertDoesNotThrow(() -> RecurrenceRule.validateFrequency("Weekly"));
+    assertThrows(InvalidFrequencyException.class, () -> RecurrenceRule.validateFrequency(null));
+  }
+}
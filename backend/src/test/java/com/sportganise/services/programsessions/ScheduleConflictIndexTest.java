@@ -0,0 +1,165 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.dto.programsessions.ScheduleConflictDto;
+import com.sportganise.dto.programsessions.ScheduleConflictDto.ConflictType;
+import com.sportganise.entities.programsessions.Program;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
+import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.ScheduledSlotReader;
+import com.sportganise.repositories.programsessions.ScheduledSlotReader.ScheduledSlot;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleConflictIndexTest {
+  @Mock private ScheduledSlotReader scheduledSlotReader;
+
+  @Mock private ProgramRepository programRepository;
+
+  @Mock private ProgramRecurrenceRepository programRecurrenceRepository;
+
+  private ScheduleConflictIndex scheduleConflictIndex;
+
+  private static final ZonedDateTime NOW =
+      ZonedDateTime.of(2025, 5, 15, 8, 0, 0, 0, ZoneOffset.UTC);
+  private static final ZonedDateTime HORIZON = NOW.plusDays(30);
+
+  @BeforeEach
+  void setUp() {
+    Clock clock = Clock.fixed(Instant.parse("2025-05-15T08:00:00Z"), ZoneOffset.UTC);
+    scheduleConflictIndex =
+        new ScheduleConflictIndex(
+            scheduledSlotReader, programRepository, programRecurrenceRepository, 30, clock);
+  }
+
+  private static ZonedDateTime at(int day, int hour) {
+    return ZonedDateTime.of(2025, 5, day, hour, 0, 0, 0, ZoneOffset.UTC);
+  }
+
+  private static ScheduledSlot slot(
+      int programId, ZonedDateTime occurrenceDate, String location, List<Integer> coachIds) {
+    return new ScheduledSlot(
+        programId, programId * 10, "Program " + programId, location, occurrenceDate, 60, coachIds);
+  }
+
+  @Test
+  void findConflicts_shouldReportOverlapsAtTheSameLocationOrWithTheSameCoach() {
+    when(scheduledSlotReader.findSlots(NOW, HORIZON))
+        .thenReturn(
+            List.of(
+                slot(1, at(20, 18), "Main Gym", List.of(7)),
+                slot(2, at(20, 19), "Field", List.of(8)),
+                slot(3, at(21, 18), "Main Gym", List.of())));
+    when(programRepository.findVirtualRecurringProgramsInWindow(NOW, HORIZON))
+        .thenReturn(List.of());
+    scheduleConflictIndex.rebuild();
+
+    List<ScheduleConflictDto> conflicts =
+        scheduleConflictIndex.findConflicts(
+            null, List.of(at(20, 18).plusMinutes(30)), 90, " main gym ", List.of(8));
+
+    assertEquals(2, conflicts.size());
+    assertEquals(ConflictType.LOCATION, conflicts.get(0).getConflictType());
+    assertEquals(1, conflicts.get(0).getProgramId());
+    assertEquals(10, conflicts.get(0).getRecurrenceId());
+    assertEquals(ConflictType.COACH, conflicts.get(1).getConflictType());
+    assertEquals(2, conflicts.get(1).getProgramId());
+    assertEquals(8, conflicts.get(1).getCoachId());
+  }
+
+  @Test
+  void findConflicts_shouldLeaveOutTheProgramBeingModifiedAndDatesOutsideTheWindow() {
+    when(scheduledSlotReader.findSlots(NOW, HORIZON))
+        .thenReturn(List.of(slot(1, at(20, 18), "Gym", List.of(7))));
+    when(programRepository.findVirtualRecurringProgramsInWindow(NOW, HORIZON))
+        .thenReturn(List.of());
+    scheduleConflictIndex.rebuild();
+
+    assertTrue(
+        scheduleConflictIndex
+            .findConflicts(1, List.of(at(20, 18)), 60, "Gym", List.of(7))
+            .isEmpty());
+    assertTrue(
+        scheduleConflictIndex
+            .findConflicts(null, List.of(at(20, 18).plusDays(31)), 60, "Gym", List.of(7))
+            .isEmpty());
+    assertEquals(Set.of(7), scheduleConflictIndex.getCoachIds(1));
+  }
+
+  @Test
+  void rebuild_shouldExpandVirtualRecurrencesWithoutTheirExceptions() {
+    Program weekly =
+        Program.builder()
+            .programId(4)
+            .title("Weekly Training")
+            .location("Gym")
+            .occurrenceDate(at(1, 18))
+            .durationMins(60)
+            .expiryDate(at(31, 23))
+            .frequency("weekly")
+            .virtualRecurrences(true)
+            .build();
+    when(scheduledSlotReader.findSlots(NOW, HORIZON)).thenReturn(List.of());
+    when(programRepository.findVirtualRecurringProgramsInWindow(NOW, HORIZON))
+        .thenReturn(List.of(weekly));
+    // The occurrence of May 22 is cancelled
+    when(programRecurrenceRepository.findProgramRecurrencesInWindowByProgramIds(
+            List.of(4), NOW, HORIZON))
+        .thenReturn(List.of(new ProgramRecurrence(4, at(22, 18), true)));
+    scheduleConflictIndex.rebuild();
+
+    List<ZonedDateTime> planned = List.of(at(15, 18), at(22, 18), at(29, 18));
+    List<ScheduleConflictDto> conflicts =
+        scheduleConflictIndex.findConflicts(null, planned, 60, "Gym", List.of());
+
+    assertEquals(
+        List.of(at(15, 18), at(29, 18)),
+        conflicts.stream().map(ScheduleConflictDto::getOccurrenceDate).toList());
+    assertNull(conflicts.getFirst().getRecurrenceId());
+  }
+
+  @Test
+  void refresh_shouldReplaceTheOccurrencesOfTheProgram() {
+    when(scheduledSlotReader.findSlots(NOW, HORIZON))
+        .thenReturn(
+            List.of(slot(1, at(20, 18), "Gym", List.of(7)), slot(2, at(20, 18), "Gym", List.of())));
+    when(programRepository.findVirtualRecurringProgramsInWindow(NOW, HORIZON))
+        .thenReturn(List.of());
+    scheduleConflictIndex.rebuild();
+
+    // Program 1 moves to the field and changes coach
+    when(scheduledSlotReader.findSlots(1, NOW, HORIZON))
+        .thenReturn(List.of(slot(1, at(20, 18), "Field", List.of(9))));
+    scheduleConflictIndex.refresh(1);
+
+    List<ScheduleConflictDto> atGym =
+        scheduleConflictIndex.findConflicts(null, List.of(at(20, 18)), 60, "Gym", List.of(7));
+    assertEquals(List.of(2), atGym.stream().map(ScheduleConflictDto::getProgramId).toList());
+    List<ScheduleConflictDto> atField =
+        scheduleConflictIndex.findConflicts(null, List.of(at(20, 18)), 60, "Field", List.of(9));
+    assertEquals(2, atField.size());
+    assertEquals(Set.of(9), scheduleConflictIndex.getCoachIds(1));
+
+    // Program 2 is deleted
+    when(scheduledSlotReader.findSlots(2, NOW, HORIZON)).thenReturn(List.of());
+    scheduleConflictIndex.refresh(2);
+
+    assertTrue(
+        scheduleConflictIndex
+            .findConflicts(null, List.of(at(20, 18)), 60, "Gym", List.of())
+            .isEmpty());
+  }
+}
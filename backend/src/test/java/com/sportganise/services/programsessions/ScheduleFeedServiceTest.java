@@ -0,0 +1,106 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.repositories.programsessions.AccountScheduleReader;
+import com.sportganise.repositories.programsessions.AccountScheduleReader.ScheduledOccurrence;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleFeedServiceTest {
+  @Mock private AccountScheduleReader accountScheduleReader;
+
+  private ScheduleFeedService scheduleFeedService;
+
+  private static final ZonedDateTime FEED_START =
+      ZonedDateTime.of(2025, 4, 15, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @BeforeEach
+  void setUp() {
+    Clock clock = Clock.fixed(Instant.parse("2025-05-15T13:45:00Z"), ZoneOffset.UTC);
+    scheduleFeedService = new ScheduleFeedService(accountScheduleReader, clock);
+  }
+
+  @Test
+  void getFeedEtag_shouldWrapTheScheduleDigest() {
+    when(accountScheduleReader.fingerprint(1, FEED_START)).thenReturn("abc123");
+
+    assertEquals("W/\"abc123\"", scheduleFeedService.getFeedEtag(1));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void writeFeed_shouldStreamOneEventPerOccurrence() throws IOException {
+    doAnswer(
+            invocation -> {
+              Consumer<ScheduledOccurrence> consumer = invocation.getArgument(2);
+              consumer.accept(
+                  new ScheduledOccurrence(
+                      "recurrence-10",
+                      2,
+                      "Training, U14",
+                      "Bring water; cleats",
+                      "Gym",
+                      ZonedDateTime.of(2025, 5, 20, 18, 0, 0, 0, ZoneOffset.UTC),
+                      90,
+                      false));
+              consumer.accept(
+                  new ScheduledOccurrence(
+                      "recurrence-11",
+                      3,
+                      "Fundraiser",
+                      null,
+                      null,
+                      ZonedDateTime.of(2025, 5, 22, 12, 0, 0, 0, ZoneOffset.UTC),
+                      60,
+                      true));
+              return null;
+            })
+        .when(accountScheduleReader)
+        .streamOccurrences(eq(1), eq(FEED_START), any(Consumer.class));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    scheduleFeedService.writeFeed(1, outputStream);
+    String feed = outputStream.toString(StandardCharsets.UTF_8);
+
+    assertTrue(feed.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+    assertTrue(feed.endsWith("END:VCALENDAR\r\n"));
+    assertEquals(2, feed.split("BEGIN:VEVENT", -1).length - 1);
+    assertTrue(feed.contains("UID:recurrence-10@sportganise\r\n"));
+    assertTrue(feed.contains("DTSTAMP:20250515T134500Z\r\n"));
+    assertTrue(feed.contains("DTSTART:20250520T180000Z\r\nDTEND:20250520T193000Z\r\n"));
+    assertTrue(feed.contains("SUMMARY:Training\\, U14\r\n"));
+    assertTrue(feed.contains("DESCRIPTION:Bring water\\; cleats\r\n"));
+    assertTrue(feed.contains("UID:recurrence-11@sportganise\r\n"));
+    assertTrue(feed.contains("STATUS:CANCELLED\r\n"));
+  }
+
+  @Test
+  void writeLine_shouldFoldLinesLongerThan75Octets() throws IOException {
+    StringWriter writer = new StringWriter();
+
+    ScheduleFeedService.writeLine(writer, "DESCRIPTION:" + "é".repeat(40));
+
+    String[] lines = writer.toString().split("\r\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].getBytes(StandardCharsets.UTF_8).length <= 75);
+    assertTrue(lines[1].startsWith(" "));
+    assertEquals("DESCRIPTION:" + "é".repeat(40), lines[0] + lines[1].substring(1));
+  }
+}
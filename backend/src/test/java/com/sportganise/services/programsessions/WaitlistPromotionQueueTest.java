@@ -0,0 +1,45 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class WaitlistPromotionQueueTest {
+
+  @Test
+  void onSpotFreed_shouldQueueRecurrenceOnce() {
+    WaitlistPromotionQueue waitlistPromotionQueue = new WaitlistPromotionQueue(10);
+
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(1));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(2));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(1));
+
+    assertEquals(List.of(1, 2), waitlistPromotionQueue.drain(10));
+  }
+
+  @Test
+  void onSpotFreed_shouldDropEventsWhenFull() {
+    WaitlistPromotionQueue waitlistPromotionQueue = new WaitlistPromotionQueue(2);
+
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(1));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(2));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(3));
+
+    assertEquals(2, waitlistPromotionQueue.size());
+    assertEquals(List.of(1, 2), waitlistPromotionQueue.drain(10));
+  }
+
+  @Test
+  void drain_shouldTakeAtMostTheBatchAndAllowRequeuing() {
+    WaitlistPromotionQueue waitlistPromotionQueue = new WaitlistPromotionQueue(10);
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(1));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(2));
+
+    assertEquals(List.of(1), waitlistPromotionQueue.drain(1));
+    waitlistPromotionQueue.onSpotFreed(new WaitlistSpotFreedEvent(1));
+
+    assertEquals(List.of(2, 1), waitlistPromotionQueue.drain(10));
+    assertTrue(waitlistPromotionQueue.drain(10).isEmpty());
+  }
+}
@@ -0,0 +1,74 @@
+package com.sportganise.services.programsessions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.sportganise.repositories.programsessions.WaitlistPromoter;
+import com.sportganise.repositories.programsessions.WaitlistPromoter.Promotion;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistPromotionServiceTest {
+  @Mock private WaitlistPromotionQueue waitlistPromotionQueue;
+
+  @Mock private WaitlistPromoter waitlistPromoter;
+
+  @Mock private WaitlistNotificationDispatcher waitlistNotificationDispatcher;
+
+  @InjectMocks private WaitlistPromotionService waitlistPromotionService;
+
+  private static Promotion promotion(Integer recurrenceId, List<Integer> accountIds) {
+    return new Promotion(
+        recurrenceId, "Training", ZonedDateTime.parse("2025-01-01T18:00:00Z"), accountIds);
+  }
+
+  @Test
+  void promoteQueuedWaitlists_shouldPromoteEveryBatchAndNotifyPromotedParticipants() {
+    Promotion first = promotion(1, List.of(101, 102));
+    Promotion full = promotion(2, List.of());
+    Promotion second = promotion(3, List.of(103));
+    when(waitlistPromotionQueue.drain(WaitlistPromotionService.BATCH_SIZE))
+        .thenReturn(List.of(1, 2), List.of(3), List.of());
+    when(waitlistPromoter.promoteNext(1)).thenReturn(first);
+    when(waitlistPromoter.promoteNext(2)).thenReturn(full);
+    when(waitlistPromoter.promoteNext(3)).thenReturn(second);
+
+    int promoted = waitlistPromotionService.promoteQueuedWaitlists();
+
+    assertEquals(3, promoted);
+    verify(waitlistNotificationDispatcher).dispatch(first);
+    verify(waitlistNotificationDispatcher).dispatch(second);
+    verify(waitlistNotificationDispatcher, never()).dispatch(full);
+  }
+
+  @Test
+  void promoteQueuedWaitlists_shouldGoOnAfterAFailedRecurrence() {
+    Promotion promotion = promotion(2, List.of(101));
+    when(waitlistPromotionQueue.drain(WaitlistPromotionService.BATCH_SIZE))
+        .thenReturn(List.of(1, 2), List.of());
+    when(waitlistPromoter.promoteNext(1)).thenThrow(new QueryTimeoutException("timeout"));
+    when(waitlistPromoter.promoteNext(2)).thenReturn(promotion);
+
+    int promoted = waitlistPromotionService.promoteQueuedWaitlists();
+
+    assertEquals(1, promoted);
+    verify(waitlistNotificationDispatcher, times(1)).dispatch(any());
+  }
+
+  @Test
+  void promoteQueuedWaitlists_shouldDoNothingWhenQueueIsEmpty() {
+    when(waitlistPromotionQueue.drain(WaitlistPromotionService.BATCH_SIZE)).thenReturn(List.of());
+
+    assertEquals(0, waitlistPromotionService.promoteQueuedWaitlists());
+
+    verifyNoInteractions(waitlistPromoter, waitlistNotificationDispatcher);
+  }
+}
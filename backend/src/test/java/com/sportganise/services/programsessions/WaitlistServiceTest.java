@@ -5,33 +5,44 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.sportganise.dto.programsessions.AttendanceDto;
+import com.sportganise.dto.programsessions.ProgramAttachmentDto;
+import com.sportganise.dto.programsessions.ProgramDto;
 import com.sportganise.dto.programsessions.ProgramParticipantDto;
 import com.sportganise.entities.account.Account;
 import com.sportganise.entities.account.AccountType;
 import com.sportganise.entities.programsessions.Program;
 import com.sportganise.entities.programsessions.ProgramParticipant;
 import com.sportganise.entities.programsessions.ProgramParticipantId;
+import com.sportganise.entities.programsessions.ProgramRecurrence;
 import com.sportganise.entities.programsessions.ProgramType;
 import com.sportganise.exceptions.AccountNotFoundException;
 import com.sportganise.exceptions.ParticipantNotFoundException;
 import com.sportganise.exceptions.programexceptions.ProgramInvitationiException;
 import com.sportganise.exceptions.programexceptions.ProgramNotFoundException;
 import com.sportganise.repositories.AccountRepository;
+import com.sportganise.repositories.programsessions.EventRsvpWriter;
+import com.sportganise.repositories.programsessions.EventRsvpWriter.RsvpOutcome;
 import com.sportganise.repositories.programsessions.ProgramParticipantRepository;
+import com.sportganise.repositories.programsessions.ProgramRecurrenceRepository;
 import com.sportganise.repositories.programsessions.ProgramRepository;
+import com.sportganise.repositories.programsessions.RosterAttendanceWriter;
+import com.sportganise.repositories.programsessions.RosterAttendanceWriter.MarkedAttendance;
+import com.sportganise.repositories.programsessions.WaitlistQueue;
 import com.sportganise.services.EmailService;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 public class WaitlistServiceTest {
 
@@ -39,6 +50,12 @@ public class WaitlistServiceTest {
   @Mock private ProgramRepository programRepository;
   @Mock private AccountRepository accountRepository;
   @Mock private EmailService emailService;
+  @Mock private ProgramRecurrenceRepository recurrenceRepository;
+  @Mock private ProgramCalendarAssembler programCalendarAssembler;
+  @Mock private WaitlistQueue waitlistQueue;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private RosterAttendanceWriter rosterAttendanceWriter;
+  @Mock private EventRsvpWriter eventRsvpWriter;
 
   @InjectMocks private WaitlistService programParticipantService;
 
@@ -64,17 +81,17 @@ public class WaitlistServiceTest {
     Integer accountId = 200;
     ProgramParticipant mockParticipant = new ProgramParticipant();
     mockParticipant.setConfirmed(false);
-    mockParticipant.setRank(null);
+    mockParticipant.setOptInSeq(null);
 
-    when(participantRepository.findMaxRank(programId)).thenReturn(null);
+    when(waitlistQueue.optIn(programId, accountId)).thenReturn(1);
     when(participantRepository.findWaitlistParticipant(programId, accountId))
         .thenReturn(mockParticipant);
-    when(participantRepository.save(mockParticipant)).thenReturn(mockParticipant);
 
     Integer result = programParticipantService.optProgramParticipantDto(programId, accountId);
 
     assertEquals(1, result);
-    verify(participantRepository).save(mockParticipant);
+    verify(waitlistQueue).optIn(programId, accountId);
+    verify(participantRepository, never()).save(any());
   }
 
   @Test
@@ -100,13 +117,14 @@ public class WaitlistServiceTest {
 
     assertNull(result);
     verify(participantRepository, never()).save(any());
+    verifyNoInteractions(waitlistQueue);
   }
 
   @Test
   void whenParticipantHasExistingRank_returnNull() {
     ProgramParticipant rankedParticipant = new ProgramParticipant();
     rankedParticipant.setConfirmed(false);
-    rankedParticipant.setRank(5);
+    rankedParticipant.setOptInSeq(5L);
 
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
         .thenReturn(rankedParticipant);
@@ -121,11 +139,10 @@ public class WaitlistServiceTest {
   void whenMaxRankIs5_assignRank6() {
     ProgramParticipant participant = new ProgramParticipant();
     participant.setConfirmed(false);
-    participant.setRank(null);
+    participant.setOptInSeq(null);
 
-    when(participantRepository.findMaxRank(anyInt())).thenReturn(5);
+    when(waitlistQueue.optIn(1, 2)).thenReturn(6);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt())).thenReturn(participant);
-    when(participantRepository.save(participant)).thenReturn(participant);
 
     Integer result = programParticipantService.optProgramParticipantDto(1, 2);
 
@@ -133,25 +150,25 @@ public class WaitlistServiceTest {
   }
 
   @Test
-  void whenMaxRankAtIntegerMax_overflowHandling() {
+  void whenParticipantOptedInConcurrently_returnNull() {
     ProgramParticipant participant = new ProgramParticipant();
     participant.setConfirmed(false);
-    participant.setRank(null);
+    participant.setOptInSeq(null);
 
-    when(participantRepository.findMaxRank(anyInt())).thenReturn(Integer.MAX_VALUE);
+    // Another request opted the participant in after it was read
+    when(waitlistQueue.optIn(1, 2)).thenReturn(null);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt())).thenReturn(participant);
-    when(participantRepository.save(participant)).thenReturn(participant);
 
     Integer result = programParticipantService.optProgramParticipantDto(1, 2);
 
-    assertEquals(Integer.MIN_VALUE, result);
+    assertNull(result);
   }
 
   // ---- confirmParticipant Tests ----
 
   @Test
   void confirmParticipant_Success() throws Exception {
-    validParticipant.setRank(3);
+    validParticipant.setOptInSeq(3L);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
         .thenReturn(validParticipant);
     when(participantRepository.save(any())).thenReturn(validParticipant);
@@ -160,9 +177,9 @@ public class WaitlistServiceTest {
 
     assertTrue(validParticipant.isConfirmed());
     assertNotNull(validParticipant.getConfirmedDate());
-    assertNull(validParticipant.getRank());
-    verify(participantRepository).updateRanks(eq(1), eq(3));
+    assertNull(validParticipant.getOptInSeq());
     verify(participantRepository).save(validParticipant);
+    verifyNoInteractions(waitlistQueue);
     assertDtoMatchesParticipant(validParticipant, result);
   }
 
@@ -170,7 +187,7 @@ public class WaitlistServiceTest {
 
   @Test
   void optOutParticipant_Success() throws Exception {
-    validParticipant.setRank(3);
+    validParticipant.setOptInSeq(3L);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
         .thenReturn(validParticipant);
     when(participantRepository.save(any())).thenReturn(validParticipant);
@@ -179,12 +196,122 @@ public class WaitlistServiceTest {
         programParticipantService.optOutParticipant(
             validParticipant.getRecurrenceId(), validParticipant.getAccountId());
 
-    assertNull(validParticipant.getRank());
-    verify(participantRepository).updateRanks(eq(1), eq(3));
+    assertNull(validParticipant.getOptInSeq());
     verify(participantRepository).save(validParticipant);
+    verifyNoInteractions(waitlistQueue);
     assertDtoMatchesParticipant(validParticipant, result);
   }
 
+  @Test
+  void optOutParticipant_Confirmed_FreesSpot() throws Exception {
+    when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
+        .thenReturn(validParticipant);
+    when(participantRepository.save(any())).thenReturn(validParticipant);
+
+    programParticipantService.optOutParticipant(1, 2);
+
+    assertFalse(validParticipant.isConfirmed());
+    assertNull(validParticipant.getConfirmedDate());
+    verify(eventPublisher).publishEvent(new WaitlistSpotFreedEvent(1));
+  }
+
+  @Test
+  void optOutParticipant_NotConfirmed_DoesNotFreeSpot() throws Exception {
+    validParticipant.setConfirmed(false);
+    validParticipant.setConfirmedDate(null);
+    validParticipant.setOptInSeq(3L);
+    when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
+        .thenReturn(validParticipant);
+    when(participantRepository.save(any())).thenReturn(validParticipant);
+
+    programParticipantService.optOutParticipant(1, 2);
+
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  // ---- markAttendance Tests ----
+
+  @Test
+  void markAttendance_AppliesRosterAndFreesSpots() {
+    List<AttendanceDto> roster = List.of(new AttendanceDto(2, false), new AttendanceDto(3, true));
+    ProgramParticipantDto absent = new ProgramParticipantDto(2, 1, null, "Subscribed", false, null);
+    ProgramParticipantDto present =
+        new ProgramParticipantDto(3, 1, null, "Subscribed", true, ZonedDateTime.now());
+    when(rosterAttendanceWriter.markAttendance(1, roster))
+        .thenReturn(
+            List.of(new MarkedAttendance(absent, true), new MarkedAttendance(present, false)));
+
+    List<ProgramParticipantDto> result = programParticipantService.markAttendance(1, roster);
+
+    assertEquals(List.of(absent, present), result);
+    verify(eventPublisher).publishEvent(new WaitlistSpotFreedEvent(1));
+    verify(participantRepository, never()).save(any());
+  }
+
+  @Test
+  void markAttendance_NoOneMarkedAbsent_DoesNotFreeSpot() {
+    List<AttendanceDto> roster = List.of(new AttendanceDto(3, true));
+    ProgramParticipantDto present =
+        new ProgramParticipantDto(3, 1, null, "Subscribed", true, ZonedDateTime.now());
+    when(rosterAttendanceWriter.markAttendance(1, roster))
+        .thenReturn(List.of(new MarkedAttendance(present, true)));
+
+    programParticipantService.markAttendance(1, roster);
+
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  void markAttendance_UnknownAccount_ThrowsException() {
+    List<AttendanceDto> roster = List.of(new AttendanceDto(2, true), new AttendanceDto(9, true));
+    ProgramParticipantDto present =
+        new ProgramParticipantDto(2, 1, null, "Subscribed", true, ZonedDateTime.now());
+    when(rosterAttendanceWriter.markAttendance(1, roster))
+        .thenReturn(List.of(new MarkedAttendance(present, true)));
+
+    ParticipantNotFoundException exception =
+        assertThrows(
+            ParticipantNotFoundException.class,
+            () -> programParticipantService.markAttendance(1, roster));
+    assertEquals("Participants not found for program: 1, accounts: [9]", exception.getMessage());
+  }
+
+  @Test
+  void markAttendance_DuplicateAccount_ThrowsIllegalArgument() {
+    List<AttendanceDto> roster = List.of(new AttendanceDto(2, true), new AttendanceDto(2, false));
+
+    assertThrows(
+        IllegalArgumentException.class, () -> programParticipantService.markAttendance(1, roster));
+    verifyNoInteractions(rosterAttendanceWriter);
+  }
+
+  // ---- fetchParticipant Tests ----
+
+  @Test
+  void fetchParticipant_OptedIn_ReturnsRankInQueue() {
+    validParticipant.setConfirmed(false);
+    validParticipant.setConfirmedDate(null);
+    validParticipant.setOptInSeq(42L);
+    when(participantRepository.findById(new ProgramParticipantId(1, 2)))
+        .thenReturn(Optional.of(validParticipant));
+    when(participantRepository.findWaitlistRank(1, 2)).thenReturn(3);
+
+    ProgramParticipantDto result = programParticipantService.fetchParticipant(1, 2);
+
+    assertEquals(3, result.getRank());
+  }
+
+  @Test
+  void fetchParticipant_NotOptedIn_DoesNotReadRank() {
+    when(participantRepository.findById(new ProgramParticipantId(1, 2)))
+        .thenReturn(Optional.of(validParticipant));
+
+    ProgramParticipantDto result = programParticipantService.fetchParticipant(1, 2);
+
+    assertNull(result.getRank());
+    verify(participantRepository, never()).findWaitlistRank(anyInt(), anyInt());
+  }
+
   // ---- Common Error Cases ----
 
   @Test
@@ -207,26 +334,30 @@ public class WaitlistServiceTest {
 
   @Test
   void removeParticipant_WithHighestRank_UpdatesCorrectly() throws Exception {
-    validParticipant.setRank(1);
+    validParticipant.setOptInSeq(1L);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
         .thenReturn(validParticipant);
     when(participantRepository.save(any())).thenReturn(validParticipant);
 
     programParticipantService.optOutParticipant(1, 2);
 
-    verify(participantRepository).updateRanks(eq(1), eq(1));
+    // The participants behind are not renumbered, only the participant's own row is written
+    verify(participantRepository).save(validParticipant);
+    verify(participantRepository).findWaitlistParticipant(1, 2);
+    verifyNoMoreInteractions(participantRepository);
   }
 
   @Test
   void confirmParticipant_DoesNotUpdateRanksIfNoRank() throws Exception {
-    validParticipant.setRank(null);
+    validParticipant.setOptInSeq(null);
     when(participantRepository.findWaitlistParticipant(anyInt(), anyInt()))
         .thenReturn(validParticipant);
     when(participantRepository.save(any())).thenReturn(validParticipant);
 
     programParticipantService.confirmParticipant(1, 2);
 
-    verify(participantRepository, never()).updateRanks(anyInt(), anyInt());
+    verify(participantRepository).save(validParticipant);
+    verifyNoInteractions(waitlistQueue);
   }
 
   // ---- Helper Method ----
@@ -246,45 +377,44 @@ public class WaitlistServiceTest {
   @Test
   void allOptedParticipants_SingleParticipant_ReturnsDtoWithCorrectData() {
     Integer programId = 100;
-    ProgramParticipant participant = createSampleParticipant(programId, 200, 1, false);
+    ProgramParticipantDto participant = createSampleParticipant(programId, 200, 1, false);
     when(participantRepository.findOptedParticipants(programId)).thenReturn(List.of(participant));
 
     List<ProgramParticipantDto> result = programParticipantService.allOptedParticipants(programId);
 
     assertEquals(1, result.size());
-    ProgramParticipantDto dto = result.get(0);
-    assertDtoMatchesParticipant(participant, dto);
+    assertSame(participant, result.get(0));
   }
 
   @Test
   void allOptedParticipants_MultipleParticipants_ReturnsDtosInOrder() {
     Integer programId = 100;
-    List<ProgramParticipant> participants =
+    List<ProgramParticipantDto> participants =
         List.of(
             createSampleParticipant(programId, 200, 1, false),
-            createSampleParticipant(programId, 201, 2, true));
+            createSampleParticipant(programId, 201, 2, false));
     when(participantRepository.findOptedParticipants(programId)).thenReturn(participants);
 
     List<ProgramParticipantDto> result = programParticipantService.allOptedParticipants(programId);
 
     assertEquals(2, result.size());
     for (int i = 0; i < participants.size(); i++) {
-      assertDtoMatchesParticipant(participants.get(i), result.get(i));
+      assertEquals(i + 1, result.get(i).getRank());
     }
   }
 
   @Test
   void allOptedParticipants_EnsureDataMappingAccuracy() {
     Integer programId = 100;
-    ProgramParticipant participant = createSampleParticipant(programId, 200, 3, true);
+    ProgramParticipantDto participant = createSampleParticipant(programId, 200, 3, false);
     when(participantRepository.findOptedParticipants(programId)).thenReturn(List.of(participant));
 
     ProgramParticipantDto dto = programParticipantService.allOptedParticipants(programId).get(0);
 
-    assertEquals(participant.getRank(), dto.getRank());
-    assertEquals(participant.isConfirmed(), dto.isConfirmed());
-    assertEquals(participant.getProgramParticipantId().getAccountId(), dto.getAccountId());
-    assertEquals(participant.getProgramParticipantId().getRecurrenceId(), dto.getRecurrenceId());
+    assertEquals(3, dto.getRank());
+    assertFalse(dto.isConfirmed());
+    assertEquals(200, dto.getAccountId());
+    assertEquals(programId, dto.getRecurrenceId());
   }
 
   @Test
@@ -301,23 +431,16 @@ public class WaitlistServiceTest {
 
   // Helper Methods
 
-  private ProgramParticipant createSampleParticipant(
+  private ProgramParticipantDto createSampleParticipant(
       Integer programId, Integer accountId, Integer rank, boolean isConfirmed) {
-    ProgramParticipant participant = new ProgramParticipant();
-    ProgramParticipantId id = new ProgramParticipantId();
-    id.setRecurrenceId(programId);
-    id.setAccountId(accountId);
-    participant.setProgramParticipantId(id);
-    participant.setRank(rank);
-    participant.setConfirmed(isConfirmed);
-    return participant;
+    return new ProgramParticipantDto(accountId, programId, rank, "Waitlisted", isConfirmed, null);
   }
 
   private void assertDtoMatchesParticipant(
       ProgramParticipant participant, ProgramParticipantDto dto) {
     assertEquals(participant.getProgramParticipantId().getRecurrenceId(), dto.getRecurrenceId());
     assertEquals(participant.getProgramParticipantId().getAccountId(), dto.getAccountId());
-    assertEquals(participant.getRank(), dto.getRank());
+    assertNull(dto.getRank());
     assertEquals(participant.isConfirmed(), dto.isConfirmed());
     assertEquals(participant.getConfirmedDate(), dto.getConfirmedDate());
   }
@@ -335,7 +458,9 @@ public class WaitlistServiceTest {
     assertNotNull(result);
     assertFalse(result.isConfirmed());
     assertNull(result.getConfirmedDate());
+    assertTrue(validParticipant.isAbsent());
     verify(participantRepository).save(validParticipant);
+    verify(eventPublisher).publishEvent(new WaitlistSpotFreedEvent(programId));
   }
 
   @Test
@@ -368,6 +493,134 @@ public class WaitlistServiceTest {
     assertEquals("Database error", exception.getMessage());
   }
 
+  @Test
+  public void testMarkUnabsent_SpotLeft_ConfirmsParticipant() throws ParticipantNotFoundException {
+    when(eventRsvpWriter.markUnabsent(programId, accountId)).thenReturn(RsvpOutcome.CONFIRMED);
+    when(participantRepository.findById(new ProgramParticipantId(programId, accountId)))
+        .thenReturn(Optional.of(validParticipant));
+
+    ProgramParticipantDto result = programParticipantService.markUnabsent(programId, accountId);
+
+    assertTrue(result.isConfirmed());
+    assertNull(result.getRank());
+    verify(participantRepository, never()).save(any(ProgramParticipant.class));
+  }
+
+  @Test
+  public void testMarkUnabsent_SpotTaken_JoinsWaitlist() throws ParticipantNotFoundException {
+    ProgramParticipant waitlisted = new ProgramParticipant();
+    waitlisted.setProgramParticipantId(new ProgramParticipantId(programId, accountId));
+    waitlisted.setOptInSeq(42L);
+    when(eventRsvpWriter.markUnabsent(programId, accountId)).thenReturn(RsvpOutcome.WAITLISTED);
+    when(participantRepository.findById(new ProgramParticipantId(programId, accountId)))
+        .thenReturn(Optional.of(waitlisted));
+    when(participantRepository.findWaitlistRank(programId, accountId)).thenReturn(1);
+
+    ProgramParticipantDto result = programParticipantService.markUnabsent(programId, accountId);
+
+    assertFalse(result.isConfirmed());
+    assertEquals(1, result.getRank());
+    verify(participantRepository, never()).save(any(ProgramParticipant.class));
+  }
+
+  @Test
+  public void testMarkUnabsent_ParticipantNotFound() {
+    when(eventRsvpWriter.markUnabsent(programId, accountId)).thenReturn(null);
+
+    ParticipantNotFoundException exception =
+        assertThrows(
+            ParticipantNotFoundException.class,
+            () -> programParticipantService.markUnabsent(programId, accountId));
+    assertEquals("Participant not found for program: 1, account: 2", exception.getMessage());
+  }
+
+  @Test
+  public void getWaitlistPrograms_Admin_UsesOneQueryOverConfirmedCounts() {
+    Account admin = Account.builder().accountId(accountId).type(AccountType.ADMIN).build();
+    Program program =
+        Program.builder().programId(programId).programType(ProgramType.TRAINING).build();
+    ProgramRecurrence recurrence =
+        ProgramRecurrence.builder()
+            .recurrenceId(10)
+            .programId(programId)
+            .program(program)
+            .occurrenceDate(ZonedDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneId.of("UTC")))
+            .build();
+    when(accountRepository.findById(accountId)).thenReturn(Optional.of(admin));
+    when(recurrenceRepository.findOpenRecurrencesByProgramType("TRAINING"))
+        .thenReturn(List.of(recurrence));
+    when(programCalendarAssembler.getAttachmentsByProgramIds(List.of(programId)))
+        .thenReturn(Map.of(programId, List.of(new ProgramAttachmentDto(programId, "/a.pdf"))));
+
+    List<ProgramDto> result = programParticipantService.getWaitlistPrograms(accountId);
+
+    assertEquals(1, result.size());
+    assertEquals(10, result.getFirst().getRecurrenceId());
+    assertEquals(recurrence.getOccurrenceDate(), result.getFirst().getReccurenceDate());
+    assertEquals(1, result.getFirst().getProgramAttachments().size());
+    verify(participantRepository, never()).countConfirmedParticipants(anyInt());
+    verify(programRepository).findVirtualRecurringProgramsByProgramType("TRAINING");
+    verifyNoMoreInteractions(programRepository);
+  }
+
+  @Test
+  public void getWaitlistPrograms_Admin_MergesVirtualOccurrences() {
+    Account admin = Account.builder().accountId(accountId).type(AccountType.ADMIN).build();
+    ZonedDateTime start = ZonedDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneId.of("UTC"));
+    Program stored =
+        Program.builder().programId(programId).programType(ProgramType.TRAINING).build();
+    Program virtual =
+        Program.builder()
+            .programId(7)
+            .programType(ProgramType.TRAINING)
+            .frequency("weekly")
+            .virtualRecurrences(true)
+            .build();
+    ProgramRecurrence recurrence =
+        ProgramRecurrence.builder()
+            .recurrenceId(10)
+            .programId(programId)
+            .program(stored)
+            .occurrenceDate(start.plusDays(1))
+            .build();
+    ProgramRecurrence exception =
+        ProgramRecurrence.builder().recurrenceId(11).programId(7).occurrenceDate(start).build();
+    ProgramRecurrence occurrence =
+        ProgramRecurrence.builder()
+            .programId(7)
+            .program(virtual)
+            .occurrenceDate(start.plusWeeks(1))
+            .build();
+    when(accountRepository.findById(accountId)).thenReturn(Optional.of(admin));
+    when(recurrenceRepository.findOpenRecurrencesByProgramType("TRAINING"))
+        .thenReturn(List.of(recurrence));
+    when(programRepository.findVirtualRecurringProgramsByProgramType("TRAINING"))
+        .thenReturn(List.of(virtual));
+    when(recurrenceRepository.findProgramRecurrencesByProgramIds(List.of(7)))
+        .thenReturn(List.of(exception));
+    when(programCalendarAssembler.virtualOccurrences(virtual, List.of(exception), null, null))
+        .thenReturn(List.of(occurrence));
+
+    List<ProgramDto> result = programParticipantService.getWaitlistPrograms(accountId);
+
+    assertEquals(2, result.size());
+    assertEquals(10, result.get(0).getRecurrenceId());
+    assertEquals(7, result.get(1).getProgramId());
+    assertEquals(start.plusWeeks(1), result.get(1).getReccurenceDate());
+  }
+
+  @Test
+  public void getWaitlistPrograms_Player_OnlyCoachOrWaitlistedRecurrences() {
+    Account player = Account.builder().accountId(accountId).type(AccountType.PLAYER).build();
+    when(accountRepository.findById(accountId)).thenReturn(Optional.of(player));
+    when(recurrenceRepository.findOpenRecurrencesByParticipant(
+            accountId, List.of("Coach", "Waitlisted")))
+        .thenReturn(List.of());
+
+    assertTrue(programParticipantService.getWaitlistPrograms(accountId).isEmpty());
+    verify(recurrenceRepository, never()).findOpenRecurrencesByProgramType(anyString());
+  }
+
   @Nested
   class InviteToPrivateEvent {
     private Integer programId;
@@ -483,4 +736,97 @@ public class WaitlistServiceTest {
       verify(emailService).sendPrivateProgramInvitation(account.getEmail(), program);
     }
   }
+
+  private Program tournament() {
+    return Program.builder().programId(programId).programType(ProgramType.TOURNAMENT).build();
+  }
+
+  private final Integer eventRecurrenceId = 7;
+
+  @Test
+  void rsvpToEvent_SpotLeft_ConfirmsParticipant() {
+    when(programRepository.findById(programId)).thenReturn(Optional.of(tournament()));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(eventRsvpWriter.findOrAddEventRecurrence(programId)).thenReturn(eventRecurrenceId);
+    when(eventRsvpWriter.rsvp(eventRecurrenceId, accountId)).thenReturn(RsvpOutcome.CONFIRMED);
+    when(participantRepository.findById(new ProgramParticipantId(eventRecurrenceId, accountId)))
+        .thenReturn(Optional.of(validParticipant));
+
+    ProgramParticipantDto result = programParticipantService.rsvpToEvent(accountId, programId);
+
+    assertTrue(result.isConfirmed());
+    assertNull(result.getRank());
+  }
+
+  @Test
+  void rsvpToEvent_EventFull_JoinsWaitlist() {
+    ProgramParticipant waitlisted = new ProgramParticipant();
+    waitlisted.setProgramParticipantId(new ProgramParticipantId(eventRecurrenceId, accountId));
+    waitlisted.setType("Waitlisted");
+    waitlisted.setOptInSeq(42L);
+    when(programRepository.findById(programId)).thenReturn(Optional.of(tournament()));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(eventRsvpWriter.findOrAddEventRecurrence(programId)).thenReturn(eventRecurrenceId);
+    when(eventRsvpWriter.rsvp(eventRecurrenceId, accountId)).thenReturn(RsvpOutcome.WAITLISTED);
+    when(participantRepository.findById(new ProgramParticipantId(eventRecurrenceId, accountId)))
+        .thenReturn(Optional.of(waitlisted));
+    when(participantRepository.findWaitlistRank(eventRecurrenceId, accountId)).thenReturn(3);
+
+    ProgramParticipantDto result = programParticipantService.rsvpToEvent(accountId, programId);
+
+    assertFalse(result.isConfirmed());
+    assertEquals(3, result.getRank());
+  }
+
+  @Test
+  void rsvpToEvent_RsvpsToTheRecurrenceOfTheEvent() {
+    when(programRepository.findById(programId)).thenReturn(Optional.of(tournament()));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(eventRsvpWriter.findOrAddEventRecurrence(programId)).thenReturn(eventRecurrenceId);
+    when(eventRsvpWriter.rsvp(eventRecurrenceId, accountId)).thenReturn(RsvpOutcome.CONFIRMED);
+    when(participantRepository.findById(new ProgramParticipantId(eventRecurrenceId, accountId)))
+        .thenReturn(Optional.of(validParticipant));
+
+    programParticipantService.rsvpToEvent(accountId, programId);
+
+    InOrder inOrder = inOrder(eventRsvpWriter);
+    inOrder.verify(eventRsvpWriter).findOrAddEventRecurrence(programId);
+    inOrder.verify(eventRsvpWriter).rsvp(eventRecurrenceId, accountId);
+    verify(eventRsvpWriter, never()).rsvp(programId, accountId);
+  }
+
+  @Test
+  void rsvpToEvent_AlreadyConfirmed_ThrowsException() {
+    when(programRepository.findById(programId)).thenReturn(Optional.of(tournament()));
+    when(accountRepository.existsById(accountId)).thenReturn(true);
+    when(eventRsvpWriter.findOrAddEventRecurrence(programId)).thenReturn(eventRecurrenceId);
+    when(eventRsvpWriter.rsvp(eventRecurrenceId, accountId))
+        .thenReturn(RsvpOutcome.ALREADY_CONFIRMED);
+
+    assertThrows(
+        ProgramInvitationiException.class,
+        () -> programParticipantService.rsvpToEvent(accountId, programId));
+  }
+
+  @Test
+  void rsvpToEvent_UnknownAccount_ThrowsException() {
+    when(programRepository.findById(programId)).thenReturn(Optional.of(tournament()));
+    when(accountRepository.existsById(accountId)).thenReturn(false);
+
+    assertThrows(
+        AccountNotFoundException.class,
+        () -> programParticipantService.rsvpToEvent(accountId, programId));
+    verifyNoInteractions(eventRsvpWriter);
+  }
+
+  @Test
+  void rsvpToEvent_Training_ReturnsNull() {
+    when(programRepository.findById(programId))
+        .thenReturn(
+            Optional.of(
+                Program.builder().programId(programId).programType(ProgramType.TRAINING).build()));
+
+    assertNull(programParticipantService.rsvpToEvent(accountId, programId));
+    verifyNoInteractions(eventRsvpWriter);
+  }
 }
@@ -0,0 +1,54 @@
+-- Moves the participants of non-recurring programs onto the recurrence of their program.
+--
+-- Participants of non-recurring programs used to be stored under the program id as their
+-- recurrence id. They now belong to the recurrence of the program at its occurrence date, like
+-- RSVPs do. Databases created from init.sql after this change need no backfill; run this script
+-- once against a database created before it.
+--
+-- A legacy row is one whose recurrence id is the id of a non-recurring program while the
+-- recurrence with that id belongs to another program, and whose account takes part in no other
+-- recurrence of that program: a roster of a recurring program spans all of its recurrences.
+
+BEGIN;
+
+CREATE TEMPORARY TABLE legacy_participants ON COMMIT DROP AS
+	SELECT pp.recurrence_id AS program_id, pp.account_id
+	FROM program_participants pp
+	JOIN program p ON p.program_id = pp.recurrence_id
+	JOIN program_recurrence pr ON pr.recurrence_id = pp.recurrence_id
+	WHERE (p.frequency IS NULL OR LOWER(p.frequency) = 'once')
+	AND pr.program_id <> p.program_id
+	AND NOT EXISTS (
+		SELECT 1 FROM program_participants other
+		JOIN program_recurrence other_recurrence
+			ON other_recurrence.recurrence_id = other.recurrence_id
+		WHERE other.account_id = pp.account_id
+		AND other_recurrence.program_id = pr.program_id
+		AND other.recurrence_id <> pp.recurrence_id);
+
+-- The recurrence of each program at its occurrence date, as EventRsvpWriter adds it
+INSERT INTO program_recurrence (program_id, occurrence_date, cancelled)
+	SELECT p.program_id, p.occurence_date, COALESCE(p.cancelled, FALSE)
+	FROM program p
+	WHERE p.program_id IN (SELECT program_id FROM legacy_participants)
+	AND NOT EXISTS (
+		SELECT 1 FROM program_recurrence pr
+		WHERE pr.program_id = p.program_id AND pr.occurrence_date = p.occurence_date);
+
+INSERT INTO program_participants
+		(recurrence_id, account_id, type, opt_in_seq, is_confirmed, confirm_date, is_absent)
+	SELECT pr.recurrence_id, pp.account_id, pp.type, pp.opt_in_seq, pp.is_confirmed,
+		pp.confirm_date, pp.is_absent
+	FROM legacy_participants lp
+	JOIN program p ON p.program_id = lp.program_id
+	JOIN program_recurrence pr
+		ON pr.program_id = p.program_id AND pr.occurrence_date = p.occurence_date
+	JOIN program_participants pp
+		ON pp.recurrence_id = lp.program_id AND pp.account_id = lp.account_id
+	ON CONFLICT (recurrence_id, account_id) DO NOTHING;
+
+DELETE FROM program_participants pp
+	USING legacy_participants lp
+	WHERE pp.recurrence_id = lp.program_id AND pp.account_id = lp.account_id;
+
+COMMIT;
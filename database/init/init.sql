@@ -2,6 +2,9 @@
 
 GRANT ALL PRIVILEGES ON DATABASE sportganise TO sportganise;
 
+-- Trigram operator classes, for the indexes of text searches with ILIKE.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 CREATE TABLE organization(
 	org_id SERIAL PRIMARY KEY,
 	name VARCHAR(50) NOT NULL,
@@ -85,6 +88,11 @@ CREATE TYPE program_type as ENUM('TRAINING', 'SPECIALTRAINING', 'FUNDRAISER', 'T
 
 CREATE CAST (varchar AS program_type) WITH INOUT AS IMPLICIT; 	
 
+-- Change versions of programs, recurrences and tombstones, used by the delta sync. Each change
+-- also records the id of the transaction that made it: versions are taken before commit, so they
+-- are not seen in order, while every transaction below the xmin of a snapshot has finished.
+CREATE SEQUENCE program_change_version_seq;
+
 CREATE TABLE program (
 	program_id SERIAL PRIMARY KEY,
 	type program_type,
@@ -98,14 +106,38 @@ CREATE TABLE program (
 	frequency VARCHAR(10),
 	location VARCHAR(50),
     visibility VARCHAR(10),
-    cancelled BOOLEAN DEFAULT FALSE
+    cancelled BOOLEAN DEFAULT FALSE,
+    virtual_recurrences BOOLEAN NOT NULL DEFAULT FALSE,
+    deleted_at TIMESTAMPTZ,
+    version BIGINT NOT NULL DEFAULT nextval('program_change_version_seq'),
+    change_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE TABLE program_recurrence (
                                     recurrence_id SERIAL PRIMARY KEY,
                                     program_id INT REFERENCES program(program_id) ON DELETE CASCADE,
                                     occurrence_date TIMESTAMPTZ NOT NULL,
-                                    cancelled BOOLEAN DEFAULT FALSE);
+                                    cancelled BOOLEAN DEFAULT FALSE,
+                                    confirmed_count INTEGER NOT NULL DEFAULT 0,
+                                    version BIGINT NOT NULL DEFAULT nextval('program_change_version_seq'),
+                                    change_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+                                    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP);
+
+CREATE INDEX idx_program_recurrence_program_date ON program_recurrence(program_id, occurrence_date);
+CREATE INDEX idx_program_recurrence_date_id ON program_recurrence(occurrence_date, recurrence_id);
+CREATE INDEX idx_program_occurence_date ON program(occurence_date, program_id);
+CREATE INDEX idx_program_version ON program(version);
+CREATE INDEX idx_program_recurrence_version ON program_recurrence(version);
+CREATE INDEX idx_program_change_xid ON program(change_xid, version);
+CREATE INDEX idx_program_recurrence_change_xid ON program_recurrence(change_xid, version);
+CREATE INDEX idx_program_type ON program(type);
+CREATE INDEX idx_program_location ON program(LOWER(location));
+-- Programs marked deleted, waiting for the background purge.
+CREATE INDEX idx_program_deleted_at ON program(deleted_at) WHERE deleted_at IS NOT NULL;
+-- Program search matches its text anywhere in the title and description.
+CREATE INDEX idx_program_search_text ON program
+	USING GIN ((title || ' ' || COALESCE(description, '')) gin_trgm_ops);
 
 CREATE TABLE program_attachments (
 	program_id INTEGER NOT NULL REFERENCES program(program_id) ON DELETE CASCADE,
@@ -113,18 +145,253 @@ CREATE TABLE program_attachments (
     PRIMARY KEY (program_id, attachment_url)
 );
 
+CREATE TABLE program_tombstone (
+	version BIGINT PRIMARY KEY DEFAULT nextval('program_change_version_seq'),
+	change_xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+	entity_type VARCHAR(20) NOT NULL,
+	entity_id INTEGER NOT NULL,
+	program_id INTEGER NOT NULL,
+	deleted_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_program_tombstone_deleted_at ON program_tombstone(deleted_at);
+CREATE INDEX idx_program_tombstone_change_xid ON program_tombstone(change_xid, version);
+
+-- Highest transaction id of the tombstones purged so far. Clients that last synced before it may
+-- have missed deletions and must resync from scratch.
+CREATE TABLE program_sync_horizon (
+	id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+	change_xid BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO program_sync_horizon DEFAULT VALUES;
+
+-- Gives a row a new change version whenever one of its columns changes, whichever statement
+-- changed it.
+CREATE FUNCTION bump_program_change_version() RETURNS TRIGGER AS $$
+BEGIN
+	IF NEW IS NOT DISTINCT FROM OLD THEN
+		RETURN NEW;
+	END IF;
+	NEW.version := nextval('program_change_version_seq');
+	NEW.change_xid := pg_current_xact_id()::text::bigint;
+	NEW.updated_at := CURRENT_TIMESTAMP;
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER program_change_version BEFORE UPDATE ON program
+	FOR EACH ROW EXECUTE FUNCTION bump_program_change_version();
+
+CREATE TRIGGER program_recurrence_change_version BEFORE UPDATE ON program_recurrence
+	FOR EACH ROW EXECUTE FUNCTION bump_program_change_version();
+
+-- Attachments are part of the program details, so changing them changes the program.
+CREATE FUNCTION touch_program_of_attachment() RETURNS TRIGGER AS $$
+BEGIN
+	UPDATE program SET updated_at = CURRENT_TIMESTAMP
+	WHERE program_id = COALESCE(NEW.program_id, OLD.program_id);
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER program_attachments_change_version AFTER INSERT OR DELETE ON program_attachments
+	FOR EACH ROW EXECUTE FUNCTION touch_program_of_attachment();
+
+CREATE FUNCTION record_program_tombstone() RETURNS TRIGGER AS $$
+BEGIN
+	IF TG_TABLE_NAME = 'program' THEN
+		-- A program marked deleted got its tombstone then, not when it is purged.
+		IF TG_OP = 'DELETE' AND OLD.deleted_at IS NOT NULL THEN
+			RETURN NULL;
+		END IF;
+		INSERT INTO program_tombstone (entity_type, entity_id, program_id)
+		VALUES ('PROGRAM', OLD.program_id, OLD.program_id);
+	ELSE
+		-- The recurrences of a program marked deleted are gone with its tombstone.
+		IF EXISTS (SELECT 1 FROM program
+				WHERE program_id = OLD.program_id AND deleted_at IS NOT NULL) THEN
+			RETURN NULL;
+		END IF;
+		INSERT INTO program_tombstone (entity_type, entity_id, program_id)
+		VALUES ('RECURRENCE', OLD.recurrence_id, OLD.program_id);
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER program_tombstone AFTER DELETE ON program
+	FOR EACH ROW EXECUTE FUNCTION record_program_tombstone();
+
+-- Deleting a program only marks it deleted; its rows are purged later in the background.
+CREATE TRIGGER program_soft_delete_tombstone AFTER UPDATE OF deleted_at ON program
+	FOR EACH ROW WHEN (OLD.deleted_at IS NULL AND NEW.deleted_at IS NOT NULL)
+	EXECUTE FUNCTION record_program_tombstone();
+
+CREATE TRIGGER program_recurrence_tombstone AFTER DELETE ON program_recurrence
+	FOR EACH ROW EXECUTE FUNCTION record_program_tombstone();
+
 CREATE TABLE program_participants (
 	recurrence_id INTEGER NOT NULL REFERENCES program_recurrence(recurrence_id) ON DELETE CASCADE,
 	account_id INTEGER NOT NULL REFERENCES account(account_id) ON DELETE CASCADE,
 	type VARCHAR(20),
-	rank INTEGER, 
+	opt_in_seq BIGINT,
 	is_confirmed BOOLEAN DEFAULT FALSE,
 	confirm_date TIMESTAMPTZ,
+	is_absent BOOLEAN NOT NULL DEFAULT FALSE,
 	PRIMARY KEY (recurrence_id, account_id),
 	CONSTRAINT check_confirmation
-CHECK (( is_confirmed = TRUE AND confirm_date IS NOT NULL) OR (is_confirmed = FALSE AND confirm_date IS NULL))
+CHECK (( is_confirmed = TRUE AND confirm_date IS NOT NULL) OR (is_confirmed = FALSE AND confirm_date IS NULL)),
+	CONSTRAINT check_attendance CHECK (NOT (is_confirmed AND is_absent))
+);
+
+-- Waitlisted participants are queued in the order they opted in. Their sequence number never
+-- changes, so leaving the queue or being confirmed only clears the participant's own row.
+CREATE SEQUENCE waitlist_opt_in_seq;
+
+CREATE INDEX idx_program_participants_waitlist ON program_participants(recurrence_id, opt_in_seq)
+	WHERE opt_in_seq IS NOT NULL AND is_confirmed = FALSE;
+
+-- Programs of an account, for its schedule. The primary key only serves lookups by recurrence.
+CREATE INDEX idx_program_participants_account ON program_participants(account_id, recurrence_id);
+
+-- Position of each waitlisted participant in the queue of its recurrence, computed when read.
+CREATE VIEW waitlist_position AS
+	SELECT recurrence_id, account_id,
+		CAST(ROW_NUMBER() OVER (PARTITION BY recurrence_id ORDER BY opt_in_seq) AS INTEGER) AS rank
+	FROM program_participants
+	WHERE opt_in_seq IS NOT NULL AND is_confirmed = FALSE;
+
+-- Keeps program_recurrence.confirmed_count equal to the number of confirmed participants of the
+-- recurrence, whichever statement confirms, unconfirms, adds or removes them.
+CREATE FUNCTION maintain_recurrence_confirmed_count() RETURNS TRIGGER AS $$
+BEGIN
+	IF TG_OP = 'UPDATE'
+		AND OLD.recurrence_id = NEW.recurrence_id
+		AND COALESCE(OLD.is_confirmed, FALSE) = COALESCE(NEW.is_confirmed, FALSE) THEN
+		RETURN NULL;
+	END IF;
+	IF TG_OP IN ('UPDATE', 'DELETE') AND COALESCE(OLD.is_confirmed, FALSE) THEN
+		UPDATE program_recurrence SET confirmed_count = confirmed_count - 1
+		WHERE recurrence_id = OLD.recurrence_id;
+	END IF;
+	IF TG_OP IN ('INSERT', 'UPDATE') AND COALESCE(NEW.is_confirmed, FALSE) THEN
+		UPDATE program_recurrence SET confirmed_count = confirmed_count + 1
+		WHERE recurrence_id = NEW.recurrence_id;
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER program_participants_confirmed_count
+	AFTER INSERT OR UPDATE OR DELETE ON program_participants
+	FOR EACH ROW EXECUTE FUNCTION maintain_recurrence_confirmed_count();
+
+-- Monthly attendance of each account and each program, in the month of the recurrences. The
+-- rollups are kept up to date by the triggers below, whichever statement confirms, marks absent,
+-- adds or removes participants, so statistics are read without scanning the participants. The
+-- attendance of a deleted recurrence stays in the rollups.
+CREATE TABLE account_attendance_rollup (
+	account_id INTEGER NOT NULL REFERENCES account(account_id) ON DELETE CASCADE,
+	month DATE NOT NULL,
+	confirmed_count INTEGER NOT NULL DEFAULT 0,
+	absent_count INTEGER NOT NULL DEFAULT 0,
+	PRIMARY KEY (account_id, month)
+);
+
+CREATE TABLE program_attendance_rollup (
+	program_id INTEGER NOT NULL REFERENCES program(program_id) ON DELETE CASCADE,
+	month DATE NOT NULL,
+	confirmed_count INTEGER NOT NULL DEFAULT 0,
+	absent_count INTEGER NOT NULL DEFAULT 0,
+	PRIMARY KEY (program_id, month)
 );
 
+CREATE TYPE attendance_change AS (
+	recurrence_id INTEGER,
+	account_id INTEGER,
+	confirmed INTEGER,
+	absent INTEGER
+);
+
+CREATE FUNCTION attendance_of(
+	recurrence_id INTEGER, account_id INTEGER, is_confirmed BOOLEAN, is_absent BOOLEAN,
+	weight INTEGER) RETURNS attendance_change AS $$
+	SELECT CAST(ROW(recurrence_id, account_id,
+		weight * CAST(COALESCE(is_confirmed, FALSE) AS INTEGER),
+		weight * CAST(COALESCE(is_absent, FALSE) AS INTEGER)) AS attendance_change);
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Adds attendance changes to the rollups of the month of their recurrence, one row per account
+-- and per program whatever the number of changed participants. Rows are upserted in key order,
+-- so concurrent statements lock them in the same order.
+CREATE FUNCTION apply_attendance_changes(changes attendance_change[]) RETURNS VOID AS $$
+	WITH located AS (
+		SELECT c.account_id, pr.program_id,
+			CAST(date_trunc('month', pr.occurrence_date AT TIME ZONE 'UTC') AS DATE) AS month,
+			SUM(c.confirmed) AS confirmed, SUM(c.absent) AS absent
+		FROM unnest(changes) c
+		JOIN program_recurrence pr ON pr.recurrence_id = c.recurrence_id
+		GROUP BY c.account_id, pr.program_id, 3
+		HAVING SUM(c.confirmed) <> 0 OR SUM(c.absent) <> 0),
+	by_account AS (
+		INSERT INTO account_attendance_rollup AS rollup
+			(account_id, month, confirmed_count, absent_count)
+		SELECT located.account_id, located.month, SUM(located.confirmed), SUM(located.absent)
+		FROM located
+		JOIN account ON account.account_id = located.account_id
+		GROUP BY located.account_id, located.month
+		ORDER BY located.account_id, located.month
+		ON CONFLICT (account_id, month) DO UPDATE
+		SET confirmed_count = rollup.confirmed_count + EXCLUDED.confirmed_count,
+			absent_count = rollup.absent_count + EXCLUDED.absent_count)
+	INSERT INTO program_attendance_rollup AS rollup
+		(program_id, month, confirmed_count, absent_count)
+	SELECT program_id, month, SUM(confirmed), SUM(absent)
+	FROM located
+	GROUP BY program_id, month
+	ORDER BY program_id, month
+	ON CONFLICT (program_id, month) DO UPDATE
+	SET confirmed_count = rollup.confirmed_count + EXCLUDED.confirmed_count,
+		absent_count = rollup.absent_count + EXCLUDED.absent_count;
+$$ LANGUAGE sql;
+
+-- Rolls up the attendance of the participants written by a statement, as the difference between
+-- their new and old state.
+CREATE FUNCTION maintain_attendance_rollups() RETURNS TRIGGER AS $$
+BEGIN
+	IF TG_OP = 'INSERT' THEN
+		PERFORM apply_attendance_changes(ARRAY(
+			SELECT attendance_of(recurrence_id, account_id, is_confirmed, is_absent, 1)
+			FROM new_rows));
+	ELSIF TG_OP = 'UPDATE' THEN
+		PERFORM apply_attendance_changes(ARRAY(
+			SELECT attendance_of(recurrence_id, account_id, is_confirmed, is_absent, 1)
+			FROM new_rows
+			UNION ALL
+			SELECT attendance_of(recurrence_id, account_id, is_confirmed, is_absent, -1)
+			FROM old_rows));
+	ELSE
+		PERFORM apply_attendance_changes(ARRAY(
+			SELECT attendance_of(recurrence_id, account_id, is_confirmed, is_absent, -1)
+			FROM old_rows));
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER program_participants_attendance_insert
+	AFTER INSERT ON program_participants REFERENCING NEW TABLE AS new_rows
+	FOR EACH STATEMENT EXECUTE FUNCTION maintain_attendance_rollups();
+
+CREATE TRIGGER program_participants_attendance_update
+	AFTER UPDATE ON program_participants REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+	FOR EACH STATEMENT EXECUTE FUNCTION maintain_attendance_rollups();
+
+CREATE TRIGGER program_participants_attendance_delete
+	AFTER DELETE ON program_participants REFERENCING OLD TABLE AS old_rows
+	FOR EACH STATEMENT EXECUTE FUNCTION maintain_attendance_rollups();
+
 CREATE TABLE label_program (
 	label_id INTEGER NOT NULL REFERENCES label(label_id),
 	program_id INTEGER NOT NULL REFERENCES program(program_id),
@@ -172,7 +439,7 @@ CREATE TABLE message_blob (
 ALTER TABLE channel
 ADD last_message_id INTEGER REFERENCES message(message_id);
 
-CREATE INDEX idx_dm_message_channel_time ON message(channel_id, sent_at);
+CREATE INDEX idx_dm_message_channel_time ON message(channel_id, sent_at, message_id);
 
 CREATE TABLE delete_channel_request (
     delete_request_id SERIAL PRIMARY KEY,
@@ -200,9 +467,13 @@ CREATE TABLE post(
     metadata JSON ,
     type VARCHAR(20) CHECK (type IN ('TRAINING', 'FUNDRAISER', 'TOURNAMENT','SPECIAL')),
     occurrence_date TIMESTAMPTZ,
+    program_id INTEGER REFERENCES program(program_id) ON DELETE CASCADE,
+    cancelled BOOLEAN DEFAULT FALSE NOT NULL,
     creation_date TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL
 );
 
+CREATE INDEX idx_post_program ON post(program_id);
+
 CREATE TABLE post_label(
     post_id INTEGER NOT NULL REFERENCES post(post_id) ON DELETE CASCADE,
     label_id INTEGER NOT NULL REFERENCES label(label_id) ON DELETE CASCADE,